@@ -0,0 +1,271 @@
+package tech.ada.banco.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tech.ada.banco.ledger.LedgerEmMemoria;
+import tech.ada.banco.model.Dinheiro;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Carga HTTP concorrente de depósitos, saques e pix contra a aplicação numa porta aleatória, com um
+ * banco próprio. No fim relata vazão e percentis de latência por operação e verifica que o dinheiro
+ * foi conservado: a soma dos saldos é a inicial mais os depósitos menos os saques aceitos (os pix só
+ * movem dinheiro), nenhum saldo ficou negativo, nem nas respostas nem nas tabelas, e a conciliação
+ * não encontra divergências.
+ *
+ * <p>{@code mvn -Pcarga test [-Dcarga.clientes=64 -Dcarga.duracao-s=15 -Dcarga.contas=100
+ * -Dcarga.mix=40,30,30 -Dbanco.saldo.motor=grupo]}: o mix é o percentual de depósitos, saques e pix,
+ * e qualquer {@code banco.*} passado assim vale para a aplicação.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:carga;Mode=Oracle", "logging.level.tech.ada.banco=WARN",
+                "logging.level.tech.ada.banco.carga=INFO"})
+@Slf4j
+class ConservacaoSobCargaTest {
+
+    private static final int CLIENTES = Integer.getInteger("carga.clientes", 64);
+    private static final int DURACAO_S = Integer.getInteger("carga.duracao-s", 15);
+    private static final int CONTAS = Integer.getInteger("carga.contas", 100);
+    private static final long SALDO_INICIAL = Long.getLong("carga.saldo-inicial-centavos", 100_000);
+    private static final long VALOR_MAXIMO = Long.getLong("carga.valor-maximo-centavos", 5_000);
+    private static final int[] MIX = Arrays.stream(System.getProperty("carga.mix", "40,30,30").split(","))
+            .mapToInt(percentual -> Integer.parseInt(percentual.trim()))
+            .toArray();
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ObjectProvider<LedgerEmMemoria> ledger;
+
+    private HttpClient cliente;
+
+    @Test
+    void testeDinheiroConservadoSobCarga() throws Exception {
+        cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        int[] contas = criarContas();
+
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTES);
+        long inicio = System.nanoTime();
+        long fim = inicio + TimeUnit.SECONDS.toNanos(DURACAO_S);
+        List<Future<Cliente>> clientes = new ArrayList<>();
+        for (int i = 0; i < CLIENTES; i++) {
+            clientes.add(executor.submit(() -> new Cliente().executar(contas, fim)));
+        }
+        Cliente total = new Cliente();
+        for (Future<Cliente> resultado : clientes) {
+            total.somar(resultado.get());
+        }
+        long nanos = System.nanoTime() - inicio;
+        executor.shutdown();
+        relatar(total, nanos);
+
+        ledger.ifAvailable(LedgerEmMemoria::gravarPendentes);
+        long saldoFinal = Dinheiro.centavos(jdbc.queryForObject("select coalesce(sum(SALDO), 0) from CONTA",
+                BigDecimal.class)) + Dinheiro.centavos(jdbc.queryForObject(
+                "select coalesce(sum(SALDO), 0) from SUBSALDO", BigDecimal.class));
+        Integer negativos = jdbc.queryForObject("select count(*) from CONTA c where c.SALDO + (select "
+                + "coalesce(sum(p.SALDO), 0) from SUBSALDO p where p.NUMERO_CONTA = c.NUMERO_CONTA) < 0",
+                Integer.class);
+
+        assertEquals(0, total.erros, "requisições sem resposta ou com erro do servidor");
+        assertEquals(0, total.saldosNegativos, "respostas com saldo negativo");
+        assertEquals(0, negativos, "contas com saldo negativo");
+        assertEquals(CONTAS * SALDO_INICIAL + total.depositado - total.sacado, saldoFinal,
+                "soma dos saldos diferente da inicial mais depósitos menos saques");
+        assertTrue(total.aceitas[Operacao.PIX.ordinal()] > 0, "nenhum pix aceito");
+        assertEquals(0, divergenciasNaConciliacao(), "contas divergentes na conciliação");
+    }
+
+    private int[] criarContas() throws Exception {
+        int[] contas = new int[CONTAS];
+        for (int i = 0; i < CONTAS; i++) {
+            JsonNode conta = objectMapper.readTree(enviar("/contas?modalidade=CC").body());
+            contas[i] = conta.get("numeroConta").asInt();
+            HttpResponse<String> deposito =
+                    enviar("/deposito/" + contas[i] + "?valor=" + Dinheiro.reais(SALDO_INICIAL));
+            assertEquals(200, deposito.statusCode());
+        }
+        return contas;
+    }
+
+    private long divergenciasNaConciliacao() throws Exception {
+        String[] linhas = enviar("/conciliacao").body().split("\n");
+        return objectMapper.readTree(linhas[linhas.length - 1]).get("divergencias").asLong();
+    }
+
+    private HttpResponse<String> enviar(String caminho) throws Exception {
+        return cliente.send(requisicao(caminho), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest requisicao(String caminho) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + porta + caminho))
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private static void relatar(Cliente total, long nanos) {
+        double segundos = nanos / 1e9;
+        StringBuilder relatorio = new StringBuilder(String.format(Locale.ROOT,
+                "%nCarga: %d clientes, %d contas, mix %s, %.1f s%n", CLIENTES, CONTAS, Arrays.toString(MIX), segundos));
+        relatorio.append(String.format(Locale.ROOT, "%-9s %9s %9s %9s %9s %9s %9s %9s %9s%n", "operacao",
+                "total", "aceitas", "recusadas", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        long requisicoes = 0;
+        for (Operacao operacao : Operacao.values()) {
+            long[] latencias = total.latencias(operacao);
+            requisicoes += latencias.length;
+            relatorio.append(String.format(Locale.ROOT, "%-9s %9d %9d %9d %9.0f %9.2f %9.2f %9.2f %9.2f%n",
+                    operacao, latencias.length, total.aceitas[operacao.ordinal()],
+                    total.recusadas[operacao.ordinal()], latencias.length / segundos, percentil(latencias, 0.50),
+                    percentil(latencias, 0.90), percentil(latencias, 0.99), percentil(latencias, 1.0)));
+        }
+        relatorio.append(String.format(Locale.ROOT, "%-9s %9d %9s %9s %9.0f%n", "total", requisicoes, "", "",
+                requisicoes / segundos));
+        log.info("{}", relatorio);
+    }
+
+    private static double percentil(long[] ordenadas, double quantil) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(quantil * ordenadas.length) - 1;
+        return ordenadas[Math.max(indice, 0)] / 1e6;
+    }
+
+    private enum Operacao {
+        DEPOSITO, SAQUE, PIX
+    }
+
+    /**
+     * Um cliente que envia uma requisição por vez até o fim da carga, e depois os totais somados.
+     */
+    private final class Cliente {
+
+        private final long[][] latencias = new long[Operacao.values().length][1024];
+        private final int[] quantidades = new int[Operacao.values().length];
+        private final long[] aceitas = new long[Operacao.values().length];
+        private final long[] recusadas = new long[Operacao.values().length];
+        private long depositado;
+        private long sacado;
+        private long erros;
+        private long saldosNegativos;
+
+        Cliente executar(int[] contas, long fim) {
+            ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+            while (System.nanoTime() < fim) {
+                Operacao operacao = sortear(aleatorio.nextInt(100));
+                int conta = contas[aleatorio.nextInt(contas.length)];
+                long centavos = 1 + aleatorio.nextLong(VALOR_MAXIMO);
+                String valor = "?valor=" + Dinheiro.reais(centavos);
+                String caminho = switch (operacao) {
+                    case DEPOSITO -> "/deposito/" + conta + valor;
+                    case SAQUE -> "/saque/" + conta + valor;
+                    case PIX -> "/pix/" + conta + valor + "&destino=" + outraConta(contas, conta, aleatorio);
+                };
+
+                long inicio = System.nanoTime();
+                HttpResponse<String> resposta;
+                try {
+                    resposta = cliente.send(requisicao(caminho), HttpResponse.BodyHandlers.ofString());
+                } catch (Exception e) {
+                    erros++;
+                    continue;
+                }
+                registrar(operacao, System.nanoTime() - inicio);
+                if (resposta.statusCode() == 200) {
+                    aceitas[operacao.ordinal()]++;
+                    if (new BigDecimal(resposta.body()).signum() < 0) {
+                        saldosNegativos++;
+                    }
+                    if (operacao == Operacao.DEPOSITO) {
+                        depositado += centavos;
+                    } else if (operacao == Operacao.SAQUE) {
+                        sacado += centavos;
+                    }
+                } else if (resposta.statusCode() >= 500 && resposta.statusCode() != 503) {
+                    erros++;
+                } else {
+                    // saldo insuficiente, conflito ou serviço sobrecarregado: nada mudou
+                    recusadas[operacao.ordinal()]++;
+                }
+            }
+            return this;
+        }
+
+        private static Operacao sortear(int sorteio) {
+            if (sorteio < MIX[0]) {
+                return Operacao.DEPOSITO;
+            }
+            return sorteio < MIX[0] + MIX[1] ? Operacao.SAQUE : Operacao.PIX;
+        }
+
+        private static int outraConta(int[] contas, int conta, ThreadLocalRandom aleatorio) {
+            int destino;
+            do {
+                destino = contas[aleatorio.nextInt(contas.length)];
+            } while (destino == conta && contas.length > 1);
+            return destino;
+        }
+
+        private void registrar(Operacao operacao, long nanos) {
+            int i = operacao.ordinal();
+            if (quantidades[i] == latencias[i].length) {
+                latencias[i] = Arrays.copyOf(latencias[i], latencias[i].length * 2);
+            }
+            latencias[i][quantidades[i]++] = nanos;
+        }
+
+        long[] latencias(Operacao operacao) {
+            long[] ordenadas = Arrays.copyOf(latencias[operacao.ordinal()], quantidades[operacao.ordinal()]);
+            Arrays.sort(ordenadas);
+            return ordenadas;
+        }
+
+        void somar(Cliente outro) {
+            for (Operacao operacao : Operacao.values()) {
+                long[] deOutro = outro.latencias[operacao.ordinal()];
+                for (int j = 0; j < outro.quantidades[operacao.ordinal()]; j++) {
+                    registrar(operacao, deOutro[j]);
+                }
+                aceitas[operacao.ordinal()] += outro.aceitas[operacao.ordinal()];
+                recusadas[operacao.ordinal()] += outro.recusadas[operacao.ordinal()];
+            }
+            depositado += outro.depositado;
+            sacado += outro.sacado;
+            erros += outro.erros;
+            saldosNegativos += outro.saldosNegativos;
+        }
+    }
+}
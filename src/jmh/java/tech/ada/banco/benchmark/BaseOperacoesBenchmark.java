@@ -0,0 +1,162 @@
+package tech.ada.banco.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tech.ada.banco.services.Deposito;
+import tech.ada.banco.services.Pix;
+import tech.ada.banco.services.Saque;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cenários comuns aos benchmarks de {@link Deposito}, {@link Saque} e {@link Pix}: uma thread,
+ * várias threads na mesma conta (contenção) e várias threads em contas disjuntas.
+ * As subclasses decidem de onde vem o {@code ContaRepository}.
+ *
+ * <p>Nos cenários concorrentes o score conta todas as chamadas; as que terminaram e as que falharam
+ * aparecem separadas nos contadores {@code concluidas} e {@code falhas} (modo Throughput), e só
+ * {@code concluidas} mede a vazão de operações feitas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class BaseOperacoesBenchmark {
+
+    static final int THREADS_CONCORRENTES = 4;
+    private static final int MAX_THREADS = 64;
+    private static final BigDecimal SALDO_INICIAL = BigDecimal.valueOf(1_000_000_000L);
+    private static final BigDecimal VALOR = new BigDecimal("0.01");
+
+    protected Deposito deposito;
+    protected Saque saque;
+    protected Pix pix;
+
+    protected int contaCompartilhada;
+    private int destinoCompartilhado;
+    private final int[] contasDisjuntas = new int[MAX_THREADS];
+    private final int[] destinosDisjuntos = new int[MAX_THREADS];
+
+    /**
+     * Cria uma conta com o saldo informado e devolve o seu número.
+     */
+    protected abstract int criarConta(BigDecimal saldo);
+
+    protected void criarContas() {
+        contaCompartilhada = criarConta(SALDO_INICIAL);
+        destinoCompartilhado = criarConta(SALDO_INICIAL);
+        for (int i = 0; i < MAX_THREADS; i++) {
+            contasDisjuntas[i] = criarConta(SALDO_INICIAL);
+            destinosDisjuntos[i] = criarConta(SALDO_INICIAL);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class IndiceDaThread {
+        private static final AtomicInteger PROXIMO = new AtomicInteger();
+        final int indice = PROXIMO.getAndIncrement() % MAX_THREADS;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Resultados {
+        public long concluidas;
+        public long falhas;
+
+        @Setup(Level.Iteration)
+        public void zerar() {
+            concluidas = 0;
+            falhas = 0;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public BigDecimal deposito() {
+        return deposito.executar(contaCompartilhada, VALOR);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public BigDecimal saque() {
+        return saque.executar(contaCompartilhada, VALOR);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public BigDecimal pix() {
+        return pix.executar(contaCompartilhada, destinoCompartilhado, VALOR);
+    }
+
+    @Benchmark
+    @Threads(THREADS_CONCORRENTES)
+    public void depositoMesmaConta(Resultados resultados, Blackhole bh) {
+        executar(resultados, bh, () -> deposito.executar(contaCompartilhada, VALOR));
+    }
+
+    @Benchmark
+    @Threads(THREADS_CONCORRENTES)
+    public void depositoContasDisjuntas(IndiceDaThread thread, Resultados resultados, Blackhole bh) {
+        executar(resultados, bh, () -> deposito.executar(contasDisjuntas[thread.indice], VALOR));
+    }
+
+    @Benchmark
+    @Threads(THREADS_CONCORRENTES)
+    public void saqueMesmaConta(Resultados resultados, Blackhole bh) {
+        executar(resultados, bh, () -> saque.executar(contaCompartilhada, VALOR));
+    }
+
+    @Benchmark
+    @Threads(THREADS_CONCORRENTES)
+    public void saqueContasDisjuntas(IndiceDaThread thread, Resultados resultados, Blackhole bh) {
+        executar(resultados, bh, () -> saque.executar(contasDisjuntas[thread.indice], VALOR));
+    }
+
+    @Benchmark
+    @Threads(THREADS_CONCORRENTES)
+    public void pixMesmoPar(Resultados resultados, Blackhole bh) {
+        executar(resultados, bh, () -> pix.executar(contaCompartilhada, destinoCompartilhado, VALOR));
+    }
+
+    @Benchmark
+    @Threads(THREADS_CONCORRENTES)
+    public void pixParesDisjuntos(IndiceDaThread thread, Resultados resultados, Blackhole bh) {
+        executar(resultados, bh,
+                () -> pix.executar(contasDisjuntas[thread.indice], destinosDisjuntos[thread.indice], VALOR));
+    }
+
+    /**
+     * Nos cenários concorrentes uma operação pode falhar por conflito; a falha é consumida para não
+     * interromper a iteração e contada em {@link Resultados#falhas}, fora das concluídas.
+     */
+    private static void executar(Resultados resultados, Blackhole bh, Operacao operacao) {
+        try {
+            bh.consume(operacao.executar());
+            resultados.concluidas++;
+        } catch (RuntimeException e) {
+            bh.consume(e);
+            resultados.falhas++;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operacao {
+        BigDecimal executar();
+    }
+}
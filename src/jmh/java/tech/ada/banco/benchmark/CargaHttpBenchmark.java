@@ -0,0 +1,166 @@
+package tech.ada.banco.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tech.ada.banco.BancoSpringApplication;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.repository.ContaRepository;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carga HTTP sobre os endpoints de depósito, saque e pix, com o servidor real numa porta aleatória,
+ * comparando o pool de threads do Tomcat com threads virtuais. Cada invocação dispara
+ * {@code concorrencia} requisições simultâneas e espera todas; o score principal é de rodadas por
+ * segundo e os contadores {@code respondidas}/{@code recusadas} dão as requisições por segundo.
+ *
+ * <p>Sem {@code -Pjava21} o modo "virtuais" liga só o limite de conexões, com as threads de
+ * plataforma: {@code mvn -Pbenchmark,java21 test-compile exec:exec -Djmh.args="CargaHttp"}.
+ *
+ * <p>Com {@code aplicacao=reativa} a carga vai para a variante WebFlux/R2DBC, que só existe no build
+ * com {@code -Preativo} (e ignora {@code threads}); o {@code gc.alloc.rate.norm} do {@link BenchmarkRunner}
+ * compara a memória: {@code mvn -Pbenchmark,reativo test-compile exec:exec
+ * -Djmh.args="CargaHttp -p aplicacao=mvc,reativa -p threads=plataforma"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class CargaHttpBenchmark {
+
+    private static final int CONTAS = 200;
+
+    @Param({"mvc"})
+    public String aplicacao;
+
+    @Param({"plataforma", "virtuais"})
+    public String threads;
+
+    @Param({"50", "400"})
+    public int concorrencia;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService executorDoCliente;
+    private HttpClient cliente;
+    private String base;
+    private int[] contas;
+
+    @Setup
+    public void setup() throws Exception {
+        executorDoCliente = Executors.newFixedThreadPool(8);
+        cliente = HttpClient.newBuilder().executor(executorDoCliente).build();
+        contas = new int[CONTAS];
+
+        if (aplicacao.equals("reativa")) {
+            context = new SpringApplicationBuilder(Class.forName("tech.ada.banco.reativo.BancoReativoApplication"))
+                    .web(WebApplicationType.REACTIVE)
+                    .properties("spring.config.name=reativo")
+                    .run("--server.port=0", "--logging.level.tech.ada.banco=WARN");
+            base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            for (int i = 0; i < CONTAS; i++) {
+                String conta = enviar("/contas?modalidade=CC");
+                contas[i] = Integer.parseInt(conta.replaceAll(".*\"numeroConta\":(\\d+).*", "$1"));
+                enviar("/deposito/" + contas[i] + "?valor=1000000");
+            }
+            return;
+        }
+
+        context = new SpringApplicationBuilder(BancoSpringApplication.class)
+                .run("--server.port=0",
+                        "--logging.level.tech.ada.banco=WARN",
+                        "--spring.datasource.url=jdbc:h2:mem:carga;Mode=Oracle",
+                        "--banco.threads.virtuais=" + threads.equals("virtuais"));
+        base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+        ContaRepository repository = context.getBean(ContaRepository.class);
+        for (int i = 0; i < CONTAS; i++) {
+            Conta conta = new Conta(ModalidadeConta.CC, null);
+            conta.deposito(BigDecimal.valueOf(1_000_000));
+            contas[i] = repository.save(conta).getNumeroConta();
+        }
+    }
+
+    private String enviar(String caminho) throws Exception {
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(base + caminho))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return cliente.send(requisicao, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executorDoCliente.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public void rodada(Requisicoes requisicoes) {
+        CompletableFuture<?>[] respostas = new CompletableFuture<?>[concorrencia];
+        for (int i = 0; i < concorrencia; i++) {
+            respostas[i] = cliente.sendAsync(requisicao(i), HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(resposta -> requisicoes.contar(resposta.statusCode()));
+        }
+        CompletableFuture.allOf(respostas).join();
+    }
+
+    private HttpRequest requisicao(int i) {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        int conta = contas[aleatorio.nextInt(CONTAS)];
+        String caminho = switch (i % 3) {
+            case 0 -> "/deposito/" + conta + "?valor=1";
+            case 1 -> "/saque/" + conta + "?valor=1";
+            default -> "/pix/" + conta + "?destino=" + contas[aleatorio.nextInt(CONTAS)] + "&valor=1";
+        };
+        return HttpRequest.newBuilder(URI.create(base + caminho))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Requisicoes {
+        public long respondidas;
+        public long recusadas;
+
+        @Setup(Level.Iteration)
+        public void zerar() {
+            respondidas = 0;
+            recusadas = 0;
+        }
+
+        synchronized void contar(int status) {
+            if (status == 503) {
+                recusadas++;
+            } else {
+                respondidas++;
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package tech.ada.banco.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tech.ada.banco.BancoSpringApplication;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.services.Deposito;
+import tech.ada.banco.services.Saque;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vazão e latência de depósitos e saques concorrentes em contas disjuntas, com uma transação por
+ * operação ({@code janela = desligado}, atualização atômica) e com o commit em grupo em várias
+ * janelas. Com 16 threads a vazão mostra o ganho de dividir o commit entre o grupo, e os percentis
+ * do modo {@code SampleTime} mostram quanto a janela acrescenta à latência de cada operação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommitEmGrupoBenchmark {
+
+    private static final int THREADS = 16;
+    private static final BigDecimal SALDO_INICIAL = BigDecimal.valueOf(1_000_000_000L);
+    private static final BigDecimal VALOR = new BigDecimal("0.01");
+
+    @Param({"desligado", "0", "200", "1000"})
+    public String janela;
+
+    private ConfigurableApplicationContext context;
+    private Deposito deposito;
+    private Saque saque;
+    private final int[] contas = new int[THREADS];
+
+    @Setup
+    public void setup() {
+        boolean grupo = !janela.equals("desligado");
+        context = new SpringApplicationBuilder(BancoSpringApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--logging.level.tech.ada.banco=WARN",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark-grupo;Mode=Oracle",
+                        "--banco.saldo.atualizacao-atomica=true",
+                        "--banco.saldo.motor=" + (grupo ? "grupo" : "jpa"),
+                        "--banco.grupo.janela-us=" + (grupo ? janela : "0"));
+        ContaRepository repository = context.getBean(ContaRepository.class);
+        deposito = context.getBean(Deposito.class);
+        saque = context.getBean(Saque.class);
+        for (int i = 0; i < THREADS; i++) {
+            Conta conta = new Conta(ModalidadeConta.CC, null);
+            conta.deposito(SALDO_INICIAL);
+            contas[i] = repository.save(conta).getNumeroConta();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class IndiceDaThread {
+        private static final AtomicInteger PROXIMO = new AtomicInteger();
+        final int indice = PROXIMO.getAndIncrement() % THREADS;
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    public BigDecimal deposito(IndiceDaThread thread) {
+        return deposito.executar(contas[thread.indice], VALOR);
+    }
+
+    @Benchmark
+    @Threads(THREADS)
+    public BigDecimal saque(IndiceDaThread thread) {
+        return saque.executar(contas[thread.indice], VALOR);
+    }
+}
@@ -0,0 +1,72 @@
+package tech.ada.banco.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tech.ada.banco.BancoSpringApplication;
+import tech.ada.banco.dto.ResultadoDaConciliacao;
+import tech.ada.banco.services.ConciliacaoDeSaldos;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uma conciliação completa sobre {@code contas} contas no H2, cada uma com um depósito no extrato. A
+ * primeira execução (no aquecimento) soma todos os movimentos e grava as bases; as medidas são das
+ * seguintes, que partem das bases, como a conciliação diária. O log de {@link ConciliacaoDeSaldos}
+ * traz as contas por segundo de cada execução.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ConciliacaoBenchmark {
+
+    @Param({"1000000"})
+    public int contas;
+
+    @Param({"0"})
+    public int paralelismo;
+
+    private ConfigurableApplicationContext context;
+    private ConciliacaoDeSaldos conciliacao;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(BancoSpringApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark-conciliacao;Mode=Oracle",
+                        "--banco.conciliacao.paralelismo=" + paralelismo);
+        conciliacao = context.getBean(ConciliacaoDeSaldos.class);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("insert into CONTA (NUMERO_CONTA, TIPO, SALDO, VERSAO, AGENCIA) "
+                + "select X, 'CC', 10, 0, '0001' from SYSTEM_RANGE(1, ?)", contas);
+        jdbc.update("insert into MOVIMENTO (ID, NUMERO_CONTA, DATA_HORA, TIPO, VALOR) "
+                + "select X, X, current_timestamp - interval '1' hour, 'DEPOSITO', 10 from SYSTEM_RANGE(1, ?)", contas);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResultadoDaConciliacao conciliacao() {
+        return conciliacao.executar(divergencia -> {
+        });
+    }
+}
@@ -0,0 +1,388 @@
+package tech.ada.banco.benchmark;
+
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.ada.banco.dto.DadosDaConta;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.Dinheiro;
+import tech.ada.banco.repository.ContaRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Implementação em memória de {@link ContaRepository} para medir o custo dos serviços sem banco de
+ * dados. Cada conta é uma linha com saldo e versão; as leituras devolvem cópias, e as gravações conferem
+ * a versão como o {@code @Version} do JPA, então um conflito entre threads vira o mesmo conflito
+ * otimista que a retentativa reexecuta.
+ *
+ * <p>Dentro de {@link #transacao()} as linhas lidas com {@link #findContaParaAtualizacao} ou gravadas
+ * ficam travadas até o fim da transação, como o lock de linha do banco, e voltam ao estado anterior se
+ * ela falhar; sem isso uma retentativa do Pix debitaria a origem de novo. Fora de uma transação cada
+ * comando trava a linha só enquanto roda. As consultas de listagem e por exemplo, que os serviços
+ * medidos não usam, não são suportadas.
+ */
+final class ContaRepositoryEmMemoria implements ContaRepository {
+
+    private final Map<Integer, Linha> linhas = new ConcurrentHashMap<>();
+    private final AtomicInteger sequencia = new AtomicInteger(10000);
+    /** Linhas travadas pela transação da thread, com o estado de antes dela. */
+    private final ThreadLocal<Map<Linha, Estado>> travadas = new ThreadLocal<>();
+
+    /**
+     * Transações sobre este repositório, com propagação {@code REQUIRED}: uma chamada aninhada roda na
+     * transação já aberta.
+     */
+    TransactionOperations transacao() {
+        return new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> acao) {
+                if (travadas.get() != null) {
+                    return acao.doInTransaction(new SimpleTransactionStatus(false));
+                }
+                Map<Linha, Estado> daTransacao = new LinkedHashMap<>();
+                travadas.set(daTransacao);
+                boolean confirmada = false;
+                try {
+                    T resultado = acao.doInTransaction(new SimpleTransactionStatus(true));
+                    confirmada = true;
+                    return resultado;
+                } finally {
+                    travadas.remove();
+                    for (Map.Entry<Linha, Estado> travada : daTransacao.entrySet()) {
+                        Linha linha = travada.getKey();
+                        if (!confirmada) {
+                            linha.saldo = travada.getValue().saldo();
+                            linha.versao = travada.getValue().versao();
+                        }
+                        linha.lock.unlock();
+                    }
+                }
+            }
+        };
+    }
+
+    @Override
+    public <S extends Conta> S save(S conta) {
+        if (conta.getNumeroConta() == 0) {
+            conta.setNumeroConta(sequencia.getAndIncrement());
+        }
+        Linha linha = linhas.computeIfAbsent(conta.getNumeroConta(), numero -> new Linha());
+        return naLinha(linha, true, () -> {
+            if (linha.versao != null && !linha.versao.equals(conta.getVersao())) {
+                throw new ObjectOptimisticLockingFailureException(Conta.class, conta.getNumeroConta());
+            }
+            linha.saldo = conta.getSaldoEmCentavos();
+            linha.versao = linha.versao == null ? 0L : linha.versao + 1;
+            conta.setVersao(linha.versao);
+            return conta;
+        });
+    }
+
+    @Override
+    public <S extends Conta> List<S> saveAll(Iterable<S> contas) {
+        List<S> salvas = new ArrayList<>();
+        contas.forEach(conta -> salvas.add(save(conta)));
+        return salvas;
+    }
+
+    @Override
+    public Optional<Conta> findById(Integer numeroConta) {
+        return ler(numeroConta);
+    }
+
+    @Override
+    public Optional<Conta> findContaByNumeroConta(int numeroConta) {
+        return ler(numeroConta);
+    }
+
+    @Override
+    public Optional<Conta> buscarSaldoDaConta(int numeroConta) {
+        return ler(numeroConta);
+    }
+
+    @Override
+    public Optional<Conta> findContaParaAtualizacao(int numeroConta) {
+        return ler(numeroConta, true);
+    }
+
+    @Override
+    public List<Conta> buscarSaldosDasContas(Collection<Integer> numerosConta) {
+        return findAllById(numerosConta);
+    }
+
+    @Override
+    public List<Conta> findContasParaAtualizacao(Collection<Integer> numerosConta) {
+        return numerosConta.stream().sorted().map(numero -> ler(numero, true)).flatMap(Optional::stream).toList();
+    }
+
+    @Override
+    public List<Conta> findAllById(Iterable<Integer> numerosConta) {
+        List<Conta> contas = new ArrayList<>();
+        numerosConta.forEach(numero -> ler(numero).ifPresent(contas::add));
+        return contas;
+    }
+
+    @Override
+    public List<Conta> findAll() {
+        return findAllById(linhas.keySet());
+    }
+
+    @Override
+    public boolean existsById(Integer numeroConta) {
+        return linhas.containsKey(numeroConta);
+    }
+
+    @Override
+    public long count() {
+        return linhas.size();
+    }
+
+    @Override
+    public Long buscarSaldoEmCentavos(int numeroConta) {
+        Linha linha = linhas.get(numeroConta);
+        return linha == null ? null : naLinha(linha, false, () -> linha.saldo);
+    }
+
+    @Override
+    public Optional<BigDecimal> creditar(int numeroConta, BigDecimal valor) {
+        Linha linha = linhas.get(numeroConta);
+        if (linha == null) {
+            return Optional.empty();
+        }
+        return naLinha(linha, true, () -> {
+            linha.saldo = Dinheiro.somar(linha.saldo, Dinheiro.centavos(valor));
+            linha.versao++;
+            return Optional.of(Dinheiro.reais(linha.saldo));
+        });
+    }
+
+    @Override
+    public Optional<BigDecimal> debitar(int numeroConta, BigDecimal valor) {
+        Linha linha = linhas.get(numeroConta);
+        if (linha == null) {
+            return Optional.empty();
+        }
+        long centavos = Dinheiro.centavos(valor);
+        return naLinha(linha, true, () -> {
+            if (linha.saldo < centavos) {
+                return Optional.empty();
+            }
+            linha.saldo -= centavos;
+            linha.versao++;
+            return Optional.of(Dinheiro.reais(linha.saldo));
+        });
+    }
+
+    @Override
+    public int atualizarSaldo(int numeroConta, BigDecimal saldo, long versao) {
+        Linha linha = linhas.get(numeroConta);
+        if (linha == null) {
+            return 0;
+        }
+        return naLinha(linha, true, () -> {
+            if (linha.versao != versao) {
+                return 0;
+            }
+            linha.saldo = Dinheiro.centavos(saldo);
+            linha.versao++;
+            return 1;
+        });
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public <S extends Conta> S saveAndFlush(S conta) {
+        return save(conta);
+    }
+
+    @Override
+    public <S extends Conta> List<S> saveAllAndFlush(Iterable<S> contas) {
+        return saveAll(contas);
+    }
+
+    @Override
+    public void deleteById(Integer numeroConta) {
+        linhas.remove(numeroConta);
+    }
+
+    @Override
+    public void delete(Conta conta) {
+        deleteById(conta.getNumeroConta());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Integer> numerosConta) {
+        numerosConta.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Conta> contas) {
+        contas.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        linhas.clear();
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<Conta> contas) {
+        deleteAll(contas);
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<Integer> numerosConta) {
+        deleteAllById(numerosConta);
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    @Override
+    public Conta getOne(Integer numeroConta) {
+        return getReferenceById(numeroConta);
+    }
+
+    @Override
+    public Conta getById(Integer numeroConta) {
+        return getReferenceById(numeroConta);
+    }
+
+    @Override
+    public Conta getReferenceById(Integer numeroConta) {
+        return ler(numeroConta).orElseThrow();
+    }
+
+    @Override
+    public Optional<DadosDaConta> buscarDados(int numeroConta) {
+        throw naoSuportada();
+    }
+
+    @Override
+    public List<DadosDaConta> buscarPagina(int apos, Pageable pagina) {
+        throw naoSuportada();
+    }
+
+    @Override
+    public Stream<DadosDaConta> streamTodas() {
+        throw naoSuportada();
+    }
+
+    @Override
+    public List<Conta> findAll(Sort sort) {
+        throw naoSuportada();
+    }
+
+    @Override
+    public Page<Conta> findAll(Pageable pagina) {
+        throw naoSuportada();
+    }
+
+    @Override
+    public <S extends Conta> Optional<S> findOne(Example<S> exemplo) {
+        throw naoSuportada();
+    }
+
+    @Override
+    public <S extends Conta> List<S> findAll(Example<S> exemplo) {
+        throw naoSuportada();
+    }
+
+    @Override
+    public <S extends Conta> List<S> findAll(Example<S> exemplo, Sort sort) {
+        throw naoSuportada();
+    }
+
+    @Override
+    public <S extends Conta> Page<S> findAll(Example<S> exemplo, Pageable pagina) {
+        throw naoSuportada();
+    }
+
+    @Override
+    public <S extends Conta> long count(Example<S> exemplo) {
+        throw naoSuportada();
+    }
+
+    @Override
+    public <S extends Conta> boolean exists(Example<S> exemplo) {
+        throw naoSuportada();
+    }
+
+    @Override
+    public <S extends Conta, R> R findBy(Example<S> exemplo,
+                                         Function<FluentQuery.FetchableFluentQuery<S>, R> consulta) {
+        throw naoSuportada();
+    }
+
+    private Optional<Conta> ler(Integer numeroConta) {
+        return ler(numeroConta, false);
+    }
+
+    private Optional<Conta> ler(Integer numeroConta, boolean paraAtualizacao) {
+        Linha linha = linhas.get(Objects.requireNonNull(numeroConta));
+        if (linha == null) {
+            return Optional.empty();
+        }
+        return naLinha(linha, paraAtualizacao, () -> Optional.of(new Conta(numeroConta, linha.saldo, linha.versao)));
+    }
+
+    /**
+     * Roda o comando com a linha travada. Se {@code manter} e há uma transação aberta, a linha fica
+     * travada por ela até o fim; senão é liberada assim que o comando termina.
+     */
+    private <R> R naLinha(Linha linha, boolean manter, Supplier<R> comando) {
+        Map<Linha, Estado> daTransacao = travadas.get();
+        if (manter && daTransacao != null) {
+            if (!daTransacao.containsKey(linha)) {
+                linha.lock.lock();
+                daTransacao.put(linha, new Estado(linha.saldo, linha.versao));
+            }
+            return comando.get();
+        }
+        linha.lock.lock();
+        try {
+            return comando.get();
+        } finally {
+            linha.lock.unlock();
+        }
+    }
+
+    private static UnsupportedOperationException naoSuportada() {
+        return new UnsupportedOperationException("Consulta não suportada pelo repositório em memória");
+    }
+
+    /** Guardada pelo próprio lock. */
+    private static final class Linha {
+        final ReentrantLock lock = new ReentrantLock();
+        long saldo;
+        Long versao;
+    }
+
+    private record Estado(long saldo, Long versao) {
+    }
+}
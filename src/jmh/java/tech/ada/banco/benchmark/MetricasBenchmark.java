@@ -0,0 +1,66 @@
+package tech.ada.banco.benchmark;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.ada.banco.metricas.Medidor;
+import tech.ada.banco.metricas.MetricasDeOperacoes;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo da instrumentação de uma operação: um depósito na {@link Conta} chamado direto e dentro
+ * de um {@link Medidor} com o registro do Prometheus. Sem JDBC, só o timer do tempo total é gravado.
+ * A diferença entre os dois métodos é o que as métricas acrescentam a cada requisição.
+ *
+ * <p>As quatro threads disputam os mesmos timers. A vazão ({@code thrpt}) soma as threads, e o seu
+ * inverso é o custo de cada chamada; o tempo médio ({@code avgt}) é medido por thread e, numa máquina
+ * com menos núcleos que threads, inclui a espera pela CPU.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class MetricasBenchmark {
+
+    private Conta conta;
+    private Medidor medidor;
+
+    @Setup
+    public void setup() {
+        conta = new Conta(ModalidadeConta.CC, null);
+        conta.deposito(BigDecimal.valueOf(1_000_000L));
+        medidor = new MetricasDeOperacoes(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT))
+                .medidor("deposito");
+    }
+
+    @Benchmark
+    public long direto() {
+        conta.deposito(1);
+        return conta.getSaldoEmCentavos();
+    }
+
+    @Benchmark
+    public long medido() {
+        return medidor.medir(() -> {
+            conta.deposito(1);
+            return conta.getSaldoEmCentavos();
+        });
+    }
+}
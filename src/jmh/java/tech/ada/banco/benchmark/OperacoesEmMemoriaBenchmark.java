@@ -0,0 +1,45 @@
+package tech.ada.banco.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.openjdk.jmh.annotations.Setup;
+import org.slf4j.LoggerFactory;
+import tech.ada.banco.metricas.MetricasDeOperacoes;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.services.ContasQuentes;
+import tech.ada.banco.services.Deposito;
+import tech.ada.banco.services.Pix;
+import tech.ada.banco.services.RegistroDeOperacoes;
+import tech.ada.banco.services.Retentativa;
+import tech.ada.banco.services.Saque;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * Custo dos serviços isolado do banco de dados, usando {@link ContaRepositoryEmMemoria}. O Pix roda nas
+ * transações do próprio repositório, que travam as contas como o banco faria.
+ */
+public class OperacoesEmMemoriaBenchmark extends BaseOperacoesBenchmark {
+
+    private ContaRepositoryEmMemoria repository;
+
+    @Setup
+    public void setup() {
+        ((Logger) LoggerFactory.getLogger("tech.ada.banco")).setLevel(Level.WARN);
+        repository = new ContaRepositoryEmMemoria();
+        deposito = new Deposito(repository);
+        saque = new Saque(repository);
+        pix = new Pix(repository, repository.transacao(), new Retentativa(), Optional.empty(),
+                RegistroDeOperacoes.vazio(), ContasQuentes.nenhuma(), MetricasDeOperacoes.desligadas(), false);
+        criarContas();
+    }
+
+    @Override
+    protected int criarConta(BigDecimal saldo) {
+        Conta conta = new Conta(ModalidadeConta.CC, null);
+        conta.deposito(saldo);
+        return repository.save(conta).getNumeroConta();
+    }
+}
@@ -0,0 +1,83 @@
+package tech.ada.banco.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.ada.banco.BancoSpringApplication;
+import tech.ada.banco.metricas.MetricasDeOperacoes;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.repository.SubSaldoRepository;
+import tech.ada.banco.services.ContasQuentes;
+import tech.ada.banco.services.Deposito;
+import tech.ada.banco.services.Pix;
+import tech.ada.banco.services.RegistroDeOperacoes;
+import tech.ada.banco.services.Retentativa;
+import tech.ada.banco.services.Saque;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Custo dos serviços de ponta a ponta contra o H2 embarcado, com o contexto Spring real
+ * (sem a camada web): no modo carrega-altera-salva, com atualização atômica, com o ledger em memória,
+ * com a conta compartilhada marcada como quente (créditos espalhados pela tabela SUBSALDO) e com um
+ * escritor por shard.
+ */
+public class OperacoesH2Benchmark extends BaseOperacoesBenchmark {
+
+    @Param({"padrao", "atomico", "ledger", "quente", "shards"})
+    public String modo;
+
+    private ConfigurableApplicationContext context;
+    private ContaRepository repository;
+    private ContasQuentes contasQuentes;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(BancoSpringApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--logging.level.tech.ada.banco=WARN",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;Mode=Oracle",
+                        "--banco.saldo.atualizacao-atomica=" + modo.equals("atomico"),
+                        "--banco.saldo.motor=" + (modo.equals("ledger") || modo.equals("shards") ? modo : "jpa"));
+        repository = context.getBean(ContaRepository.class);
+        deposito = context.getBean(Deposito.class);
+        saque = context.getBean(Saque.class);
+        pix = context.getBean(Pix.class);
+        criarContas();
+
+        if (modo.equals("quente")) {
+            Retentativa retentativa = context.getBean(Retentativa.class);
+            RegistroDeOperacoes registro = context.getBean(RegistroDeOperacoes.class);
+            contasQuentes = new ContasQuentes(repository, context.getBean(SubSaldoRepository.class),
+                    context.getBean(TransactionOperations.class), retentativa, Set.of(contaCompartilhada), 8, 1000,
+                    "jpa");
+            MetricasDeOperacoes metricas = context.getBean(MetricasDeOperacoes.class);
+            deposito = new Deposito(repository, retentativa, Optional.empty(), registro, contasQuentes, metricas,
+                    false);
+            saque = new Saque(repository, retentativa, Optional.empty(), registro, contasQuentes, metricas, false);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (contasQuentes != null) {
+            contasQuentes.encerrar();
+        }
+        context.close();
+    }
+
+    @Override
+    protected int criarConta(BigDecimal saldo) {
+        Conta conta = new Conta(ModalidadeConta.CC, null);
+        conta.deposito(saldo);
+        return repository.save(conta).getNumeroConta();
+    }
+}
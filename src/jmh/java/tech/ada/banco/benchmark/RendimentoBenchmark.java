@@ -0,0 +1,71 @@
+package tech.ada.banco.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tech.ada.banco.BancoSpringApplication;
+import tech.ada.banco.dto.ResultadoDoRendimento;
+import tech.ada.banco.services.RendimentoDaPoupanca;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uma execução completa do rendimento sobre {@code contas} poupanças no H2, cada iteração numa data
+ * nova. O tempo por execução dividido pelas contas dá a vazão; o log de {@link RendimentoDaPoupanca}
+ * traz as contas por segundo de cada iteração, que multiplicadas dão a estimativa para a carteira
+ * inteira.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RendimentoBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int contas;
+
+    @Param({"1000", "10000"})
+    public int tamanhoDoBloco;
+
+    private ConfigurableApplicationContext context;
+    private RendimentoDaPoupanca rendimento;
+    private LocalDate data = LocalDate.of(2000, 1, 1);
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(BancoSpringApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark-rendimento;Mode=Oracle",
+                        "--banco.rendimento.tamanho-do-bloco=" + tamanhoDoBloco);
+        rendimento = context.getBean(RendimentoDaPoupanca.class);
+        context.getBean(JdbcTemplate.class).update("insert into CONTA (NUMERO_CONTA, TIPO, SALDO, VERSAO, AGENCIA) "
+                + "select X, 'CP', 1000, 0, '0001' from SYSTEM_RANGE(1, ?)", contas);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResultadoDoRendimento rendimento() {
+        data = data.plusDays(1);
+        return rendimento.executar(data);
+    }
+}
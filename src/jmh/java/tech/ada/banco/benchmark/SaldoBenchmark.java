@@ -0,0 +1,61 @@
+package tech.ada.banco.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alocação por depósito + saque na {@link Conta}: o saldo em {@link BigDecimal} (como era antes,
+ * com {@code setScale} na entrada e na leitura) contra o saldo em centavos. Comparar
+ * {@code gc.alloc.rate.norm} entre os dois métodos.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaldoBenchmark {
+
+    private static final BigDecimal VALOR = new BigDecimal("1.42");
+
+    private BigDecimal saldoBigDecimal;
+    private Conta conta;
+    private long valorEmCentavos;
+
+    @Setup
+    public void setup() {
+        saldoBigDecimal = BigDecimal.valueOf(1_000_000L);
+        conta = new Conta(ModalidadeConta.CC, null);
+        conta.deposito(BigDecimal.valueOf(1_000_000L));
+        valorEmCentavos = 142;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal valor = VALOR.setScale(2, RoundingMode.HALF_UP);
+        saldoBigDecimal = saldoBigDecimal.add(valor);
+        saldoBigDecimal = saldoBigDecimal.subtract(valor);
+        return saldoBigDecimal.setScale(2);
+    }
+
+    @Benchmark
+    public long centavos() {
+        conta.deposito(valorEmCentavos);
+        conta.saque(valorEmCentavos);
+        return conta.getSaldoEmCentavos();
+    }
+}
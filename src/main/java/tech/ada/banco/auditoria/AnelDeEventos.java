@@ -0,0 +1,95 @@
+package tech.ada.banco.auditoria;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Buffer circular de eventos de tamanho fixo, sem locks, com vários produtores e um único
+ * consumidor. Os campos de cada evento ficam em arrays de primitivos, então publicar não aloca.
+ *
+ * <p>Um produtor reserva a próxima sequência com CAS, desde que o consumidor já tenha liberado a
+ * posição, escreve os campos e marca a posição como publicada (escrita com release). O consumidor
+ * lê em ordem de sequência enquanto as posições estiverem publicadas (leitura com acquire) e só
+ * então devolve as posições aos produtores. Com o anel cheio, {@link #publicar} devolve false.
+ */
+final class AnelDeEventos {
+
+    @FunctionalInterface
+    interface Leitor {
+        void ler(long instante, int tipo, int contaOrigem, int contaDestino, long centavos);
+    }
+
+    private final int capacidade;
+    private final int mascara;
+    private final long[] instantes;
+    private final int[] tipos;
+    private final int[] origens;
+    private final int[] destinos;
+    private final long[] valores;
+    /** Sequência + 1 do evento publicado em cada posição. */
+    private final AtomicLongArray publicados;
+    private final AtomicLong proxima = new AtomicLong();
+    private final AtomicLong consumidos = new AtomicLong();
+
+    /**
+     * @param capacidade arredondada para a potência de dois seguinte
+     */
+    AnelDeEventos(int capacidade) {
+        this.capacidade = Integer.highestOneBit(Math.max(2, capacidade) * 2 - 1);
+        this.mascara = this.capacidade - 1;
+        this.instantes = new long[this.capacidade];
+        this.tipos = new int[this.capacidade];
+        this.origens = new int[this.capacidade];
+        this.destinos = new int[this.capacidade];
+        this.valores = new long[this.capacidade];
+        this.publicados = new AtomicLongArray(this.capacidade);
+    }
+
+    boolean publicar(long instante, int tipo, int contaOrigem, int contaDestino, long centavos) {
+        long sequencia;
+        do {
+            sequencia = proxima.get();
+            if (sequencia - consumidos.get() >= capacidade) {
+                return false;
+            }
+        } while (!proxima.compareAndSet(sequencia, sequencia + 1));
+
+        int posicao = (int) (sequencia & mascara);
+        instantes[posicao] = instante;
+        tipos[posicao] = tipo;
+        origens[posicao] = contaOrigem;
+        destinos[posicao] = contaDestino;
+        valores[posicao] = centavos;
+        publicados.setRelease(posicao, sequencia + 1);
+        return true;
+    }
+
+    /**
+     * Lê até {@code maximo} eventos, em ordem. Só pode ser chamado por uma thread.
+     */
+    int consumir(Leitor leitor, int maximo) {
+        long inicio = consumidos.get();
+        int lidos = 0;
+        while (lidos < maximo) {
+            long sequencia = inicio + lidos;
+            int posicao = (int) (sequencia & mascara);
+            if (publicados.getAcquire(posicao) != sequencia + 1) {
+                break;
+            }
+            leitor.ler(instantes[posicao], tipos[posicao], origens[posicao], destinos[posicao], valores[posicao]);
+            lidos++;
+        }
+        if (lidos > 0) {
+            consumidos.setRelease(inicio + lidos);
+        }
+        return lidos;
+    }
+
+    int pendentes() {
+        return (int) (proxima.get() - consumidos.get());
+    }
+
+    int getCapacidade() {
+        return capacidade;
+    }
+}
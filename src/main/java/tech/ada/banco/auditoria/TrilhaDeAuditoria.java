@@ -0,0 +1,233 @@
+package tech.ada.banco.auditoria;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import tech.ada.banco.model.Dinheiro;
+import tech.ada.banco.model.TipoOperacao;
+import tech.ada.banco.services.OuvinteDeOperacoes;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Trilha de auditoria das operações, fora da thread da requisição. Cada operação concluída vira um
+ * evento de layout fixo (instante, tipo, contas e centavos) publicado num {@link AnelDeEventos}; a
+ * thread "auditoria" consome os eventos em lotes de até {@code banco.auditoria.tamanho-do-lote},
+ * formata cada um como uma linha JSON e grava o lote de uma vez em {@code auditoria-<n>.log}. Um
+ * arquivo que passa de {@code banco.auditoria.tamanho-maximo-do-arquivo} bytes é fechado e o
+ * próximo número é aberto; só os {@code banco.auditoria.arquivos-mantidos} mais recentes ficam.
+ *
+ * <p>Com o anel cheio, o produtor espera até {@code banco.auditoria.espera-maxima-us} pelo
+ * consumidor e então descarta o evento. Com espera zero a requisição nunca é atrasada pela
+ * auditoria. Eventos gravados, descartados e perdidos por falha de escrita são contados em
+ * {@code banco.auditoria.eventos} ({@code resultado=gravado|descartado|falha}), e os que aguardam
+ * gravação em {@code banco.auditoria.pendentes}.
+ */
+@Component
+@ConditionalOnProperty(name = "banco.auditoria.habilitada", havingValue = "true")
+@Slf4j
+public class TrilhaDeAuditoria implements OuvinteDeOperacoes, Closeable {
+
+    private static final String PREFIXO = "auditoria-";
+    private static final String EXTENSAO = ".log";
+    private static final long ESPERA_DO_CONSUMIDOR_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final TipoOperacao[] TIPOS = TipoOperacao.values();
+
+    private final Path diretorio;
+    private final AnelDeEventos anel;
+    private final int tamanhoDoLote;
+    private final long tamanhoMaximoDoArquivo;
+    private final int arquivosMantidos;
+    private final long esperaMaximaNanos;
+    private final Counter gravados;
+    private final Counter descartados;
+    private final Counter falhas;
+    private final Thread consumidor;
+    private final StringBuilder linha = new StringBuilder(128);
+
+    private volatile boolean ativa = true;
+    private Writer arquivo;
+    private IOException falhaNoLote;
+    private long numeroDoArquivo;
+    private long bytesNoArquivo;
+
+    public TrilhaDeAuditoria(@Value("${banco.auditoria.diretorio:auditoria}") Path diretorio,
+                             @Value("${banco.auditoria.capacidade:65536}") int capacidade,
+                             @Value("${banco.auditoria.tamanho-do-lote:1024}") int tamanhoDoLote,
+                             @Value("${banco.auditoria.tamanho-maximo-do-arquivo:67108864}") long tamanhoMaximoDoArquivo,
+                             @Value("${banco.auditoria.arquivos-mantidos:10}") int arquivosMantidos,
+                             @Value("${banco.auditoria.espera-maxima-us:0}") long esperaMaximaMicros,
+                             MeterRegistry registry) throws IOException {
+        this.diretorio = diretorio;
+        this.anel = new AnelDeEventos(capacidade);
+        this.tamanhoDoLote = Math.max(1, tamanhoDoLote);
+        this.tamanhoMaximoDoArquivo = tamanhoMaximoDoArquivo;
+        this.arquivosMantidos = Math.max(1, arquivosMantidos);
+        this.esperaMaximaNanos = TimeUnit.MICROSECONDS.toNanos(esperaMaximaMicros);
+        this.gravados = contador(registry, "gravado");
+        this.descartados = contador(registry, "descartado");
+        this.falhas = contador(registry, "falha");
+        Gauge.builder("banco.auditoria.pendentes", anel, AnelDeEventos::pendentes)
+                .description("Eventos de auditoria aguardando gravação")
+                .register(registry);
+
+        Files.createDirectories(diretorio);
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            numeroDoArquivo = arquivos.mapToLong(TrilhaDeAuditoria::numero).max().orElse(0);
+        }
+        abrirProximoArquivo();
+
+        consumidor = new Thread(this::consumir, "auditoria");
+        consumidor.setDaemon(true);
+        consumidor.start();
+    }
+
+    @Override
+    public void operacaoRealizada(TipoOperacao tipo, int contaOrigem, int contaDestino, long centavos) {
+        long instante = System.currentTimeMillis();
+        if (anel.publicar(instante, tipo.ordinal(), contaOrigem, contaDestino, centavos)) {
+            return;
+        }
+        if (esperaMaximaNanos > 0) {
+            long limite = System.nanoTime() + esperaMaximaNanos;
+            while (System.nanoTime() < limite) {
+                LockSupport.unpark(consumidor);
+                Thread.onSpinWait();
+                if (anel.publicar(instante, tipo.ordinal(), contaOrigem, contaDestino, centavos)) {
+                    return;
+                }
+            }
+        }
+        descartados.increment();
+    }
+
+    /**
+     * Para o consumidor depois de gravar o que já estava no anel.
+     */
+    @PreDestroy
+    @Override
+    public void close() {
+        ativa = false;
+        LockSupport.unpark(consumidor);
+        try {
+            consumidor.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void consumir() {
+        try {
+            while (true) {
+                boolean encerrando = !ativa;
+                int lidos = anel.consumir(this::escrever, tamanhoDoLote);
+                if (lidos > 0) {
+                    concluirLote(lidos);
+                } else if (encerrando) {
+                    break;
+                } else {
+                    LockSupport.parkNanos(this, ESPERA_DO_CONSUMIDOR_NANOS);
+                }
+            }
+        } finally {
+            try {
+                arquivo.close();
+            } catch (IOException e) {
+                log.warn("Falha ao fechar o arquivo de auditoria: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void escrever(long instante, int tipo, int contaOrigem, int contaDestino, long centavos) {
+        linha.setLength(0);
+        linha.append("{\"instante\":\"").append(Instant.ofEpochMilli(instante))
+                .append("\",\"tipo\":\"").append(TIPOS[tipo])
+                .append("\",\"origem\":").append(contaOrigem)
+                .append(",\"destino\":").append(contaDestino)
+                .append(",\"valor\":").append(Dinheiro.reais(centavos).toPlainString())
+                .append("}\n");
+        try {
+            arquivo.append(linha);
+            bytesNoArquivo += linha.length();
+        } catch (IOException e) {
+            falhaNoLote = e;
+        }
+    }
+
+    private void concluirLote(int lidos) {
+        try {
+            if (falhaNoLote != null) {
+                throw falhaNoLote;
+            }
+            arquivo.flush();
+            gravados.increment(lidos);
+            if (bytesNoArquivo >= tamanhoMaximoDoArquivo) {
+                arquivo.close();
+                abrirProximoArquivo();
+                removerAntigos();
+            }
+        } catch (IOException e) {
+            falhaNoLote = null;
+            falhas.increment(lidos);
+            log.warn("Falha ao gravar {} eventos de auditoria: {}", lidos, e.getMessage());
+        }
+    }
+
+    private void abrirProximoArquivo() throws IOException {
+        numeroDoArquivo++;
+        Path caminho = diretorio.resolve(PREFIXO + numeroDoArquivo + EXTENSAO);
+        arquivo = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(caminho, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                StandardCharsets.UTF_8), 64 * 1024);
+        bytesNoArquivo = 0;
+    }
+
+    private void removerAntigos() throws IOException {
+        List<Path> antigos;
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            antigos = arquivos.filter(arquivo -> numero(arquivo) > 0
+                            && numero(arquivo) <= numeroDoArquivo - arquivosMantidos)
+                    .toList();
+        }
+        for (Path antigo : antigos) {
+            Files.deleteIfExists(antigo);
+        }
+    }
+
+    private static long numero(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        if (!nome.startsWith(PREFIXO) || !nome.endsWith(EXTENSAO)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - EXTENSAO.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static Counter contador(MeterRegistry registry, String resultado) {
+        return Counter.builder("banco.auditoria.eventos")
+                .description("Eventos de auditoria por resultado")
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+}
@@ -0,0 +1,90 @@
+package tech.ada.banco.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Um balde de fichas por chave, com {@code porSegundo} fichas por segundo e capacidade para
+ * {@code rajada} fichas. Cada balde é um único {@link AtomicLong} com o instante em que ele estaria
+ * cheio de novo (a forma GCRA do balde de fichas), atualizado por CAS, sem lock.
+ *
+ * <p>Um balde cheio se comporta igual a um que não existe, então a limpeza só descarta baldes
+ * cheios e não muda o resultado de nenhuma chave. Com o mapa no limite, uma chave nova dispara uma
+ * limpeza, no máximo uma por segundo; se ainda assim não houver espaço, ela é recusada até que haja.
+ */
+final class BaldesDeFichas<K> {
+
+    /** Intervalo mínimo entre as limpezas feitas no caminho da requisição, com o mapa cheio. */
+    static final long LIMPEZA_MINIMA_NANOS = 1_000_000_000L;
+
+    private final ConcurrentHashMap<K, AtomicLong> baldes = new ConcurrentHashMap<>();
+    private final long intervaloNanos;
+    private final long toleranciaNanos;
+    private final int maximo;
+    private final LongSupplier relogio;
+    private final AtomicLong proximaLimpeza;
+
+    BaldesDeFichas(double porSegundo, int rajada, int maximo, LongSupplier relogio) {
+        this.intervaloNanos = Math.max(1, (long) (1_000_000_000L / porSegundo));
+        this.toleranciaNanos = (Math.max(1, rajada) - 1) * intervaloNanos;
+        this.maximo = Math.max(1, maximo);
+        this.relogio = relogio;
+        this.proximaLimpeza = new AtomicLong(relogio.getAsLong());
+    }
+
+    /**
+     * Tira uma ficha do balde da chave.
+     *
+     * @return 0 se havia ficha, ou em quantos nanossegundos a próxima estará disponível
+     */
+    long consumir(K chave) {
+        long agora = relogio.getAsLong();
+        AtomicLong balde = baldes.get(chave);
+        if (balde == null) {
+            if (baldes.size() >= maximo) {
+                long limpeza = proximaLimpeza.get();
+                if (agora - limpeza >= 0 && proximaLimpeza.compareAndSet(limpeza, agora + LIMPEZA_MINIMA_NANOS)) {
+                    removerCheios();
+                }
+                if (baldes.size() >= maximo) {
+                    return intervaloNanos;
+                }
+            }
+            balde = baldes.computeIfAbsent(chave, k -> new AtomicLong(agora));
+        }
+        while (true) {
+            long cheioEm = balde.get();
+            long base = Math.max(cheioEm, agora);
+            if (base - agora > toleranciaNanos) {
+                return base - agora - toleranciaNanos;
+            }
+            if (balde.compareAndSet(cheioEm, base + intervaloNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Devolve a ficha tirada por um {@link #consumir} cuja requisição foi recusada por outro limite.
+     */
+    void devolver(K chave) {
+        AtomicLong balde = baldes.get(chave);
+        if (balde != null) {
+            balde.addAndGet(-intervaloNanos);
+        }
+    }
+
+    /**
+     * Descarta os baldes que já voltaram a ficar cheios. Uma ficha tirada ao mesmo tempo de um balde
+     * descartado se perde, o que no máximo deixa passar uma requisição a mais.
+     */
+    void removerCheios() {
+        long agora = relogio.getAsLong();
+        baldes.values().removeIf(balde -> balde.get() <= agora);
+    }
+
+    int tamanho() {
+        return baldes.size();
+    }
+}
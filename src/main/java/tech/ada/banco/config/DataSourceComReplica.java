@@ -0,0 +1,94 @@
+package tech.ada.banco.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Entrega conexões da réplica para transações somente leitura e do primário para todo o resto. A
+ * conexão real só é escolhida no primeiro comando, quando a transação já está marcada como somente
+ * leitura; por isso o roteamento fica atrás de um {@link LazyConnectionDataSourceProxy}.
+ *
+ * <p>Leitura das próprias escritas: depois que a requisição abre uma transação de escrita ou
+ * conclui uma operação (mesmo aplicada por outra thread, como no commit em grupo), todas as leituras
+ * seguintes da mesma requisição vão para o primário, incluindo as da conta que acabou de mudar.
+ * Fora de uma requisição não há essa garantia.
+ */
+public class DataSourceComReplica extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private static final String PRIMARIO = "primario";
+    private static final String REPLICA = "replica";
+    private static final String HOUVE_ESCRITA = DataSourceComReplica.class.getName() + ".HOUVE_ESCRITA";
+
+    private final DataSource primario;
+    private final DataSource replica;
+
+    public DataSourceComReplica(DataSource primario, DataSource replica, MeterRegistry registry) {
+        this.primario = primario;
+        this.replica = replica;
+        Counter noPrimario = conexoes(registry, PRIMARIO);
+        Counter naReplica = conexoes(registry, REPLICA);
+
+        AbstractRoutingDataSource roteamento = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !houveEscrita()) {
+                    naReplica.increment();
+                    return REPLICA;
+                }
+                if (TransactionSynchronizationManager.isActualTransactionActive()
+                        && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                    registrarEscrita();
+                }
+                noPrimario.increment();
+                return PRIMARIO;
+            }
+        };
+        roteamento.setTargetDataSources(Map.of(PRIMARIO, primario, REPLICA, replica));
+        roteamento.setDefaultTargetDataSource(primario);
+        roteamento.afterPropertiesSet();
+        setTargetDataSource(roteamento);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Manda as leituras seguintes da requisição atual para o primário.
+     */
+    public static void registrarEscrita() {
+        RequestAttributes requisicao = RequestContextHolder.getRequestAttributes();
+        if (requisicao != null) {
+            requisicao.setAttribute(HOUVE_ESCRITA, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    public static boolean houveEscrita() {
+        RequestAttributes requisicao = RequestContextHolder.getRequestAttributes();
+        return requisicao != null
+                && requisicao.getAttribute(HOUVE_ESCRITA, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataSource pool : new DataSource[]{primario, replica}) {
+            if (pool instanceof Closeable fechavel) {
+                fechavel.close();
+            }
+        }
+    }
+
+    private static Counter conexoes(MeterRegistry registry, String destino) {
+        return Counter.builder("banco.datasource.conexoes")
+                .description("Conexões entregues por destino")
+                .tag("destino", destino)
+                .register(registry);
+    }
+}
@@ -0,0 +1,81 @@
+package tech.ada.banco.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import tech.ada.banco.exceptions.ServicoIndisponivelException;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita as requisições de depósito, saque e pix em andamento ao tamanho do pool de conexões. Com
+ * threads virtuais o Tomcat aceita todas as requisições que chegam; sem este limite elas se
+ * acumulariam na fila do Hikari até o connectionTimeout. Aqui a espera é barata para uma thread
+ * virtual e tem prazo próprio ({@code banco.threads.espera-maxima-ms}), depois do qual a
+ * requisição é recusada com 503.
+ */
+@Component
+@ConditionalOnProperty(name = "banco.threads.virtuais", havingValue = "true")
+@Slf4j
+public class LimiteDeConexoes implements HandlerInterceptor {
+
+    private static final int TAMANHO_PADRAO_DO_POOL = 10;
+
+    private final Semaphore permissoes;
+    private final long esperaMaximaMillis;
+
+    @Autowired
+    public LimiteDeConexoes(DataSource dataSource,
+                            @Value("${banco.threads.limite-de-conexoes:0}") int limite,
+                            @Value("${banco.threads.espera-maxima-ms:5000}") long esperaMaximaMillis) {
+        this(limite > 0 ? limite : tamanhoDoPool(dataSource), esperaMaximaMillis);
+    }
+
+    public LimiteDeConexoes(int limite, long esperaMaximaMillis) {
+        this.permissoes = new Semaphore(limite, true);
+        this.esperaMaximaMillis = esperaMaximaMillis;
+        log.info("Até {} requisições simultâneas com acesso ao banco", limite);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        try {
+            if (permissoes.tryAcquire(esperaMaximaMillis, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new ServicoIndisponivelException();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        permissoes.release();
+    }
+
+    public int getDisponiveis() {
+        return permissoes.availablePermits();
+    }
+
+    private static int tamanhoDoPool(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("Não foi possível ler o tamanho do pool de conexões: {}", e.getMessage());
+        }
+        return TAMANHO_PADRAO_DO_POOL;
+    }
+}
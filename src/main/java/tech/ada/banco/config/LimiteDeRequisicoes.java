@@ -0,0 +1,132 @@
+package tech.ada.banco.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import tech.ada.banco.exceptions.LimiteExcedidoException;
+import tech.ada.banco.services.TarefaPeriodica;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita a taxa de depósitos, saques e pix por conta (o número na URL) e por cliente (o usuário
+ * autenticado, ou o endereço de origem), cada um com o seu {@link BaldesDeFichas balde de fichas}.
+ * Um identificador escolhido pelo próprio cliente, como um cabeçalho, não serve de chave: trocando-o a
+ * cada requisição, o cliente escaparia do limite e encheria o mapa de baldes. A requisição sem ficha recebe 429 com {@code Retry-After} antes de chegar ao
+ * controller, então não consome conexão nem toca o banco; recusada pela conta, ela devolve a ficha
+ * do cliente. As recusas são contadas em
+ * {@code banco.limite.recusadas}, com a tag {@code limite} ({@code conta} ou {@code cliente}).
+ */
+@Component
+@ConditionalOnProperty(name = "banco.limite.habilitado", havingValue = "true")
+public class LimiteDeRequisicoes implements HandlerInterceptor {
+
+    private final BaldesDeFichas<Integer> porConta;
+    private final BaldesDeFichas<String> porCliente;
+    private final Counter recusadasPorConta;
+    private final Counter recusadasPorCliente;
+    private final TarefaPeriodica limpador;
+
+    @Autowired
+    public LimiteDeRequisicoes(@Value("${banco.limite.conta.por-segundo:20}") double contaPorSegundo,
+                               @Value("${banco.limite.conta.rajada:40}") int contaRajada,
+                               @Value("${banco.limite.cliente.por-segundo:200}") double clientePorSegundo,
+                               @Value("${banco.limite.cliente.rajada:400}") int clienteRajada,
+                               @Value("${banco.limite.maximo-de-baldes:100000}") int maximoDeBaldes,
+                               @Value("${banco.limite.intervalo-de-limpeza-ms:60000}") long intervaloDeLimpezaMillis,
+                               MeterRegistry registry) {
+        this.porConta = new BaldesDeFichas<>(contaPorSegundo, contaRajada, maximoDeBaldes, System::nanoTime);
+        this.porCliente = new BaldesDeFichas<>(clientePorSegundo, clienteRajada, maximoDeBaldes, System::nanoTime);
+        this.recusadasPorConta = recusadas(registry, "conta");
+        this.recusadasPorCliente = recusadas(registry, "cliente");
+        Gauge.builder("banco.limite.baldes", porConta, BaldesDeFichas::tamanho)
+                .description("Baldes de fichas em memória")
+                .tag("limite", "conta")
+                .register(registry);
+        Gauge.builder("banco.limite.baldes", porCliente, BaldesDeFichas::tamanho)
+                .description("Baldes de fichas em memória")
+                .tag("limite", "cliente")
+                .register(registry);
+
+        limpador = TarefaPeriodica.iniciar("limite-de-requisicoes", intervaloDeLimpezaMillis, this::removerCheios);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String cliente = cliente(request);
+        verificar(porCliente.consumir(cliente), recusadasPorCliente, response);
+        Integer conta = conta(request);
+        if (conta != null) {
+            long espera = porConta.consumir(conta);
+            if (espera > 0) {
+                // a requisição não passa, então não gasta a ficha do cliente
+                porCliente.devolver(cliente);
+            }
+            verificar(espera, recusadasPorConta, response);
+        }
+        return true;
+    }
+
+    public void removerCheios() {
+        porConta.removerCheios();
+        porCliente.removerCheios();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        limpador.encerrar();
+    }
+
+    private static void verificar(long esperaNanos, Counter recusadas, HttpServletResponse response) {
+        if (esperaNanos == 0) {
+            return;
+        }
+        recusadas.increment();
+        long segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + 999_999_999L));
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+        throw new LimiteExcedidoException();
+    }
+
+    private static String cliente(HttpServletRequest request) {
+        Principal usuario = request.getUserPrincipal();
+        return usuario != null ? "usuario:" + usuario.getName() : request.getRemoteAddr();
+    }
+
+    /**
+     * O número da conta no caminho ({@code /saque/{conta}}), ou {@code null} em {@code /pix/lote}.
+     */
+    @SuppressWarnings("unchecked")
+    private static Integer conta(HttpServletRequest request) {
+        Map<String, String> variaveis =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String conta = variaveis == null ? null : variaveis.get("conta");
+        if (conta == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(conta);
+        } catch (NumberFormatException e) {
+            // o controller recusa o número inválido com 400
+            return null;
+        }
+    }
+
+    private static Counter recusadas(MeterRegistry registry, String limite) {
+        return Counter.builder("banco.limite.recusadas")
+                .description("Requisições recusadas pelo limite de taxa")
+                .tag("limite", limite)
+                .register(registry);
+    }
+}
@@ -0,0 +1,60 @@
+package tech.ada.banco.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import tech.ada.banco.services.OuvinteDeOperacoes;
+
+import javax.sql.DataSource;
+
+/**
+ * Com {@code banco.replica.habilitada}, troca o pool único por um {@link DataSourceComReplica}: o
+ * primário é configurado por {@code spring.datasource}, como antes, e a réplica por
+ * {@code banco.replica} ({@code url}, {@code username}, {@code password} e {@code hikari.*}). Sem
+ * {@code banco.replica.url} a réplica é um segundo pool para o mesmo banco do primário, que é o que
+ * se tem com o H2 em memória.
+ */
+@Configuration
+@ConditionalOnProperty(name = "banco.replica.habilitada", havingValue = "true")
+public class ReplicaConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties propriedades, Environment ambiente, MeterRegistry registry,
+                                 @Value("${banco.replica.url:}") String url,
+                                 @Value("${banco.replica.username:}") String usuario,
+                                 @Value("${banco.replica.password:}") String senha) {
+        Binder binder = Binder.get(ambiente);
+        HikariDataSource primario = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primario));
+
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(propriedades.determineDriverClassName())
+                .url(url.isEmpty() ? propriedades.determineUrl() : url)
+                .username(usuario.isEmpty() ? propriedades.determineUsername() : usuario)
+                .password(senha.isEmpty() ? propriedades.determinePassword() : senha)
+                .build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        binder.bind("banco.replica.hikari", Bindable.ofInstance(replica));
+
+        return new DataSourceComReplica(primario, replica, registry);
+    }
+
+    /**
+     * Depósitos, saques e pix podem ser gravados fora da thread da requisição (commit em grupo,
+     * shards, ledger); a operação concluída marca a requisição mesmo assim.
+     */
+    @Bean
+    public OuvinteDeOperacoes escritasDaRequisicao() {
+        return (tipo, contaOrigem, contaDestino, centavos) -> DataSourceComReplica.registrarEscrita();
+    }
+}
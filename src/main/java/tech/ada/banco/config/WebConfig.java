@@ -0,0 +1,24 @@
+package tech.ada.banco.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<LimiteDeRequisicoes> limiteDeRequisicoes;
+    private final ObjectProvider<LimiteDeConexoes> limiteDeConexoes;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // a taxa vem antes: uma requisição recusada não chega a ocupar uma das conexões
+        limiteDeRequisicoes.ifAvailable(limite ->
+                registry.addInterceptor(limite).addPathPatterns("/deposito/**", "/saque/**", "/pix/**"));
+        limiteDeConexoes.ifAvailable(limite ->
+                registry.addInterceptor(limite).addPathPatterns("/deposito/**", "/saque/**", "/pix/**"));
+    }
+}
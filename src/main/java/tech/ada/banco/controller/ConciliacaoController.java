@@ -0,0 +1,49 @@
+package tech.ada.banco.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import tech.ada.banco.dto.Divergencia;
+import tech.ada.banco.dto.ResultadoDaConciliacao;
+import tech.ada.banco.services.ConciliacaoDeSaldos;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping("/conciliacao")
+@RequiredArgsConstructor
+public class ConciliacaoController {
+
+    private final ConciliacaoDeSaldos conciliacao;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Relatório NDJSON: uma {@link Divergencia} por linha à medida que as partições terminam e, na
+     * última linha, o {@link ResultadoDaConciliacao} com os totais.
+     */
+    @PostMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void conciliar(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream saida = response.getOutputStream();
+        ObjectWriter writer = objectMapper.writerFor(Divergencia.class);
+        ResultadoDaConciliacao resultado = conciliacao.executar(divergencia -> {
+            try {
+                saida.write(writer.writeValueAsBytes(divergencia));
+                saida.write('\n');
+                saida.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        saida.write(objectMapper.writeValueAsBytes(resultado));
+        saida.write('\n');
+        saida.flush();
+    }
+}
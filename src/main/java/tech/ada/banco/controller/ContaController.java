@@ -1,7 +1,11 @@
 package tech.ada.banco.controller;
 
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,40 +15,100 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tech.ada.banco.dto.DadosDaConta;
+import tech.ada.banco.dto.NovaConta;
+import tech.ada.banco.dto.ResultadoDoCadastro;
 import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.metricas.Medidor;
+import tech.ada.banco.metricas.MetricasDeOperacoes;
 import tech.ada.banco.model.Conta;
 import tech.ada.banco.model.ModalidadeConta;
 import tech.ada.banco.model.Pessoa;
 import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.services.CadastroEmLote;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
 @RequestMapping("/contas")
-@RequiredArgsConstructor
 public class ContaController {
 
     private final ContaRepository repository;
+    private final EscritorNdjson escritorNdjson;
+    private final CadastroEmLote cadastroEmLote;
+    private final ObjectMapper objectMapper;
+    private final Medidor consulta;
+    private final Medidor listagem;
+    private final Medidor criacao;
+    private final Medidor remocao;
+
+    public ContaController(ContaRepository repository, EscritorNdjson escritorNdjson, CadastroEmLote cadastroEmLote,
+                           ObjectMapper objectMapper, MetricasDeOperacoes metricas) {
+        this.repository = repository;
+        this.escritorNdjson = escritorNdjson;
+        this.cadastroEmLote = cadastroEmLote;
+        this.objectMapper = objectMapper;
+        this.consulta = metricas.medidor("conta.consulta");
+        this.listagem = metricas.medidor("conta.listagem");
+        this.criacao = metricas.medidor("conta.criacao");
+        this.remocao = metricas.medidor("conta.remocao");
+    }
 
     @GetMapping("{conta}")
-    public Conta getConta(@PathVariable int conta) {
-        return repository.findContaByNumeroConta(conta).orElseThrow(ResourceNotFoundException::new);
+    public DadosDaConta getConta(@PathVariable int conta) {
+        return consulta.medir(() -> repository.buscarDados(conta).orElseThrow(ResourceNotFoundException::new));
+    }
+
+    /**
+     * Sem {@code apos} nem {@code limite}, a lista inteira, como antes da paginação; é escrita em
+     * stream, então a memória não cresce com a tabela.
+     */
+    @GetMapping(params = {"!apos", "!limite"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getTodasAsContas() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(escritorNdjson.escreverArray(DadosDaConta.class, repository::streamTodas));
     }
 
+    /**
+     * Uma página de até {@code limite} contas depois de {@code apos}; quando vem cheia, o cabeçalho
+     * {@code Link} aponta a próxima.
+     */
     @GetMapping
-    public List<Conta> getContas() {
-        return repository.findAll();
+    public ResponseEntity<List<DadosDaConta>> getContas(@RequestParam(defaultValue = "0") int apos,
+                                                 @RequestParam(defaultValue = "100") int limite) {
+        Pageable pagina = PaginaPorChave.limite(limite);
+        return listagem.medir(() ->
+                PaginaPorChave.resposta(repository.buscarPagina(apos, pagina), pagina, DadosDaConta::numeroConta));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamContas() {
+        return escritorNdjson.escrever(DadosDaConta.class, repository::streamTodas);
     }
 
     @PostMapping
     public Conta createConta(@RequestParam ModalidadeConta modalidade,
                              @RequestBody(required = false) Pessoa pessoa) {
-        return repository.save(new Conta(modalidade, pessoa));
+        return criacao.medir(() -> repository.save(new Conta(modalidade, pessoa)));
+    }
+
+    /**
+     * Aceita um array JSON ou NDJSON, lido à medida que os blocos são gravados.
+     */
+    @PostMapping(value = "lote", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResultadoDoCadastro createContasEmLote(InputStream corpo) throws IOException {
+        try (MappingIterator<NovaConta> contas = objectMapper.readerFor(NovaConta.class).readValues(corpo)) {
+            return cadastroEmLote.cadastrarContas(contas);
+        }
     }
 
     @DeleteMapping("{conta}")
     @ResponseStatus(HttpStatus.ACCEPTED)
     public void deleteConta(@PathVariable int conta) {
-        repository.deleteById(conta);
+        remocao.medir(() -> repository.deleteById(conta));
     }
 }
@@ -3,10 +3,12 @@ package tech.ada.banco.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import tech.ada.banco.services.Deposito;
+import tech.ada.banco.services.Idempotencia;
 
 import java.math.BigDecimal;
 
@@ -16,9 +18,12 @@ import java.math.BigDecimal;
 public class DepositoController {
 
     private final Deposito deposito;
+    private final Idempotencia idempotencia;
 
     @PostMapping("{conta}")
-    public BigDecimal deposito(@PathVariable int conta, @RequestParam BigDecimal valor) {
-        return deposito.executar(conta, valor);
+    public BigDecimal deposito(@PathVariable int conta, @RequestParam BigDecimal valor,
+                               @RequestHeader(name = Idempotencia.CABECALHO, required = false) String chave) {
+        return idempotencia.executar(chave, Idempotencia.requisicao("deposito", conta, valor),
+                () -> deposito.executar(conta, valor));
     }
 }
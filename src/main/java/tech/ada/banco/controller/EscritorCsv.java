@@ -0,0 +1,55 @@
+package tech.ada.banco.controller;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Escreve o resultado de uma consulta em stream como CSV, uma linha por item, como o
+ * {@link EscritorNdjson}: o contexto de persistência é limpo a cada item, e a saída passa por um
+ * buffer de tamanho fixo, então nem as entidades nem o arquivo se acumulam na memória.
+ */
+@Component
+class EscritorCsv {
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transacao;
+
+    EscritorCsv(EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.entityManager = entityManager;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.transacao.setReadOnly(true);
+    }
+
+    <T> StreamingResponseBody escrever(String cabecalho, Function<T, String> linha, Supplier<Stream<T>> consulta) {
+        return saida -> transacao.executeWithoutResult(status -> {
+            Writer escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+            try (Stream<T> itens = consulta.get()) {
+                escritor.write(cabecalho);
+                escritor.write('\n');
+                for (T item : (Iterable<T>) itens::iterator) {
+                    escritor.write(linha.apply(item));
+                    escritor.write('\n');
+                    entityManager.clear();
+                }
+                escritor.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
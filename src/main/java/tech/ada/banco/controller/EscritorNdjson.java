@@ -0,0 +1,76 @@
+package tech.ada.banco.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Escreve o resultado de uma consulta em stream como NDJSON, um item por linha, ou como um array JSON.
+ * O contexto de persistência é limpo depois de cada item (entidades ou projeções com entidades dentro),
+ * então a memória usada não cresce com a tabela.
+ */
+@Component
+class EscritorNdjson {
+
+    private static final byte[] VAZIO = {};
+    private static final byte[] FIM_DE_LINHA = {'\n'};
+    private static final byte[] VIRGULA = {','};
+
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transacao;
+
+    EscritorNdjson(ObjectMapper objectMapper, EntityManager entityManager,
+                   PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.transacao.setReadOnly(true);
+    }
+
+    <T> StreamingResponseBody escrever(Class<T> tipo, Supplier<Stream<T>> consulta) {
+        return escrever(tipo, consulta, VAZIO, VAZIO, FIM_DE_LINHA, VAZIO);
+    }
+
+    /**
+     * O mesmo stream como um único array JSON, para quem espera a lista inteira num só documento.
+     */
+    <T> StreamingResponseBody escreverArray(Class<T> tipo, Supplier<Stream<T>> consulta) {
+        return escrever(tipo, consulta, new byte[]{'['}, VIRGULA, VAZIO, new byte[]{']'});
+    }
+
+    private <T> StreamingResponseBody escrever(Class<T> tipo, Supplier<Stream<T>> consulta, byte[] inicio,
+                                               byte[] separador, byte[] depoisDeCadaItem, byte[] fim) {
+        ObjectWriter writer = objectMapper.writerFor(tipo);
+        return saida -> transacao.executeWithoutResult(status -> {
+            try (Stream<T> itens = consulta.get()) {
+                saida.write(inicio);
+                boolean primeiro = true;
+                for (T item : (Iterable<T>) itens::iterator) {
+                    if (!primeiro) {
+                        saida.write(separador);
+                    }
+                    saida.write(writer.writeValueAsBytes(item));
+                    saida.write(depoisDeCadaItem);
+                    entityManager.clear();
+                    if (primeiro) {
+                        saida.flush();
+                        primeiro = false;
+                    }
+                }
+                saida.write(fim);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
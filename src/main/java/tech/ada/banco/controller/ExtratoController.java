@@ -0,0 +1,83 @@
+package tech.ada.banco.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.exceptions.ValorInvalidoException;
+import tech.ada.banco.model.Movimento;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.repository.MovimentoRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Extrato de uma conta entre {@code de} (inclusive) e {@code ate} (exclusive), instantes ISO-8601;
+ * sem eles, desde o primeiro ou até o último movimento.
+ */
+@RestController
+@RequestMapping("/contas/{conta}/extrato")
+@RequiredArgsConstructor
+public class ExtratoController {
+
+    private static final Instant SEM_LIMITE = Instant.parse("9999-12-31T00:00:00Z");
+
+    private final ContaRepository contas;
+    private final MovimentoRepository repository;
+    private final EscritorCsv escritorCsv;
+
+    /**
+     * {@code apos} é o id do último movimento da página anterior, como no {@code Link} da resposta.
+     */
+    @GetMapping
+    public ResponseEntity<List<Movimento>> getExtrato(@PathVariable int conta,
+                                                      @RequestParam(required = false) Instant de,
+                                                      @RequestParam(required = false) Instant ate,
+                                                      @RequestParam(defaultValue = "0") long apos,
+                                                      @RequestParam(defaultValue = "100") int limite) {
+        verificarConta(conta);
+        Instant inicio = de == null ? Instant.EPOCH : de;
+        Instant dataHora = apos == 0 ? inicio
+                : repository.buscarDataHora(conta, apos).orElseThrow(ValorInvalidoException::new);
+        Pageable pagina = PaginaPorChave.limite(limite);
+        return PaginaPorChave.resposta(
+                repository.buscarPagina(conta, dataHora, apos, fim(ate), pagina), pagina, Movimento::getId);
+    }
+
+    @GetMapping(produces = EscritorCsv.TEXT_CSV_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarExtrato(@PathVariable int conta,
+                                                                 @RequestParam(required = false) Instant de,
+                                                                 @RequestParam(required = false) Instant ate) {
+        verificarConta(conta);
+        Instant inicio = de == null ? Instant.EPOCH : de;
+        StreamingResponseBody corpo = escritorCsv.escrever("id,dataHora,tipo,valor,contraparte",
+                ExtratoController::linha, () -> repository.streamExtrato(conta, inicio, fim(ate)));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"extrato-" + conta + ".csv\"")
+                .body(corpo);
+    }
+
+    private void verificarConta(int conta) {
+        if (!contas.existsById(conta)) {
+            throw new ResourceNotFoundException();
+        }
+    }
+
+    private static Instant fim(Instant ate) {
+        return ate == null ? SEM_LIMITE : ate;
+    }
+
+    private static String linha(Movimento movimento) {
+        return movimento.getId() + "," + movimento.getDataHora() + "," + movimento.getTipo() + ","
+                + movimento.getValor().toPlainString() + ","
+                + (movimento.getContraparte() == null ? "" : movimento.getContraparte());
+    }
+}
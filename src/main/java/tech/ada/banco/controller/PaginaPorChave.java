@@ -0,0 +1,41 @@
+package tech.ada.banco.controller;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Paginação por chave: cada página começa depois da última chave da anterior, então o custo
+ * não cresce com a profundidade. Quando a página vem cheia, o cabeçalho {@code Link} aponta a próxima.
+ * Só vale quando o cliente envia {@code apos} ou {@code limite}; sem eles as listagens devolvem a lista
+ * inteira, em stream.
+ */
+final class PaginaPorChave {
+
+    static final int LIMITE_MAXIMO = 1000;
+
+    private PaginaPorChave() {
+    }
+
+    static Pageable limite(int limite) {
+        return PageRequest.ofSize(Math.max(1, Math.min(limite, LIMITE_MAXIMO)));
+    }
+
+    static <T> ResponseEntity<List<T>> resposta(List<T> pagina, Pageable limite, Function<T, Object> chave) {
+        if (pagina.size() < limite.getPageSize()) {
+            return ResponseEntity.ok(pagina);
+        }
+        String proxima = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("apos", chave.apply(pagina.get(pagina.size() - 1)))
+                .replaceQueryParam("limite", limite.getPageSize())
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + proxima + ">; rel=\"next\"")
+                .body(pagina);
+    }
+}
@@ -1,18 +1,33 @@
 package tech.ada.banco.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tech.ada.banco.dto.ResultadoDoCadastro;
+import tech.ada.banco.exceptions.CpfJaCadastradoException;
 import tech.ada.banco.exceptions.ResourceNotFoundException;
 import tech.ada.banco.model.Pessoa;
 import tech.ada.banco.repository.PessoaRepository;
+import tech.ada.banco.services.CadastroEmLote;
+import tech.ada.banco.services.PessoasPorCpf;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/pessoas")
@@ -20,24 +35,87 @@ import java.util.List;
 public class PessoaController {
 
     private final PessoaRepository repository;
+    private final EscritorNdjson escritorNdjson;
+    private final CadastroEmLote cadastroEmLote;
+    private final ObjectMapper objectMapper;
+    private final PessoasPorCpf pessoasPorCpf;
 
     @GetMapping("{id}")
     public Pessoa getPessoa(@PathVariable int id) {
         return repository.findById(id).orElseThrow(ResourceNotFoundException::new);
     }
 
+    /**
+     * Aceita o CPF com ou sem pontuação.
+     */
+    @GetMapping(params = "cpf")
+    public Pessoa getPessoaPorCpf(@RequestParam String cpf) {
+        return pessoasPorCpf.buscar(cpf).orElseThrow(ResourceNotFoundException::new);
+    }
+
+    /**
+     * Sem {@code apos} nem {@code limite}, a lista inteira, como antes da paginação; é escrita em
+     * stream, então a memória não cresce com a tabela.
+     */
+    @GetMapping(params = {"!apos", "!limite", "!cpf"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getTodasAsPessoas() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(escritorNdjson.escreverArray(Pessoa.class, repository::streamTodas));
+    }
+
+    /**
+     * Uma página de até {@code limite} pessoas depois de {@code apos}; quando vem cheia, o cabeçalho
+     * {@code Link} aponta a próxima.
+     */
     @GetMapping
-    public List<Pessoa> getPessoas() {
-        return repository.findAll();
+    public ResponseEntity<List<Pessoa>> getPessoas(@RequestParam(defaultValue = "0") long apos,
+                                                   @RequestParam(defaultValue = "100") int limite) {
+        Pageable pagina = PaginaPorChave.limite(limite);
+        return PaginaPorChave.resposta(repository.buscarPagina(apos, pagina), pagina, Pessoa::getId);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamPessoas() {
+        return escritorNdjson.escrever(Pessoa.class, repository::streamTodas);
     }
 
     @PostMapping
     public Pessoa createPessoa(@RequestBody Pessoa pessoa) {
-        return repository.save(pessoa);
+        Pessoa criada = gravar(pessoa);
+        pessoasPorCpf.invalidar(criada.getCPF());
+        return criada;
+    }
+
+    /**
+     * Aceita um array JSON ou NDJSON, lido à medida que os blocos são gravados.
+     */
+    @PostMapping(value = "lote", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResultadoDoCadastro createPessoasEmLote(InputStream corpo) throws IOException {
+        try (MappingIterator<Pessoa> pessoas = objectMapper.readerFor(Pessoa.class).readValues(corpo)) {
+            return cadastroEmLote.cadastrarPessoas(pessoas);
+        }
     }
 
     @PutMapping
     public Pessoa atualizaPessoa(@RequestBody Pessoa pessoa) {
-        return repository.save(pessoa);
+        Optional<String> cpfAnterior = pessoa.getId() == null
+                ? Optional.empty()
+                : repository.buscarCpfNormalizado(pessoa.getId());
+        Pessoa atualizada = gravar(pessoa);
+        cpfAnterior.ifPresent(pessoasPorCpf::invalidar);
+        pessoasPorCpf.invalidar(atualizada.getCPF());
+        return atualizada;
+    }
+
+    private Pessoa gravar(Pessoa pessoa) {
+        try {
+            return repository.save(pessoa);
+        } catch (DataIntegrityViolationException e) {
+            if (CpfJaCadastradoException.violaCpfUnico(e)) {
+                throw new CpfJaCadastradoException();
+            }
+            throw e;
+        }
     }
 }
@@ -1,14 +1,30 @@
 package tech.ada.banco.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import tech.ada.banco.dto.ResultadoPix;
+import tech.ada.banco.dto.TransferenciaPix;
+import tech.ada.banco.services.Idempotencia;
 import tech.ada.banco.services.Pix;
+import tech.ada.banco.services.PixEmLote;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/pix")
@@ -16,10 +32,45 @@ import java.math.BigDecimal;
 public class PixController {
 
     private final Pix pix;
+    private final PixEmLote pixEmLote;
+    private final ObjectMapper objectMapper;
+    private final Idempotencia idempotencia;
 
     @PostMapping("{conta}")
     public BigDecimal createPixTransaction(@PathVariable int conta, @RequestParam int destino,
-                                           @RequestParam BigDecimal valor) {
-        return pix.executar(conta, destino, valor);
+                                           @RequestParam BigDecimal valor,
+                                           @RequestHeader(name = Idempotencia.CABECALHO, required = false)
+                                           String chave) {
+        return idempotencia.executar(chave, Idempotencia.requisicao("pix", conta, destino, valor),
+                () -> pix.executar(conta, destino, valor));
+    }
+
+    @PostMapping(value = "lote", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<ResultadoPix> createPixEmLote(@RequestBody List<TransferenciaPix> transferencias) {
+        return pixEmLote.executar(transferencias);
+    }
+
+    /**
+     * Variante NDJSON: lê uma transferência por linha e escreve um resultado por linha à medida
+     * que cada bloco é gravado, sem carregar o lote inteiro.
+     */
+    @PostMapping(value = "lote", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void createPixEmLoteNdjson(InputStream corpo, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream saida = response.getOutputStream();
+        ObjectWriter writer = objectMapper.writerFor(ResultadoPix.class);
+        try (MappingIterator<TransferenciaPix> transferencias =
+                     objectMapper.readerFor(TransferenciaPix.class).readValues(corpo)) {
+            pixEmLote.executar(transferencias, resultado -> {
+                try {
+                    saida.write(writer.writeValueAsBytes(resultado));
+                    saida.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        saida.flush();
     }
 }
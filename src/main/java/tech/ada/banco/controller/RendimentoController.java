@@ -0,0 +1,30 @@
+package tech.ada.banco.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import tech.ada.banco.dto.ResultadoDoRendimento;
+import tech.ada.banco.services.RendimentoDaPoupanca;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/rendimento")
+@RequiredArgsConstructor
+public class RendimentoController {
+
+    private final RendimentoDaPoupanca rendimento;
+
+    /**
+     * Credita (ou retoma) o rendimento da data, por padrão a de hoje; a resposta só vem no fim. Datas futuras
+     * e datas anteriores ao último dia concluído recebem 400.
+     */
+    @PostMapping
+    public ResultadoDoRendimento creditar(@RequestParam(required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
+        return rendimento.executar(data != null ? data : LocalDate.now());
+    }
+}
@@ -2,9 +2,11 @@ package tech.ada.banco.controller;
 
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import tech.ada.banco.services.Idempotencia;
 import tech.ada.banco.services.Saque;
 
 import java.math.BigDecimal;
@@ -14,13 +16,17 @@ import java.math.BigDecimal;
 public class SaqueController {
 
     private final Saque saque;
+    private final Idempotencia idempotencia;
 
-    public SaqueController(Saque saque) {
+    public SaqueController(Saque saque, Idempotencia idempotencia) {
         this.saque = saque;
+        this.idempotencia = idempotencia;
     }
 
     @PostMapping("{conta}")
-    public BigDecimal createSaque(@PathVariable int conta, @RequestParam BigDecimal valor) {
-        return saque.executar(conta, valor);
+    public BigDecimal createSaque(@PathVariable int conta, @RequestParam BigDecimal valor,
+                                  @RequestHeader(name = Idempotencia.CABECALHO, required = false) String chave) {
+        return idempotencia.executar(chave, Idempotencia.requisicao("saque", conta, valor),
+                () -> saque.executar(conta, valor));
     }
 }
@@ -0,0 +1,20 @@
+package tech.ada.banco.dto;
+
+import tech.ada.banco.model.Dinheiro;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.model.Pessoa;
+
+import java.math.BigDecimal;
+
+/**
+ * Projeção das consultas de contas, com os mesmos campos que a entidade expõe em JSON: lida numa só
+ * consulta, com o titular, sem colocar a conta no contexto de persistência.
+ */
+public record DadosDaConta(int numeroConta, ModalidadeConta tipo, BigDecimal saldo, Long versao, String agencia,
+                           Pessoa titular) {
+
+    public DadosDaConta(int numeroConta, ModalidadeConta tipo, Long saldo, Long versao, String agencia,
+                        Pessoa titular) {
+        this(numeroConta, tipo, Dinheiro.reais(saldo), versao, agencia, titular);
+    }
+}
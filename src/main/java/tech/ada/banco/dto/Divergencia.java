@@ -0,0 +1,17 @@
+package tech.ada.banco.dto;
+
+import tech.ada.banco.model.Dinheiro;
+
+import java.math.BigDecimal;
+
+/**
+ * Uma conta cujo saldo não bate com a soma dos seus movimentos; {@code diferenca} é
+ * {@code saldo - esperado}.
+ */
+public record Divergencia(int numeroConta, BigDecimal saldo, BigDecimal esperado, BigDecimal diferenca) {
+
+    public static Divergencia de(int numeroConta, long saldo, long esperado) {
+        return new Divergencia(numeroConta, Dinheiro.reais(saldo), Dinheiro.reais(esperado),
+                Dinheiro.reais(saldo - esperado));
+    }
+}
@@ -0,0 +1,9 @@
+package tech.ada.banco.dto;
+
+import tech.ada.banco.model.ModalidadeConta;
+
+/**
+ * Conta de um cadastro em lote; o titular, se houver, é a pessoa já cadastrada com esse CPF.
+ */
+public record NovaConta(ModalidadeConta modalidade, String cpfTitular) {
+}
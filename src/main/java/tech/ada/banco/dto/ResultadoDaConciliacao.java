@@ -0,0 +1,24 @@
+package tech.ada.banco.dto;
+
+import tech.ada.banco.model.Dinheiro;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Os totais de uma conciliação: a soma dos saldos de todas as contas, a soma que os movimentos
+ * esperam, e as contas que divergiram mesmo depois da rechecagem. {@code corte} é o instante com que
+ * os movimentos somados à base foram marcados.
+ */
+public record ResultadoDaConciliacao(Instant corte, long contas, int particoes, long divergencias,
+                                     BigDecimal saldoTotal, BigDecimal esperadoTotal, long milissegundos,
+                                     long contasPorSegundo) {
+
+    public static ResultadoDaConciliacao de(Instant corte, long contas, int particoes, long divergencias,
+                                            long saldoTotal, long esperadoTotal, long nanos) {
+        long contasPorSegundo = nanos > 0 ? contas * TimeUnit.SECONDS.toNanos(1) / nanos : 0;
+        return new ResultadoDaConciliacao(corte, contas, particoes, divergencias, Dinheiro.reais(saldoTotal),
+                Dinheiro.reais(esperadoTotal), TimeUnit.NANOSECONDS.toMillis(nanos), contasPorSegundo);
+    }
+}
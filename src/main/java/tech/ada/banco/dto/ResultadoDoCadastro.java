@@ -0,0 +1,17 @@
+package tech.ada.banco.dto;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Um cadastro em lote: as linhas inseridas e rejeitadas e, se a entrada deixou de ser legível antes do
+ * fim, a linha em que a leitura parou; as linhas anteriores a ela já estão gravadas.
+ */
+public record ResultadoDoCadastro(long inseridas, long rejeitadas, Long interrompidoNaLinha, long milissegundos,
+                                  long linhasPorSegundo) {
+
+    public static ResultadoDoCadastro de(long inseridas, long rejeitadas, Long interrompidoNaLinha, long nanos) {
+        long linhasPorSegundo = nanos > 0 ? inseridas * TimeUnit.SECONDS.toNanos(1) / nanos : 0;
+        return new ResultadoDoCadastro(inseridas, rejeitadas, interrompidoNaLinha, TimeUnit.NANOSECONDS.toMillis(nanos),
+                linhasPorSegundo);
+    }
+}
@@ -0,0 +1,20 @@
+package tech.ada.banco.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uma execução do rendimento: as contas e o valor creditados nesta execução e, quando ela retomou
+ * uma anterior, a última conta que já estava creditada.
+ */
+public record ResultadoDoRendimento(LocalDate data, long contas, BigDecimal creditado, Integer retomadoApos,
+                                    long milissegundos, long contasPorSegundo) {
+
+    public static ResultadoDoRendimento de(LocalDate data, long contas, BigDecimal creditado, Integer retomadoApos,
+                                           long nanos) {
+        long contasPorSegundo = nanos > 0 ? contas * TimeUnit.SECONDS.toNanos(1) / nanos : 0;
+        return new ResultadoDoRendimento(data, contas, creditado, retomadoApos, TimeUnit.NANOSECONDS.toMillis(nanos),
+                contasPorSegundo);
+    }
+}
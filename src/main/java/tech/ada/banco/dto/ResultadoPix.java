@@ -0,0 +1,28 @@
+package tech.ada.banco.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+
+/**
+ * Resultado de uma transferência de um lote; {@code indice} é a posição dela na entrada. Se a entrada
+ * deixou de ser legível antes do fim, o último resultado traz a linha em que a leitura parou
+ * ({@code interrompidoNaLinha}); as transferências anteriores a ela já estão gravadas.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ResultadoPix(int indice, boolean sucesso, BigDecimal saldoOrigem, String erro,
+                           Long interrompidoNaLinha) {
+
+    public static ResultadoPix sucesso(int indice, BigDecimal saldoOrigem) {
+        return new ResultadoPix(indice, true, saldoOrigem, null, null);
+    }
+
+    public static ResultadoPix falha(int indice, String erro) {
+        return new ResultadoPix(indice, false, null, erro, null);
+    }
+
+    public static ResultadoPix interrompido(int indice) {
+        return new ResultadoPix(indice, false, null, "Entrada ilegível; a leitura parou nesta linha.",
+                (long) indice + 1);
+    }
+}
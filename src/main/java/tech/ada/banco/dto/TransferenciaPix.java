@@ -0,0 +1,6 @@
+package tech.ada.banco.dto;
+
+import java.math.BigDecimal;
+
+public record TransferenciaPix(int origem, int destino, BigDecimal valor) {
+}
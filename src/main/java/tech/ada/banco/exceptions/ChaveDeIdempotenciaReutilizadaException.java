@@ -0,0 +1,13 @@
+package tech.ada.banco.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY,
+        reason = "Chave de idempotência já usada numa requisição diferente.")
+public class ChaveDeIdempotenciaReutilizadaException extends RuntimeException {
+
+    public ChaveDeIdempotenciaReutilizadaException() {
+        super("Chave de idempotência já usada numa requisição diferente.");
+    }
+}
@@ -0,0 +1,12 @@
+package tech.ada.banco.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.CONFLICT, reason = "Conciliação já em andamento.")
+public class ConciliacaoEmAndamentoException extends RuntimeException {
+
+    public ConciliacaoEmAndamentoException() {
+        super("Conciliação já em andamento.");
+    }
+}
@@ -0,0 +1,30 @@
+package tech.ada.banco.exceptions;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Conflito de concorrência que continuou depois de todas as retentativas. Nada foi gravado; a resposta
+ * é 503 com {@code Retry-After} para o cliente repetir a operação.
+ */
+public class ConflitoDeConcorrenciaException extends ResponseStatusException {
+
+    private final long esperaSegundos;
+
+    public ConflitoDeConcorrenciaException(long esperaSegundos, Throwable causa) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Conflito de concorrência; tente novamente.", causa);
+        this.esperaSegundos = Math.max(1, esperaSegundos);
+    }
+
+    public long getEsperaSegundos() {
+        return esperaSegundos;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(esperaSegundos));
+        return headers;
+    }
+}
@@ -0,0 +1,30 @@
+package tech.ada.banco.exceptions;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import tech.ada.banco.model.Pessoa;
+
+import java.util.Locale;
+
+@ResponseStatus(value = HttpStatus.CONFLICT, reason = "Já existe uma pessoa com este CPF.")
+public class CpfJaCadastradoException extends RuntimeException {
+
+    public CpfJaCadastradoException() {
+        super("Já existe uma pessoa com este CPF.");
+    }
+
+    /**
+     * Se a violação na cadeia de causas é do índice único do CPF ({@code PESSOA_CPF_UK}). Vale tanto para a
+     * {@code DataIntegrityViolationException} dos repositórios quanto para a {@code PersistenceException} de um
+     * {@code flush} direto no {@code EntityManager}; as demais violações não são CPF repetido.
+     */
+    public static boolean violaCpfUnico(Throwable erro) {
+        for (Throwable causa = erro; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConstraintViolationException violacao && violacao.getConstraintName() != null) {
+                return violacao.getConstraintName().toUpperCase(Locale.ROOT).contains(Pessoa.INDICE_DO_CPF);
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,12 @@
+package tech.ada.banco.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Data do rendimento inválida.")
+public class DataDoRendimentoInvalidaException extends RuntimeException {
+
+    public DataDoRendimentoInvalidaException() {
+        super("Data do rendimento inválida.");
+    }
+}
@@ -0,0 +1,12 @@
+package tech.ada.banco.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS, reason = "Limite de requisições excedido.")
+public class LimiteExcedidoException extends RuntimeException {
+
+    public LimiteExcedidoException() {
+        super("Limite de requisições excedido.");
+    }
+}
@@ -0,0 +1,12 @@
+package tech.ada.banco.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.CONFLICT, reason = "Rendimento da poupança já em andamento.")
+public class RendimentoEmAndamentoException extends RuntimeException {
+
+    public RendimentoEmAndamentoException() {
+        super("Rendimento da poupança já em andamento.");
+    }
+}
@@ -0,0 +1,12 @@
+package tech.ada.banco.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.CONFLICT, reason = "Requisição com a mesma chave de idempotência em andamento.")
+public class RequisicaoEmAndamentoException extends RuntimeException {
+
+    public RequisicaoEmAndamentoException() {
+        super("Requisição com a mesma chave de idempotência em andamento.");
+    }
+}
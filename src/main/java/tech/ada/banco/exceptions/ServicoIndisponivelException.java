@@ -0,0 +1,12 @@
+package tech.ada.banco.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Serviço temporariamente indisponível.")
+public class ServicoIndisponivelException extends RuntimeException {
+
+    public ServicoIndisponivelException() {
+        super("Serviço temporariamente indisponível.");
+    }
+}
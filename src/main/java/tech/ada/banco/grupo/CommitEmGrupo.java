@@ -0,0 +1,259 @@
+package tech.ada.banco.grupo;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.exceptions.SaldoInsuficienteException;
+import tech.ada.banco.exceptions.ServicoIndisponivelException;
+import tech.ada.banco.exceptions.ValorInvalidoException;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.TipoOperacao;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.services.FilaComConsumidor;
+import tech.ada.banco.services.MotorDeSaldo;
+import tech.ada.banco.services.RegistroDeOperacoes;
+import tech.ada.banco.services.Retentativa;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aplica depósitos, saques e transferências em grupos, uma transação por grupo em vez de uma por
+ * operação. Os pedidos entram numa fila limitada ({@code banco.grupo.capacidade}); uma thread de
+ * fundo pega o primeiro, espera mais pedidos por até {@code banco.grupo.janela-us} ou até juntar
+ * {@code banco.grupo.tamanho-maximo-do-lote}, e aplica o grupo inteiro numa transação: bloqueia as
+ * contas envolvidas em ordem crescente de número, aplica os pedidos em memória na ordem de chegada
+ * e grava cada conta alterada uma só vez no commit, junto com os movimentos do extrato de cada pedido
+ * aplicado.
+ *
+ * <p>Cada pedido tem o seu resultado: um pedido que falha (saldo insuficiente, conta inexistente)
+ * não altera nenhum saldo e não derruba os demais. O futuro de cada pedido só é completado depois
+ * do commit; se a transação do grupo falhar mesmo após as retentativas, todos os pedidos do grupo
+ * falham com o mesmo erro. Com a fila cheia o pedido é recusado com {@link ServicoIndisponivelException}.
+ */
+@Component
+@ConditionalOnProperty(name = "banco.saldo.motor", havingValue = "grupo")
+@Slf4j
+public class CommitEmGrupo implements MotorDeSaldo {
+
+    private final ContaRepository repository;
+    private final TransactionOperations transacao;
+    private final Retentativa retentativa;
+    private final RegistroDeOperacoes registro;
+    private final FilaComConsumidor<Pedido> fila;
+    private final long janelaNanos;
+    private final int tamanhoMaximoDoLote;
+    private final DistributionSummary tamanhoDosLotes;
+    private final Thread coletor;
+
+    public CommitEmGrupo(ContaRepository repository, TransactionOperations transacao, Retentativa retentativa,
+                         RegistroDeOperacoes registro,
+                         @Value("${banco.grupo.janela-us:500}") long janelaMicros,
+                         @Value("${banco.grupo.tamanho-maximo-do-lote:256}") int tamanhoMaximoDoLote,
+                         @Value("${banco.grupo.capacidade:10000}") int capacidade,
+                         MeterRegistry registry) {
+        this.repository = repository;
+        this.transacao = transacao;
+        this.retentativa = retentativa;
+        this.registro = registro;
+        this.fila = new FilaComConsumidor<>(new LinkedBlockingQueue<>(Math.max(1, capacidade)));
+        this.janelaNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, janelaMicros));
+        this.tamanhoMaximoDoLote = Math.max(1, tamanhoMaximoDoLote);
+        this.tamanhoDosLotes = DistributionSummary.builder("banco.grupo.lote")
+                .description("Pedidos aplicados por transação")
+                .baseUnit("pedidos")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue((double) this.tamanhoMaximoDoLote)
+                .register(registry);
+        Gauge.builder("banco.grupo.pendentes", fila, FilaComConsumidor::tamanho)
+                .description("Pedidos aguardando o próximo grupo")
+                .register(registry);
+
+        coletor = new Thread(this::coletar, "commit-em-grupo");
+        coletor.setDaemon(true);
+        coletor.start();
+    }
+
+    @Override
+    public long creditar(int numeroConta, long centavos) {
+        return FilaComConsumidor.aguardar(enviar(TipoOperacao.DEPOSITO, numeroConta, numeroConta, centavos));
+    }
+
+    @Override
+    public long debitar(int numeroConta, long centavos) {
+        return FilaComConsumidor.aguardar(enviar(TipoOperacao.SAQUE, numeroConta, numeroConta, centavos));
+    }
+
+    @Override
+    public long transferir(int contaOrigem, int contaDestino, long centavos) {
+        return FilaComConsumidor.aguardar(enviar(TipoOperacao.PIX, contaOrigem, contaDestino, centavos));
+    }
+
+    /**
+     * Põe o pedido na fila do próximo grupo.
+     *
+     * @return o futuro com o saldo da conta de origem em centavos depois do commit do grupo
+     */
+    public CompletableFuture<Long> enviar(TipoOperacao tipo, int contaOrigem, int contaDestino, long centavos) {
+        Conta.validarValor(centavos);
+        Pedido pedido = new Pedido(tipo, contaOrigem, contaDestino, centavos);
+        fila.colocar(pedido, false);
+        return pedido.resultado;
+    }
+
+    /**
+     * Para de aceitar pedidos e espera o coletor aplicar os que já estavam na fila.
+     */
+    @PreDestroy
+    public void encerrar() {
+        fila.fechar();
+        try {
+            coletor.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void coletar() {
+        List<Pedido> lote = new ArrayList<>(tamanhoMaximoDoLote);
+        try {
+            while (fila.temPedidos()) {
+                Pedido primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                lote.add(primeiro);
+                long prazo = System.nanoTime() + janelaNanos;
+                while (lote.size() < tamanhoMaximoDoLote) {
+                    fila.drainTo(lote, tamanhoMaximoDoLote - lote.size());
+                    long restante = prazo - System.nanoTime();
+                    if (lote.size() >= tamanhoMaximoDoLote || restante <= 0) {
+                        break;
+                    }
+                    Pedido proximo = fila.poll(restante, TimeUnit.NANOSECONDS);
+                    if (proximo == null) {
+                        break;
+                    }
+                    lote.add(proximo);
+                }
+                gravar(lote);
+                lote.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            fila.drainTo(lote);
+            for (Pedido pedido : lote) {
+                pedido.resultado.completeExceptionally(new ServicoIndisponivelException());
+            }
+        }
+    }
+
+    private void gravar(List<Pedido> lote) {
+        Object[] resultados;
+        try {
+            resultados = retentativa.executar(() -> transacao.execute(status -> aplicar(lote)));
+        } catch (RuntimeException e) {
+            log.error("Falha ao gravar um grupo de {} pedidos", lote.size(), e);
+            for (Pedido pedido : lote) {
+                pedido.resultado.completeExceptionally(e);
+            }
+            return;
+        }
+        tamanhoDosLotes.record(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            if (resultados[i] instanceof RuntimeException falha) {
+                lote.get(i).resultado.completeExceptionally(falha);
+            } else {
+                lote.get(i).resultado.complete((Long) resultados[i]);
+            }
+        }
+    }
+
+    /**
+     * Roda dentro da transação do grupo, e de novo desde o início a cada retentativa.
+     *
+     * @return para cada pedido, o saldo da origem em centavos ou a exceção que o recusou
+     */
+    private Object[] aplicar(List<Pedido> lote) {
+        Set<Integer> numerosConta = new HashSet<>();
+        for (Pedido pedido : lote) {
+            numerosConta.add(pedido.contaOrigem);
+            numerosConta.add(pedido.contaDestino);
+        }
+        Map<Integer, Conta> contas = new HashMap<>();
+        for (Conta conta : repository.findContasParaAtualizacao(numerosConta)) {
+            contas.put(conta.getNumeroConta(), conta);
+        }
+
+        Object[] resultados = new Object[lote.size()];
+        for (int i = 0; i < lote.size(); i++) {
+            Pedido pedido = lote.get(i);
+            try {
+                resultados[i] = aplicar(pedido, contas);
+                registro.lancar(pedido.tipo, pedido.contaOrigem, pedido.contaDestino, pedido.centavos);
+            } catch (ValorInvalidoException | SaldoInsuficienteException | ResourceNotFoundException e) {
+                resultados[i] = e;
+            }
+        }
+        return resultados;
+    }
+
+    private static long aplicar(Pedido pedido, Map<Integer, Conta> contas) {
+        Conta origem = conta(contas, pedido.contaOrigem);
+        switch (pedido.tipo) {
+            case DEPOSITO -> origem.deposito(pedido.centavos);
+            case SAQUE -> origem.saque(pedido.centavos);
+            case PIX -> {
+                Conta destino = conta(contas, pedido.contaDestino);
+                origem.saque(pedido.centavos);
+                try {
+                    destino.deposito(pedido.centavos);
+                } catch (RuntimeException e) {
+                    origem.deposito(pedido.centavos);
+                    throw e;
+                }
+            }
+        }
+        return origem.getSaldoEmCentavos();
+    }
+
+    private static Conta conta(Map<Integer, Conta> contas, int numeroConta) {
+        Conta conta = contas.get(numeroConta);
+        if (conta == null) {
+            throw new ResourceNotFoundException();
+        }
+        return conta;
+    }
+
+    private static final class Pedido {
+
+        final TipoOperacao tipo;
+        final int contaOrigem;
+        final int contaDestino;
+        final long centavos;
+        final CompletableFuture<Long> resultado = new CompletableFuture<>();
+
+        Pedido(TipoOperacao tipo, int contaOrigem, int contaDestino, long centavos) {
+            this.tipo = tipo;
+            this.contaOrigem = contaOrigem;
+            this.contaDestino = contaDestino;
+            this.centavos = centavos;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package tech.ada.banco.journal;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Journal binário, só de acréscimo, das operações sobre saldos. Os registros têm tamanho fixo e
+ * são escritos direto em segmentos mapeados em memória ({@code journal-<primeira sequência>.dat}),
+ * então gravar um registro é só copiar 40 bytes para o page cache: sobrevive à queda do processo,
+ * e com {@code banco.journal.forcar-gravacao} também à queda da máquina.
+ *
+ * <p>Layout de um registro: sequência (8), instante em epoch ms (8), centavos (8), conta de origem
+ * (4), conta de destino (4), tipo (4) e CRC32C dos 36 bytes anteriores (4). A leitura para no
+ * primeiro registro fora de sequência ou com CRC inválido, que é como termina um journal
+ * interrompido no meio de uma escrita.
+ *
+ * <p>Snapshots ({@code snapshot-<sequência>.dat}) guardam os saldos de todas as contas até uma
+ * sequência; a recuperação parte do último snapshot válido e reaplica só o que veio depois. Os
+ * segmentos nunca são apagados: são a trilha de auditoria.
+ */
+@Component
+@ConditionalOnProperty(name = "banco.journal.habilitado", havingValue = "true")
+@Slf4j
+public class Journal implements Closeable {
+
+    static final int TAMANHO_DO_REGISTRO = 40;
+    private static final int TAMANHO_SEM_CRC = TAMANHO_DO_REGISTRO - Integer.BYTES;
+    private static final String PREFIXO_SEGMENTO = "journal-";
+    private static final String PREFIXO_SNAPSHOT = "snapshot-";
+    private static final String EXTENSAO = ".dat";
+    private static final int MAGICO_SNAPSHOT = 0x534E4150;
+    private static final int SNAPSHOTS_MANTIDOS = 2;
+
+    private final Path diretorio;
+    private final int registrosPorSegmento;
+    private final boolean forcarGravacao;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final CRC32C crc = new CRC32C();
+
+    private FileChannel canal;
+    private MappedByteBuffer segmento;
+    private ByteBuffer visao;
+    private long ultimaSequencia;
+
+    public Journal(@Value("${banco.journal.diretorio:journal}") Path diretorio,
+                   @Value("${banco.journal.registros-por-segmento:1048576}") int registrosPorSegmento,
+                   @Value("${banco.journal.forcar-gravacao:false}") boolean forcarGravacao) throws IOException {
+        if (registrosPorSegmento < 1 || registrosPorSegmento > Integer.MAX_VALUE / TAMANHO_DO_REGISTRO) {
+            throw new IllegalArgumentException("registros-por-segmento fora do intervalo: " + registrosPorSegmento);
+        }
+        this.diretorio = diretorio;
+        this.registrosPorSegmento = registrosPorSegmento;
+        this.forcarGravacao = forcarGravacao;
+        Files.createDirectories(diretorio);
+
+        List<Long> inicios = inicios(PREFIXO_SEGMENTO);
+        long inicio = inicios.isEmpty() ? 1 : inicios.get(inicios.size() - 1);
+        abrirSegmento(inicio);
+        long esperada = inicio;
+        int posicao = 0;
+        while (posicao + TAMANHO_DO_REGISTRO <= segmento.capacity() && valido(visao, posicao, esperada, crc)) {
+            posicao += TAMANHO_DO_REGISTRO;
+            esperada++;
+        }
+        segmento.position(posicao);
+        ultimaSequencia = esperada - 1;
+        log.info("Journal aberto em {}, última sequência {}", diretorio.toAbsolutePath(), ultimaSequencia);
+    }
+
+    /**
+     * Acrescenta um registro e devolve a sua sequência. As sequências são contíguas e seguem a
+     * ordem das chamadas.
+     */
+    public long registrar(TipoRegistro tipo, int contaOrigem, int contaDestino, long centavos) {
+        lock.lock();
+        try {
+            if (segmento == null) {
+                throw new IllegalStateException("Journal fechado");
+            }
+            if (segmento.remaining() < TAMANHO_DO_REGISTRO) {
+                rolar();
+            }
+            long sequencia = ultimaSequencia + 1;
+            int posicao = segmento.position();
+            segmento.putLong(sequencia)
+                    .putLong(System.currentTimeMillis())
+                    .putLong(centavos)
+                    .putInt(contaOrigem)
+                    .putInt(contaDestino)
+                    .putInt(tipo.getCodigo());
+            segmento.putInt(checksum(visao, posicao, crc));
+            if (forcarGravacao) {
+                segmento.force(posicao, TAMANHO_DO_REGISTRO);
+            }
+            ultimaSequencia = sequencia;
+            return sequencia;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getUltimaSequencia() {
+        lock.lock();
+        try {
+            return ultimaSequencia;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Entrega, em ordem, os registros a partir da sequência informada até o último gravado quando a
+     * leitura começou.
+     */
+    public void ler(long aPartirDe, Consumer<RegistroDoJournal> consumidor) {
+        long ate = getUltimaSequencia();
+        List<Long> inicios = inicios(PREFIXO_SEGMENTO);
+        long esperada = inicios.isEmpty() ? 1 : inicios.get(0);
+        for (int i = 0; i < inicios.size() && esperada <= ate; i++) {
+            if (inicios.get(i) != esperada) {
+                log.warn("Journal com lacuna antes da sequência {}, leitura interrompida", inicios.get(i));
+                return;
+            }
+            if (i + 1 < inicios.size() && inicios.get(i + 1) <= aPartirDe) {
+                esperada = inicios.get(i + 1);
+                continue;
+            }
+            try (FileChannel leitura = FileChannel.open(arquivo(PREFIXO_SEGMENTO, esperada), StandardOpenOption.READ)) {
+                ByteBuffer buffer = leitura.map(FileChannel.MapMode.READ_ONLY, 0, leitura.size());
+                CRC32C crcDaLeitura = new CRC32C();
+                for (int posicao = 0; posicao + TAMANHO_DO_REGISTRO <= buffer.capacity() && esperada <= ate;
+                     posicao += TAMANHO_DO_REGISTRO, esperada++) {
+                    if (!valido(buffer, posicao, esperada, crcDaLeitura)) {
+                        return;
+                    }
+                    if (esperada >= aPartirDe) {
+                        consumidor.accept(registro(buffer, posicao));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Grava os saldos de todas as contas na sequência informada. O arquivo é escrito à parte e
+     * renomeado no fim, então um snapshot interrompido nunca substitui o anterior.
+     */
+    public void gravarSnapshot(long sequencia, Map<Integer, Long> saldos) {
+        Path temporario = diretorio.resolve(PREFIXO_SNAPSHOT + sequencia + ".tmp");
+        try (FileOutputStream saida = new FileOutputStream(temporario.toFile())) {
+            BufferedOutputStream arquivo = new BufferedOutputStream(saida);
+            CheckedOutputStream verificado = new CheckedOutputStream(arquivo, new CRC32C());
+            DataOutputStream dados = new DataOutputStream(verificado);
+            dados.writeInt(MAGICO_SNAPSHOT);
+            dados.writeLong(sequencia);
+            dados.writeInt(saldos.size());
+            for (Map.Entry<Integer, Long> saldo : saldos.entrySet()) {
+                dados.writeInt(saldo.getKey());
+                dados.writeLong(saldo.getValue());
+            }
+            dados.flush();
+            new DataOutputStream(arquivo).writeLong(verificado.getChecksum().getValue());
+            arquivo.flush();
+            saida.getChannel().force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            Files.move(temporario, arquivo(PREFIXO_SNAPSHOT, sequencia),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            List<Long> snapshots = inicios(PREFIXO_SNAPSHOT);
+            for (int i = 0; i < snapshots.size() - SNAPSHOTS_MANTIDOS; i++) {
+                Files.deleteIfExists(arquivo(PREFIXO_SNAPSHOT, snapshots.get(i)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Snapshot de {} saldos gravado na sequência {}", saldos.size(), sequencia);
+    }
+
+    /**
+     * Último snapshot legível, ou um snapshot vazio na sequência 0 se não houver nenhum.
+     */
+    public Snapshot ultimoSnapshot() {
+        List<Long> snapshots = inicios(PREFIXO_SNAPSHOT);
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path caminho = arquivo(PREFIXO_SNAPSHOT, snapshots.get(i));
+            try (CheckedInputStream verificado = new CheckedInputStream(
+                    new BufferedInputStream(Files.newInputStream(caminho)), new CRC32C())) {
+                DataInputStream dados = new DataInputStream(verificado);
+                if (dados.readInt() != MAGICO_SNAPSHOT) {
+                    throw new IOException("cabeçalho inválido");
+                }
+                long sequencia = dados.readLong();
+                int quantidade = dados.readInt();
+                Map<Integer, Long> saldos = new HashMap<>(Math.max(16, quantidade * 4 / 3 + 1));
+                for (int j = 0; j < quantidade; j++) {
+                    saldos.put(dados.readInt(), dados.readLong());
+                }
+                long calculado = verificado.getChecksum().getValue();
+                if (dados.readLong() != calculado) {
+                    throw new IOException("CRC inválido");
+                }
+                return new Snapshot(sequencia, saldos);
+            } catch (IOException e) {
+                log.warn("Snapshot {} ignorado: {}", caminho, e.getMessage());
+            }
+        }
+        return new Snapshot(0, Map.of());
+    }
+
+    /**
+     * Saldos no fim do journal: o último snapshot com os registros posteriores reaplicados.
+     */
+    public Map<Integer, Long> recuperarSaldos() {
+        Snapshot snapshot = ultimoSnapshot();
+        Map<Integer, Long> saldos = new HashMap<>(snapshot.saldos());
+        ler(snapshot.sequencia() + 1, registro -> registro.aplicar(saldos));
+        return saldos;
+    }
+
+    @Override
+    @PreDestroy
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (segmento != null) {
+                segmento.force();
+                canal.close();
+                segmento = null;
+                visao = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rolar() throws IOException {
+        segmento.force();
+        canal.close();
+        abrirSegmento(ultimaSequencia + 1);
+    }
+
+    private void abrirSegmento(long inicio) throws IOException {
+        canal = FileChannel.open(arquivo(PREFIXO_SEGMENTO, inicio),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long capacidade = canal.size() > 0 ? canal.size() : (long) registrosPorSegmento * TAMANHO_DO_REGISTRO;
+        segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, capacidade);
+        visao = segmento.duplicate();
+    }
+
+    private static boolean valido(ByteBuffer buffer, int posicao, long sequenciaEsperada, CRC32C crc) {
+        return buffer.getLong(posicao) == sequenciaEsperada
+                && TipoRegistro.deCodigo(buffer.getInt(posicao + 32)) != null
+                && buffer.getInt(posicao + TAMANHO_SEM_CRC) == checksum(buffer.duplicate(), posicao, crc);
+    }
+
+    private static int checksum(ByteBuffer visao, int posicao, CRC32C crc) {
+        visao.limit(posicao + TAMANHO_SEM_CRC).position(posicao);
+        crc.reset();
+        crc.update(visao);
+        return (int) crc.getValue();
+    }
+
+    private static RegistroDoJournal registro(ByteBuffer buffer, int posicao) {
+        return new RegistroDoJournal(
+                buffer.getLong(posicao),
+                buffer.getLong(posicao + 8),
+                TipoRegistro.deCodigo(buffer.getInt(posicao + 32)),
+                buffer.getInt(posicao + 24),
+                buffer.getInt(posicao + 28),
+                buffer.getLong(posicao + 16));
+    }
+
+    private Path arquivo(String prefixo, long numero) {
+        return diretorio.resolve(String.format("%s%020d%s", prefixo, numero, EXTENSAO));
+    }
+
+    private List<Long> inicios(String prefixo) {
+        List<Long> inicios = new ArrayList<>();
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            arquivos.map(caminho -> caminho.getFileName().toString())
+                    .filter(nome -> nome.startsWith(prefixo) && nome.endsWith(EXTENSAO))
+                    .forEach(nome -> inicios.add(Long.parseLong(
+                            nome.substring(prefixo.length(), nome.length() - EXTENSAO.length()))));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Collections.sort(inicios);
+        return inicios;
+    }
+
+    public record Snapshot(long sequencia, Map<Integer, Long> saldos) {
+    }
+}
@@ -0,0 +1,24 @@
+package tech.ada.banco.journal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import tech.ada.banco.model.TipoOperacao;
+import tech.ada.banco.services.OuvinteDeOperacoes;
+
+/**
+ * Leva ao journal as operações feitas direto na tabela CONTA. Com o ledger ativo ele mesmo grava o
+ * journal, sob os locks dos shards, para que os snapshots sejam um corte consistente.
+ */
+@Component
+@ConditionalOnExpression("${banco.journal.habilitado:false} and '${banco.saldo.motor:jpa}' != 'ledger'")
+@RequiredArgsConstructor
+public class JournalDasOperacoes implements OuvinteDeOperacoes {
+
+    private final Journal journal;
+
+    @Override
+    public void operacaoRealizada(TipoOperacao tipo, int contaOrigem, int contaDestino, long centavos) {
+        journal.registrar(TipoRegistro.de(tipo), contaOrigem, contaDestino, centavos);
+    }
+}
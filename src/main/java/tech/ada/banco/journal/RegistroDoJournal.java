@@ -0,0 +1,23 @@
+package tech.ada.banco.journal;
+
+import java.util.Map;
+
+public record RegistroDoJournal(long sequencia, long instante, TipoRegistro tipo,
+                                int contaOrigem, int contaDestino, long centavos) {
+
+    /**
+     * Aplica o registro sobre os saldos. Contas que ainda não estão no mapa são ignoradas: sem uma
+     * carga ou um snapshot anterior não há saldo de partida para somar a diferença.
+     */
+    void aplicar(Map<Integer, Long> saldos) {
+        switch (tipo) {
+            case CARGA -> saldos.put(contaOrigem, centavos);
+            case DEPOSITO -> saldos.computeIfPresent(contaOrigem, (conta, saldo) -> saldo + centavos);
+            case SAQUE -> saldos.computeIfPresent(contaOrigem, (conta, saldo) -> saldo - centavos);
+            case PIX -> {
+                saldos.computeIfPresent(contaOrigem, (conta, saldo) -> saldo - centavos);
+                saldos.computeIfPresent(contaDestino, (conta, saldo) -> saldo + centavos);
+            }
+        }
+    }
+}
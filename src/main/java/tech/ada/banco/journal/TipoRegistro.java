@@ -0,0 +1,43 @@
+package tech.ada.banco.journal;
+
+import tech.ada.banco.model.TipoOperacao;
+
+/**
+ * Tipo gravado em cada registro do journal. O código 0 fica reservado: é o conteúdo de um trecho
+ * do arquivo que ainda não foi escrito.
+ */
+public enum TipoRegistro {
+
+    /** Saldo absoluto de uma conta no momento em que o ledger a carregou do banco. */
+    CARGA(1),
+    DEPOSITO(2),
+    SAQUE(3),
+    PIX(4);
+
+    private final int codigo;
+
+    TipoRegistro(int codigo) {
+        this.codigo = codigo;
+    }
+
+    public int getCodigo() {
+        return codigo;
+    }
+
+    public static TipoRegistro deCodigo(int codigo) {
+        for (TipoRegistro tipo : values()) {
+            if (tipo.codigo == codigo) {
+                return tipo;
+            }
+        }
+        return null;
+    }
+
+    public static TipoRegistro de(TipoOperacao operacao) {
+        return switch (operacao) {
+            case DEPOSITO, RENDIMENTO -> DEPOSITO;
+            case SAQUE -> SAQUE;
+            case PIX -> PIX;
+        };
+    }
+}
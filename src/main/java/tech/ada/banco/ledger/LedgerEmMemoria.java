@@ -0,0 +1,430 @@
+package tech.ada.banco.ledger;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.exceptions.SaldoInsuficienteException;
+import tech.ada.banco.exceptions.ValorInvalidoException;
+import tech.ada.banco.journal.Journal;
+import tech.ada.banco.journal.TipoRegistro;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.Dinheiro;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.services.ContasQuentes;
+import tech.ada.banco.services.MotorDeSaldo;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mantém os saldos em memória, particionados em shards por número de conta, cada um com o seu
+ * lock. Uma conta é carregada do banco no primeiro uso; daí em diante as operações não tocam o
+ * banco. Os saldos alterados são gravados em lote por uma thread de fundo a cada janela de
+ * durabilidade ({@code banco.ledger.janela-de-durabilidade-ms}): é o máximo de tempo que uma
+ * alteração fica só em memória, e também o atraso com que ela aparece para quem lê a tabela CONTA.
+ *
+ * <p>Com o {@link Journal} habilitado cada alteração é registrada nele, sob o lock do shard, antes
+ * de ser aplicada, e a primeira carga de cada conta vira um registro {@link TipoRegistro#CARGA}.
+ * A cada {@code banco.journal.intervalo-do-snapshot-ms} os saldos em memória viram um snapshot, e
+ * na partida o ledger já nasce com os saldos recuperados do journal, sem consultar a tabela CONTA;
+ * eles ficam pendentes de gravação, o que fecha a janela de durabilidade de uma parada abrupta.
+ *
+ * <p>Os créditos de uma {@link ContasQuentes conta quente} não passam pelo lock do shard: vão para
+ * uma de várias parcelas atômicas da conta, somadas ao saldo antes de cada débito e a cada
+ * gravação. O limite do saldo é conferido contra o total (saldo mais parcelas) antes e depois de somar
+ * a parcela, então um crédito que estouraria o saldo é recusado na hora, e não na consolidação. Com o
+ * journal habilitado as parcelas não são usadas, porque todo crédito já passa pelo lock do journal e o
+ * snapshot precisa de um corte consistente.
+ */
+@Component
+@ConditionalOnProperty(name = "banco.saldo.motor", havingValue = "ledger")
+@Slf4j
+public class LedgerEmMemoria implements MotorDeSaldo {
+
+    /** Distância entre parcelas no array, para que cada uma fique na sua própria linha de cache. */
+    private static final int PASSO_DAS_PARCELAS = 16;
+
+    private final ContaRepository repository;
+    private final TransactionOperations transacao;
+    private final Shard[] shards;
+    private final int tamanhoDoLote;
+    private final Journal journal;
+    private final ContasQuentes contasQuentes;
+    private final Map<Integer, Saldo> quentes = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService gravador;
+
+    public LedgerEmMemoria(ContaRepository repository, TransactionOperations transacao, int quantidadeDeShards,
+                           long janelaDeDurabilidadeMillis, int tamanhoDoLote) {
+        this(repository, transacao, quantidadeDeShards, janelaDeDurabilidadeMillis, tamanhoDoLote,
+                Optional.empty(), 0, ContasQuentes.nenhuma());
+    }
+
+    @Autowired
+    public LedgerEmMemoria(ContaRepository repository, TransactionOperations transacao,
+                           @Value("${banco.ledger.shards:64}") int quantidadeDeShards,
+                           @Value("${banco.ledger.janela-de-durabilidade-ms:200}") long janelaDeDurabilidadeMillis,
+                           @Value("${banco.ledger.tamanho-do-lote:500}") int tamanhoDoLote,
+                           Optional<Journal> journal,
+                           @Value("${banco.journal.intervalo-do-snapshot-ms:60000}") long intervaloDoSnapshotMillis,
+                           ContasQuentes contasQuentes) {
+        this.repository = repository;
+        this.transacao = transacao;
+        this.tamanhoDoLote = tamanhoDoLote;
+        this.journal = journal.orElse(null);
+        this.contasQuentes = this.journal == null ? contasQuentes : ContasQuentes.nenhuma();
+
+        int potenciaDeDois = 1;
+        while (potenciaDeDois < quantidadeDeShards) {
+            potenciaDeDois <<= 1;
+        }
+        shards = new Shard[potenciaDeDois];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+        }
+        if (this.journal != null) {
+            recuperar();
+        }
+
+        gravador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "ledger-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        gravador.scheduleWithFixedDelay(this::gravarPendentes,
+                janelaDeDurabilidadeMillis, janelaDeDurabilidadeMillis, TimeUnit.MILLISECONDS);
+        if (this.journal != null && intervaloDoSnapshotMillis > 0) {
+            gravador.scheduleWithFixedDelay(this::tirarSnapshot,
+                    intervaloDoSnapshotMillis, intervaloDoSnapshotMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public long creditar(int numeroConta, long centavos) {
+        Conta.validarValor(centavos);
+        Saldo quente = quentes.get(numeroConta);
+        if (quente != null) {
+            int parcela = ThreadLocalRandom.current().nextInt(contasQuentes.getSlots()) * PASSO_DAS_PARCELAS;
+            Dinheiro.somar(quente.total(), centavos);
+            quente.parcelas.getAndAdd(parcela, centavos);
+            try {
+                // leitura sem lock: o saldo devolvido pode não incluir créditos simultâneos de outras threads,
+                // mas a última de duas somas simultâneas vê as duas e é desfeita se estourar
+                return quente.total();
+            } catch (ValorInvalidoException e) {
+                quente.parcelas.getAndAdd(parcela, -centavos);
+                throw e;
+            }
+        }
+        Shard shard = shard(numeroConta);
+        Saldo saldo = carregar(shard, numeroConta);
+        shard.lock.lock();
+        try {
+            long novoSaldo = Dinheiro.somar(saldo.centavos, centavos);
+            registrar(TipoRegistro.DEPOSITO, numeroConta, numeroConta, centavos);
+            saldo.centavos = novoSaldo;
+            shard.sujas.add(numeroConta);
+            return saldo.centavos;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public long debitar(int numeroConta, long centavos) {
+        Conta.validarValor(centavos);
+        Shard shard = shard(numeroConta);
+        Saldo saldo = carregar(shard, numeroConta);
+        shard.lock.lock();
+        try {
+            consolidar(saldo);
+            if (centavos > saldo.centavos) {
+                throw new SaldoInsuficienteException();
+            }
+            registrar(TipoRegistro.SAQUE, numeroConta, numeroConta, centavos);
+            saldo.centavos -= centavos;
+            shard.sujas.add(numeroConta);
+            return saldo.centavos;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Os dois shards são bloqueados em ordem crescente de índice, então transferências em
+     * sentidos opostos não se travam.
+     */
+    @Override
+    public long transferir(int contaOrigem, int contaDestino, long centavos) {
+        Conta.validarValor(centavos);
+        Shard shardOrigem = shard(contaOrigem);
+        Shard shardDestino = shard(contaDestino);
+        Saldo origem = carregar(shardOrigem, contaOrigem);
+        Saldo destino = carregar(shardDestino, contaDestino);
+
+        Shard primeiro = indice(contaOrigem) <= indice(contaDestino) ? shardOrigem : shardDestino;
+        Shard segundo = primeiro == shardOrigem ? shardDestino : shardOrigem;
+        primeiro.lock.lock();
+        if (segundo != primeiro) {
+            segundo.lock.lock();
+        }
+        try {
+            consolidar(origem);
+            if (centavos > origem.centavos) {
+                throw new SaldoInsuficienteException();
+            }
+            // Numa transferência para a própria conta o débito e o crédito se anulam.
+            long novoDestino = Dinheiro.somar(destino.centavos - (origem == destino ? centavos : 0), centavos);
+            registrar(TipoRegistro.PIX, contaOrigem, contaDestino, centavos);
+            origem.centavos -= centavos;
+            destino.centavos = novoDestino;
+            shardOrigem.sujas.add(contaOrigem);
+            shardDestino.sujas.add(contaDestino);
+            return origem.centavos;
+        } finally {
+            if (segundo != primeiro) {
+                segundo.lock.unlock();
+            }
+            primeiro.lock.unlock();
+        }
+    }
+
+    /**
+     * Grava no banco, em lotes, todos os saldos alterados desde a última gravação. Um lote que
+     * falha volta a ficar pendente para a próxima rodada.
+     */
+    public void gravarPendentes() {
+        quentes.forEach((numeroConta, saldo) -> {
+            Shard shard = shard(numeroConta);
+            shard.lock.lock();
+            try {
+                if (consolidar(saldo)) {
+                    shard.sujas.add(numeroConta);
+                }
+            } catch (RuntimeException e) {
+                // uma conta que não consolida não pode parar a gravação das demais nem cancelar a tarefa
+                log.error("Falha ao consolidar as parcelas da conta {} no ledger", numeroConta, e);
+            } finally {
+                shard.lock.unlock();
+            }
+        });
+
+        Map<Integer, Long> lote = new HashMap<>();
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                for (Integer numeroConta : shard.sujas) {
+                    lote.put(numeroConta, shard.saldos.get(numeroConta).centavos);
+                }
+                shard.sujas.clear();
+            } finally {
+                shard.lock.unlock();
+            }
+            if (lote.size() >= tamanhoDoLote) {
+                gravar(lote);
+                lote = new HashMap<>();
+            }
+        }
+        if (!lote.isEmpty()) {
+            gravar(lote);
+        }
+    }
+
+    public int getPendentes() {
+        int pendentes = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                pendentes += shard.sujas.size();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return pendentes;
+    }
+
+    /**
+     * Grava no journal um snapshot de todos os saldos em memória. Os shards ficam todos bloqueados
+     * enquanto os saldos são copiados, então nenhuma operação fica pela metade entre o snapshot e a
+     * sequência registrada nele.
+     */
+    public void tirarSnapshot() {
+        if (journal == null) {
+            return;
+        }
+        Map<Integer, Long> saldos = new HashMap<>();
+        long sequencia;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+        }
+        try {
+            sequencia = journal.getUltimaSequencia();
+            for (Shard shard : shards) {
+                shard.saldos.forEach((numeroConta, saldo) -> saldos.put(numeroConta, saldo.centavos));
+            }
+        } finally {
+            for (int i = shards.length - 1; i >= 0; i--) {
+                shards[i].lock.unlock();
+            }
+        }
+        try {
+            journal.gravarSnapshot(sequencia, saldos);
+        } catch (RuntimeException e) {
+            log.error("Falha ao gravar snapshot do ledger na sequência {}", sequencia, e);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        gravador.shutdown();
+        gravador.awaitTermination(10, TimeUnit.SECONDS);
+        gravarPendentes();
+        tirarSnapshot();
+    }
+
+    private void gravar(Map<Integer, Long> lote) {
+        try {
+            transacao.executeWithoutResult(status -> {
+                for (Conta conta : repository.findAllById(lote.keySet())) {
+                    conta.setSaldo(lote.get(conta.getNumeroConta()));
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Falha ao gravar {} saldos do ledger, serão regravados na próxima janela", lote.size(), e);
+            for (Integer numeroConta : lote.keySet()) {
+                Shard shard = shard(numeroConta);
+                shard.lock.lock();
+                try {
+                    shard.sujas.add(numeroConta);
+                } finally {
+                    shard.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private Saldo carregar(Shard shard, int numeroConta) {
+        shard.lock.lock();
+        try {
+            Saldo saldo = shard.saldos.get(numeroConta);
+            if (saldo != null) {
+                return saldo;
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+
+        Long doBanco = repository.buscarSaldoEmCentavos(numeroConta);
+        if (doBanco == null) {
+            throw new ResourceNotFoundException();
+        }
+        shard.lock.lock();
+        try {
+            Saldo saldo = shard.saldos.get(numeroConta);
+            if (saldo == null) {
+                registrar(TipoRegistro.CARGA, numeroConta, numeroConta, doBanco);
+                saldo = contasQuentes.isQuente(numeroConta)
+                        ? new Saldo(doBanco, new AtomicLongArray(contasQuentes.getSlots() * PASSO_DAS_PARCELAS))
+                        : new Saldo(doBanco);
+                shard.saldos.put(numeroConta, saldo);
+                if (saldo.parcelas != null) {
+                    quentes.put(numeroConta, saldo);
+                }
+            }
+            return saldo;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Soma as parcelas ao saldo; chamado com o lock do shard da conta. Cada parcela entra no saldo antes
+     * de sair do array, então {@link Saldo#total()} pode contá-la duas vezes, nunca nenhuma.
+     */
+    private static boolean consolidar(Saldo saldo) {
+        if (saldo.parcelas == null) {
+            return false;
+        }
+        boolean alterado = false;
+        for (int i = 0; i < saldo.parcelas.length(); i += PASSO_DAS_PARCELAS) {
+            long parcela = saldo.parcelas.get(i);
+            if (parcela != 0) {
+                saldo.centavos = Dinheiro.somar(saldo.centavos, parcela);
+                saldo.parcelas.getAndAdd(i, -parcela);
+                alterado = true;
+            }
+        }
+        return alterado;
+    }
+
+    private void registrar(TipoRegistro tipo, int contaOrigem, int contaDestino, long centavos) {
+        if (journal != null) {
+            journal.registrar(tipo, contaOrigem, contaDestino, centavos);
+        }
+    }
+
+    private void recuperar() {
+        Map<Integer, Long> saldos = journal.recuperarSaldos();
+        saldos.forEach((numeroConta, centavos) -> {
+            Shard shard = shard(numeroConta);
+            shard.saldos.put(numeroConta, new Saldo(centavos));
+            shard.sujas.add(numeroConta);
+        });
+        log.info("Ledger recuperado do journal com {} saldos", saldos.size());
+    }
+
+    private int indice(int numeroConta) {
+        return numeroConta & (shards.length - 1);
+    }
+
+    private Shard shard(int numeroConta) {
+        return shards[indice(numeroConta)];
+    }
+
+    private static final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Integer, Saldo> saldos = new HashMap<>();
+        private final Set<Integer> sujas = new HashSet<>();
+    }
+
+    private static final class Saldo {
+        /** Alterado só com o lock do shard; volátil porque o crédito de uma conta quente o lê sem lock. */
+        private volatile long centavos;
+        private final AtomicLongArray parcelas;
+
+        private Saldo(long centavos) {
+            this(centavos, null);
+        }
+
+        private Saldo(long centavos, AtomicLongArray parcelas) {
+            this.centavos = centavos;
+            this.parcelas = parcelas;
+        }
+
+        /**
+         * Saldo mais parcelas, com {@link ValorInvalidoException} se a soma estourar. As parcelas são lidas
+         * antes do saldo, então uma consolidação simultânea nunca faz uma parcela sumir do total.
+         */
+        private long total() {
+            long soma = 0;
+            for (int i = 0; i < parcelas.length(); i += PASSO_DAS_PARCELAS) {
+                soma = Dinheiro.somar(soma, parcelas.get(i));
+            }
+            return Dinheiro.somar(soma, centavos);
+        }
+    }
+}
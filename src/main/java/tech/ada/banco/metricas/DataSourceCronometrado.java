@@ -0,0 +1,82 @@
+package tech.ada.banco.metricas;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Envolve o pool de conexões para medir, em {@link TempoNoBanco}, o tempo gasto executando
+ * comandos e encerrando transações. Continua sendo fechável, para que o pool seja encerrado junto
+ * com o contexto.
+ */
+public class DataSourceCronometrado extends DelegatingDataSource implements Closeable {
+
+    public DataSourceCronometrado(DataSource alvo) {
+        super(alvo);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return cronometrar(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String usuario, String senha) throws SQLException {
+        return cronometrar(super.getConnection(usuario, senha));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (obtainTargetDataSource() instanceof Closeable alvo) {
+            alvo.close();
+        }
+    }
+
+    private static Connection cronometrar(Connection conexao) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, argumentos) -> {
+                    String nome = metodo.getName();
+                    if (nome.equals("commit") || nome.equals("rollback")) {
+                        return medir(conexao, metodo, argumentos);
+                    }
+                    Object resultado = invocar(conexao, metodo, argumentos);
+                    if (resultado instanceof Statement comando
+                            && Statement.class.isAssignableFrom(metodo.getReturnType())) {
+                        return cronometrar(comando, metodo.getReturnType());
+                    }
+                    return resultado;
+                });
+    }
+
+    private static Object cronometrar(Statement comando, Class<?> tipo) {
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{tipo},
+                (proxy, metodo, argumentos) -> metodo.getName().startsWith("execute")
+                        ? medir(comando, metodo, argumentos)
+                        : invocar(comando, metodo, argumentos));
+    }
+
+    private static Object medir(Object alvo, Method metodo, Object[] argumentos) throws Throwable {
+        long inicio = System.nanoTime();
+        try {
+            return invocar(alvo, metodo, argumentos);
+        } finally {
+            TempoNoBanco.somar(System.nanoTime() - inicio);
+        }
+    }
+
+    private static Object invocar(Object alvo, Method metodo, Object[] argumentos) throws Throwable {
+        try {
+            return metodo.invoke(alvo, argumentos);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
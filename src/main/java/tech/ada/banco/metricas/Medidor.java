@@ -0,0 +1,49 @@
+package tech.ada.banco.metricas;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers já registrados de uma operação, um por resultado, para que medir uma chamada não passe
+ * pelo registro de métricas.
+ */
+public final class Medidor {
+
+    private final Timer[] total;
+    private final Timer[] banco;
+
+    Medidor(Timer[] total, Timer[] banco) {
+        this.total = total;
+        this.banco = banco;
+    }
+
+    public <T> T medir(Supplier<T> execucao) {
+        long bancoAntes = TempoNoBanco.acumuladoEmNanos();
+        long inicio = System.nanoTime();
+        Resultado resultado = Resultado.ERRO;
+        try {
+            T retorno = execucao.get();
+            resultado = Resultado.SUCESSO;
+            return retorno;
+        } catch (RuntimeException e) {
+            resultado = Resultado.de(e);
+            throw e;
+        } finally {
+            int indice = resultado.ordinal();
+            total[indice].record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            long noBanco = TempoNoBanco.acumuladoEmNanos() - bancoAntes;
+            if (noBanco > 0) {
+                banco[indice].record(noBanco, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    public void medir(Runnable execucao) {
+        medir(() -> {
+            execucao.run();
+            return null;
+        });
+    }
+}
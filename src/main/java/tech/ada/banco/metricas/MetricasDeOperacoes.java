@@ -0,0 +1,57 @@
+package tech.ada.banco.metricas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Métricas de latência das operações do banco. Cada operação tem dois timers com histograma de
+ * percentis, ambos com as tags {@code operacao} e {@code resultado}: {@code banco.operacao}, com o
+ * tempo total, e {@code banco.operacao.banco}, só com o tempo gasto no JDBC. A contagem de
+ * {@code banco.operacao} é o contador de chamadas por resultado; {@code banco.operacao.banco} só recebe
+ * as chamadas que usaram o JDBC na própria thread. Nos motores {@code grupo} e {@code shards} os saldos
+ * são gravados pelas threads do motor, então o tempo de banco dessas operações não aparece aqui.
+ */
+@Component
+public class MetricasDeOperacoes {
+
+    static final String TEMPO_TOTAL = "banco.operacao";
+    static final String TEMPO_NO_BANCO = "banco.operacao.banco";
+
+    private final MeterRegistry registry;
+
+    public MetricasDeOperacoes(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /** Sem nenhum registro: os timers não guardam nada. */
+    public static MetricasDeOperacoes desligadas() {
+        return new MetricasDeOperacoes(new CompositeMeterRegistry());
+    }
+
+    public Medidor medidor(String operacao) {
+        Resultado[] resultados = Resultado.values();
+        Timer[] total = new Timer[resultados.length];
+        Timer[] banco = new Timer[resultados.length];
+        for (Resultado resultado : resultados) {
+            total[resultado.ordinal()] = timer(TEMPO_TOTAL, "Tempo total da operação", operacao, resultado);
+            banco[resultado.ordinal()] =
+                    timer(TEMPO_NO_BANCO, "Tempo da operação gasto no JDBC", operacao, resultado);
+        }
+        return new Medidor(total, banco);
+    }
+
+    private Timer timer(String nome, String descricao, String operacao, Resultado resultado) {
+        return Timer.builder(nome)
+                .description(descricao)
+                .tag("operacao", operacao)
+                .tag("resultado", resultado.getTag())
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+    }
+}
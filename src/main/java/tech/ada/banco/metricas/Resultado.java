@@ -0,0 +1,45 @@
+package tech.ada.banco.metricas;
+
+import tech.ada.banco.exceptions.ConflitoDeConcorrenciaException;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.exceptions.SaldoInsuficienteException;
+import tech.ada.banco.exceptions.ValorInvalidoException;
+
+/**
+ * Valor da tag {@code resultado} das métricas de operação.
+ */
+public enum Resultado {
+
+    SUCESSO("sucesso"),
+    SALDO_INSUFICIENTE("saldo_insuficiente"),
+    VALOR_INVALIDO("valor_invalido"),
+    CONTA_INEXISTENTE("conta_inexistente"),
+    CONFLITO("conflito"),
+    ERRO("erro");
+
+    private final String tag;
+
+    Resultado(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    static Resultado de(RuntimeException e) {
+        if (e instanceof SaldoInsuficienteException) {
+            return SALDO_INSUFICIENTE;
+        }
+        if (e instanceof ValorInvalidoException) {
+            return VALOR_INVALIDO;
+        }
+        if (e instanceof ResourceNotFoundException) {
+            return CONTA_INEXISTENTE;
+        }
+        if (e instanceof ConflitoDeConcorrenciaException) {
+            return CONFLITO;
+        }
+        return ERRO;
+    }
+}
@@ -0,0 +1,23 @@
+package tech.ada.banco.metricas;
+
+/**
+ * Tempo acumulado por cada thread em chamadas JDBC (execução de comandos, commit e rollback),
+ * alimentado pelo {@link DataSourceCronometrado}. A diferença entre duas leituras é o tempo de
+ * banco de tudo o que a thread fez entre elas; o JDBC feito em outras threads (o coletor do commit em
+ * grupo, os shards) não entra.
+ */
+public final class TempoNoBanco {
+
+    private static final ThreadLocal<long[]> ACUMULADO = ThreadLocal.withInitial(() -> new long[1]);
+
+    private TempoNoBanco() {
+    }
+
+    public static long acumuladoEmNanos() {
+        return ACUMULADO.get()[0];
+    }
+
+    static void somar(long nanos) {
+        ACUMULADO.get()[0] += nanos;
+    }
+}
@@ -0,0 +1,23 @@
+package tech.ada.banco.metricas;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class TempoNoBancoConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceCronometrado() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String nome) {
+                return bean instanceof DataSource dataSource && !(bean instanceof DataSourceCronometrado)
+                        ? new DataSourceCronometrado(dataSource)
+                        : bean;
+            }
+        };
+    }
+}
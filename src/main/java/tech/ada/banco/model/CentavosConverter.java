@@ -0,0 +1,23 @@
+package tech.ada.banco.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Mantém a coluna decimal (em reais) enquanto a entidade trabalha com centavos.
+ */
+@Converter
+public class CentavosConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long centavos) {
+        return centavos == null ? null : Dinheiro.reais(centavos);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal valor) {
+        return valor == null ? null : Dinheiro.centavos(valor);
+    }
+}
@@ -0,0 +1,42 @@
+package tech.ada.banco.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Até onde o rendimento de um dia já foi creditado: a última conta de cada bloco gravado é
+ * registrada na mesma transação que credita o bloco, então uma execução interrompida recomeça na
+ * conta seguinte sem creditar nenhuma duas vezes.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "RENDIMENTO")
+public class CheckpointDoRendimento {
+
+    @Id
+    @Column(name = "DATA")
+    private LocalDate data;
+
+    @Column(name = "ULTIMA_CONTA", nullable = false)
+    private int ultimaConta;
+
+    @Column(name = "CONTAS", nullable = false)
+    private long contas;
+
+    @Column(name = "VALOR_CREDITADO", precision = 38, scale = 2, nullable = false)
+    @Convert(converter = CentavosConverter.class)
+    private long valorCreditado;
+
+    @Column(name = "CONCLUIDO", nullable = false)
+    private boolean concluido;
+}
@@ -1,7 +1,9 @@
 package tech.ada.banco.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -9,10 +11,12 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 import tech.ada.banco.exceptions.SaldoInsuficienteException;
@@ -21,13 +25,14 @@ import tech.ada.banco.exceptions.ValorInvalidoException;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "CONTA")
+@Table(name = "CONTA", indexes = @Index(name = "CONTA_TIPO_IX", columnList = "TIPO, numeroConta"))
 @Getter
 @Setter
 public class Conta {
 
     @Id
-    @SequenceGenerator(name = "contaSequenceGenerator", sequenceName = "CONTA_SQ", initialValue = 10000)
+    @SequenceGenerator(name = "contaSequenceGenerator", sequenceName = "CONTA_SQ", initialValue = 10000,
+            allocationSize = 500)
     @GeneratedValue(generator = "contaSequenceGenerator", strategy = GenerationType.SEQUENCE)
     @Column(updatable = false)
     private int numeroConta;
@@ -36,12 +41,17 @@ public class Conta {
     @Enumerated(EnumType.STRING)
     private ModalidadeConta tipo;
 
-    @Column(name = "SALDO")
-    protected BigDecimal saldo;
+    @Column(name = "SALDO", precision = 38, scale = 2)
+    @Convert(converter = CentavosConverter.class)
+    protected long saldo;
+
+    @Version
+    @Column(name = "VERSAO")
+    private Long versao;
 
     @Column(name = "AGENCIA")
     private final String agencia;
-    @ManyToOne(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "PESSOA_ID", referencedColumnName = "ID")
     private Pessoa titular;
 
@@ -51,9 +61,19 @@ public class Conta {
         this.titular = titular;
     }
 
+    /**
+     * Só número, saldo e versão, para depósitos e saques: a conta fica fora do contexto de
+     * persistência e o saldo é gravado com {@code ContaRepository.gravarSaldo}.
+     */
+    public Conta(int numeroConta, Long saldo, Long versao) {
+        this();
+        this.numeroConta = numeroConta;
+        this.saldo = saldo;
+        this.versao = versao;
+    }
+
     protected Conta() {
         agencia = "0001";
-        saldo = BigDecimal.ZERO;
     }
 
     public ModalidadeConta getTipo() {
@@ -61,26 +81,49 @@ public class Conta {
     }
 
     public BigDecimal getSaldo() {
-        return saldo.setScale(2);
+        return Dinheiro.reais(saldo);
     }
 
-    public void deposito(BigDecimal valor) {
+    @JsonIgnore
+    public long getSaldoEmCentavos() {
+        return saldo;
+    }
+
+    public static void validarValor(BigDecimal valor) {
         if (valor.compareTo(BigDecimal.ZERO) < 0) {
             throw new ValorInvalidoException();
         }
-
-        saldo = saldo.add(valor);
     }
 
-    public void saque(BigDecimal valor) {
-        if (valor.compareTo(BigDecimal.ZERO) < 0) {
+    public static void validarValor(long centavos) {
+        if (centavos < 0) {
             throw new ValorInvalidoException();
         }
+    }
+
+    public void deposito(BigDecimal valor) {
+        validarValor(valor);
+        deposito(Dinheiro.centavos(valor));
+    }
+
+    public void deposito(long centavos) {
+        validarValor(centavos);
+
+        saldo = Dinheiro.somar(saldo, centavos);
+    }
+
+    public void saque(BigDecimal valor) {
+        validarValor(valor);
+        saque(Dinheiro.centavos(valor));
+    }
+
+    public void saque(long centavos) {
+        validarValor(centavos);
 
-        if (valor.compareTo(saldo) > 0) {
+        if (centavos > saldo) {
             throw new SaldoInsuficienteException();
         } else {
-            saldo = saldo.subtract(valor);
+            saldo -= centavos;
         }
     }
 
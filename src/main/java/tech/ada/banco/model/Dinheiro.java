@@ -0,0 +1,48 @@
+package tech.ada.banco.model;
+
+import tech.ada.banco.exceptions.ValorInvalidoException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Valores monetários representados como {@code long} em centavos. As contas só convertem para
+ * {@link BigDecimal} na entrada e na saída da API; as somas e subtrações no meio do caminho não
+ * alocam e falham com {@link ValorInvalidoException} em caso de overflow.
+ */
+public final class Dinheiro {
+
+    private Dinheiro() {
+    }
+
+    /**
+     * Converte para centavos, arredondando para o centavo mais próximo (HALF_UP).
+     */
+    public static long centavos(BigDecimal valor) {
+        try {
+            return valor.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new ValorInvalidoException();
+        }
+    }
+
+    public static BigDecimal reais(long centavos) {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    public static long somar(long centavos, long outro) {
+        try {
+            return Math.addExact(centavos, outro);
+        } catch (ArithmeticException e) {
+            throw new ValorInvalidoException();
+        }
+    }
+
+    public static long subtrair(long centavos, long outro) {
+        try {
+            return Math.subtractExact(centavos, outro);
+        } catch (ArithmeticException e) {
+            throw new ValorInvalidoException();
+        }
+    }
+}
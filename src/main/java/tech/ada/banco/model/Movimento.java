@@ -0,0 +1,80 @@
+package tech.ada.banco.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Um lançamento no extrato de uma conta. Depósitos e saques geram um movimento cada; um pix gera
+ * dois, o débito na origem e o crédito no destino, cada um com a outra conta como contraparte. O
+ * rendimento da poupança gera um por conta creditada.
+ * O valor tem sinal: negativo para débitos. {@code CONCILIADO_EM} é nulo até a conciliação somar o
+ * movimento à base da conta ({@link SaldoConciliado}).
+ */
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "MOVIMENTO", indexes = {
+        @Index(name = "MOVIMENTO_CONTA_DATA_IX", columnList = "NUMERO_CONTA, DATA_HORA, ID"),
+        @Index(name = "MOVIMENTO_CONCILIADO_IX", columnList = "CONCILIADO_EM, NUMERO_CONTA")})
+public class Movimento {
+
+    @Id
+    @SequenceGenerator(name = "movimentoSequenceGenerator", sequenceName = "MOVIMENTO_SQ", allocationSize = 500)
+    @GeneratedValue(generator = "movimentoSequenceGenerator", strategy = GenerationType.SEQUENCE)
+    @Column(updatable = false)
+    private Long id;
+
+    @JsonIgnore
+    @Column(name = "NUMERO_CONTA", nullable = false, updatable = false)
+    private int numeroConta;
+
+    @Column(name = "DATA_HORA", nullable = false, updatable = false)
+    private Instant dataHora;
+
+    @Column(name = "TIPO", nullable = false, updatable = false)
+    @Enumerated(EnumType.STRING)
+    private TipoOperacao tipo;
+
+    @Column(name = "VALOR", precision = 38, scale = 2, nullable = false, updatable = false)
+    @Convert(converter = CentavosConverter.class)
+    private long valor;
+
+    @Column(name = "CONTRAPARTE", updatable = false)
+    private Integer contraparte;
+
+    @JsonIgnore
+    @Column(name = "CONCILIADO_EM", insertable = false, updatable = false)
+    private Instant conciliadoEm;
+
+    public Movimento(int numeroConta, Instant dataHora, TipoOperacao tipo, long valor, Integer contraparte) {
+        this.numeroConta = numeroConta;
+        this.dataHora = dataHora;
+        this.tipo = tipo;
+        this.valor = valor;
+        this.contraparte = contraparte;
+    }
+
+    public BigDecimal getValor() {
+        return Dinheiro.reais(valor);
+    }
+
+    @JsonIgnore
+    public long getValorEmCentavos() {
+        return valor;
+    }
+}
@@ -1,12 +1,15 @@
 package tech.ada.banco.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import tech.ada.banco.exceptions.ValorInvalidoException;
@@ -16,11 +19,14 @@ import java.time.LocalDate;
 @Setter
 @Getter
 @Entity
-@Table(name = "PESSOA")
+@Table(name = "PESSOA", indexes = @Index(name = Pessoa.INDICE_DO_CPF, columnList = "CPF_NORMALIZADO", unique = true))
 public class Pessoa {
 
+    public static final String INDICE_DO_CPF = "PESSOA_CPF_UK";
+
     @Id
-    @SequenceGenerator(name = "pessoaSequenceGenerator", sequenceName = "PESSOA_SQ", initialValue = 100)
+    @SequenceGenerator(name = "pessoaSequenceGenerator", sequenceName = "PESSOA_SQ", initialValue = 100,
+            allocationSize = 500)
     @GeneratedValue(generator = "pessoaSequenceGenerator", strategy = GenerationType.SEQUENCE)
     @Column(updatable = false)
     private Long id;
@@ -31,6 +37,12 @@ public class Pessoa {
     @Column(name = "CPF")
     private String cpf;
 
+    /** Só os dígitos do CPF, para que "123.456.789-09" e "12345678909" sejam a mesma pessoa. */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "CPF_NORMALIZADO")
+    private String cpfNormalizado;
+
     @Column(name = "TELEFONE")
     private String telefone;
 
@@ -39,7 +51,7 @@ public class Pessoa {
 
     public Pessoa(String nome, String cpf, LocalDate dataNascimento) {
         setDataNascimento(dataNascimento);
-        this.cpf = cpf;
+        setCpf(cpf);
         this.nome = nome;
     }
 
@@ -63,4 +75,17 @@ public class Pessoa {
         return cpf;
     }
 
+    public void setCpf(String cpf) {
+        this.cpf = cpf;
+        this.cpfNormalizado = normalizarCpf(cpf);
+    }
+
+    public static String normalizarCpf(String cpf) {
+        if (cpf == null) {
+            return null;
+        }
+        String digitos = cpf.replaceAll("\\D", "");
+        return digitos.isEmpty() ? null : digitos;
+    }
+
 }
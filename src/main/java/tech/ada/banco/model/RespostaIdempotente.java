@@ -0,0 +1,42 @@
+package tech.ada.banco.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Resultado de uma operação guardado pela sua chave de idempotência. Sem saldo, a chave está
+ * reservada por uma requisição que ainda não terminou.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "IDEMPOTENCIA")
+public class RespostaIdempotente {
+
+    @Id
+    @Column(name = "CHAVE", length = 100)
+    private String chave;
+
+    @Column(name = "REQUISICAO", nullable = false, length = 200)
+    private String requisicao;
+
+    @Column(name = "SALDO", precision = 38, scale = 2)
+    @Convert(converter = CentavosConverter.class)
+    private Long saldo;
+
+    @Column(name = "CRIADA_EM", nullable = false)
+    private Instant criadaEm;
+
+    public boolean isConcluida() {
+        return saldo != null;
+    }
+}
@@ -0,0 +1,35 @@
+package tech.ada.banco.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A soma dos movimentos de uma conta já conciliados (com {@code CONCILIADO_EM} preenchido), guardada
+ * pela conciliação para que a próxima só precise somar os movimentos ainda não conciliados.
+ * {@code ate} é o instante da última conciliação que somou movimentos à base. Contas sem linha partem
+ * de zero e somam todos os seus movimentos.
+ */
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "SALDO_CONCILIADO")
+public class SaldoConciliado {
+
+    @Id
+    @Column(name = "NUMERO_CONTA")
+    private int numeroConta;
+
+    @Column(name = "SALDO", precision = 38, scale = 2, nullable = false)
+    @Convert(converter = CentavosConverter.class)
+    private long saldo;
+
+    @Column(name = "ATE", nullable = false)
+    private Instant ate;
+}
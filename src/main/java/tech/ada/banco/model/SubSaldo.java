@@ -0,0 +1,53 @@
+package tech.ada.banco.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Uma das parcelas em que os créditos de uma conta quente são espalhados. O saldo da conta é o da
+ * tabela CONTA mais a soma das suas parcelas, até a próxima consolidação.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "SUBSALDO")
+@IdClass(SubSaldo.Chave.class)
+public class SubSaldo {
+
+    @Id
+    @Column(name = "NUMERO_CONTA")
+    private int numeroConta;
+
+    @Id
+    @Column(name = "SLOT")
+    private int slot;
+
+    @Column(name = "SALDO", precision = 38, scale = 2)
+    @Convert(converter = CentavosConverter.class)
+    private long saldo;
+
+    public SubSaldo(int numeroConta, int slot) {
+        this.numeroConta = numeroConta;
+        this.slot = slot;
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Chave implements Serializable {
+        private int numeroConta;
+        private int slot;
+    }
+}
@@ -0,0 +1,10 @@
+package tech.ada.banco.model;
+
+public enum TipoOperacao {
+
+    DEPOSITO,
+    SAQUE,
+    PIX,
+    RENDIMENTO
+
+}
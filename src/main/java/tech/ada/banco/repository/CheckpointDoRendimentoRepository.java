@@ -0,0 +1,45 @@
+package tech.ada.banco.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tech.ada.banco.model.CheckpointDoRendimento;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface CheckpointDoRendimentoRepository extends JpaRepository<CheckpointDoRendimento, LocalDate> {
+
+    @Transactional
+    @Modifying
+    @Query(value = "insert into RENDIMENTO (DATA, ULTIMA_CONTA, CONTAS, VALOR_CREDITADO, CONCLUIDO) "
+            + "values (:data, 0, 0, 0, false)", nativeQuery = true)
+    void iniciar(@Param("data") LocalDate data);
+
+    @Query("select max(c.data) from CheckpointDoRendimento c where c.concluido = true")
+    Optional<LocalDate> ultimaConcluida();
+
+    /**
+     * Registra um bloco creditado, desde que o checkpoint ainda esteja em {@code anterior}. Deve rodar na
+     * transação que gravou o bloco.
+     *
+     * @return 0 se outra execução já avançou o checkpoint
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "update RENDIMENTO set ULTIMA_CONTA = :ultimaConta, CONTAS = CONTAS + :contas, "
+            + "VALOR_CREDITADO = VALOR_CREDITADO + :valor "
+            + "where DATA = :data and ULTIMA_CONTA = :anterior and CONCLUIDO = false", nativeQuery = true)
+    int avancar(@Param("data") LocalDate data, @Param("anterior") int anterior, @Param("ultimaConta") int ultimaConta,
+                @Param("contas") long contas, @Param("valor") BigDecimal valor);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update RENDIMENTO set CONCLUIDO = true where DATA = :data", nativeQuery = true)
+    void concluir(@Param("data") LocalDate data);
+}
@@ -1,13 +1,146 @@
 package tech.ada.banco.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tech.ada.banco.dto.DadosDaConta;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.exceptions.SaldoInsuficienteException;
 import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.Dinheiro;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ContaRepository extends JpaRepository<Conta, Integer> {
 
     Optional<Conta> findContaByNumeroConta(int numeroConta);
+
+    @Query("select new tech.ada.banco.dto.DadosDaConta(c.numeroConta, c.tipo, c.saldo, c.versao, c.agencia, t) "
+            + "from Conta c left join c.titular t where c.numeroConta = :numeroConta")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Transactional(readOnly = true)
+    Optional<DadosDaConta> buscarDados(@Param("numeroConta") int numeroConta);
+
+    @Query("select new tech.ada.banco.dto.DadosDaConta(c.numeroConta, c.tipo, c.saldo, c.versao, c.agencia, t) "
+            + "from Conta c left join c.titular t where c.numeroConta > :apos order by c.numeroConta")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Transactional(readOnly = true)
+    List<DadosDaConta> buscarPagina(@Param("apos") int apos, Pageable pagina);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select new tech.ada.banco.dto.DadosDaConta(c.numeroConta, c.tipo, c.saldo, c.versao, c.agencia, t) "
+            + "from Conta c left join c.titular t order by c.numeroConta")
+    Stream<DadosDaConta> streamTodas();
+
+    /**
+     * A conta só com número, saldo e versão, sem titular e fora do contexto de persistência, para
+     * depósitos e saques. O saldo alterado é gravado com {@link #gravarSaldo}.
+     */
+    @Query("select new tech.ada.banco.model.Conta(c.numeroConta, c.saldo, c.versao) from Conta c "
+            + "where c.numeroConta = :numeroConta")
+    Optional<Conta> buscarSaldoDaConta(@Param("numeroConta") int numeroConta);
+
+    @Query("select new tech.ada.banco.model.Conta(c.numeroConta, c.saldo, c.versao) from Conta c "
+            + "where c.numeroConta in :numerosConta")
+    List<Conta> buscarSaldosDasContas(@Param("numerosConta") Collection<Integer> numerosConta);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Conta c where c.numeroConta = :numeroConta")
+    Optional<Conta> findContaParaAtualizacao(@Param("numeroConta") int numeroConta);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Conta c where c.numeroConta in :numerosConta order by c.numeroConta")
+    List<Conta> findContasParaAtualizacao(@Param("numerosConta") Collection<Integer> numerosConta);
+
+    @Query("select c.saldo from Conta c where c.numeroConta = :numeroConta")
+    Long buscarSaldoEmCentavos(@Param("numeroConta") int numeroConta);
+
+    /**
+     * Credita e devolve o novo saldo num único comando: o {@code FINAL TABLE} do H2 devolve as linhas
+     * como ficaram depois do update. Sem linha, a conta não existe.
+     */
+    @Transactional
+    @Query(value = "select SALDO from FINAL TABLE (update CONTA set SALDO = SALDO + :valor, VERSAO = VERSAO + 1 "
+            + "where NUMERO_CONTA = :numeroConta)", nativeQuery = true)
+    Optional<BigDecimal> creditar(@Param("numeroConta") int numeroConta, @Param("valor") BigDecimal valor);
+
+    /**
+     * Debita somente se houver saldo suficiente e devolve o novo saldo, num único comando como
+     * {@link #creditar}. Sem linha, a conta não existe ou o saldo não basta.
+     */
+    @Transactional
+    @Query(value = "select SALDO from FINAL TABLE (update CONTA set SALDO = SALDO - :valor, VERSAO = VERSAO + 1 "
+            + "where NUMERO_CONTA = :numeroConta and SALDO >= :valor)", nativeQuery = true)
+    Optional<BigDecimal> debitar(@Param("numeroConta") int numeroConta, @Param("valor") BigDecimal valor);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update CONTA set SALDO = :saldo, VERSAO = VERSAO + 1 "
+            + "where NUMERO_CONTA = :numeroConta and VERSAO = :versao", nativeQuery = true)
+    int atualizarSaldo(@Param("numeroConta") int numeroConta, @Param("saldo") BigDecimal saldo,
+                       @Param("versao") long versao);
+
+    /**
+     * Grava o saldo de uma conta lida com {@link #buscarSaldoDaConta}, com a mesma verificação do
+     * {@code @Version}: se a conta mudou desde a leitura, lança o conflito otimista que a retentativa
+     * reexecuta.
+     */
+    default void gravarSaldo(Conta conta) {
+        if (atualizarSaldo(conta.getNumeroConta(), conta.getSaldo(), conta.getVersao()) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Conta.class, conta.getNumeroConta());
+        }
+        conta.setVersao(conta.getVersao() + 1);
+    }
+
+    /**
+     * Credita o valor direto no banco, sem carregar a entidade, e devolve o novo saldo em centavos.
+     */
+    @Transactional
+    default long creditarSaldo(int numeroConta, long centavos) {
+        return creditar(numeroConta, Dinheiro.reais(centavos)).map(Dinheiro::centavos)
+                .orElseThrow(ResourceNotFoundException::new);
+    }
+
+    /**
+     * Debita o valor direto no banco somente se houver saldo suficiente, e devolve o novo saldo em centavos.
+     */
+    @Transactional
+    default long debitarSaldo(int numeroConta, long centavos) {
+        return debitar(numeroConta, Dinheiro.reais(centavos)).map(Dinheiro::centavos)
+                .orElseThrow(() -> existsById(numeroConta) ? new SaldoInsuficienteException()
+                        : new ResourceNotFoundException());
+    }
+
+    /**
+     * Transfere o valor entre as contas em uma única transação e devolve o saldo da origem em centavos.
+     * As linhas são sempre atualizadas em ordem crescente de número de conta, para que duas
+     * transferências em sentidos opostos não travem uma à outra. Para a própria conta o débito vem
+     * primeiro, então a transferência exige saldo como nos demais caminhos.
+     */
+    @Transactional
+    default long transferirSaldo(int contaOrigem, int contaDestino, long centavos) {
+        if (contaOrigem <= contaDestino) {
+            long saldoOrigem = debitarSaldo(contaOrigem, centavos);
+            creditarSaldo(contaDestino, centavos);
+            return saldoOrigem;
+        }
+        creditarSaldo(contaDestino, centavos);
+        return debitarSaldo(contaOrigem, centavos);
+    }
 }
@@ -0,0 +1,46 @@
+package tech.ada.banco.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tech.ada.banco.model.Movimento;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface MovimentoRepository extends JpaRepository<Movimento, Long> {
+
+    /**
+     * Movimentos da conta em [de, ate), em ordem de data e id, a partir do primeiro depois de
+     * (dataHora, apos). A primeira página passa {@code dataHora = de} e {@code apos = 0}; as seguintes,
+     * a data e o id do último movimento da página anterior. As duas pontas estão no índice
+     * (NUMERO_CONTA, DATA_HORA, ID), então cada página é uma leitura por faixa do índice.
+     */
+    @Query("select m from Movimento m where m.numeroConta = :numeroConta "
+            + "and m.dataHora >= :dataHora and m.dataHora < :ate "
+            + "and (m.dataHora > :dataHora or m.id > :apos) order by m.dataHora, m.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Transactional(readOnly = true)
+    List<Movimento> buscarPagina(@Param("numeroConta") int numeroConta, @Param("dataHora") Instant dataHora,
+                                 @Param("apos") long apos, @Param("ate") Instant ate, Pageable pagina);
+
+    @Query("select m.dataHora from Movimento m where m.id = :id and m.numeroConta = :numeroConta")
+    @Transactional(readOnly = true)
+    Optional<Instant> buscarDataHora(@Param("numeroConta") int numeroConta, @Param("id") long id);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select m from Movimento m where m.numeroConta = :numeroConta "
+            + "and m.dataHora >= :de and m.dataHora < :ate order by m.dataHora, m.id")
+    Stream<Movimento> streamExtrato(@Param("numeroConta") int numeroConta, @Param("de") Instant de,
+                                    @Param("ate") Instant ate);
+}
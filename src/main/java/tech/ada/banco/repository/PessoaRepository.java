@@ -1,14 +1,45 @@
 package tech.ada.banco.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import tech.ada.banco.model.Conta;
+import org.springframework.transaction.annotation.Transactional;
 import tech.ada.banco.model.Pessoa;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PessoaRepository extends JpaRepository<Pessoa, Integer> {
 
-    Optional<Pessoa> findPessoaByCPF(String cpf);
+    @Query("select p from Pessoa p where p.cpfNormalizado = :cpfNormalizado")
+    @Transactional(readOnly = true)
+    Optional<Pessoa> buscarPorCpfNormalizado(@Param("cpfNormalizado") String cpfNormalizado);
+
+    default Optional<Pessoa> findPessoaByCPF(String cpf) {
+        return buscarPorCpfNormalizado(Pessoa.normalizarCpf(cpf));
+    }
+
+    @Query("select p.cpfNormalizado from Pessoa p where p.id = :id")
+    Optional<String> buscarCpfNormalizado(@Param("id") Long id);
+
+    /** Pares (CPF normalizado, id). */
+    @Query("select p.cpfNormalizado, p.id from Pessoa p where p.cpfNormalizado in :cpfs")
+    List<Object[]> buscarIdsPorCpf(@Param("cpfs") Collection<String> cpfsNormalizados);
+
+    @Query("select p from Pessoa p where p.id > :apos order by p.id")
+    @Transactional(readOnly = true)
+    List<Pessoa> buscarPagina(@Param("apos") long apos, Pageable pagina);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select p from Pessoa p order by p.id")
+    Stream<Pessoa> streamTodas();
 }
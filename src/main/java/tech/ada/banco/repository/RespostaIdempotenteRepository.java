@@ -0,0 +1,48 @@
+package tech.ada.banco.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tech.ada.banco.model.RespostaIdempotente;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Repository
+public interface RespostaIdempotenteRepository extends JpaRepository<RespostaIdempotente, String> {
+
+    /**
+     * Reserva a chave. Com a chave atribuída pela aplicação o {@code save} faria um {@code merge}
+     * sobre a reserva de outra requisição; aqui a chave duplicada é um erro.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into IDEMPOTENCIA (CHAVE, REQUISICAO, CRIADA_EM) values (:chave, :requisicao, :criadaEm)",
+            nativeQuery = true)
+    void reservar(@Param("chave") String chave, @Param("requisicao") String requisicao,
+                  @Param("criadaEm") Instant criadaEm);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update IDEMPOTENCIA set SALDO = :saldo where CHAVE = :chave", nativeQuery = true)
+    void concluir(@Param("chave") String chave, @Param("saldo") BigDecimal saldo);
+
+    /** Desfaz a reserva de uma operação que falhou. */
+    @Transactional
+    @Modifying
+    @Query(value = "delete from IDEMPOTENCIA where CHAVE = :chave and SALDO is null", nativeQuery = true)
+    void liberar(@Param("chave") String chave);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RespostaIdempotente r where r.chave = :chave and r.criadaEm < :limite")
+    int removerSeExpirada(@Param("chave") String chave, @Param("limite") Instant limite);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RespostaIdempotente r where r.criadaEm < :limite")
+    int removerExpiradas(@Param("limite") Instant limite);
+}
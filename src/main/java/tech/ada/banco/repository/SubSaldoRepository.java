@@ -0,0 +1,49 @@
+package tech.ada.banco.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tech.ada.banco.model.SubSaldo;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface SubSaldoRepository extends JpaRepository<SubSaldo, SubSaldo.Chave> {
+
+    @Transactional
+    @Modifying
+    @Query(value = "update SUBSALDO set SALDO = SALDO + :valor where NUMERO_CONTA = :numeroConta and SLOT = :slot",
+            nativeQuery = true)
+    int creditar(@Param("numeroConta") int numeroConta, @Param("slot") int slot, @Param("valor") BigDecimal valor);
+
+    /**
+     * Cria a parcela zerada. Com a chave composta, o {@code save} faria um {@code merge} e poderia
+     * zerar uma parcela criada e creditada por outra requisição; aqui a chave duplicada é um erro.
+     */
+    @Modifying
+    @Query(value = "insert into SUBSALDO (NUMERO_CONTA, SLOT, SALDO) values (:numeroConta, :slot, 0)",
+            nativeQuery = true)
+    void criar(@Param("numeroConta") int numeroConta, @Param("slot") int slot);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from SubSaldo s where s.numeroConta = :numeroConta order by s.slot")
+    List<SubSaldo> findParaConsolidacao(@Param("numeroConta") int numeroConta);
+
+    @Query("select s.slot from SubSaldo s where s.numeroConta = :numeroConta")
+    List<Integer> buscarSlots(@Param("numeroConta") int numeroConta);
+
+    /**
+     * Saldo da conta somado ao das suas parcelas numa única consulta, para que uma consolidação
+     * concorrente não faça um crédito ser contado duas vezes ou nenhuma.
+     */
+    @Query(value = "select c.SALDO + coalesce((select sum(s.SALDO) from SUBSALDO s "
+            + "where s.NUMERO_CONTA = c.NUMERO_CONTA), 0) from CONTA c where c.NUMERO_CONTA = :numeroConta",
+            nativeQuery = true)
+    BigDecimal buscarSaldoTotal(@Param("numeroConta") int numeroConta);
+}
@@ -0,0 +1,90 @@
+package tech.ada.banco.services;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mapa concorrente com no máximo {@code maximo} entradas, que expiram {@code validadeMillis} depois
+ * de guardadas. Como a validade é a mesma para todas, a ordem de inserção é também a de expiração,
+ * e a mesma fila serve para descartar as mais antigas quando o mapa enche e para a limpeza.
+ *
+ * <p>Cada {@link #guardar} põe a nova entrada no fim da fila; a que ela substituiu, ou uma removida ou
+ * expirada, fica na fila até chegar à frente, quando é descartada sem tocar o mapa. A fila guarda no
+ * máximo {@code 2 * maximo} entradas, então chaves invalidadas ou expiradas repetidamente não a fazem
+ * crescer mesmo que a limpeza nunca rode.
+ */
+final class CacheComValidade<V> {
+
+    private record Entrada<V>(String chave, V valor, long expiraEm) {
+
+        boolean expirada(long agora) {
+            return agora >= expiraEm;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entrada<V>> entradas = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entrada<V>> ordem = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger naFila = new AtomicInteger();
+    private final int maximo;
+    private final long validadeMillis;
+
+    CacheComValidade(int maximo, long validadeMillis) {
+        this.maximo = Math.max(1, maximo);
+        this.validadeMillis = validadeMillis;
+    }
+
+    V buscar(String chave) {
+        Entrada<V> entrada = entradas.get(chave);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.expirada(System.currentTimeMillis())) {
+            entradas.remove(chave, entrada);
+            return null;
+        }
+        return entrada.valor();
+    }
+
+    void guardar(String chave, V valor) {
+        Entrada<V> entrada = new Entrada<>(chave, valor, System.currentTimeMillis() + validadeMillis);
+        entradas.put(chave, entrada);
+        ordem.add(entrada);
+        naFila.incrementAndGet();
+        while (naFila.get() > 2 * maximo || entradas.size() > maximo) {
+            Entrada<V> maisAntiga = ordem.poll();
+            if (maisAntiga == null) {
+                break;
+            }
+            naFila.decrementAndGet();
+            entradas.remove(maisAntiga.chave(), maisAntiga);
+        }
+    }
+
+    void remover(String chave) {
+        entradas.remove(chave);
+    }
+
+    void removerExpiradas() {
+        long agora = System.currentTimeMillis();
+        Entrada<V> entrada;
+        while ((entrada = ordem.peek()) != null) {
+            if (entradas.get(entrada.chave()) == entrada && !entrada.expirada(agora)) {
+                // a primeira ainda válida: as seguintes foram guardadas depois
+                return;
+            }
+            if (ordem.remove(entrada)) {
+                naFila.decrementAndGet();
+                entradas.remove(entrada.chave(), entrada);
+            }
+        }
+    }
+
+    int tamanho() {
+        return entradas.size();
+    }
+
+    int tamanhoDaFila() {
+        return naFila.get();
+    }
+}
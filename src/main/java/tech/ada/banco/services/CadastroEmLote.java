@@ -0,0 +1,184 @@
+package tech.ada.banco.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.ada.banco.dto.NovaConta;
+import tech.ada.banco.dto.ResultadoDoCadastro;
+import tech.ada.banco.exceptions.CpfJaCadastradoException;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.Pessoa;
+import tech.ada.banco.repository.PessoaRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Cadastra pessoas e contas em blocos: cada bloco é uma transação, com os ids tirados das sequências
+ * em faixas (o {@code allocationSize} de {@link Conta} e {@link Pessoa}) e os inserts enviados num
+ * único batch JDBC do tamanho do bloco. Os CPFs de um bloco são conferidos numa só consulta: pessoas
+ * com CPF já cadastrado (ou repetido no bloco) são rejeitadas, assim como contas sem modalidade ou
+ * cujo titular, indicado pelo CPF, não existe. Uma linha que não vira pessoa ou conta (tipo errado,
+ * dado recusado pelo modelo, como uma data de nascimento de menor) também é rejeitada sem parar o
+ * cadastro; se a entrada deixa de ser legível, os blocos já lidos são gravados e o resultado indica a
+ * linha em que a leitura parou.
+ */
+@Service
+@Slf4j
+public class CadastroEmLote {
+
+    private final EntityManager entityManager;
+    private final TransactionOperations transacao;
+    private final PessoaRepository pessoas;
+    private final int tamanhoDoBloco;
+
+    public CadastroEmLote(EntityManager entityManager, TransactionOperations transacao, PessoaRepository pessoas,
+                          @Value("${banco.cadastro.lote.tamanho-do-bloco:500}") int tamanhoDoBloco) {
+        this.entityManager = entityManager;
+        this.transacao = transacao;
+        this.pessoas = pessoas;
+        this.tamanhoDoBloco = tamanhoDoBloco;
+    }
+
+    public ResultadoDoCadastro cadastrarPessoas(Iterator<Pessoa> entrada) {
+        return cadastrar("pessoas", entrada, bloco -> {
+            try {
+                return gravarBloco(bloco, this::gravarPessoas);
+            } catch (PersistenceException | DataIntegrityViolationException e) {
+                if (!CpfJaCadastradoException.violaCpfUnico(e)) {
+                    throw e;
+                }
+                // outro cadastro gravou um dos CPFs depois da consulta; a transação do bloco foi desfeita
+                // e a nova tentativa já o encontra
+                log.debug("Bloco do cadastro de pessoas repetido após CPF gravado por outro cadastro");
+                bloco.forEach(pessoa -> pessoa.setId(null));
+                return gravarBloco(bloco, this::gravarPessoas);
+            }
+        });
+    }
+
+    public ResultadoDoCadastro cadastrarContas(Iterator<NovaConta> entrada) {
+        return cadastrar("contas", entrada, bloco -> gravarBloco(bloco, this::gravarContas));
+    }
+
+    private int gravarPessoas(List<Pessoa> bloco) {
+        Set<String> cpfs = new HashSet<>();
+        for (Pessoa pessoa : bloco) {
+            if (pessoa.getCpfNormalizado() != null) {
+                cpfs.add(pessoa.getCpfNormalizado());
+            }
+        }
+        Set<String> cadastrados = new HashSet<>();
+        if (!cpfs.isEmpty()) {
+            for (Object[] cadastrado : pessoas.buscarIdsPorCpf(cpfs)) {
+                cadastrados.add((String) cadastrado[0]);
+            }
+        }
+
+        int inseridas = 0;
+        for (Pessoa pessoa : bloco) {
+            String cpf = pessoa.getCpfNormalizado();
+            if (cpf != null && !cadastrados.add(cpf)) {
+                continue;
+            }
+            entityManager.persist(pessoa);
+            inseridas++;
+        }
+        return inseridas;
+    }
+
+    private int gravarContas(List<NovaConta> bloco) {
+        Set<String> cpfs = new HashSet<>();
+        for (NovaConta conta : bloco) {
+            String cpf = Pessoa.normalizarCpf(conta.cpfTitular());
+            if (cpf != null) {
+                cpfs.add(cpf);
+            }
+        }
+        Map<String, Long> titulares = new HashMap<>();
+        if (!cpfs.isEmpty()) {
+            for (Object[] titular : pessoas.buscarIdsPorCpf(cpfs)) {
+                titulares.put((String) titular[0], (Long) titular[1]);
+            }
+        }
+
+        int inseridas = 0;
+        for (NovaConta conta : bloco) {
+            if (conta.modalidade() == null) {
+                continue;
+            }
+            Pessoa titular = null;
+            if (conta.cpfTitular() != null) {
+                Long id = titulares.get(Pessoa.normalizarCpf(conta.cpfTitular()));
+                if (id == null) {
+                    continue;
+                }
+                titular = entityManager.getReference(Pessoa.class, id);
+            }
+            entityManager.persist(new Conta(conta.modalidade(), titular));
+            inseridas++;
+        }
+        return inseridas;
+    }
+
+    private <T> ResultadoDoCadastro cadastrar(String tipo, Iterator<T> entrada, ToIntFunction<List<T>> gravar) {
+        long inicio = System.nanoTime();
+        long lidas = 0;
+        long inseridas = 0;
+        Long interrompidoNaLinha = null;
+        List<T> bloco = new ArrayList<>(tamanhoDoBloco);
+        boolean haMais = true;
+        boolean linhaAnteriorRejeitada = false;
+        while (haMais) {
+            try {
+                haMais = entrada.hasNext();
+            } catch (RuntimeException e) {
+                haMais = false;
+                // a linha que não pôde ser lida costuma ser a que deixou a entrada ilegível
+                interrompidoNaLinha = linhaAnteriorRejeitada ? lidas : lidas + 1;
+                log.warn("Cadastro em lote de {} interrompido na linha {}: {}", tipo, interrompidoNaLinha,
+                        e.getMessage());
+            }
+            if (haMais) {
+                lidas++;
+                linhaAnteriorRejeitada = false;
+                try {
+                    bloco.add(entrada.next());
+                } catch (RuntimeException e) {
+                    linhaAnteriorRejeitada = true;
+                    log.debug("Linha {} do cadastro em lote de {} rejeitada: {}", lidas, tipo, e.getMessage());
+                }
+            }
+            if (!bloco.isEmpty() && (bloco.size() == tamanhoDoBloco || !haMais)) {
+                inseridas += gravar.applyAsInt(bloco);
+                bloco.clear();
+            }
+        }
+        ResultadoDoCadastro resultado = ResultadoDoCadastro.de(inseridas, lidas - inseridas, interrompidoNaLinha,
+                System.nanoTime() - inicio);
+        log.info("Cadastro em lote de {}: {} inseridas, {} rejeitadas em {} ms ({} linhas/s)", tipo,
+                resultado.inseridas(), resultado.rejeitadas(), resultado.milissegundos(), resultado.linhasPorSegundo());
+        return resultado;
+    }
+
+    private <T> int gravarBloco(List<T> bloco, ToIntFunction<List<T>> gravar) {
+        return transacao.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(tamanhoDoBloco);
+            int inseridas = gravar.applyAsInt(bloco);
+            entityManager.flush();
+            entityManager.clear();
+            return inseridas;
+        });
+    }
+}
@@ -0,0 +1,256 @@
+package tech.ada.banco.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.ada.banco.dto.Divergencia;
+import tech.ada.banco.dto.ResultadoDaConciliacao;
+import tech.ada.banco.exceptions.ConciliacaoEmAndamentoException;
+import tech.ada.banco.exceptions.ServicoIndisponivelException;
+import tech.ada.banco.model.Dinheiro;
+import tech.ada.banco.model.Movimento;
+import tech.ada.banco.model.SaldoConciliado;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Confere o saldo de cada conta (tabela CONTA mais as parcelas de conta quente) contra a soma dos seus
+ * {@link Movimento movimentos}, que são o registro por operação de depósitos, saques, pix e
+ * rendimento. As contas são divididas em partições por faixa de {@code NUMERO_CONTA}, conferidas em
+ * paralelo, cada uma numa única consulta.
+ *
+ * <p>Para não somar o histórico inteiro a cada execução, cada partição primeiro marca com o instante
+ * da conciliação ({@code CONCILIADO_EM}) os seus movimentos ainda não conciliados e soma os marcados à
+ * base de cada conta em {@link SaldoConciliado}, tudo numa transação. O corte é o próprio commit: entra
+ * na base todo movimento já gravado quando a marcação roda, qualquer que seja a sua {@code DATA_HORA},
+ * e um movimento gravado depois fica sem marca para a próxima execução, nunca para trás da base. A
+ * conferência soma à base só os movimentos sem marca.
+ *
+ * <p>Os movimentos são gravados na mesma transação que altera o saldo, então a conferência não vê um
+ * sem o outro. A exceção é o ledger em memória, cujos saldos chegam à tabela CONTA depois, em lote: por
+ * isso as divergências de cada partição são conferidas de novo depois de
+ * {@code espera-da-rechecagem-ms}, e só as que persistem vão para o relatório.
+ */
+@Service
+@Slf4j
+public class ConciliacaoDeSaldos {
+
+    private static final String FAIXA = "select min(NUMERO_CONTA), max(NUMERO_CONTA) from CONTA";
+    private static final String MARCAR = "update MOVIMENTO set CONCILIADO_EM = ? "
+            + "where CONCILIADO_EM is null and NUMERO_CONTA >= ? and NUMERO_CONTA < ?";
+    private static final String BASE = "merge into SALDO_CONCILIADO s using (select NUMERO_CONTA, sum(VALOR) SALDO "
+            + "from MOVIMENTO where CONCILIADO_EM = ? and NUMERO_CONTA >= ? and NUMERO_CONTA < ? "
+            + "group by NUMERO_CONTA) n on (s.NUMERO_CONTA = n.NUMERO_CONTA) "
+            + "when matched then update set s.SALDO = s.SALDO + n.SALDO, s.ATE = ? "
+            + "when not matched then insert (NUMERO_CONTA, SALDO, ATE) values (n.NUMERO_CONTA, n.SALDO, ?)";
+    private static final String CONTAS = "select c.NUMERO_CONTA, c.SALDO, "
+            + "(select coalesce(sum(p.SALDO), 0) from SUBSALDO p where p.NUMERO_CONTA = c.NUMERO_CONTA), "
+            + "coalesce(s.SALDO, 0), "
+            + "(select coalesce(sum(m.VALOR), 0) from MOVIMENTO m where m.CONCILIADO_EM is null "
+            + "and m.NUMERO_CONTA = c.NUMERO_CONTA) "
+            + "from CONTA c left join SALDO_CONCILIADO s on s.NUMERO_CONTA = c.NUMERO_CONTA "
+            + "where c.NUMERO_CONTA >= ? and c.NUMERO_CONTA < ?";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionOperations transacao;
+    private final int tamanhoDaParticao;
+    private final int paralelismo;
+    private final long esperaDaRechecagemMillis;
+    private final boolean extrato;
+    private final AtomicBoolean emExecucao = new AtomicBoolean();
+
+    public ConciliacaoDeSaldos(JdbcTemplate jdbc, TransactionOperations transacao,
+                               @Value("${banco.conciliacao.tamanho-da-particao:100000}") int tamanhoDaParticao,
+                               @Value("${banco.conciliacao.paralelismo:0}") int paralelismo,
+                               @Value("${banco.conciliacao.espera-da-rechecagem-ms:1000}")
+                               long esperaDaRechecagemMillis,
+                               @Value("${banco.extrato.habilitado:true}") boolean extrato) {
+        this.jdbc = jdbc;
+        this.transacao = transacao;
+        this.tamanhoDaParticao = tamanhoDaParticao;
+        this.paralelismo = paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors();
+        this.esperaDaRechecagemMillis = esperaDaRechecagemMillis;
+        this.extrato = extrato;
+    }
+
+    /**
+     * Concilia todas as contas, entregando cada divergência confirmada ao {@code relatorio} assim que a
+     * sua partição termina. As chamadas ao relatório vêm de várias threads, mas nunca ao mesmo tempo.
+     *
+     * @throws ConciliacaoEmAndamentoException se outra conciliação já está em andamento
+     * @throws ServicoIndisponivelException    com o extrato desabilitado, sem movimentos para somar
+     */
+    public ResultadoDaConciliacao executar(Consumer<Divergencia> relatorio) {
+        if (!extrato) {
+            throw new ServicoIndisponivelException();
+        }
+        if (!emExecucao.compareAndSet(false, true)) {
+            throw new ConciliacaoEmAndamentoException();
+        }
+        try {
+            return conciliar(relatorio);
+        } finally {
+            emExecucao.set(false);
+        }
+    }
+
+    private ResultadoDaConciliacao conciliar(Consumer<Divergencia> relatorio) {
+        long inicio = System.nanoTime();
+        Instant corte = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        Object lock = new Object();
+        Consumer<Divergencia> serializado = divergencia -> {
+            synchronized (lock) {
+                relatorio.accept(divergencia);
+            }
+        };
+
+        long[] faixa = jdbc.queryForObject(FAIXA, (linha, i) -> linha.getObject(1) == null ? null
+                : new long[]{linha.getLong(1), linha.getLong(2) + 1});
+        List<Future<Parcial>> particoes = new ArrayList<>();
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(paralelismo, tarefa -> {
+            Thread thread = new Thread(tarefa, "conciliacao-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Parcial total = new Parcial();
+        try {
+            if (faixa != null) {
+                for (long de = faixa[0]; de < faixa[1]; de += tamanhoDaParticao) {
+                    long ate = Math.min(de + tamanhoDaParticao, faixa[1]);
+                    long particao = de;
+                    particoes.add(executor.submit(() -> conciliar(particao, ate, corte, serializado)));
+                }
+            }
+            for (Future<Parcial> particao : particoes) {
+                total.somar(particao.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServicoIndisponivelException();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ResultadoDaConciliacao resultado = ResultadoDaConciliacao.de(corte, total.contas, particoes.size(),
+                total.divergencias, total.saldo, total.esperado, System.nanoTime() - inicio);
+        log.info("Conciliação até {}: {} contas em {} partições, {} divergências, saldo total {} "
+                        + "(esperado {}) em {} ms ({} contas/s)", corte, resultado.contas(), resultado.particoes(),
+                resultado.divergencias(), resultado.saldoTotal(), resultado.esperadoTotal(),
+                resultado.milissegundos(), resultado.contasPorSegundo());
+        return resultado;
+    }
+
+    /**
+     * Soma à base os movimentos de [de, ate) já gravados, confere as contas e rechecha as divergentes.
+     */
+    private Parcial conciliar(long de, long ate, Instant corte, Consumer<Divergencia> relatorio)
+            throws InterruptedException {
+        Timestamp marca = Timestamp.from(corte);
+        transacao.executeWithoutResult(status -> {
+            if (jdbc.update(MARCAR, marca, de, ate) > 0) {
+                jdbc.update(BASE, marca, de, ate, marca, marca);
+            }
+        });
+
+        Parcial parcial = new Parcial();
+        List<Conferencia> divergentes = new ArrayList<>();
+        jdbc.query(CONTAS, linha -> {
+            Conferencia conferencia = Conferencia.de(linha);
+            parcial.somar(conferencia);
+            if (conferencia.divergente()) {
+                divergentes.add(conferencia);
+            }
+        }, de, ate);
+        if (divergentes.isEmpty()) {
+            return parcial;
+        }
+
+        TimeUnit.MILLISECONDS.sleep(esperaDaRechecagemMillis);
+        for (Conferencia anterior : divergentes) {
+            List<Conferencia> novas = jdbc.query(CONTAS, (linha, i) -> Conferencia.de(linha),
+                    anterior.numeroConta, anterior.numeroConta + 1L);
+            parcial.descontar(anterior);
+            if (novas.isEmpty()) {
+                // conta removida depois da primeira leitura
+                continue;
+            }
+            Conferencia nova = novas.get(0);
+            parcial.somar(nova);
+            if (nova.divergente()) {
+                parcial.divergencias++;
+                relatorio.accept(Divergencia.de(nova.numeroConta, nova.saldo, nova.esperado()));
+            }
+        }
+        return parcial;
+    }
+
+    /**
+     * Uma linha da consulta: o saldo atual (com as parcelas), a base conciliada e os movimentos ainda
+     * não conciliados, em centavos.
+     */
+    private record Conferencia(int numeroConta, long saldo, long base, long pendentes) {
+
+        static Conferencia de(ResultSet linha) throws SQLException {
+            long saldo = Dinheiro.somar(Dinheiro.centavos(linha.getBigDecimal(2)),
+                    Dinheiro.centavos(linha.getBigDecimal(3)));
+            return new Conferencia(linha.getInt(1), saldo, Dinheiro.centavos(linha.getBigDecimal(4)),
+                    Dinheiro.centavos(linha.getBigDecimal(5)));
+        }
+
+        long esperado() {
+            return base + pendentes;
+        }
+
+        boolean divergente() {
+            return saldo != esperado();
+        }
+    }
+
+    private static final class Parcial {
+        private long contas;
+        private long divergencias;
+        private long saldo;
+        private long esperado;
+
+        void somar(Conferencia conferencia) {
+            contas++;
+            saldo += conferencia.saldo;
+            esperado += conferencia.esperado();
+        }
+
+        void descontar(Conferencia conferencia) {
+            contas--;
+            saldo -= conferencia.saldo;
+            esperado -= conferencia.esperado();
+        }
+
+        void somar(Parcial outra) {
+            contas += outra.contas;
+            divergencias += outra.divergencias;
+            saldo += outra.saldo;
+            esperado += outra.esperado;
+        }
+    }
+}
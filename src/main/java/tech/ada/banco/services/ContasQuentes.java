@@ -0,0 +1,160 @@
+package tech.ada.banco.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.Dinheiro;
+import tech.ada.banco.model.SubSaldo;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.repository.SubSaldoRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Contas que recebem créditos demais para uma única linha de CONTA ({@code banco.contas-quentes.contas}).
+ * Cada crédito vai para uma de {@code banco.contas-quentes.slots} parcelas na tabela SUBSALDO,
+ * escolhida ao acaso, então depósitos simultâneos na mesma conta atualizam linhas diferentes.
+ *
+ * <p>As parcelas voltam para a tabela CONTA antes de todo débito, com a conta e as parcelas
+ * bloqueadas, e a cada {@code banco.contas-quentes.intervalo-de-consolidacao-ms}. Entre uma
+ * consolidação e outra, quem lê só a tabela CONTA vê o saldo sem os créditos mais recentes. No
+ * ledger em memória as parcelas são contadores em memória e esta classe só informa quais contas
+ * são quentes.
+ */
+@Service
+@Slf4j
+public class ContasQuentes {
+
+    private final ContaRepository contas;
+    private final SubSaldoRepository subSaldos;
+    private final TransactionOperations transacao;
+    private final Retentativa retentativa;
+    private final Set<Integer> quentes;
+    private final int slots;
+    private final Set<Integer> preparadas = ConcurrentHashMap.newKeySet();
+    private final TarefaPeriodica consolidador;
+
+    @Autowired
+    public ContasQuentes(ContaRepository contas, SubSaldoRepository subSaldos, TransactionOperations transacao,
+                         Retentativa retentativa,
+                         @Value("${banco.contas-quentes.contas:}") Set<Integer> quentes,
+                         @Value("${banco.contas-quentes.slots:8}") int slots,
+                         @Value("${banco.contas-quentes.intervalo-de-consolidacao-ms:1000}") long intervaloMillis,
+                         @Value("${banco.saldo.motor:jpa}") String motor) {
+        this.contas = contas;
+        this.subSaldos = subSaldos;
+        this.transacao = transacao;
+        this.retentativa = retentativa;
+        this.quentes = Set.copyOf(quentes);
+        this.slots = Math.max(1, slots);
+
+        consolidador = TarefaPeriodica.iniciar("contas-quentes",
+                !this.quentes.isEmpty() && "jpa".equals(motor) ? intervaloMillis : 0, this::consolidarTodas);
+    }
+
+    public static ContasQuentes nenhuma() {
+        return new ContasQuentes(null, null, null, null, Set.of(), 1, 0, "jpa");
+    }
+
+    public boolean isQuente(int numeroConta) {
+        return quentes.contains(numeroConta);
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    /**
+     * Credita o valor numa parcela qualquer da conta e devolve o saldo total em centavos. Pode rodar
+     * dentro da transação de quem chama, desde que as parcelas já tenham sido criadas com {@link #preparar}.
+     */
+    public long creditar(int numeroConta, long centavos) {
+        Conta.validarValor(centavos);
+        BigDecimal valor = Dinheiro.reais(centavos);
+        int slot = ThreadLocalRandom.current().nextInt(slots);
+        if (subSaldos.creditar(numeroConta, slot, valor) == 0) {
+            preparar(numeroConta);
+            if (subSaldos.creditar(numeroConta, slot, valor) == 0) {
+                throw new ResourceNotFoundException();
+            }
+        }
+        return Dinheiro.centavos(subSaldos.buscarSaldoTotal(numeroConta));
+    }
+
+    /**
+     * Leva as parcelas da conta para a tabela CONTA, na sua própria transação.
+     */
+    public void consolidar(int numeroConta) {
+        retentativa.executar(() -> transacao.execute(status -> {
+            Conta conta = contas.findContaParaAtualizacao(numeroConta).orElseThrow(ResourceNotFoundException::new);
+            return consolidar(conta);
+        }));
+    }
+
+    /**
+     * Soma as parcelas ao saldo da conta e as zera. Deve rodar numa transação que já tenha a conta
+     * bloqueada: a conta é sempre bloqueada antes das parcelas, e os créditos só tocam nas parcelas.
+     */
+    public long consolidar(Conta conta) {
+        long total = 0;
+        for (SubSaldo subSaldo : subSaldos.findParaConsolidacao(conta.getNumeroConta())) {
+            total = Dinheiro.somar(total, subSaldo.getSaldo());
+            subSaldo.setSaldo(0);
+        }
+        if (total > 0) {
+            conta.deposito(total);
+        }
+        return total;
+    }
+
+    public void consolidarTodas() {
+        for (Integer numeroConta : quentes) {
+            try {
+                consolidar(numeroConta);
+            } catch (RuntimeException e) {
+                log.warn("Falha ao consolidar as parcelas da conta {}: {}", numeroConta, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        consolidador.encerrar();
+    }
+
+    /**
+     * Cria as parcelas da conta que ainda não existem, na sua própria transação; deve rodar fora da
+     * transação do crédito, porque a criação concorrente das mesmas parcelas falha e é descartada.
+     */
+    public void preparar(int numeroConta) {
+        if (preparadas.contains(numeroConta)) {
+            return;
+        }
+        try {
+            transacao.executeWithoutResult(status -> {
+                if (!contas.existsById(numeroConta)) {
+                    throw new ResourceNotFoundException();
+                }
+                List<Integer> existentes = subSaldos.buscarSlots(numeroConta);
+                for (int slot = 0; slot < slots; slot++) {
+                    if (!existentes.contains(slot)) {
+                        subSaldos.criar(numeroConta, slot);
+                    }
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // outra requisição criou as parcelas ao mesmo tempo
+        }
+        preparadas.add(numeroConta);
+    }
+}
@@ -2,32 +2,83 @@ package tech.ada.banco.services;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.metricas.Medidor;
+import tech.ada.banco.metricas.MetricasDeOperacoes;
 import tech.ada.banco.model.Conta;
 
+import tech.ada.banco.model.Dinheiro;
+import tech.ada.banco.model.TipoOperacao;
 import tech.ada.banco.repository.ContaRepository;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.Optional;
 
 @Service
 @Slf4j
 public class Deposito {
 
     private final ContaRepository repository;
+    private final Retentativa retentativa;
+    private final MotorDeSaldo motor;
+    private final RegistroDeOperacoes registro;
+    private final ContasQuentes contasQuentes;
+    private final Medidor medidor;
+    private final boolean atualizacaoAtomica;
 
     public Deposito(ContaRepository repository) {
+        this(repository, new Retentativa(), Optional.empty(), RegistroDeOperacoes.vazio(),
+                ContasQuentes.nenhuma(), MetricasDeOperacoes.desligadas(), false);
+    }
+
+    @Autowired
+    public Deposito(ContaRepository repository, Retentativa retentativa, Optional<MotorDeSaldo> motor,
+                    RegistroDeOperacoes registro, ContasQuentes contasQuentes, MetricasDeOperacoes metricas,
+                    @Value("${banco.saldo.atualizacao-atomica:false}") boolean atualizacaoAtomica) {
         this.repository = repository;
+        this.retentativa = retentativa;
+        this.motor = motor.orElse(null);
+        this.registro = registro;
+        this.contasQuentes = contasQuentes;
+        this.medidor = metricas.medidor("deposito");
+        this.atualizacaoAtomica = atualizacaoAtomica;
     }
 
     public BigDecimal executar(int numeroConta, BigDecimal valor) {
-        valor = valor.setScale(2, RoundingMode.HALF_UP);
+        return medidor.medir(() -> realizar(numeroConta, valor));
+    }
+
+    private BigDecimal realizar(int numeroConta, BigDecimal valor) {
+        long centavos = Dinheiro.centavos(valor);
+
+        long saldo;
+        if (motor != null) {
+            saldo = motor.creditar(numeroConta, centavos);
+        } else if (contasQuentes.isQuente(numeroConta)) {
+            contasQuentes.preparar(numeroConta);
+            saldo = registro.gravar(TipoOperacao.DEPOSITO, numeroConta, numeroConta, centavos,
+                    () -> contasQuentes.creditar(numeroConta, centavos));
+        } else if (atualizacaoAtomica) {
+            Conta.validarValor(centavos);
+            saldo = retentativa.executar(() -> registro.gravar(TipoOperacao.DEPOSITO, numeroConta, numeroConta,
+                    centavos, () -> repository.creditarSaldo(numeroConta, centavos)));
+        } else {
+            saldo = retentativa.executar(() -> registro.gravar(TipoOperacao.DEPOSITO, numeroConta, numeroConta,
+                    centavos, () -> depositar(numeroConta, centavos)));
+        }
+        registro.registrar(TipoOperacao.DEPOSITO, numeroConta, numeroConta, centavos);
+        BigDecimal saldoEmReais = Dinheiro.reais(saldo);
+        log.debug("O saldo da conta é de: R$ {}", saldoEmReais);
+        return saldoEmReais;
+    }
 
-        Conta conta = repository.findContaByNumeroConta(numeroConta).orElseThrow(ResourceNotFoundException::new);
-        conta.deposito(valor);
-        log.info("O saldo da conta é de: R$ {}", conta.getSaldo());
-        repository.save(conta);
-        return conta.getSaldo();
+    private long depositar(int numeroConta, long centavos) {
+        Conta conta = repository.buscarSaldoDaConta(numeroConta).orElseThrow(ResourceNotFoundException::new);
+        conta.deposito(centavos);
+        repository.gravarSaldo(conta);
+        return conta.getSaldoEmCentavos();
     }
-}
\ No newline at end of file
+}
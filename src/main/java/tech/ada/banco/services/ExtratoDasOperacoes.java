@@ -0,0 +1,60 @@
+package tech.ada.banco.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import tech.ada.banco.model.Movimento;
+import tech.ada.banco.model.TipoOperacao;
+import tech.ada.banco.repository.MovimentoRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Grava na tabela MOVIMENTO cada operação concluída. No motor jpa (carrega-altera-salva, atualização
+ * atômica e contas quentes), no commit em grupo e nos shards, os movimentos são gravados pelo
+ * {@link RegistroDeOperacoes} na mesma transação que altera o saldo, e o aviso depois do commit é
+ * ignorado. Só no ledger em memória, cujos saldos chegam à tabela CONTA depois, em lote, o movimento é
+ * gravado pelo aviso, numa transação própria.
+ */
+@Component
+@ConditionalOnProperty(name = "banco.extrato.habilitado", havingValue = "true", matchIfMissing = true)
+public class ExtratoDasOperacoes implements OuvinteDeOperacoes {
+
+    private final MovimentoRepository repository;
+    private final boolean naTransacao;
+
+    public ExtratoDasOperacoes(MovimentoRepository repository, @Value("${banco.saldo.motor:jpa}") String motor) {
+        this.repository = repository;
+        this.naTransacao = !"ledger".equals(motor);
+    }
+
+    @Override
+    public void operacaoRealizada(TipoOperacao tipo, int contaOrigem, int contaDestino, long centavos) {
+        if (!naTransacao) {
+            lancar(tipo, contaOrigem, contaDestino, centavos);
+        }
+    }
+
+    /**
+     * Grava os movimentos da operação; participa da transação em andamento, se houver.
+     */
+    public void lancar(TipoOperacao tipo, int contaOrigem, int contaDestino, long centavos) {
+        Instant agora = Instant.now();
+        switch (tipo) {
+            case DEPOSITO -> repository.save(new Movimento(contaDestino, agora, tipo, centavos, null));
+            case SAQUE -> repository.save(new Movimento(contaOrigem, agora, tipo, -centavos, null));
+            case PIX -> repository.saveAll(List.of(
+                    new Movimento(contaOrigem, agora, tipo, -centavos, contaDestino),
+                    new Movimento(contaDestino, agora, tipo, centavos, contaOrigem)));
+        }
+    }
+
+    /**
+     * Grava um único movimento, com sinal, para operações aplicadas uma conta de cada vez (as duas pernas
+     * de um pix entre shards).
+     */
+    public void lancarPerna(TipoOperacao tipo, int numeroConta, long valor, Integer contraparte) {
+        repository.save(new Movimento(numeroConta, Instant.now(), tipo, valor, contraparte));
+    }
+}
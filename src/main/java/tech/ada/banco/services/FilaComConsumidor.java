@@ -0,0 +1,95 @@
+package tech.ada.banco.services;
+
+import tech.ada.banco.exceptions.ServicoIndisponivelException;
+
+import java.util.Collection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fila limitada de pedidos lida por uma única thread de fundo, que os aplica em lotes e completa o
+ * futuro de cada um. Depois de {@link #fechar()} nenhum pedido novo entra, e a thread continua
+ * enquanto {@link #temPedidos()}, até esvaziar a fila.
+ */
+public final class FilaComConsumidor<T> {
+
+    private final BlockingQueue<T> fila;
+
+    private volatile boolean aberta = true;
+
+    public FilaComConsumidor(BlockingQueue<T> fila) {
+        this.fila = fila;
+    }
+
+    /**
+     * Põe o pedido na fila.
+     *
+     * @param esperarEspaco com a fila cheia, espera por espaço em vez de recusar o pedido
+     * @throws ServicoIndisponivelException com a fila cheia ou fechada, ou interrompida a espera
+     */
+    public void colocar(T pedido, boolean esperarEspaco) {
+        if (!aberta || !inserir(pedido, esperarEspaco)) {
+            throw new ServicoIndisponivelException();
+        }
+        // a thread de fundo pode ter feito a última leitura da fila antes deste pedido entrar
+        if (!aberta && fila.remove(pedido)) {
+            throw new ServicoIndisponivelException();
+        }
+    }
+
+    public void fechar() {
+        aberta = false;
+    }
+
+    /**
+     * Se a thread de fundo deve continuar lendo: a fila está aberta ou ainda tem pedidos.
+     */
+    public boolean temPedidos() {
+        return aberta || !fila.isEmpty();
+    }
+
+    public T poll(long tempo, TimeUnit unidade) throws InterruptedException {
+        return fila.poll(tempo, unidade);
+    }
+
+    public int drainTo(Collection<? super T> destino, int maximo) {
+        return fila.drainTo(destino, maximo);
+    }
+
+    public int drainTo(Collection<? super T> destino) {
+        return fila.drainTo(destino);
+    }
+
+    public int tamanho() {
+        return fila.size();
+    }
+
+    /**
+     * Espera o resultado de um pedido e relança a falha da thread de fundo sem o {@link CompletionException}.
+     */
+    public static long aguardar(CompletableFuture<Long> resultado) {
+        try {
+            return resultado.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException falha) {
+                throw falha;
+            }
+            throw e;
+        }
+    }
+
+    private boolean inserir(T pedido, boolean esperarEspaco) {
+        if (!esperarEspaco) {
+            return fila.offer(pedido);
+        }
+        try {
+            fila.put(pedido);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
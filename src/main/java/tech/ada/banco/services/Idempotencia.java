@@ -0,0 +1,174 @@
+package tech.ada.banco.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import tech.ada.banco.exceptions.ChaveDeIdempotenciaReutilizadaException;
+import tech.ada.banco.exceptions.ConflitoDeConcorrenciaException;
+import tech.ada.banco.exceptions.RequisicaoEmAndamentoException;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.exceptions.SaldoInsuficienteException;
+import tech.ada.banco.exceptions.ServicoIndisponivelException;
+import tech.ada.banco.exceptions.ValorInvalidoException;
+import tech.ada.banco.model.Dinheiro;
+import tech.ada.banco.model.RespostaIdempotente;
+import tech.ada.banco.repository.RespostaIdempotenteRepository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.StringJoiner;
+import java.util.function.Supplier;
+
+/**
+ * Repetições de depósitos, saques e pix identificadas pelo cabeçalho {@value #CABECALHO}. A chave é
+ * reservada na tabela IDEMPOTENCIA antes da operação e recebe o saldo resultante depois dela; uma
+ * repetição devolve esse saldo sem executar a operação de novo. As respostas mais recentes ficam
+ * também num cache em memória, e a repetição respondida por ele não chega ao banco.
+ *
+ * <p>Só operações bem-sucedidas são guardadas. Uma falha que com certeza aconteceu antes de qualquer
+ * saldo ser gravado (valor inválido, conta inexistente, saldo insuficiente, serviço sem capacidade,
+ * transação desfeita por conflito) libera a chave, e a repetição é executada de novo. Qualquer outra
+ * falha pode ter vindo depois do dinheiro mudar de conta: a chave continua reservada, a requisição
+ * recebe 503 e as repetições recebem 409 até a chave expirar. Uma chave reservada por uma requisição
+ * que não terminou recebe 409, e uma chave usada com outros parâmetros recebe 422. Chaves valem por
+ * {@code banco.idempotencia.validade-ms}.
+ */
+@Service
+@Slf4j
+public class Idempotencia {
+
+    public static final String CABECALHO = "Idempotency-Key";
+    static final int TAMANHO_MAXIMO_DA_CHAVE = 100;
+
+    private record Resposta(String requisicao, BigDecimal saldo) {
+    }
+
+    private final RespostaIdempotenteRepository repository;
+    private final CacheComValidade<Resposta> cache;
+    private final long validadeMillis;
+    private final TarefaPeriodica limpador;
+
+    @Autowired
+    public Idempotencia(RespostaIdempotenteRepository repository,
+                        @Value("${banco.idempotencia.validade-ms:86400000}") long validadeMillis,
+                        @Value("${banco.idempotencia.tamanho-do-cache:10000}") int tamanhoDoCache,
+                        @Value("${banco.idempotencia.intervalo-de-limpeza-ms:60000}") long intervaloDeLimpezaMillis) {
+        this.repository = repository;
+        this.cache = new CacheComValidade<>(tamanhoDoCache, validadeMillis);
+        this.validadeMillis = validadeMillis;
+
+        limpador = TarefaPeriodica.iniciar("idempotencia", intervaloDeLimpezaMillis, this::removerExpiradas);
+    }
+
+    /**
+     * Identifica os parâmetros de uma requisição, para que a mesma chave com outros parâmetros seja
+     * recusada. Valores iguais em escalas diferentes ("10" e "10.00") são a mesma requisição.
+     */
+    public static String requisicao(String operacao, Object... parametros) {
+        StringJoiner requisicao = new StringJoiner(":");
+        requisicao.add(operacao);
+        for (Object parametro : parametros) {
+            requisicao.add(parametro instanceof BigDecimal valor
+                    ? valor.stripTrailingZeros().toPlainString()
+                    : String.valueOf(parametro));
+        }
+        return requisicao.toString();
+    }
+
+    /**
+     * Executa a operação uma única vez por chave. Sem chave, apenas executa.
+     */
+    public BigDecimal executar(String chave, String requisicao, Supplier<BigDecimal> operacao) {
+        if (chave == null) {
+            return operacao.get();
+        }
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_DA_CHAVE) {
+            throw new ValorInvalidoException();
+        }
+        BigDecimal anterior = respostaAnterior(chave, requisicao);
+        if (anterior != null) {
+            return anterior;
+        }
+
+        try {
+            repository.reservar(chave, requisicao, Instant.now());
+        } catch (DataIntegrityViolationException e) {
+            // outra requisição com a mesma chave reservou primeiro
+            anterior = respostaAnterior(chave, requisicao);
+            if (anterior != null) {
+                return anterior;
+            }
+            throw new RequisicaoEmAndamentoException();
+        }
+
+        BigDecimal saldo;
+        try {
+            saldo = operacao.get();
+        } catch (RuntimeException e) {
+            if (!antesDeGravar(e)) {
+                log.error("Resultado incerto para a chave de idempotência {} ({}); a chave continua reservada",
+                        chave, requisicao, e);
+                throw new ServicoIndisponivelException();
+            }
+            repository.liberar(chave);
+            throw e;
+        }
+        repository.concluir(chave, saldo);
+        cache.guardar(chave, new Resposta(requisicao, saldo));
+        return saldo;
+    }
+
+    public void removerExpiradas() {
+        cache.removerExpiradas();
+        try {
+            int removidas = repository.removerExpiradas(Instant.now().minusMillis(validadeMillis));
+            log.debug("{} chaves de idempotência expiradas removidas", removidas);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao remover as chaves de idempotência expiradas: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        limpador.encerrar();
+    }
+
+    /**
+     * Falhas que os serviços só lançam antes de gravar qualquer saldo, ou com a transação desfeita.
+     */
+    private static boolean antesDeGravar(RuntimeException e) {
+        return e instanceof ValorInvalidoException || e instanceof ResourceNotFoundException
+                || e instanceof SaldoInsuficienteException || e instanceof ServicoIndisponivelException
+                || e instanceof ConflitoDeConcorrenciaException || e instanceof ConcurrencyFailureException;
+    }
+
+    private BigDecimal respostaAnterior(String chave, String requisicao) {
+        Resposta resposta = cache.buscar(chave);
+        if (resposta == null) {
+            RespostaIdempotente gravada = repository.findById(chave).orElse(null);
+            if (gravada == null) {
+                return null;
+            }
+            Instant limite = Instant.now().minusMillis(validadeMillis);
+            if (gravada.getCriadaEm().isBefore(limite) && repository.removerSeExpirada(chave, limite) > 0) {
+                return null;
+            }
+            if (!gravada.isConcluida()) {
+                if (!gravada.getRequisicao().equals(requisicao)) {
+                    throw new ChaveDeIdempotenciaReutilizadaException();
+                }
+                throw new RequisicaoEmAndamentoException();
+            }
+            resposta = new Resposta(gravada.getRequisicao(), Dinheiro.reais(gravada.getSaldo()));
+            cache.guardar(chave, resposta);
+        }
+        if (!resposta.requisicao().equals(requisicao)) {
+            throw new ChaveDeIdempotenciaReutilizadaException();
+        }
+        return resposta.saldo();
+    }
+}
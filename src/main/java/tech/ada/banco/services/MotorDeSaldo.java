@@ -0,0 +1,17 @@
+package tech.ada.banco.services;
+
+/**
+ * Alternativa ao caminho padrão (JPA) para aplicar depósitos, saques e transferências. Valores e
+ * saldos em centavos. Só uma implementação fica ativa, escolhida por {@code banco.saldo.motor}.
+ */
+public interface MotorDeSaldo {
+
+    long creditar(int numeroConta, long centavos);
+
+    long debitar(int numeroConta, long centavos);
+
+    /**
+     * @return o saldo da conta de origem depois da transferência
+     */
+    long transferir(int contaOrigem, int contaDestino, long centavos);
+}
@@ -0,0 +1,13 @@
+package tech.ada.banco.services;
+
+import tech.ada.banco.model.TipoOperacao;
+
+/**
+ * Recebe cada operação concluída com sucesso, depois que o novo saldo já foi gravado. Em depósitos
+ * e saques a conta de origem e a de destino são a mesma. Uma exceção do ouvinte vai para o log e não
+ * chega a quem pediu a operação, que já está gravada.
+ */
+public interface OuvinteDeOperacoes {
+
+    void operacaoRealizada(TipoOperacao tipo, int contaOrigem, int contaDestino, long centavos);
+}
@@ -0,0 +1,88 @@
+package tech.ada.banco.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tech.ada.banco.model.Pessoa;
+import tech.ada.banco.repository.PessoaRepository;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consulta de pessoas por CPF com um cache de leitura na frente do índice único de CPF_NORMALIZADO.
+ * O cache guarda até {@code banco.pessoas.cache.tamanho} pessoas, cada uma por no máximo
+ * {@code banco.pessoas.cache.validade-ms}, e é invalidado pelo CPF a cada cadastro ou alteração feitos
+ * pelo {@code PessoaController}. Alterações feitas por fora (cadastro em lote, outra instância) só
+ * aparecem quando a entrada expira. CPFs não encontrados não são guardados. Uma leitura que cruza com
+ * uma invalidação não fica no cache: a geração das invalidações é conferida depois de guardar a pessoa
+ * lida, e a entrada é descartada se mudou, pois a linha pode ser anterior à alteração.
+ *
+ * <p>Acertos e faltas são contados em {@code cache.gets} ({@code result=hit|miss}) e o número de
+ * entradas em {@code cache.size}, com a tag {@code cache=pessoas-por-cpf}.
+ */
+@Service
+public class PessoasPorCpf {
+
+    static final String NOME_DO_CACHE = "pessoas-por-cpf";
+
+    private final PessoaRepository repository;
+    private final CacheComValidade<Pessoa> cache;
+    private final AtomicLong geracao = new AtomicLong();
+    private final Counter acertos;
+    private final Counter faltas;
+
+    public PessoasPorCpf(PessoaRepository repository, MeterRegistry registry,
+                         @Value("${banco.pessoas.cache.tamanho:10000}") int tamanho,
+                         @Value("${banco.pessoas.cache.validade-ms:300000}") long validadeMillis) {
+        this.repository = repository;
+        this.cache = new CacheComValidade<>(tamanho, validadeMillis);
+        this.acertos = contador(registry, "hit");
+        this.faltas = contador(registry, "miss");
+        Gauge.builder("cache.size", cache, CacheComValidade::tamanho)
+                .description("Entradas no cache")
+                .tag("cache", NOME_DO_CACHE)
+                .register(registry);
+    }
+
+    public Optional<Pessoa> buscar(String cpf) {
+        String chave = Pessoa.normalizarCpf(cpf);
+        if (chave == null) {
+            return Optional.empty();
+        }
+        Pessoa pessoa = cache.buscar(chave);
+        if (pessoa != null) {
+            acertos.increment();
+            return Optional.of(pessoa);
+        }
+        faltas.increment();
+        long lida = geracao.get();
+        Optional<Pessoa> encontrada = repository.buscarPorCpfNormalizado(chave);
+        if (encontrada.isPresent()) {
+            cache.guardar(chave, encontrada.get());
+            if (geracao.get() != lida) {
+                cache.remover(chave);
+            }
+        }
+        return encontrada;
+    }
+
+    public void invalidar(String cpf) {
+        String chave = Pessoa.normalizarCpf(cpf);
+        if (chave != null) {
+            // antes de remover, para que uma leitura em curso que já guardou a pessoa também a descarte
+            geracao.incrementAndGet();
+            cache.remover(chave);
+        }
+    }
+
+    private static Counter contador(MeterRegistry registry, String resultado) {
+        return Counter.builder("cache.gets")
+                .description("Consultas ao cache")
+                .tag("cache", NOME_DO_CACHE)
+                .tag("result", resultado)
+                .register(registry);
+    }
+}
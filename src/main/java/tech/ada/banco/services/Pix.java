@@ -1,37 +1,98 @@
 package tech.ada.banco.services;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.metricas.Medidor;
+import tech.ada.banco.metricas.MetricasDeOperacoes;
 import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.Dinheiro;
+import tech.ada.banco.model.TipoOperacao;
 import tech.ada.banco.repository.ContaRepository;
 
 import java.math.BigDecimal;
+import java.util.Optional;
 
 @Service
 @Slf4j
 public class Pix {
 
     private final ContaRepository repository;
+    private final TransactionOperations transacao;
+    private final Retentativa retentativa;
+    private final MotorDeSaldo motor;
+    private final RegistroDeOperacoes registro;
+    private final ContasQuentes contasQuentes;
+    private final Medidor medidor;
+    private final boolean atualizacaoAtomica;
 
     public Pix(ContaRepository repository) {
+        this(repository, TransactionOperations.withoutTransaction(), new Retentativa(), Optional.empty(),
+                RegistroDeOperacoes.vazio(), ContasQuentes.nenhuma(), MetricasDeOperacoes.desligadas(), false);
+    }
+
+    @Autowired
+    public Pix(ContaRepository repository, TransactionOperations transacao, Retentativa retentativa,
+               Optional<MotorDeSaldo> motor, RegistroDeOperacoes registro, ContasQuentes contasQuentes,
+               MetricasDeOperacoes metricas,
+               @Value("${banco.saldo.atualizacao-atomica:false}") boolean atualizacaoAtomica) {
         this.repository = repository;
+        this.transacao = transacao;
+        this.retentativa = retentativa;
+        this.motor = motor.orElse(null);
+        this.registro = registro;
+        this.contasQuentes = contasQuentes;
+        this.medidor = metricas.medidor("pix");
+        this.atualizacaoAtomica = atualizacaoAtomica;
     }
 
     public BigDecimal executar(int contaOrigem, int contaDestino, BigDecimal valor) {
-        Conta origem = repository.findContaByNumeroConta(contaOrigem).orElseThrow(ResourceNotFoundException::new);
-        Conta destino = repository.findContaByNumeroConta(contaDestino).orElseThrow(ResourceNotFoundException::new);
+        return medidor.medir(() -> realizar(contaOrigem, contaDestino, valor));
+    }
+
+    private BigDecimal realizar(int contaOrigem, int contaDestino, BigDecimal valor) {
+        Conta.validarValor(valor);
+        long centavos = Dinheiro.centavos(valor);
+        if (motor == null && contasQuentes.isQuente(contaOrigem)) {
+            contasQuentes.consolidar(contaOrigem);
+        }
+
+        long saldo;
+        if (motor != null) {
+            saldo = motor.transferir(contaOrigem, contaDestino, centavos);
+        } else if (atualizacaoAtomica) {
+            saldo = retentativa.executar(() -> registro.gravar(TipoOperacao.PIX, contaOrigem, contaDestino, centavos,
+                    () -> repository.transferirSaldo(contaOrigem, contaDestino, centavos)));
+        } else {
+            saldo = retentativa.executar(() -> transacao.execute(status -> registro.gravar(TipoOperacao.PIX,
+                    contaOrigem, contaDestino, centavos, () -> transferir(contaOrigem, contaDestino, centavos))));
+        }
+        registro.registrar(TipoOperacao.PIX, contaOrigem, contaDestino, centavos);
+        log.debug("Operação realizada com sucesso.");
+        return Dinheiro.reais(saldo);
+    }
 
-//        if (valor.compareTo(BigDecimal.ZERO) < 0) {
-//            throw new IllegalArgumentException("Operação não foi realizada pois o valor da transação é negativo.");
-//        }
+    /**
+     * As duas contas são bloqueadas em ordem crescente de número, independente do sentido da
+     * transferência, para que transferências concorrentes entre o mesmo par nunca se travem.
+     */
+    private long transferir(int contaOrigem, int contaDestino, long centavos) {
+        Conta primeira = repository.findContaParaAtualizacao(Math.min(contaOrigem, contaDestino))
+                .orElseThrow(ResourceNotFoundException::new);
+        Conta segunda = contaOrigem == contaDestino ? primeira
+                : repository.findContaParaAtualizacao(Math.max(contaOrigem, contaDestino))
+                .orElseThrow(ResourceNotFoundException::new);
+        Conta origem = contaOrigem < contaDestino ? primeira : segunda;
+        Conta destino = contaOrigem < contaDestino ? segunda : primeira;
 
-        origem.saque(valor);
+        origem.saque(centavos);
         repository.save(origem);
-        destino.deposito(valor);
+        destino.deposito(centavos);
         repository.save(destino);
-        log.info("Operação realizada com sucesso.");
-        return origem.getSaldo();
+        return origem.getSaldoEmCentavos();
     }
 
 }
@@ -0,0 +1,227 @@
+package tech.ada.banco.services;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.server.ResponseStatusException;
+import tech.ada.banco.dto.ResultadoPix;
+import tech.ada.banco.dto.TransferenciaPix;
+import tech.ada.banco.exceptions.ConflitoDeConcorrenciaException;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.exceptions.SaldoInsuficienteException;
+import tech.ada.banco.exceptions.ValorInvalidoException;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.Dinheiro;
+import tech.ada.banco.model.TipoOperacao;
+import tech.ada.banco.repository.ContaRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Executa transferências em blocos: cada bloco é uma única transação, com as contas envolvidas
+ * bloqueadas de uma vez e as atualizações enviadas em batch JDBC no commit. Uma transferência
+ * recusada (saldo, valor, conta) não afeta as demais do bloco. Uma linha da entrada que não vira
+ * transferência é recusada sem parar o lote; se a entrada deixa de ser legível, os blocos já lidos são
+ * gravados e o último resultado indica a linha em que a leitura parou.
+ */
+@Service
+@Slf4j
+public class PixEmLote {
+
+    private final ContaRepository repository;
+    private final EntityManager entityManager;
+    private final TransactionOperations transacao;
+    private final Retentativa retentativa;
+    private final Pix pix;
+    private final RegistroDeOperacoes registro;
+    private final ContasQuentes contasQuentes;
+    private final boolean motorAtivo;
+    private final int tamanhoDoBloco;
+
+    public PixEmLote(ContaRepository repository, EntityManager entityManager, TransactionOperations transacao,
+                     Retentativa retentativa, Pix pix, Optional<MotorDeSaldo> motor, RegistroDeOperacoes registro,
+                     ContasQuentes contasQuentes,
+                     @Value("${banco.pix.lote.tamanho-do-bloco:500}") int tamanhoDoBloco) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.transacao = transacao;
+        this.retentativa = retentativa;
+        this.pix = pix;
+        this.registro = registro;
+        this.contasQuentes = contasQuentes;
+        this.motorAtivo = motor.isPresent();
+        this.tamanhoDoBloco = tamanhoDoBloco;
+    }
+
+    public List<ResultadoPix> executar(List<TransferenciaPix> transferencias) {
+        List<ResultadoPix> resultados = new ArrayList<>(transferencias.size());
+        executar(transferencias.iterator(), resultados::add);
+        return resultados;
+    }
+
+    /**
+     * Consome as transferências bloco a bloco, entregando os resultados de cada bloco assim que ele
+     * é gravado, sem manter a entrada inteira em memória.
+     */
+    public void executar(Iterator<TransferenciaPix> transferencias, Consumer<ResultadoPix> resultados) {
+        List<TransferenciaPix> bloco = new ArrayList<>(tamanhoDoBloco);
+        int indice = 0;
+        // a linha recusada só é entregue depois da leitura seguinte, que pode mostrar que foi ela que
+        // deixou a entrada ilegível
+        ResultadoPix recusada = null;
+        boolean haMais = true;
+        while (haMais) {
+            try {
+                haMais = transferencias.hasNext();
+            } catch (RuntimeException e) {
+                int linha = recusada != null ? recusada.indice() : indice + bloco.size();
+                log.warn("Pix em lote interrompido na linha {}: {}", linha + 1, e.getMessage());
+                gravar(indice, bloco, resultados);
+                resultados.accept(ResultadoPix.interrompido(linha));
+                return;
+            }
+            if (recusada != null) {
+                resultados.accept(recusada);
+                recusada = null;
+            }
+            if (haMais) {
+                try {
+                    bloco.add(transferencias.next());
+                } catch (RuntimeException e) {
+                    // os resultados saem na ordem da entrada: o bloco pendente é gravado antes da recusa
+                    indice = gravar(indice, bloco, resultados);
+                    log.debug("Linha {} do pix em lote recusada: {}", indice + 1, e.getMessage());
+                    recusada = ResultadoPix.falha(indice++, "Transferência ilegível.");
+                    continue;
+                }
+            }
+            if (bloco.size() == tamanhoDoBloco || !haMais) {
+                indice = gravar(indice, bloco, resultados);
+            }
+        }
+    }
+
+    /**
+     * Executa e entrega o bloco, se houver algum, e devolve o índice da próxima transferência.
+     */
+    private int gravar(int indice, List<TransferenciaPix> bloco, Consumer<ResultadoPix> resultados) {
+        if (bloco.isEmpty()) {
+            return indice;
+        }
+        executarBloco(indice, bloco).forEach(resultados);
+        int proximo = indice + bloco.size();
+        bloco.clear();
+        return proximo;
+    }
+
+    private List<ResultadoPix> executarBloco(int primeiroIndice, List<TransferenciaPix> bloco) {
+        if (motorAtivo) {
+            // Com um motor de saldo ativo o banco não é a fonte dos saldos; cada transferência vai para o motor.
+            return individualmente(primeiroIndice, bloco);
+        }
+        List<ResultadoPix> resultados;
+        try {
+            resultados = retentativa.executar(() -> transacao.execute(status -> aplicar(primeiroIndice, bloco)));
+        } catch (DataAccessException | ConflitoDeConcorrenciaException e) {
+            log.warn("Falha ao gravar bloco de {} transferências, reprocessando uma a uma: {}",
+                    bloco.size(), e.getMessage());
+            return individualmente(primeiroIndice, bloco);
+        }
+        // Só depois do commit: uma tentativa revertida pela retentativa não pode deixar registro.
+        for (ResultadoPix resultado : resultados) {
+            if (resultado.sucesso()) {
+                TransferenciaPix transferencia = bloco.get(resultado.indice() - primeiroIndice);
+                registro.registrar(TipoOperacao.PIX, transferencia.origem(), transferencia.destino(),
+                        Dinheiro.centavos(transferencia.valor()));
+            }
+        }
+        return resultados;
+    }
+
+    private List<ResultadoPix> aplicar(int primeiroIndice, List<TransferenciaPix> bloco) {
+        Set<Integer> numerosConta = new TreeSet<>();
+        for (TransferenciaPix transferencia : bloco) {
+            numerosConta.add(transferencia.origem());
+            numerosConta.add(transferencia.destino());
+        }
+        Map<Integer, Conta> contas = new HashMap<>();
+        for (Conta conta : repository.findContasParaAtualizacao(numerosConta)) {
+            contas.put(conta.getNumeroConta(), conta);
+            if (contasQuentes.isQuente(conta.getNumeroConta())) {
+                contasQuentes.consolidar(conta);
+            }
+        }
+
+        List<ResultadoPix> resultados = new ArrayList<>(bloco.size());
+        for (int i = 0; i < bloco.size(); i++) {
+            try {
+                TransferenciaPix transferencia = bloco.get(i);
+                resultados.add(ResultadoPix.sucesso(primeiroIndice + i, transferir(contas, transferencia)));
+                registro.lancar(TipoOperacao.PIX, transferencia.origem(), transferencia.destino(),
+                        Dinheiro.centavos(transferencia.valor()));
+            } catch (ValorInvalidoException | SaldoInsuficienteException | ResourceNotFoundException e) {
+                resultados.add(ResultadoPix.falha(primeiroIndice + i, motivo(e)));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return resultados;
+    }
+
+    private static BigDecimal transferir(Map<Integer, Conta> contas, TransferenciaPix transferencia) {
+        if (transferencia.valor() == null) {
+            throw new ValorInvalidoException();
+        }
+        Conta origem = contas.get(transferencia.origem());
+        Conta destino = contas.get(transferencia.destino());
+        if (origem == null || destino == null) {
+            throw new ResourceNotFoundException();
+        }
+        Conta.validarValor(transferencia.valor());
+        long centavos = Dinheiro.centavos(transferencia.valor());
+        origem.saque(centavos);
+        try {
+            destino.deposito(centavos);
+        } catch (RuntimeException e) {
+            origem.deposito(centavos);
+            throw e;
+        }
+        return origem.getSaldo();
+    }
+
+    private List<ResultadoPix> individualmente(int primeiroIndice, List<TransferenciaPix> bloco) {
+        List<ResultadoPix> resultados = new ArrayList<>(bloco.size());
+        for (int i = 0; i < bloco.size(); i++) {
+            TransferenciaPix transferencia = bloco.get(i);
+            try {
+                BigDecimal saldo = pix.executar(transferencia.origem(), transferencia.destino(), transferencia.valor());
+                resultados.add(ResultadoPix.sucesso(primeiroIndice + i, saldo));
+            } catch (RuntimeException e) {
+                resultados.add(ResultadoPix.falha(primeiroIndice + i, motivo(e)));
+            }
+        }
+        return resultados;
+    }
+
+    private static String motivo(RuntimeException e) {
+        if (e instanceof ResponseStatusException comStatus && comStatus.getReason() != null) {
+            return comStatus.getReason();
+        }
+        ResponseStatus status = AnnotationUtils.findAnnotation(e.getClass(), ResponseStatus.class);
+        return status != null && !status.reason().isEmpty() ? status.reason() : e.getMessage();
+    }
+}
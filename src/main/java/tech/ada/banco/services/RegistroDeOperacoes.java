@@ -0,0 +1,96 @@
+package tech.ada.banco.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.ada.banco.model.TipoOperacao;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Repassa as operações concluídas pelos serviços a todos os {@link OuvinteDeOperacoes} do contexto.
+ * Com o extrato habilitado, também grava os movimentos de cada operação na mesma transação que altera
+ * os saldos ({@link #gravar}, {@link #lancar}).
+ */
+@Component
+@Slf4j
+public class RegistroDeOperacoes {
+
+    private final List<OuvinteDeOperacoes> ouvintes;
+    private final ExtratoDasOperacoes extrato;
+    private final TransactionOperations transacao;
+
+    public RegistroDeOperacoes(List<OuvinteDeOperacoes> ouvintes) {
+        this(ouvintes, null, TransactionOperations.withoutTransaction());
+    }
+
+    public RegistroDeOperacoes(List<OuvinteDeOperacoes> ouvintes, ExtratoDasOperacoes extrato,
+                               TransactionOperations transacao) {
+        this.ouvintes = List.copyOf(ouvintes);
+        this.extrato = extrato;
+        this.transacao = transacao;
+    }
+
+    @Autowired
+    public RegistroDeOperacoes(ObjectProvider<OuvinteDeOperacoes> ouvintes,
+                               ObjectProvider<ExtratoDasOperacoes> extrato, TransactionOperations transacao) {
+        this(ouvintes.orderedStream().toList(), extrato.getIfAvailable(), transacao);
+    }
+
+    public static RegistroDeOperacoes vazio() {
+        return new RegistroDeOperacoes(List.of());
+    }
+
+    /**
+     * Executa a {@code alteracao} dos saldos e grava os movimentos da operação na mesma transação: ou os
+     * dois são gravados, ou nenhum. Sem o extrato, só executa a alteração.
+     *
+     * @return o que a alteração devolveu
+     */
+    public long gravar(TipoOperacao tipo, int contaOrigem, int contaDestino, long centavos, LongSupplier alteracao) {
+        if (extrato == null) {
+            return alteracao.getAsLong();
+        }
+        return transacao.execute(status -> {
+            long resultado = alteracao.getAsLong();
+            extrato.lancar(tipo, contaOrigem, contaDestino, centavos);
+            return resultado;
+        });
+    }
+
+    /**
+     * Grava os movimentos de uma operação cujos saldos já foram alterados na transação em andamento.
+     */
+    public void lancar(TipoOperacao tipo, int contaOrigem, int contaDestino, long centavos) {
+        if (extrato != null) {
+            extrato.lancar(tipo, contaOrigem, contaDestino, centavos);
+        }
+    }
+
+    /**
+     * Como {@link #lancar}, para uma só conta; {@code valor} tem sinal, negativo para débitos.
+     */
+    public void lancarPerna(TipoOperacao tipo, int numeroConta, long valor, Integer contraparte) {
+        if (extrato != null) {
+            extrato.lancarPerna(tipo, numeroConta, valor, contraparte);
+        }
+    }
+
+    /**
+     * Avisa os ouvintes depois do commit. A operação já está gravada, então a falha de um ouvinte só vai
+     * para o log: não impede os demais nem vira erro para quem pediu a operação.
+     */
+    public void registrar(TipoOperacao tipo, int contaOrigem, int contaDestino, long centavos) {
+        for (OuvinteDeOperacoes ouvinte : ouvintes) {
+            try {
+                ouvinte.operacaoRealizada(tipo, contaOrigem, contaDestino, centavos);
+            } catch (RuntimeException e) {
+                log.error("Falha em {} ao registrar {} de {} centavos ({} -> {})",
+                        ouvinte.getClass().getSimpleName(), tipo, centavos, contaOrigem, contaDestino, e);
+            }
+        }
+    }
+}
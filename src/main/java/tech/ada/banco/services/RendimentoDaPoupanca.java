@@ -0,0 +1,288 @@
+package tech.ada.banco.services;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.ada.banco.dto.ResultadoDoRendimento;
+import tech.ada.banco.exceptions.DataDoRendimentoInvalidaException;
+import tech.ada.banco.exceptions.RendimentoEmAndamentoException;
+import tech.ada.banco.exceptions.ServicoIndisponivelException;
+import tech.ada.banco.model.CheckpointDoRendimento;
+import tech.ada.banco.model.Dinheiro;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.model.Movimento;
+import tech.ada.banco.model.TipoOperacao;
+import tech.ada.banco.repository.CheckpointDoRendimentoRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Credita o rendimento diário das contas poupança ({@link ModalidadeConta#CP}). As contas são lidas
+ * em blocos por chave ({@code NUMERO_CONTA > última do bloco anterior}, pelo índice
+ * {@code CONTA_TIPO_IX}), os juros do bloco são calculados em paralelo num {@link ForkJoinPool} e os
+ * créditos vão num único batch JDBC de {@code SALDO = SALDO + juros}, que incrementa a versão como
+ * qualquer outra escrita e não atropela depósitos concorrentes.
+ *
+ * <p>Cada bloco é gravado na mesma transação que avança o {@link CheckpointDoRendimento} do dia, então
+ * uma execução interrompida recomeça depois da última conta creditada, e uma data já concluída não
+ * credita nada de novo. O checkpoint só avança a partir da última conta que esta execução leu; se outra
+ * instância o avançou antes, o bloco é desfeito e a execução para com {@link RendimentoEmAndamentoException}.
+ * Com o extrato habilitado, cada crédito vira também um {@link Movimento}
+ * {@link TipoOperacao#RENDIMENTO} na mesma transação, que a conciliação soma como qualquer outro.
+ * Os juros são truncados no centavo; saldos zerados não rendem.
+ *
+ * <p>O saldo de uma {@linkplain ContasQuentes conta quente} é lido com as parcelas ainda não
+ * consolidadas na mesma consulta, como em {@code SubSaldoRepository.buscarSaldoTotal}, e o juro vai
+ * direto para a tabela CONTA.
+ */
+@Service
+@Slf4j
+public class RendimentoDaPoupanca {
+
+    private static final String BLOCO = "select c.NUMERO_CONTA, c.SALDO + coalesce((select sum(s.SALDO) "
+            + "from SUBSALDO s where s.NUMERO_CONTA = c.NUMERO_CONTA), 0) from CONTA c "
+            + "where c.TIPO = ? and c.NUMERO_CONTA > ? order by c.NUMERO_CONTA fetch first ? rows only";
+    private static final String CREDITO = "update CONTA set SALDO = SALDO + ?, VERSAO = VERSAO + 1 "
+            + "where NUMERO_CONTA = ?";
+
+    /** Contas por tarefa do fork-join; abaixo disso dividir custa mais do que calcular. */
+    private static final int LIMIAR = 2048;
+
+    private final JdbcTemplate jdbc;
+    private final EntityManager entityManager;
+    private final TransactionOperations transacao;
+    private final CheckpointDoRendimentoRepository checkpoints;
+    private final BigDecimal taxaAoDia;
+    private final int tamanhoDoBloco;
+    private final int paralelismo;
+    private final boolean ledger;
+    private final boolean extrato;
+    private final AtomicBoolean emExecucao = new AtomicBoolean();
+    private final ThreadPoolTaskScheduler agendador;
+
+    public RendimentoDaPoupanca(JdbcTemplate jdbc, EntityManager entityManager, TransactionOperations transacao,
+                                CheckpointDoRendimentoRepository checkpoints,
+                                @Value("${banco.rendimento.taxa-ao-dia:0.0002}") BigDecimal taxaAoDia,
+                                @Value("${banco.rendimento.tamanho-do-bloco:10000}") int tamanhoDoBloco,
+                                @Value("${banco.rendimento.paralelismo:0}") int paralelismo,
+                                @Value("${banco.rendimento.cron:-}") String cron,
+                                @Value("${banco.saldo.motor:jpa}") String motor,
+                                @Value("${banco.extrato.habilitado:true}") boolean extrato) {
+        this.jdbc = jdbc;
+        this.entityManager = entityManager;
+        this.transacao = transacao;
+        this.checkpoints = checkpoints;
+        this.taxaAoDia = taxaAoDia;
+        this.tamanhoDoBloco = tamanhoDoBloco;
+        this.paralelismo = paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors();
+        this.ledger = "ledger".equals(motor);
+        this.extrato = extrato;
+
+        if (!cron.isBlank() && !"-".equals(cron)) {
+            agendador = new ThreadPoolTaskScheduler();
+            agendador.setThreadNamePrefix("rendimento-");
+            agendador.setDaemon(true);
+            agendador.initialize();
+            agendador.schedule(this::executarAgendado, new CronTrigger(cron));
+        } else {
+            agendador = null;
+        }
+    }
+
+    /**
+     * Credita o rendimento de {@code data}, retomando a execução anterior da mesma data se houver.
+     *
+     * @throws DataDoRendimentoInvalidaException se {@code data} é futura, ou anterior ao último dia concluído
+     *                                            sem ter um checkpoint a retomar
+     * @throws RendimentoEmAndamentoException     se outra execução já está em andamento
+     * @throws ServicoIndisponivelException com o ledger em memória, cuja gravação em lote
+     *                                      sobrescreveria os créditos feitos direto na tabela
+     */
+    public ResultadoDoRendimento executar(LocalDate data) {
+        if (ledger) {
+            throw new ServicoIndisponivelException();
+        }
+        if (!emExecucao.compareAndSet(false, true)) {
+            throw new RendimentoEmAndamentoException();
+        }
+        try {
+            return creditar(data);
+        } finally {
+            emExecucao.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (agendador != null) {
+            agendador.shutdown();
+        }
+    }
+
+    private void executarAgendado() {
+        try {
+            executar(LocalDate.now());
+        } catch (RuntimeException e) {
+            log.error("Falha no rendimento agendado; a próxima execução retoma do checkpoint", e);
+        }
+    }
+
+    private ResultadoDoRendimento creditar(LocalDate data) {
+        long inicio = System.nanoTime();
+        if (data.isAfter(LocalDate.now())) {
+            throw new DataDoRendimentoInvalidaException();
+        }
+        CheckpointDoRendimento checkpoint = checkpoints.findById(data).orElse(null);
+        Integer retomadoApos = null;
+        int apos = 0;
+        if (checkpoint == null) {
+            if (checkpoints.ultimaConcluida().filter(data::isBefore).isPresent()) {
+                throw new DataDoRendimentoInvalidaException();
+            }
+            try {
+                checkpoints.iniciar(data);
+            } catch (DataIntegrityViolationException e) {
+                throw new RendimentoEmAndamentoException();
+            }
+        } else if (checkpoint.isConcluido()) {
+            log.info("Rendimento de {} já concluído: {} contas, {} creditados", data, checkpoint.getContas(),
+                    Dinheiro.reais(checkpoint.getValorCreditado()));
+            return ResultadoDoRendimento.de(data, 0, Dinheiro.reais(0), checkpoint.getUltimaConta(), 0);
+        } else {
+            retomadoApos = checkpoint.getUltimaConta();
+            apos = retomadoApos;
+        }
+
+        long contas = 0;
+        long creditado = 0;
+        ForkJoinPool pool = new ForkJoinPool(paralelismo);
+        try {
+            int[] numeros = new int[tamanhoDoBloco];
+            long[] saldos = new long[tamanhoDoBloco];
+            long[] juros = new long[tamanhoDoBloco];
+            int tamanho;
+            while ((tamanho = ler(apos, numeros, saldos)) > 0) {
+                pool.invoke(new CalculoDosJuros(saldos, juros, 0, tamanho));
+                creditado += gravar(data, apos, numeros, juros, tamanho);
+                contas += tamanho;
+                apos = numeros[tamanho - 1];
+            }
+        } finally {
+            pool.shutdown();
+        }
+        checkpoints.concluir(data);
+
+        ResultadoDoRendimento resultado = ResultadoDoRendimento.de(data, contas, Dinheiro.reais(creditado),
+                retomadoApos, System.nanoTime() - inicio);
+        log.info("Rendimento de {}: {} contas, {} creditados em {} ms ({} contas/s){}", data, resultado.contas(),
+                resultado.creditado(), resultado.milissegundos(), resultado.contasPorSegundo(),
+                retomadoApos != null ? ", retomado após a conta " + retomadoApos : "");
+        return resultado;
+    }
+
+    /**
+     * Lê o próximo bloco de contas poupança depois de {@code apos} e devolve quantas vieram.
+     */
+    private int ler(int apos, int[] numeros, long[] saldos) {
+        int[] tamanho = {0};
+        jdbc.query(BLOCO, linha -> {
+            numeros[tamanho[0]] = linha.getInt(1);
+            saldos[tamanho[0]] = Dinheiro.centavos(linha.getBigDecimal(2));
+            tamanho[0]++;
+        }, ModalidadeConta.CP.name(), apos, tamanhoDoBloco);
+        return tamanho[0];
+    }
+
+    /**
+     * Grava os juros do bloco, os movimentos e o checkpoint na mesma transação; devolve o total creditado.
+     */
+    private long gravar(LocalDate data, int apos, int[] numeros, long[] juros, int tamanho) {
+        int[] creditadas = new int[tamanho];
+        int quantidade = 0;
+        long total = 0;
+        for (int i = 0; i < tamanho; i++) {
+            if (juros[i] > 0) {
+                creditadas[quantidade++] = i;
+                total = Dinheiro.somar(total, juros[i]);
+            }
+        }
+        int comJuros = quantidade;
+        long totalDoBloco = total;
+        transacao.executeWithoutResult(status -> {
+            if (comJuros > 0) {
+                jdbc.batchUpdate(CREDITO, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement comando, int i) throws SQLException {
+                        comando.setBigDecimal(1, Dinheiro.reais(juros[creditadas[i]]));
+                        comando.setInt(2, numeros[creditadas[i]]);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return comJuros;
+                    }
+                });
+            }
+            if (extrato && comJuros > 0) {
+                Instant agora = Instant.now();
+                entityManager.unwrap(Session.class).setJdbcBatchSize(comJuros);
+                for (int i = 0; i < comJuros; i++) {
+                    entityManager.persist(new Movimento(numeros[creditadas[i]], agora, TipoOperacao.RENDIMENTO,
+                            juros[creditadas[i]], null));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            }
+            if (checkpoints.avancar(data, apos, numeros[tamanho - 1], tamanho, Dinheiro.reais(totalDoBloco)) == 0) {
+                // outra instância já creditou este bloco
+                throw new RendimentoEmAndamentoException();
+            }
+        });
+        return totalDoBloco;
+    }
+
+    private final class CalculoDosJuros extends RecursiveAction {
+
+        private final long[] saldos;
+        private final long[] juros;
+        private final int de;
+        private final int ate;
+
+        CalculoDosJuros(long[] saldos, long[] juros, int de, int ate) {
+            this.saldos = saldos;
+            this.juros = juros;
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        protected void compute() {
+            if (ate - de <= LIMIAR) {
+                for (int i = de; i < ate; i++) {
+                    juros[i] = saldos[i] > 0 ? BigDecimal.valueOf(saldos[i]).multiply(taxaAoDia)
+                            .setScale(0, RoundingMode.DOWN).longValueExact() : 0;
+                }
+                return;
+            }
+            int meio = (de + ate) >>> 1;
+            invokeAll(new CalculoDosJuros(saldos, juros, de, meio), new CalculoDosJuros(saldos, juros, meio, ate));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package tech.ada.banco.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import tech.ada.banco.exceptions.ConflitoDeConcorrenciaException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Reexecuta uma operação que falhou por conflito de concorrência (versão otimista desatualizada,
+ * timeout de lock ou deadlock), com espera exponencial e jitter entre as tentativas. Esgotadas as
+ * tentativas, ou interrompida a espera, lança {@link ConflitoDeConcorrenciaException} (503 com
+ * {@code Retry-After}) e mantém a interrupção marcada na thread. As contagens
+ * ficam em {@code banco.retentativa{resultado=retentativa|aborto}}.
+ */
+@Component
+@Slf4j
+public class Retentativa {
+
+    private final int maximoDeTentativas;
+    private final long esperaBaseMillis;
+    private final long esperaMaximaMillis;
+
+    private final LongAdder retentativas = new LongAdder();
+    private final LongAdder abortos = new LongAdder();
+
+    public Retentativa() {
+        this(5, 5, 200);
+    }
+
+    public Retentativa(int maximoDeTentativas, long esperaBaseMillis, long esperaMaximaMillis) {
+        this(maximoDeTentativas, esperaBaseMillis, esperaMaximaMillis, new CompositeMeterRegistry());
+    }
+
+    @Autowired
+    public Retentativa(@Value("${banco.retentativa.maximo-de-tentativas:5}") int maximoDeTentativas,
+                       @Value("${banco.retentativa.espera-base-ms:5}") long esperaBaseMillis,
+                       @Value("${banco.retentativa.espera-maxima-ms:200}") long esperaMaximaMillis,
+                       MeterRegistry registry) {
+        this.maximoDeTentativas = maximoDeTentativas;
+        this.esperaBaseMillis = esperaBaseMillis;
+        this.esperaMaximaMillis = esperaMaximaMillis;
+        FunctionCounter.builder("banco.retentativa", retentativas, LongAdder::sum)
+                .description("Conflitos de concorrência reexecutados ou abortados")
+                .tag("resultado", "retentativa")
+                .register(registry);
+        FunctionCounter.builder("banco.retentativa", abortos, LongAdder::sum)
+                .description("Conflitos de concorrência reexecutados ou abortados")
+                .tag("resultado", "aborto")
+                .register(registry);
+    }
+
+    public <T> T executar(Supplier<T> operacao) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return operacao.get();
+            } catch (ConcurrencyFailureException e) {
+                if (tentativa >= maximoDeTentativas) {
+                    log.warn("Operação abortada após {} tentativas: {}", tentativa, e.getMessage());
+                    throw abortar(e);
+                }
+                retentativas.increment();
+                aguardar(tentativa, e);
+            }
+        }
+    }
+
+    private void aguardar(int tentativa, ConcurrencyFailureException causa) {
+        long limite = Math.min(esperaMaximaMillis, esperaBaseMillis << Math.min(tentativa, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(limite + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Retentativa interrompida após {} tentativas: {}", tentativa, causa.getMessage());
+            throw abortar(causa);
+        }
+    }
+
+    private ConflitoDeConcorrenciaException abortar(ConcurrencyFailureException causa) {
+        abortos.increment();
+        return new ConflitoDeConcorrenciaException((esperaMaximaMillis + 999) / 1000, causa);
+    }
+
+    public long getRetentativas() {
+        return retentativas.sum();
+    }
+
+    public long getAbortos() {
+        return abortos.sum();
+    }
+}
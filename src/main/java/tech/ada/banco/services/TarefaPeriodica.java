@@ -0,0 +1,37 @@
+package tech.ada.banco.services;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tarefa de manutenção (limpeza, consolidação) repetida a cada {@code intervaloMillis} numa thread
+ * daemon própria, que não impede a JVM de terminar. Com intervalo zero ou negativo nada é agendado.
+ */
+public final class TarefaPeriodica {
+
+    private final ScheduledExecutorService executor;
+
+    private TarefaPeriodica(ScheduledExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public static TarefaPeriodica iniciar(String nomeDaThread, long intervaloMillis, Runnable tarefa) {
+        if (intervaloMillis <= 0) {
+            return new TarefaPeriodica(null);
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(executavel -> {
+            Thread thread = new Thread(executavel, nomeDaThread);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(tarefa, intervaloMillis, intervaloMillis, TimeUnit.MILLISECONDS);
+        return new TarefaPeriodica(executor);
+    }
+
+    public void encerrar() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package tech.ada.banco.shards;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.exceptions.SaldoInsuficienteException;
+import tech.ada.banco.exceptions.ServicoIndisponivelException;
+import tech.ada.banco.exceptions.ValorInvalidoException;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.TipoOperacao;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.services.FilaComConsumidor;
+import tech.ada.banco.services.MotorDeSaldo;
+import tech.ada.banco.services.RegistroDeOperacoes;
+import tech.ada.banco.services.Retentativa;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Particiona as contas em {@code banco.shards.quantidade} shards pelo número da conta. Cada shard
+ * tem uma fila limitada ({@code banco.shards.capacidade}) e uma única thread dona, a única que lê e
+ * altera os saldos das suas contas: sem disputa entre escritores, as operações não bloqueiam linhas
+ * da tabela CONTA. A thread consome a fila em lotes de até {@code banco.shards.tamanho-maximo-do-lote}
+ * mensagens, aplica o lote em memória na ordem de chegada e grava, numa transação, cada conta
+ * alterada, com a versão lida, e os movimentos do extrato das mensagens aplicadas; o futuro de cada
+ * mensagem só é completado depois do commit, então a tabela CONTA está sempre em dia para quem lê.
+ * Os saldos ficam em memória entre um lote e outro, até {@code banco.shards.contas-em-memoria} contas
+ * por shard, descartando as usadas há mais tempo; uma conta descartada, ou de uma gravação que falhou,
+ * é relida do banco no próximo lote que a usar.
+ *
+ * <p>Um pix entre contas do mesmo shard é uma mensagem só. Entre shards diferentes a thread da
+ * requisição coordena duas fases: o shard de origem debita o valor enquanto o de destino confirma
+ * que a conta existe; só então o destino recebe o crédito. Cada perna grava o seu movimento no seu
+ * shard. Se o destino recusar, o valor volta para a origem com um movimento de crédito; se nem a
+ * devolução for gravada, o pix falha com {@link IllegalStateException}. Entre as duas fases o valor
+ * já saiu da origem e ainda não chegou ao destino. As threads donas nunca esperam umas pelas outras.
+ *
+ * <p>Métricas por shard, com a tag {@code shard}: {@code banco.shards.fila}, mensagens aguardando,
+ * {@code banco.shards.contas}, contas em memória, e {@code banco.shards.servico}, o tempo para aplicar e
+ * gravar cada lote.
+ */
+@Component
+@ConditionalOnProperty(name = "banco.saldo.motor", havingValue = "shards")
+@Slf4j
+public class ExecucaoPorShard implements MotorDeSaldo {
+
+    private final ContaRepository repository;
+    private final TransactionOperations transacao;
+    private final Retentativa retentativa;
+    private final RegistroDeOperacoes registro;
+    private final int tamanhoMaximoDoLote;
+    private final int contasEmMemoria;
+    private final Shard[] shards;
+
+    public ExecucaoPorShard(ContaRepository repository, TransactionOperations transacao, Retentativa retentativa,
+                            RegistroDeOperacoes registro,
+                            @Value("${banco.shards.quantidade:8}") int quantidade,
+                            @Value("${banco.shards.capacidade:4096}") int capacidade,
+                            @Value("${banco.shards.tamanho-maximo-do-lote:256}") int tamanhoMaximoDoLote,
+                            @Value("${banco.shards.contas-em-memoria:100000}") int contasEmMemoria,
+                            MeterRegistry registry) {
+        this.repository = repository;
+        this.transacao = transacao;
+        this.retentativa = retentativa;
+        this.registro = registro;
+        this.tamanhoMaximoDoLote = Math.max(1, tamanhoMaximoDoLote);
+        // as contas de um lote inteiro (origem e destino de cada mensagem) precisam caber juntas
+        this.contasEmMemoria = Math.max(contasEmMemoria, 2 * this.tamanhoMaximoDoLote);
+        shards = new Shard[Math.max(1, quantidade)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i, Math.max(1, capacidade), registry);
+        }
+    }
+
+    @Override
+    public long creditar(int numeroConta, long centavos) {
+        return FilaComConsumidor.aguardar(shard(numeroConta).enviar(Acao.CREDITAR, TipoOperacao.DEPOSITO,
+                numeroConta, numeroConta, null, centavos, false));
+    }
+
+    @Override
+    public long debitar(int numeroConta, long centavos) {
+        return FilaComConsumidor.aguardar(shard(numeroConta).enviar(Acao.DEBITAR, TipoOperacao.SAQUE,
+                numeroConta, numeroConta, null, centavos, false));
+    }
+
+    @Override
+    public long transferir(int contaOrigem, int contaDestino, long centavos) {
+        Shard origem = shard(contaOrigem);
+        Shard destino = shard(contaDestino);
+        if (origem == destino) {
+            return FilaComConsumidor.aguardar(origem.enviar(Acao.TRANSFERIR, TipoOperacao.PIX, contaOrigem,
+                    contaDestino, null, centavos, false));
+        }
+
+        CompletableFuture<Long> debito = origem.enviar(Acao.DEBITAR, TipoOperacao.PIX, contaOrigem, contaOrigem,
+                contaDestino, centavos, false);
+        CompletableFuture<Long> verificacao;
+        try {
+            verificacao = destino.enviar(Acao.VERIFICAR, TipoOperacao.PIX, contaDestino, contaDestino, null, 0,
+                    false);
+        } catch (RuntimeException e) {
+            verificacao = CompletableFuture.failedFuture(e);
+        }
+        long saldoOrigem = FilaComConsumidor.aguardar(debito);
+        try {
+            FilaComConsumidor.aguardar(verificacao);
+            FilaComConsumidor.aguardar(destino.enviar(Acao.CREDITAR, TipoOperacao.PIX, contaDestino, contaDestino,
+                    contaOrigem, centavos, true));
+        } catch (RuntimeException e) {
+            estornar(origem, contaOrigem, contaDestino, centavos, e);
+            throw e;
+        }
+        return saldoOrigem;
+    }
+
+    /**
+     * Para de aceitar mensagens e espera cada shard gravar as que já estavam na sua fila.
+     */
+    @PreDestroy
+    public void encerrar() {
+        for (Shard shard : shards) {
+            shard.fila.fechar();
+        }
+        for (Shard shard : shards) {
+            try {
+                shard.dona.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Devolve à origem o valor de um pix recusado pelo destino. Se a devolução também falhar, o valor
+     * ficou fora das duas contas: a falha do destino não pode chegar a quem chamou como se nada
+     * tivesse sido gravado, então sobe uma {@link IllegalStateException}.
+     */
+    private void estornar(Shard origem, int contaOrigem, int contaDestino, long centavos, RuntimeException recusa) {
+        try {
+            FilaComConsumidor.aguardar(origem.enviar(Acao.CREDITAR, TipoOperacao.PIX, contaOrigem, contaOrigem,
+                    contaDestino, centavos, true));
+        } catch (RuntimeException e) {
+            log.error("Falha ao devolver {} centavos à conta {} depois de um pix recusado pelo destino",
+                    centavos, contaOrigem, e);
+            IllegalStateException falha = new IllegalStateException("Pix de " + centavos + " centavos da conta "
+                    + contaOrigem + " para " + contaDestino + " debitado e não devolvido", e);
+            falha.addSuppressed(recusa);
+            throw falha;
+        }
+    }
+
+    private Shard shard(int numeroConta) {
+        return shards[Math.floorMod(numeroConta, shards.length)];
+    }
+
+    private enum Acao {
+        CREDITAR,
+        DEBITAR,
+        /** Pix entre duas contas do mesmo shard. */
+        TRANSFERIR,
+        /** Primeira fase do pix no shard de destino: só confirma que a conta existe. */
+        VERIFICAR
+    }
+
+    private static final class Mensagem {
+
+        final Acao acao;
+        /** A operação que o movimento do extrato registra. */
+        final TipoOperacao tipo;
+        final int contaOrigem;
+        final int contaDestino;
+        /** Nas pernas de um pix entre shards, a conta do outro shard. */
+        final Integer contraparte;
+        final long centavos;
+        final CompletableFuture<Long> resultado = new CompletableFuture<>();
+
+        Mensagem(Acao acao, TipoOperacao tipo, int contaOrigem, int contaDestino, Integer contraparte,
+                 long centavos) {
+            this.acao = acao;
+            this.tipo = tipo;
+            this.contaOrigem = contaOrigem;
+            this.contaDestino = contaDestino;
+            this.contraparte = contraparte;
+            this.centavos = centavos;
+        }
+    }
+
+    private final class Shard {
+
+        private final FilaComConsumidor<Mensagem> fila;
+        /** Só a thread dona lê e altera; em ordem de acesso, a mais antiga é descartada. */
+        private final Map<Integer, Conta> contas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Conta> maisAntiga) {
+                return size() > contasEmMemoria;
+            }
+        };
+        private final Timer servico;
+        private final Thread dona;
+
+        Shard(int indice, int capacidade, MeterRegistry registry) {
+            fila = new FilaComConsumidor<>(new ArrayBlockingQueue<>(capacidade));
+            Gauge.builder("banco.shards.fila", fila, FilaComConsumidor::tamanho)
+                    .description("Mensagens aguardando a thread dona do shard")
+                    .tag("shard", String.valueOf(indice))
+                    .register(registry);
+            Gauge.builder("banco.shards.contas", contas, Map::size)
+                    .description("Contas com o saldo em memória no shard")
+                    .tag("shard", String.valueOf(indice))
+                    .register(registry);
+            servico = Timer.builder("banco.shards.servico")
+                    .description("Tempo para aplicar e gravar um lote do shard")
+                    .tag("shard", String.valueOf(indice))
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(1_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registry);
+
+            dona = new Thread(this::consumir, "shard-" + indice);
+            dona.setDaemon(true);
+            dona.start();
+        }
+
+        /**
+         * @param esperarEspaco com a fila cheia, espera por espaço em vez de recusar a mensagem; usado
+         *                      na segunda fase do pix, quando o débito na origem já foi gravado
+         */
+        CompletableFuture<Long> enviar(Acao acao, TipoOperacao tipo, int contaOrigem, int contaDestino,
+                                       Integer contraparte, long centavos, boolean esperarEspaco) {
+            Conta.validarValor(centavos);
+            Mensagem mensagem = new Mensagem(acao, tipo, contaOrigem, contaDestino, contraparte, centavos);
+            fila.colocar(mensagem, esperarEspaco);
+            return mensagem.resultado;
+        }
+
+        private void consumir() {
+            List<Mensagem> lote = new ArrayList<>(tamanhoMaximoDoLote);
+            try {
+                while (fila.temPedidos()) {
+                    Mensagem primeira = fila.poll(100, TimeUnit.MILLISECONDS);
+                    if (primeira == null) {
+                        continue;
+                    }
+                    lote.add(primeira);
+                    fila.drainTo(lote, tamanhoMaximoDoLote - 1);
+                    processar(lote);
+                    lote.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                fila.drainTo(lote);
+                for (Mensagem mensagem : lote) {
+                    mensagem.resultado.completeExceptionally(new ServicoIndisponivelException());
+                }
+            }
+        }
+
+        private void processar(List<Mensagem> lote) {
+            long inicio = System.nanoTime();
+            Object[] resultados;
+            try {
+                resultados = retentativa.executar(() -> aplicarEGravar(lote));
+            } catch (RuntimeException e) {
+                log.error("Falha ao gravar um lote de {} mensagens do shard", lote.size(), e);
+                for (Mensagem mensagem : lote) {
+                    mensagem.resultado.completeExceptionally(e);
+                }
+                return;
+            } finally {
+                servico.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+            for (int i = 0; i < lote.size(); i++) {
+                if (resultados[i] instanceof RuntimeException falha) {
+                    lote.get(i).resultado.completeExceptionally(falha);
+                } else {
+                    lote.get(i).resultado.complete((Long) resultados[i]);
+                }
+            }
+        }
+
+        /**
+         * Uma gravação que falha descarta da memória as contas do lote, que são relidas do banco na
+         * próxima tentativa.
+         *
+         * @return para cada mensagem, o saldo da origem em centavos ou a exceção que a recusou
+         */
+        private Object[] aplicarEGravar(List<Mensagem> lote) {
+            Set<Integer> numerosConta = new HashSet<>();
+            for (Mensagem mensagem : lote) {
+                numerosConta.add(mensagem.contaOrigem);
+                numerosConta.add(mensagem.contaDestino);
+            }
+            try {
+                carregar(numerosConta);
+                Map<Integer, Conta> alteradas = new HashMap<>();
+                List<Mensagem> aplicadas = new ArrayList<>(lote.size());
+                Object[] resultados = new Object[lote.size()];
+                for (int i = 0; i < lote.size(); i++) {
+                    try {
+                        resultados[i] = aplicar(lote.get(i), alteradas);
+                        aplicadas.add(lote.get(i));
+                    } catch (ValorInvalidoException | SaldoInsuficienteException | ResourceNotFoundException e) {
+                        resultados[i] = e;
+                    }
+                }
+                if (!alteradas.isEmpty()) {
+                    transacao.executeWithoutResult(status -> {
+                        alteradas.values().forEach(repository::gravarSaldo);
+                        aplicadas.forEach(this::lancar);
+                    });
+                }
+                return resultados;
+            } catch (RuntimeException e) {
+                contas.keySet().removeAll(numerosConta);
+                throw e;
+            }
+        }
+
+        private void carregar(Set<Integer> numerosConta) {
+            List<Integer> faltantes = new ArrayList<>();
+            for (Integer numeroConta : numerosConta) {
+                // o get marca a conta como recente, para que as relidas abaixo não a descartem
+                if (contas.get(numeroConta) == null) {
+                    faltantes.add(numeroConta);
+                }
+            }
+            if (!faltantes.isEmpty()) {
+                for (Conta conta : repository.buscarSaldosDasContas(faltantes)) {
+                    contas.put(conta.getNumeroConta(), conta);
+                }
+            }
+        }
+
+        private long aplicar(Mensagem mensagem, Map<Integer, Conta> alteradas) {
+            Conta origem = conta(mensagem.contaOrigem);
+            switch (mensagem.acao) {
+                case CREDITAR -> origem.deposito(mensagem.centavos);
+                case DEBITAR -> origem.saque(mensagem.centavos);
+                case TRANSFERIR -> {
+                    Conta destino = conta(mensagem.contaDestino);
+                    origem.saque(mensagem.centavos);
+                    try {
+                        destino.deposito(mensagem.centavos);
+                    } catch (RuntimeException e) {
+                        origem.deposito(mensagem.centavos);
+                        throw e;
+                    }
+                    alteradas.put(destino.getNumeroConta(), destino);
+                }
+                case VERIFICAR -> {
+                    return origem.getSaldoEmCentavos();
+                }
+            }
+            alteradas.put(origem.getNumeroConta(), origem);
+            return origem.getSaldoEmCentavos();
+        }
+
+        private void lancar(Mensagem mensagem) {
+            switch (mensagem.acao) {
+                case CREDITAR -> registro.lancarPerna(mensagem.tipo, mensagem.contaOrigem, mensagem.centavos,
+                        mensagem.contraparte);
+                case DEBITAR -> registro.lancarPerna(mensagem.tipo, mensagem.contaOrigem, -mensagem.centavos,
+                        mensagem.contraparte);
+                case TRANSFERIR -> registro.lancar(mensagem.tipo, mensagem.contaOrigem, mensagem.contaDestino,
+                        mensagem.centavos);
+                case VERIFICAR -> {
+                }
+            }
+        }
+
+        private Conta conta(int numeroConta) {
+            Conta conta = contas.get(numeroConta);
+            if (conta == null) {
+                throw new ResourceNotFoundException();
+            }
+            return conta;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package tech.ada.banco.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Atende as requisições, e com elas os serviços chamados pelos controllers, em threads virtuais:
+ * uma thread por requisição, sem o teto do pool do Tomcat. Só existe no build com {@code -Pjava21};
+ * o acesso ao banco continua limitado pelo {@link LimiteDeConexoes}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "banco.threads.virtuais", havingValue = "true")
+public class ThreadsVirtuaisConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> threadsVirtuaisNoTomcat() {
+        return protocolHandler -> protocolHandler.setExecutor(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-virtual-", 0).factory()));
+    }
+
+    /** Usado pelo Spring MVC nas respostas assíncronas, como os {@code StreamingResponseBody} em NDJSON. */
+    @Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mvc-virtual-", 0).factory()));
+    }
+}
@@ -0,0 +1,29 @@
+package tech.ada.banco.reativo;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Variante reativa das rotas de contas, depósito, saque e pix: WebFlux sobre Netty e R2DBC sobre um
+ * H2 próprio, sem JPA nem thread por requisição, para comparar memória e vazão em alta concorrência
+ * com a aplicação MVC. Só existe no build com {@code -Preativo} e lê {@code reativo.yml} no lugar do
+ * {@code application.yml}.
+ *
+ * <p>As classes deste pacote só são registradas numa aplicação reativa, então a varredura da
+ * {@code BancoSpringApplication} as ignora mesmo com o perfil ativo.
+ */
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class BancoReativoApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(BancoReativoApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties("spring.config.name=reativo")
+                .run(args);
+    }
+}
@@ -0,0 +1,109 @@
+package tech.ada.banco.reativo;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tech.ada.banco.dto.DadosDaConta;
+import tech.ada.banco.exceptions.CpfJaCadastradoException;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.model.Pessoa;
+
+import java.util.List;
+
+/**
+ * As rotas de {@code ContaController}, exceto o cadastro em lote.
+ */
+@RestController
+@RequestMapping("/contas")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ContaReativaController {
+
+    static final int LIMITE_MAXIMO = 1000;
+
+    private final ContaReativaRepository repository;
+    private final TransactionalOperator transacao;
+
+    public ContaReativaController(ContaReativaRepository repository, TransactionalOperator transacao) {
+        this.repository = repository;
+        this.transacao = transacao;
+    }
+
+    @GetMapping("{conta}")
+    public Mono<DadosDaConta> getConta(@PathVariable int conta) {
+        return repository.buscarDados(conta).switchIfEmpty(Mono.error(ResourceNotFoundException::new));
+    }
+
+    /**
+     * Sem {@code apos} nem {@code limite}, a lista inteira num array JSON escrito em stream, como em
+     * {@code ContaController}.
+     */
+    @GetMapping(params = {"!apos", "!limite"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<DadosDaConta> getTodasAsContas() {
+        return repository.streamTodas();
+    }
+
+    /**
+     * Paginação por chave, com o cabeçalho {@code Link} da próxima página quando esta vem cheia,
+     * como em {@code PaginaPorChave}.
+     */
+    @GetMapping
+    public Mono<ResponseEntity<List<DadosDaConta>>> getContas(@RequestParam(defaultValue = "0") int apos,
+                                                              @RequestParam(defaultValue = "100") int limite,
+                                                              ServerHttpRequest request) {
+        int tamanho = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        return repository.buscarPagina(apos, tamanho).collectList().map(pagina -> {
+            if (pagina.size() < tamanho) {
+                return ResponseEntity.ok(pagina);
+            }
+            String proxima = UriComponentsBuilder.fromHttpRequest(request)
+                    .replaceQueryParam("apos", pagina.get(pagina.size() - 1).numeroConta())
+                    .replaceQueryParam("limite", tamanho)
+                    .toUriString();
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.LINK, "<" + proxima + ">; rel=\"next\"")
+                    .body(pagina);
+        });
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<DadosDaConta> streamContas() {
+        return repository.streamTodas();
+    }
+
+    @PostMapping
+    public Mono<DadosDaConta> createConta(@RequestParam ModalidadeConta modalidade,
+                                         @RequestBody(required = false) Mono<Pessoa> pessoa) {
+        return pessoa.flatMap(titular -> titular.getId() != null
+                        ? Mono.just(titular.getId())
+                        : repository.criarPessoa(titular)
+                        .onErrorMap(DataIntegrityViolationException.class, e -> new CpfJaCadastradoException()))
+                .flatMap(titular -> repository.criarConta(modalidade, titular))
+                .switchIfEmpty(Mono.defer(() -> repository.criarConta(modalidade, null)))
+                .as(transacao::transactional)
+                .flatMap(repository::buscarDados);
+    }
+
+    @DeleteMapping("{conta}")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Mono<Void> deleteConta(@PathVariable int conta) {
+        return repository.remover(conta);
+    }
+}
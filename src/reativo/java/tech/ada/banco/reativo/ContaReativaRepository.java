@@ -0,0 +1,160 @@
+package tech.ada.banco.reativo;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tech.ada.banco.dto.DadosDaConta;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.Dinheiro;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.model.Pessoa;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Acesso às tabelas CONTA e PESSOA pelo {@link DatabaseClient}, com as mesmas consultas que os
+ * repositórios JPA fazem: projeções com o titular numa só consulta, e o saldo gravado com a versão na
+ * condição do UPDATE.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ContaReativaRepository {
+
+    private static final String DADOS_DA_CONTA = "select c.NUMERO_CONTA, c.TIPO, c.SALDO, c.VERSAO, c.AGENCIA, "
+            + "p.ID, p.NOME, p.CPF, p.DATA_NASCIMENTO, p.TELEFONE "
+            + "from CONTA c left join PESSOA p on p.ID = c.PESSOA_ID ";
+
+    private final DatabaseClient banco;
+
+    public ContaReativaRepository(DatabaseClient banco) {
+        this.banco = banco;
+    }
+
+    public Mono<DadosDaConta> buscarDados(int numeroConta) {
+        return banco.sql(DADOS_DA_CONTA + "where c.NUMERO_CONTA = :numeroConta")
+                .bind("numeroConta", numeroConta)
+                .map(ContaReativaRepository::dadosDaConta)
+                .one();
+    }
+
+    public Flux<DadosDaConta> buscarPagina(int apos, int limite) {
+        return banco.sql(DADOS_DA_CONTA + "where c.NUMERO_CONTA > :apos order by c.NUMERO_CONTA limit :limite")
+                .bind("apos", apos)
+                .bind("limite", limite)
+                .map(ContaReativaRepository::dadosDaConta)
+                .all();
+    }
+
+    public Flux<DadosDaConta> streamTodas() {
+        return banco.sql(DADOS_DA_CONTA + "order by c.NUMERO_CONTA")
+                .map(ContaReativaRepository::dadosDaConta)
+                .all();
+    }
+
+    /**
+     * A conta só com número, saldo e versão, como {@code ContaRepository.buscarSaldoDaConta}.
+     */
+    public Mono<Conta> buscarSaldoDaConta(int numeroConta) {
+        return banco.sql("select NUMERO_CONTA, SALDO, VERSAO from CONTA where NUMERO_CONTA = :numeroConta")
+                .bind("numeroConta", numeroConta)
+                .map(ContaReativaRepository::saldoDaConta)
+                .one();
+    }
+
+    /**
+     * Como {@link #buscarSaldoDaConta}, mas com a linha bloqueada até o fim da transação.
+     */
+    public Mono<Conta> buscarParaAtualizacao(int numeroConta) {
+        return banco.sql("select NUMERO_CONTA, SALDO, VERSAO from CONTA where NUMERO_CONTA = :numeroConta for update")
+                .bind("numeroConta", numeroConta)
+                .map(ContaReativaRepository::saldoDaConta)
+                .one();
+    }
+
+    /**
+     * Grava o saldo se a versão lida ainda for a atual, como {@code ContaRepository.gravarSaldo}.
+     */
+    public Mono<Void> gravarSaldo(Conta conta) {
+        return banco.sql("update CONTA set SALDO = :saldo, VERSAO = VERSAO + 1 "
+                        + "where NUMERO_CONTA = :numeroConta and VERSAO = :versao")
+                .bind("saldo", conta.getSaldo())
+                .bind("numeroConta", conta.getNumeroConta())
+                .bind("versao", conta.getVersao())
+                .fetch()
+                .rowsUpdated()
+                .flatMap(linhas -> linhas == 0
+                        ? Mono.error(new OptimisticLockingFailureException(
+                        "Conta " + conta.getNumeroConta() + " alterada por outra transação"))
+                        : Mono.empty());
+    }
+
+    public Mono<Integer> criarConta(ModalidadeConta tipo, Long titular) {
+        return proximoValor("CONTA_SQ").map(Long::intValue).flatMap(numeroConta -> {
+            DatabaseClient.GenericExecuteSpec insert = banco.sql("insert into CONTA "
+                            + "(NUMERO_CONTA, TIPO, SALDO, VERSAO, AGENCIA, PESSOA_ID) "
+                            + "values (:numeroConta, :tipo, 0, 0, '0001', :titular)")
+                    .bind("numeroConta", numeroConta)
+                    .bind("tipo", tipo.name());
+            insert = titular == null ? insert.bindNull("titular", Long.class) : insert.bind("titular", titular);
+            return insert.then().thenReturn(numeroConta);
+        });
+    }
+
+    public Mono<Long> criarPessoa(Pessoa pessoa) {
+        return proximoValor("PESSOA_SQ").flatMap(id -> {
+            DatabaseClient.GenericExecuteSpec insert = banco.sql("insert into PESSOA "
+                            + "(ID, DATA_NASCIMENTO, CPF, CPF_NORMALIZADO, TELEFONE, NOME) "
+                            + "values (:id, :dataNascimento, :cpf, :cpfNormalizado, :telefone, :nome)")
+                    .bind("id", id);
+            insert = vincular(insert, "dataNascimento", pessoa.getDataNascimento(), LocalDate.class);
+            insert = vincular(insert, "cpf", pessoa.getCPF(), String.class);
+            insert = vincular(insert, "cpfNormalizado", pessoa.getCpfNormalizado(), String.class);
+            insert = vincular(insert, "telefone", pessoa.getTelefone(), String.class);
+            insert = vincular(insert, "nome", pessoa.getNome(), String.class);
+            return insert.then().thenReturn(id);
+        });
+    }
+
+    public Mono<Void> remover(int numeroConta) {
+        return banco.sql("delete from CONTA where NUMERO_CONTA = :numeroConta")
+                .bind("numeroConta", numeroConta)
+                .then();
+    }
+
+    private Mono<Long> proximoValor(String sequencia) {
+        return banco.sql("select next value for " + sequencia)
+                .map(linha -> linha.get(0, Long.class))
+                .one();
+    }
+
+    private static <T> DatabaseClient.GenericExecuteSpec vincular(DatabaseClient.GenericExecuteSpec spec,
+                                                                  String nome, T valor, Class<T> tipo) {
+        return valor == null ? spec.bindNull(nome, tipo) : spec.bind(nome, valor);
+    }
+
+    private static Conta saldoDaConta(Readable linha) {
+        return new Conta(linha.get("NUMERO_CONTA", Integer.class),
+                Dinheiro.centavos(linha.get("SALDO", BigDecimal.class)), linha.get("VERSAO", Long.class));
+    }
+
+    private static DadosDaConta dadosDaConta(Readable linha) {
+        Pessoa titular = null;
+        Long idDoTitular = linha.get("ID", Long.class);
+        if (idDoTitular != null) {
+            titular = new Pessoa(linha.get("NOME", String.class), linha.get("CPF", String.class),
+                    linha.get("DATA_NASCIMENTO", LocalDate.class));
+            titular.setId(idDoTitular);
+            titular.setTelefone(linha.get("TELEFONE", String.class));
+        }
+        String tipo = linha.get("TIPO", String.class);
+        return new DadosDaConta(linha.get("NUMERO_CONTA", Integer.class),
+                tipo == null ? null : ModalidadeConta.valueOf(tipo),
+                linha.get("SALDO", BigDecimal.class).setScale(2), linha.get("VERSAO", Long.class),
+                linha.get("AGENCIA", String.class), titular);
+    }
+}
@@ -0,0 +1,104 @@
+package tech.ada.banco.reativo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import reactor.util.retry.RetryBackoffSpec;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.Dinheiro;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Depósito, saque e pix sobre o {@link ContaReativaRepository}, com as regras da {@link Conta}
+ * (valores negativos, saldo insuficiente, overflow) aplicadas à conta lida do banco. Depósitos e
+ * saques gravam o saldo com a versão lida, como os serviços MVC no modo carrega-altera-salva; o pix
+ * bloqueia as duas contas em ordem crescente de número numa transação. Conflitos de concorrência são
+ * reexecutados com espera exponencial e jitter, nos mesmos limites de {@code banco.retentativa}, sem
+ * ocupar uma thread durante a espera.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class OperacoesReativas {
+
+    private final ContaReativaRepository repository;
+    private final TransactionalOperator transacao;
+    private final RetryBackoffSpec retentativa;
+
+    public OperacoesReativas(ContaReativaRepository repository, TransactionalOperator transacao,
+                             @Value("${banco.retentativa.maximo-de-tentativas:5}") int maximoDeTentativas,
+                             @Value("${banco.retentativa.espera-base-ms:5}") long esperaBaseMillis,
+                             @Value("${banco.retentativa.espera-maxima-ms:200}") long esperaMaximaMillis) {
+        this.repository = repository;
+        this.transacao = transacao;
+        this.retentativa = Retry.backoff(Math.max(0, maximoDeTentativas - 1), Duration.ofMillis(esperaBaseMillis))
+                .maxBackoff(Duration.ofMillis(esperaMaximaMillis))
+                .jitter(1.0)
+                .filter(ConcurrencyFailureException.class::isInstance)
+                .onRetryExhaustedThrow((spec, sinal) -> sinal.failure());
+    }
+
+    public Mono<BigDecimal> depositar(int numeroConta, BigDecimal valor) {
+        return Mono.fromCallable(() -> Dinheiro.centavos(valor))
+                .flatMap(centavos -> repository.buscarSaldoDaConta(numeroConta)
+                        .switchIfEmpty(Mono.error(ResourceNotFoundException::new))
+                        .flatMap(conta -> {
+                            conta.deposito(centavos);
+                            return repository.gravarSaldo(conta).thenReturn(conta);
+                        })
+                        .retryWhen(retentativa))
+                .map(Conta::getSaldo);
+    }
+
+    public Mono<BigDecimal> sacar(int numeroConta, BigDecimal valor) {
+        return Mono.fromCallable(() -> Dinheiro.centavos(valor))
+                .flatMap(centavos -> repository.buscarSaldoDaConta(numeroConta)
+                        .switchIfEmpty(Mono.error(ResourceNotFoundException::new))
+                        .flatMap(conta -> {
+                            conta.saque(centavos);
+                            return repository.gravarSaldo(conta).thenReturn(conta);
+                        })
+                        .retryWhen(retentativa))
+                .map(Conta::getSaldo);
+    }
+
+    public Mono<BigDecimal> transferir(int contaOrigem, int contaDestino, BigDecimal valor) {
+        return Mono.fromCallable(() -> {
+                    Conta.validarValor(valor);
+                    return Dinheiro.centavos(valor);
+                })
+                .flatMap(centavos -> transacao.transactional(bloquearETransferir(contaOrigem, contaDestino, centavos))
+                        .retryWhen(retentativa))
+                .map(Dinheiro::reais);
+    }
+
+    private Mono<Long> bloquearETransferir(int contaOrigem, int contaDestino, long centavos) {
+        Mono<Conta> primeira = bloquear(Math.min(contaOrigem, contaDestino));
+        if (contaOrigem == contaDestino) {
+            return primeira.flatMap(conta -> {
+                conta.saque(centavos);
+                conta.deposito(centavos);
+                return repository.gravarSaldo(conta).thenReturn(conta.getSaldoEmCentavos());
+            });
+        }
+        return primeira.zipWhen(conta -> bloquear(Math.max(contaOrigem, contaDestino))).flatMap(contas -> {
+            Conta origem = contaOrigem < contaDestino ? contas.getT1() : contas.getT2();
+            Conta destino = contaOrigem < contaDestino ? contas.getT2() : contas.getT1();
+            origem.saque(centavos);
+            destino.deposito(centavos);
+            return repository.gravarSaldo(origem)
+                    .then(repository.gravarSaldo(destino))
+                    .thenReturn(origem.getSaldoEmCentavos());
+        });
+    }
+
+    private Mono<Conta> bloquear(int numeroConta) {
+        return repository.buscarParaAtualizacao(numeroConta).switchIfEmpty(Mono.error(ResourceNotFoundException::new));
+    }
+}
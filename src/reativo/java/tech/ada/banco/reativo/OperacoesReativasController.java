@@ -0,0 +1,41 @@
+package tech.ada.banco.reativo;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * As rotas de {@code DepositoController}, {@code SaqueController} e {@code PixController}, sem o
+ * cabeçalho Idempotency-Key e sem o pix em lote.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class OperacoesReativasController {
+
+    private final OperacoesReativas operacoes;
+
+    public OperacoesReativasController(OperacoesReativas operacoes) {
+        this.operacoes = operacoes;
+    }
+
+    @PostMapping("/deposito/{conta}")
+    public Mono<BigDecimal> deposito(@PathVariable int conta, @RequestParam BigDecimal valor) {
+        return operacoes.depositar(conta, valor);
+    }
+
+    @PostMapping("/saque/{conta}")
+    public Mono<BigDecimal> saque(@PathVariable int conta, @RequestParam BigDecimal valor) {
+        return operacoes.sacar(conta, valor);
+    }
+
+    @PostMapping("/pix/{conta}")
+    public Mono<BigDecimal> createPixTransaction(@PathVariable int conta, @RequestParam int destino,
+                                                 @RequestParam BigDecimal valor) {
+        return operacoes.transferir(conta, destino, valor);
+    }
+}
@@ -0,0 +1,22 @@
+-- Mesmas tabelas que o Hibernate cria para a aplicação MVC, só com o que as rotas reativas usam.
+create sequence if not exists PESSOA_SQ start with 100 increment by 1;
+create sequence if not exists CONTA_SQ start with 10000 increment by 1;
+
+create table if not exists PESSOA (
+    ID bigint primary key,
+    DATA_NASCIMENTO date,
+    CPF varchar(255),
+    CPF_NORMALIZADO varchar(255),
+    TELEFONE varchar(255),
+    NOME varchar(255)
+);
+create unique index if not exists PESSOA_CPF_UK on PESSOA (CPF_NORMALIZADO);
+
+create table if not exists CONTA (
+    NUMERO_CONTA integer primary key,
+    TIPO varchar(255),
+    SALDO numeric(38, 2) not null,
+    VERSAO bigint not null,
+    AGENCIA varchar(255),
+    PESSOA_ID bigint references PESSOA (ID)
+);
@@ -0,0 +1,139 @@
+package tech.ada.banco.reativo;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import tech.ada.banco.dto.DadosDaConta;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(classes = BancoReativoApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.config.name=reativo", "spring.main.web-application-type=reactive"})
+class BancoReativoApplicationTest {
+
+    @Autowired
+    private WebTestClient client;
+    @LocalServerPort
+    private int porta;
+
+    private int criarConta(String saldo) {
+        DadosDaConta conta = client.post().uri("/contas?modalidade=CC")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(DadosDaConta.class).returnResult().getResponseBody();
+        if (new BigDecimal(saldo).signum() > 0) {
+            client.post().uri("/deposito/{conta}?valor={valor}", conta.numeroConta(), saldo)
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+        return conta.numeroConta();
+    }
+
+    private BigDecimal saldo(int conta) {
+        return client.get().uri("/contas/{conta}", conta)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(DadosDaConta.class).returnResult().getResponseBody().saldo();
+    }
+
+    @Test
+    void testeDepositoSaqueEPixComAsRegrasDaConta() {
+        int origem = criarConta("10");
+        int destino = criarConta("0");
+
+        client.post().uri("/saque/{conta}?valor=2.5", origem)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("7.50");
+        client.post().uri("/saque/{conta}?valor=100", origem)
+                .exchange()
+                .expectStatus().isBadRequest();
+        client.post().uri("/deposito/{conta}?valor=-1", origem)
+                .exchange()
+                .expectStatus().isBadRequest();
+        client.post().uri("/pix/{conta}?destino={destino}&valor=3", origem, destino)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("4.50");
+        client.post().uri("/pix/{conta}?destino={destino}&valor=5", origem, destino)
+                .exchange()
+                .expectStatus().isBadRequest();
+        client.post().uri("/deposito/{conta}?valor=1", 1)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        assertEquals(new BigDecimal("4.50"), saldo(origem));
+        assertEquals(new BigDecimal("3.00"), saldo(destino));
+    }
+
+    @Test
+    void testeContaComTitularPaginacaoStreamERemocao() {
+        DadosDaConta conta = client.post().uri("/contas?modalidade=CP")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("""
+                        {"nome": "Ana", "cpf": "987.654.321-00", "dataNascimento": "1980-01-01"}""")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(DadosDaConta.class).returnResult().getResponseBody();
+        assertEquals("Ana", conta.titular().getNome());
+        int segunda = criarConta("0");
+
+        client.get().uri("/contas?apos={apos}&limite=1", conta.numeroConta() - 1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.LINK, link -> assertTrue(
+                        link.contains("apos=" + conta.numeroConta() + "&limite=1"), link))
+                .expectBody().jsonPath("$[0].titular.cpf").isEqualTo("987.654.321-00");
+
+        List<DadosDaConta> todas = client.get().uri("/contas")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(DadosDaConta.class).getResponseBody().collectList().block(Duration.ofSeconds(10));
+        assertTrue(todas.stream().anyMatch(dados -> dados.numeroConta() == segunda));
+        client.get().uri("/contas")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.LINK)
+                .expectBody().jsonPath("$[?(@.numeroConta == %d)]", segunda).exists();
+
+        client.delete().uri("/contas/{conta}", segunda)
+                .exchange()
+                .expectStatus().isAccepted();
+        client.get().uri("/contas/{conta}", segunda)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testePixConcorrentesEmSentidosOpostosNaoPerdemDinheiro() {
+        int contaA = criarConta("1000");
+        int contaB = criarConta("1000");
+
+        WebClient cliente = WebClient.create("http://localhost:" + porta);
+
+        List<HttpStatusCode> respostas = Flux.range(0, 200)
+                .flatMap(i -> cliente.post()
+                        .uri("/pix/{conta}?destino={destino}&valor=1", i % 2 == 0 ? contaA : contaB,
+                                i % 2 == 0 ? contaB : contaA)
+                        .exchangeToMono(resposta -> resposta.releaseBody().thenReturn(resposta.statusCode())), 32)
+                .collectList()
+                .block(Duration.ofSeconds(60));
+
+        assertTrue(respostas.stream().allMatch(HttpStatusCode::is2xxSuccessful), respostas::toString);
+        assertEquals(new BigDecimal("1000.00"), saldo(contaA));
+        assertEquals(new BigDecimal("1000.00"), saldo(contaB));
+    }
+}
@@ -0,0 +1,39 @@
+package tech.ada.banco.auditoria;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnelDeEventosTest {
+
+    @Test
+    void testeCapacidadeArredondadaParaPotenciaDeDois() {
+        assertEquals(2, new AnelDeEventos(1).getCapacidade());
+        assertEquals(8, new AnelDeEventos(5).getCapacidade());
+        assertEquals(8, new AnelDeEventos(8).getCapacidade());
+    }
+
+    @Test
+    void testeAnelCheioRecusaAteOConsumidorLiberarPosicoes() {
+        AnelDeEventos anel = new AnelDeEventos(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(anel.publicar(i, 0, i, i, i));
+        }
+        assertFalse(anel.publicar(4, 0, 4, 4, 4));
+        assertEquals(4, anel.pendentes());
+
+        List<Long> lidos = new ArrayList<>();
+        assertEquals(2, anel.consumir((instante, tipo, origem, destino, centavos) -> lidos.add(centavos), 2));
+        assertTrue(anel.publicar(4, 0, 4, 4, 4));
+        assertTrue(anel.publicar(5, 0, 5, 5, 5));
+        assertEquals(4, anel.consumir((instante, tipo, origem, destino, centavos) -> lidos.add(centavos), 10));
+
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L), lidos);
+        assertEquals(0, anel.pendentes());
+    }
+}
@@ -0,0 +1,110 @@
+package tech.ada.banco.auditoria;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.ada.banco.model.TipoOperacao;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrilhaDeAuditoriaTest {
+
+    @TempDir
+    Path diretorio;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private double eventos(String resultado) {
+        return registry.get("banco.auditoria.eventos").tag("resultado", resultado).counter().count();
+    }
+
+    private List<String> linhasGravadas() throws Exception {
+        List<Path> arquivos;
+        try (Stream<Path> lista = Files.list(diretorio)) {
+            arquivos = lista.sorted((a, b) -> Long.compare(numero(a), numero(b))).toList();
+        }
+        List<String> linhas = new ArrayList<>();
+        for (Path arquivo : arquivos) {
+            linhas.addAll(Files.readAllLines(arquivo));
+        }
+        return linhas;
+    }
+
+    private static long numero(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        return Long.parseLong(nome.substring("auditoria-".length(), nome.length() - ".log".length()));
+    }
+
+    @Test
+    void testeEventosGravadosComoLinhasJson() throws Exception {
+        TrilhaDeAuditoria trilha = new TrilhaDeAuditoria(diretorio, 16, 4, 1 << 20, 10, 0, registry);
+        trilha.operacaoRealizada(TipoOperacao.DEPOSITO, 10, 10, 1050);
+        trilha.operacaoRealizada(TipoOperacao.PIX, 10, 20, 7);
+        trilha.close();
+
+        List<String> linhas = linhasGravadas();
+        assertEquals(2, linhas.size());
+        assertTrue(linhas.get(0).matches(
+                "\\{\"instante\":\"[^\"]+Z\",\"tipo\":\"DEPOSITO\",\"origem\":10,\"destino\":10,\"valor\":10.50}"),
+                linhas.get(0));
+        assertTrue(linhas.get(1).endsWith("\"tipo\":\"PIX\",\"origem\":10,\"destino\":20,\"valor\":0.07}"));
+        assertEquals(2, eventos("gravado"));
+    }
+
+    @Test
+    void testeProdutoresConcorrentesComEsperaNaoPerdemEventosEArquivosSaoRotacionados() throws Exception {
+        TrilhaDeAuditoria trilha = new TrilhaDeAuditoria(diretorio, 64, 16, 50_000, 1000, 100_000, registry);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futuros = new ArrayList<>();
+        for (int produtor = 0; produtor < 4; produtor++) {
+            int conta = produtor;
+            futuros.add(executor.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    trilha.operacaoRealizada(TipoOperacao.SAQUE, conta, conta, i);
+                }
+            }));
+        }
+        for (Future<?> futuro : futuros) {
+            futuro.get();
+        }
+        executor.shutdown();
+        trilha.close();
+
+        List<String> linhas = linhasGravadas();
+        Set<String> distintas = new HashSet<>();
+        for (String linha : linhas) {
+            distintas.add(linha.substring(linha.indexOf("\"origem\"")));
+        }
+        assertEquals(20_000 - (long) eventos("descartado"), linhas.size());
+        assertEquals(linhas.size(), distintas.size());
+        assertEquals(linhas.size(), (long) eventos("gravado"));
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            assertTrue(arquivos.count() > 1);
+        }
+    }
+
+    @Test
+    void testeAnelCheioSemEsperaDescartaEConta() throws Exception {
+        TrilhaDeAuditoria trilha = new TrilhaDeAuditoria(diretorio, 2, 1, 1 << 20, 10, 0, registry);
+        for (int i = 0; i < 10_000; i++) {
+            trilha.operacaoRealizada(TipoOperacao.DEPOSITO, 1, 1, i);
+        }
+        trilha.close();
+
+        assertEquals(10_000, eventos("gravado") + eventos("descartado"));
+        assertEquals((long) eventos("gravado"), linhasGravadas().size());
+    }
+}
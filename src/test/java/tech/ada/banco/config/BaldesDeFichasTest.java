@@ -0,0 +1,80 @@
+package tech.ada.banco.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BaldesDeFichasTest {
+
+    private final AtomicLong agora = new AtomicLong(1_000);
+    private final BaldesDeFichas<String> baldes = new BaldesDeFichas<>(10, 3, 2, agora::get);
+
+    @Test
+    void testeRajadaEDepoisUmaFichaPorIntervalo() {
+        assertEquals(0, baldes.consumir("a"));
+        assertEquals(0, baldes.consumir("a"));
+        assertEquals(0, baldes.consumir("a"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), baldes.consumir("a"));
+        assertEquals(0, baldes.consumir("b"));
+
+        agora.addAndGet(TimeUnit.MILLISECONDS.toNanos(60));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(40), baldes.consumir("a"));
+        agora.addAndGet(TimeUnit.MILLISECONDS.toNanos(40));
+        assertEquals(0, baldes.consumir("a"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), baldes.consumir("a"));
+    }
+
+    @Test
+    void testeSoBaldesCheiosSaoDescartados() {
+        baldes.consumir("a");
+        baldes.consumir("a");
+        baldes.consumir("b");
+        assertEquals(2, baldes.tamanho());
+
+        // sem espaço, a chave nova é recusada
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), baldes.consumir("c"));
+        assertEquals(2, baldes.tamanho());
+
+        agora.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        baldes.removerCheios();
+        assertEquals(1, baldes.tamanho());
+        assertEquals(0, baldes.consumir("c"));
+        assertEquals(2, baldes.tamanho());
+    }
+
+    @Test
+    void testeLimpezaComOMapaCheioNoMaximoUmaPorSegundo() {
+        baldes.consumir("a");
+        baldes.consumir("b");
+        agora.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        baldes.consumir("a");
+        baldes.consumir("a");
+        baldes.consumir("a");
+
+        // a limpeza descarta "b", que já está cheio, e abre espaço para "c"
+        assertEquals(0, baldes.consumir("c"));
+        agora.addAndGet(TimeUnit.MILLISECONDS.toNanos(150));
+        // "c" já está cheio de novo, mas a limpeza deste segundo já foi feita
+        assertTrue(baldes.consumir("d") > 0);
+        assertEquals(2, baldes.tamanho());
+
+        agora.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, baldes.consumir("d"));
+    }
+
+    @Test
+    void testeFichaDevolvida() {
+        baldes.consumir("a");
+        baldes.consumir("a");
+        baldes.consumir("a");
+        assertTrue(baldes.consumir("a") > 0);
+
+        baldes.devolver("a");
+        assertEquals(0, baldes.consumir("a"));
+        assertTrue(baldes.consumir("a") > 0);
+    }
+}
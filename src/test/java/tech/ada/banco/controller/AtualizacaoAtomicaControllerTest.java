@@ -0,0 +1,144 @@
+package tech.ada.banco.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import tech.ada.banco.model.Conta;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "banco.saldo.atualizacao-atomica=true")
+class AtualizacaoAtomicaControllerTest extends BaseContaTest {
+
+    @Test
+    void testeDepositoAtomico() throws Exception {
+        Conta contaBase = criarConta(BigDecimal.valueOf(0.13));
+
+        String response =
+                mvc.perform(post("/deposito/" + contaBase.getNumeroConta())
+                                .param("valor", "0.03")
+                                .contentType(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString();
+
+        contaBase = obtemContaDoBanco(contaBase);
+        assertEquals("0.16", response);
+        assertEquals(BigDecimal.valueOf(0.16), contaBase.getSaldo());
+    }
+
+    @Test
+    void testeDepositoAtomicoEmContaInvalida() throws Exception {
+        mvc.perform(post("/deposito/9999")
+                        .param("valor", "0.13")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testeSaqueAtomicoSemSaldo() throws Exception {
+        Conta contaBase = criarConta(BigDecimal.ONE);
+
+        String response =
+                mvc.perform(post("/saque/" + contaBase.getNumeroConta())
+                                .param("valor", "1.01")
+                                .contentType(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isBadRequest())
+                        .andReturn().getResponse().getErrorMessage();
+
+        contaBase = obtemContaDoBanco(contaBase);
+        assertEquals("Limite acima do saldo disponível!", response);
+        assertEquals(BigDecimal.ONE.setScale(2), contaBase.getSaldo());
+    }
+
+    @Test
+    void testeSaqueAtomicoSaldoTotal() throws Exception {
+        Conta contaBase = criarConta(BigDecimal.TEN);
+
+        String response =
+                mvc.perform(post("/saque/" + contaBase.getNumeroConta())
+                                .param("valor", "10")
+                                .contentType(MediaType.APPLICATION_JSON))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString();
+
+        contaBase = obtemContaDoBanco(contaBase);
+        assertEquals("0.00", response);
+        assertEquals(BigDecimal.ZERO.setScale(2), contaBase.getSaldo());
+    }
+
+    @Test
+    void testeSaqueAtomicoEmContaInvalida() throws Exception {
+        mvc.perform(post("/saque/9999")
+                        .param("valor", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testePixAtomicoNosDoisSentidos() throws Exception {
+        Conta contaA = criarConta(BigDecimal.TEN);
+        Conta contaB = criarConta(BigDecimal.ONE);
+
+        mvc.perform(post("/pix/" + contaA.getNumeroConta())
+                        .param("destino", String.valueOf(contaB.getNumeroConta()))
+                        .param("valor", "3"))
+                .andExpect(status().isOk());
+        String response =
+                mvc.perform(post("/pix/" + contaB.getNumeroConta())
+                                .param("destino", String.valueOf(contaA.getNumeroConta()))
+                                .param("valor", "1.50"))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString();
+
+        assertEquals("2.50", response);
+        assertEquals(BigDecimal.valueOf(8.5).setScale(2), obtemContaDoBanco(contaA).getSaldo());
+        assertEquals(BigDecimal.valueOf(2.5).setScale(2), obtemContaDoBanco(contaB).getSaldo());
+    }
+
+    @Test
+    void testePixAtomicoParaContaDestinoInvalidaNaoDebitaOrigem() throws Exception {
+        Conta contaOrigem = criarConta(BigDecimal.TEN);
+        // acima da origem, para que o débito da origem seja gravado antes do crédito falhar e precise ser desfeito
+        int destinoInexistente = contaOrigem.getNumeroConta() + 1_000_000;
+        assertTrue(repository.findContaByNumeroConta(destinoInexistente).isEmpty());
+
+        mvc.perform(post("/pix/" + contaOrigem.getNumeroConta())
+                        .param("destino", String.valueOf(destinoInexistente))
+                        .param("valor", "10"))
+                .andDo(print())
+                .andExpect(status().isNotFound());
+
+        Conta origemDepois = obtemContaDoBanco(contaOrigem);
+        assertEquals(BigDecimal.TEN.setScale(2), origemDepois.getSaldo());
+        assertEquals(contaOrigem.getVersao(), origemDepois.getVersao());
+    }
+
+    @Test
+    void testePixAtomicoParaAPropriaContaExigeSaldo() throws Exception {
+        Conta conta = criarConta(BigDecimal.ONE);
+
+        mvc.perform(post("/pix/" + conta.getNumeroConta())
+                        .param("destino", String.valueOf(conta.getNumeroConta()))
+                        .param("valor", "5"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        Conta depois = obtemContaDoBanco(conta);
+        assertEquals(BigDecimal.ONE.setScale(2), depois.getSaldo());
+        assertEquals(conta.getVersao(), depois.getVersao());
+        assertEquals(0, jdbc.queryForObject("select count(*) from MOVIMENTO where NUMERO_CONTA = ?", Integer.class,
+                conta.getNumeroConta()));
+    }
+}
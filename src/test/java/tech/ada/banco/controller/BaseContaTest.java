@@ -3,6 +3,7 @@ package tech.ada.banco.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
 import tech.ada.banco.model.Conta;
 import tech.ada.banco.model.ModalidadeConta;
@@ -11,6 +12,7 @@ import tech.ada.banco.repository.ContaRepository;
 import tech.ada.banco.repository.PessoaRepository;
 
 import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -18,12 +20,24 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 @AutoConfigureMockMvc
 abstract class BaseContaTest {
 
+    private static final AtomicLong CPFS = new AtomicLong();
+
     @Autowired
     protected MockMvc mvc;
 
     @Autowired
     protected ContaRepository repository;
+    @Autowired
     protected PessoaRepository repositoryP;
+    @Autowired
+    protected JdbcTemplate jdbc;
+
+    /** CPF ainda não usado nesta JVM, que compartilha o banco entre os testes. */
+    protected static String novoCpf() {
+        String digitos = String.format("%011d", CPFS.incrementAndGet());
+        return digitos.substring(0, 3) + "." + digitos.substring(3, 6) + "." + digitos.substring(6, 9) + "-"
+                + digitos.substring(9);
+    }
 
     protected Conta criarConta(BigDecimal saldo) {
         Conta contaBase = repository.save(new Conta(ModalidadeConta.CC, null));
@@ -38,6 +52,11 @@ abstract class BaseContaTest {
                 .orElseThrow(NullPointerException::new);
     }
 
+    protected BigDecimal somaDosMovimentos(Conta conta) {
+        return jdbc.queryForObject("select coalesce(sum(VALOR), 0) from MOVIMENTO where NUMERO_CONTA = ?",
+                BigDecimal.class, conta.getNumeroConta()).setScale(2);
+    }
+
     protected Pessoa obtemPessoa (Pessoa pessoaBase) {
         return repositoryP.findPessoaByCPF(pessoaBase.getCPF())
                 .orElseThrow(NullPointerException::new);
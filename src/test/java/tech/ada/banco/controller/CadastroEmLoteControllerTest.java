@@ -0,0 +1,139 @@
+package tech.ada.banco.controller;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.ada.banco.dto.ResultadoDoCadastro;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.model.Pessoa;
+import tech.ada.banco.repository.PessoaRepository;
+import tech.ada.banco.services.CadastroEmLote;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "banco.cadastro.lote.tamanho-do-bloco=2")
+class CadastroEmLoteControllerTest extends BaseContaTest {
+
+    private final String prefixo = novoCpf();
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionOperations transacao;
+
+    @Test
+    void testeCadastroDePessoasEContasPorCpf() throws Exception {
+        mvc.perform(post("/pessoas/lote")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                {"nome": "Ana", "cpf": "%1$s-1", "dataNascimento": "1980-01-01"}
+                                {"nome": "Bia", "cpf": "%1$s-2", "dataNascimento": "1985-05-05"}
+                                {"nome": "Carla", "cpf": "%1$s-3", "dataNascimento": "1990-09-09"}
+                                {"nome": "Ana de novo", "cpf": "%2$s1", "dataNascimento": "1980-01-01"}
+                                """.formatted(prefixo, prefixo.replaceAll("\\D", ""))))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inseridas").value(3))
+                .andExpect(jsonPath("$.rejeitadas").value(1));
+
+        mvc.perform(post("/contas/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [
+                                  {"modalidade": "CC", "cpfTitular": "%1$s-1"},
+                                  {"modalidade": "CP", "cpfTitular": "%1$s-3"},
+                                  {"modalidade": "CC", "cpfTitular": "%1$s-9"},
+                                  {"cpfTitular": "%1$s-2"},
+                                  {"modalidade": "CC"}
+                                ]""".formatted(prefixo)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inseridas").value(3))
+                .andExpect(jsonPath("$.rejeitadas").value(2));
+
+        Pessoa carla = repositoryP.findPessoaByCPF(prefixo + "-3").orElseThrow();
+        List<Conta> contasDaCarla = repository.findAll().stream()
+                .filter(conta -> conta.getTitular() != null && carla.getId().equals(conta.getTitular().getId()))
+                .toList();
+        assertEquals(1, contasDaCarla.size());
+        assertEquals(ModalidadeConta.CP, contasDaCarla.get(0).getTipo());
+    }
+
+    @Test
+    void testeLinhaInvalidaERejeitadaSemPararOCadastro() throws Exception {
+        mvc.perform(post("/pessoas/lote")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                {"nome": "Dora", "cpf": "%1$s-4", "dataNascimento": "1980-01-01"}
+                                {"nome": "Menor", "cpf": "%1$s-5", "dataNascimento": "%2$s"}
+                                {"nome": "Eva", "cpf": "%1$s-6", "dataNascimento": "data"}
+                                {"nome": "Fabi", "cpf": "%1$s-7", "dataNascimento": "1990-09-09"}
+                                """.formatted(prefixo, LocalDate.now().minusYears(10))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inseridas").value(2))
+                .andExpect(jsonPath("$.rejeitadas").value(2))
+                .andExpect(jsonPath("$.interrompidoNaLinha").doesNotExist());
+
+        assertTrue(repositoryP.findPessoaByCPF(prefixo + "-7").isPresent());
+        assertTrue(repositoryP.findPessoaByCPF(prefixo + "-5").isEmpty());
+    }
+
+    @Test
+    void testeJsonMalformadoDevolveOsBlocosJaGravadosEALinha() throws Exception {
+        mvc.perform(post("/pessoas/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [
+                                  {"nome": "Gabi", "cpf": "%1$s-8", "dataNascimento": "1980-01-01"},
+                                  {"nome": "Helo", "cpf": "%1$s-9", "dataNascimento": "1985-05-05"},
+                                  {"nome": "Iara", "cpf": "%1$s-0", "dataNascimento": "1990-09-09"},
+                                  {"nome": "Jo" "cpf"
+                                ]""".formatted(prefixo)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inseridas").value(3))
+                .andExpect(jsonPath("$.rejeitadas").value(1))
+                .andExpect(jsonPath("$.interrompidoNaLinha").value(4));
+
+        assertTrue(repositoryP.findPessoaByCPF(prefixo + "-0").isPresent());
+    }
+
+    @Test
+    void testeCpfGravadoPorOutroCadastroRepeteOBlocoSemOCpf() {
+        Pessoa existente = repositoryP.save(new Pessoa("Lia", prefixo + "-1", LocalDate.of(1980, 1, 1)));
+        // a primeira consulta não vê a pessoa, como se outro cadastro a tivesse gravado logo depois dela
+        PessoaRepository pessoas = mock(PessoaRepository.class, delegatesTo(repositoryP));
+        doReturn(List.of()).doAnswer(delegatesTo(repositoryP)).when(pessoas).buscarIdsPorCpf(anyCollection());
+        CadastroEmLote cadastro = new CadastroEmLote(entityManager, transacao, pessoas, 2);
+
+        ResultadoDoCadastro resultado = cadastro.cadastrarPessoas(List.of(
+                new Pessoa("Mel", prefixo + "-2", LocalDate.of(1985, 5, 5)),
+                new Pessoa("Lia de novo", prefixo + "-1", LocalDate.of(1980, 1, 1))).iterator());
+
+        assertEquals(1, resultado.inseridas());
+        assertEquals(1, resultado.rejeitadas());
+        verify(pessoas, times(2)).buscarIdsPorCpf(anyCollection());
+        // a primeira tentativa foi desfeita: a Mel só existe uma vez e a Lia continua a original
+        assertEquals(1, jdbc.queryForObject("select count(*) from PESSOA where CPF_NORMALIZADO = ?", Integer.class,
+                Pessoa.normalizarCpf(prefixo + "-2")));
+        assertEquals(existente.getId(), repositoryP.findPessoaByCPF(prefixo + "-1").orElseThrow().getId());
+    }
+}
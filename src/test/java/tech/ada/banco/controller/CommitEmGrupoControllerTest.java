@@ -0,0 +1,125 @@
+package tech.ada.banco.controller;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import tech.ada.banco.model.Conta;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {"banco.saldo.motor=grupo", "banco.grupo.janela-us=20000",
+        "banco.grupo.tamanho-maximo-do-lote=16"})
+class CommitEmGrupoControllerTest extends BaseContaTest {
+
+    private static final int THREADS = 10;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void testeDepositoSaqueEPixEmGrupo() throws Exception {
+        Conta contaA = criarConta(BigDecimal.TEN);
+        Conta contaB = criarConta(BigDecimal.ONE);
+
+        mvc.perform(post("/deposito/" + contaA.getNumeroConta()).param("valor", "0.50"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("10.50"));
+        mvc.perform(post("/saque/" + contaA.getNumeroConta()).param("valor", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("8.50"));
+        mvc.perform(post("/pix/" + contaA.getNumeroConta())
+                        .param("destino", String.valueOf(contaB.getNumeroConta()))
+                        .param("valor", "3"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("5.50"));
+
+        assertEquals(new BigDecimal("5.50"), obtemContaDoBanco(contaA).getSaldo());
+        assertEquals(new BigDecimal("4.00"), obtemContaDoBanco(contaB).getSaldo());
+        assertEquals(new BigDecimal("-4.50"), somaDosMovimentos(contaA));
+        assertEquals(new BigDecimal("3.00"), somaDosMovimentos(contaB));
+    }
+
+    @Test
+    void testeFalhasIndividuaisNaoAlteramSaldo() throws Exception {
+        Conta conta = criarConta(BigDecimal.ONE);
+
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "1.01"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/deposito/9999").param("valor", "1"))
+                .andExpect(status().isNotFound());
+        mvc.perform(post("/pix/" + conta.getNumeroConta()).param("destino", "9997").param("valor", "1"))
+                .andExpect(status().isNotFound());
+
+        assertEquals(BigDecimal.ONE.setScale(2), obtemContaDoBanco(conta).getSaldo());
+    }
+
+    @Test
+    void testeSaquesConcorrentesNoMesmoGrupo() throws Exception {
+        Conta conta = criarConta(BigDecimal.ONE);
+        DistributionSummary lotes = registry.get("banco.grupo.lote").summary();
+        long gruposAntes = lotes.count();
+        double pedidosAntes = lotes.totalAmount();
+
+        List<Integer> statusDasRespostas = emParalelo(() ->
+                mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "0.30"))
+                        .andReturn().getResponse().getStatus());
+
+        assertEquals(3, statusDasRespostas.stream().filter(status -> status == 200).count());
+        assertEquals(THREADS - 3, statusDasRespostas.stream().filter(status -> status == 400).count());
+        assertEquals(new BigDecimal("0.10"), obtemContaDoBanco(conta).getSaldo());
+        assertEquals(THREADS, lotes.totalAmount() - pedidosAntes);
+        assertTrue(lotes.count() - gruposAntes < THREADS);
+    }
+
+    @Test
+    void testeDepositosESaquesConcorrentes() throws Exception {
+        Conta conta = criarConta(BigDecimal.valueOf(100));
+
+        List<Integer> statusDasRespostas = emParalelo(() -> {
+            mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "1.25"))
+                    .andExpect(status().isOk());
+            return mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "0.25"))
+                    .andReturn().getResponse().getStatus();
+        });
+
+        assertTrue(statusDasRespostas.stream().allMatch(status -> status == 200));
+        assertEquals(new BigDecimal("110.00"), obtemContaDoBanco(conta).getSaldo());
+    }
+
+    private static <T> List<T> emParalelo(Callable<T> requisicao) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<T>> futuros = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futuros.add(executor.submit(() -> {
+                    largada.await();
+                    return requisicao.call();
+                }));
+            }
+            largada.countDown();
+            List<T> resultados = new ArrayList<>();
+            for (Future<T> futuro : futuros) {
+                resultados.add(futuro.get());
+            }
+            return resultados;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package tech.ada.banco.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {"banco.conciliacao.espera-da-rechecagem-ms=10",
+        "banco.conciliacao.tamanho-da-particao=100"})
+class ConciliacaoControllerTest extends BaseContaTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionOperations transacao;
+
+    @Test
+    void testeOperacoesBatemComOsMovimentos() throws Exception {
+        Conta contaA = repository.save(new Conta(ModalidadeConta.CC, null));
+        Conta contaB = repository.save(new Conta(ModalidadeConta.CC, null));
+        operar("/deposito/" + contaA.getNumeroConta(), "10");
+        operar("/saque/" + contaA.getNumeroConta(), "2.50");
+        operar("/pix/" + contaA.getNumeroConta() + "?destino=" + contaB.getNumeroConta(), "3");
+
+        Map<Integer, JsonNode> divergencias = new HashMap<>();
+        JsonNode resultado = conciliar(divergencias);
+
+        assertFalse(divergencias.containsKey(contaA.getNumeroConta()));
+        assertFalse(divergencias.containsKey(contaB.getNumeroConta()));
+        assertTrue(resultado.get("contas").asLong() >= 2);
+        assertEquals(divergencias.size(), resultado.get("divergencias").asInt());
+    }
+
+    @Test
+    void testeSaldoAlteradoSemMovimentoDiverge() throws Exception {
+        Conta conta = repository.save(new Conta(ModalidadeConta.CC, null));
+        operar("/deposito/" + conta.getNumeroConta(), "10");
+        jdbc.update("update CONTA set SALDO = SALDO + 1 where NUMERO_CONTA = ?", conta.getNumeroConta());
+
+        Map<Integer, JsonNode> divergencias = new HashMap<>();
+        conciliar(divergencias);
+
+        JsonNode divergencia = divergencias.get(conta.getNumeroConta());
+        assertEquals(0, new BigDecimal("11.00").compareTo(divergencia.get("saldo").decimalValue()));
+        assertEquals(0, new BigDecimal("10.00").compareTo(divergencia.get("esperado").decimalValue()));
+        assertEquals(0, new BigDecimal("1.00").compareTo(divergencia.get("diferenca").decimalValue()));
+    }
+
+    @Test
+    void testeConciliacaoSeguinteParteDaBase() throws Exception {
+        Conta conta = repository.save(new Conta(ModalidadeConta.CP, null));
+        operar("/deposito/" + conta.getNumeroConta(), "100");
+        conciliar(new HashMap<>());
+        assertEquals(0, new BigDecimal("100.00").compareTo(jdbc.queryForObject(
+                "select SALDO from SALDO_CONCILIADO where NUMERO_CONTA = ?", BigDecimal.class,
+                conta.getNumeroConta())));
+
+        operar("/saque/" + conta.getNumeroConta(), "40");
+        jdbc.update("delete from RENDIMENTO");
+        mvc.perform(post("/rendimento")).andExpect(status().isOk());
+        Map<Integer, JsonNode> divergencias = new HashMap<>();
+        conciliar(divergencias);
+
+        assertFalse(divergencias.containsKey(conta.getNumeroConta()));
+        assertEquals(0, new BigDecimal("60.01").compareTo(jdbc.queryForObject(
+                "select SALDO from SALDO_CONCILIADO where NUMERO_CONTA = ?", BigDecimal.class,
+                conta.getNumeroConta())));
+    }
+
+    @Test
+    void testeMovimentoGravadoDepoisDaConciliacaoComDataAntigaEntraNaSeguinte() throws Exception {
+        Conta conta = repository.save(new Conta(ModalidadeConta.CC, null));
+        operar("/deposito/" + conta.getNumeroConta(), "10");
+        conciliar(new HashMap<>());
+
+        // um depósito cujo commit chegou depois da conciliação, com a DATA_HORA de antes dela
+        transacao.executeWithoutResult(status -> {
+            jdbc.update("update CONTA set SALDO = SALDO + 5 where NUMERO_CONTA = ?", conta.getNumeroConta());
+            jdbc.update("insert into MOVIMENTO (ID, NUMERO_CONTA, DATA_HORA, TIPO, VALOR) "
+                    + "values (next value for MOVIMENTO_SQ, ?, ?, 'DEPOSITO', 5)", conta.getNumeroConta(),
+                    Timestamp.from(Instant.now().minus(1, ChronoUnit.HOURS)));
+        });
+        Map<Integer, JsonNode> divergencias = new HashMap<>();
+        conciliar(divergencias);
+        conciliar(divergencias);
+
+        assertFalse(divergencias.containsKey(conta.getNumeroConta()));
+        assertEquals(0, new BigDecimal("15.00").compareTo(jdbc.queryForObject(
+                "select SALDO from SALDO_CONCILIADO where NUMERO_CONTA = ?", BigDecimal.class,
+                conta.getNumeroConta())));
+    }
+
+    private void operar(String caminho, String valor) throws Exception {
+        mvc.perform(post(caminho).param("valor", valor)).andExpect(status().isOk());
+    }
+
+    /**
+     * Executa a conciliação, separa as divergências por conta e devolve a linha final com os totais.
+     */
+    private JsonNode conciliar(Map<Integer, JsonNode> divergencias) throws Exception {
+        String relatorio = mvc.perform(post("/conciliacao").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String[] linhas = relatorio.split("\n");
+        for (int i = 0; i < linhas.length - 1; i++) {
+            JsonNode divergencia = objectMapper.readTree(linhas[i]);
+            divergencias.put(divergencia.get("numeroConta").asInt(), divergencia);
+        }
+        return objectMapper.readTree(linhas[linhas.length - 1]);
+    }
+}
@@ -0,0 +1,91 @@
+package tech.ada.banco.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import tech.ada.banco.model.Conta;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ContaControllerTest extends BaseContaTest {
+
+    private final String baseUri = "/contas";
+
+    @Test
+    void testePaginacaoPorChave() throws Exception {
+        Conta primeira = criarConta(BigDecimal.ONE);
+        Conta segunda = criarConta(BigDecimal.TEN);
+        Conta terceira = criarConta(BigDecimal.ZERO);
+        int apos = primeira.getNumeroConta() - 1;
+
+        mvc.perform(get(baseUri).param("apos", String.valueOf(apos)).param("limite", "2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].numeroConta").value(primeira.getNumeroConta()))
+                .andExpect(jsonPath("$[1].numeroConta").value(segunda.getNumeroConta()))
+                .andExpect(header().string(HttpHeaders.LINK,
+                        "<http://localhost/contas?apos=" + segunda.getNumeroConta() + "&limite=2>; rel=\"next\""));
+
+        mvc.perform(get(baseUri).param("apos", String.valueOf(segunda.getNumeroConta())).param("limite", "2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].numeroConta").value(terceira.getNumeroConta()));
+    }
+
+    @Test
+    void testeUltimaPaginaSemLink() throws Exception {
+        criarConta(BigDecimal.ONE);
+
+        mvc.perform(get(baseUri).param("apos", String.valueOf(Integer.MAX_VALUE - 1)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    void testeStreamNdjson() throws Exception {
+        Conta conta = criarConta(BigDecimal.valueOf(7));
+
+        MvcResult resultado = mvc.perform(get(baseUri).accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String response = mvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] linhas = response.split("\n");
+        assertTrue(linhas.length >= 1);
+        assertTrue(response.contains("\"numeroConta\":" + conta.getNumeroConta() + ","));
+        assertTrue(linhas[linhas.length - 1].startsWith("{") && linhas[linhas.length - 1].endsWith("}"));
+    }
+
+    @Test
+    void testeSemPaginacaoDevolveAListaInteira() throws Exception {
+        Conta primeira = criarConta(BigDecimal.ONE);
+        Conta segunda = criarConta(BigDecimal.TEN);
+
+        MvcResult resultado = mvc.perform(get(baseUri))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LINK))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[?(@.numeroConta == %d)]", primeira.getNumeroConta()).exists())
+                .andExpect(jsonPath("$[?(@.numeroConta == %d)].saldo", segunda.getNumeroConta()).value(10.0));
+    }
+}
@@ -0,0 +1,158 @@
+package tech.ada.banco.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import tech.ada.banco.model.Conta;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {"banco.saldo.motor=shards",
+        "banco.shards.quantidade=" + ExecucaoPorShardControllerTest.SHARDS,
+        "banco.shards.tamanho-maximo-do-lote=2", "banco.shards.contas-em-memoria=4"})
+class ExecucaoPorShardControllerTest extends BaseContaTest {
+
+    static final int SHARDS = 4;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void testeDepositoESaqueNoShardDaConta() throws Exception {
+        Conta conta = criarConta(BigDecimal.TEN);
+
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "0.50"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("10.50"));
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "11"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("8.50"));
+
+        assertEquals(new BigDecimal("8.50"), obtemContaDoBanco(conta).getSaldo());
+        String shard = String.valueOf(conta.getNumeroConta() % SHARDS);
+        assertTrue(registry.get("banco.shards.servico").tag("shard", shard).timer().count() >= 3);
+        assertEquals(0, registry.get("banco.shards.fila").tag("shard", shard).gauge().value());
+    }
+
+    @Test
+    void testePixNoMesmoShardEEntreShards() throws Exception {
+        Conta origem = criarConta(BigDecimal.TEN);
+        Conta mesmoShard = criarContaNoShard(origem.getNumeroConta() % SHARDS, BigDecimal.ZERO);
+        Conta outroShard = criarContaNoShard((origem.getNumeroConta() + 1) % SHARDS, BigDecimal.ZERO);
+
+        mvc.perform(post("/pix/" + origem.getNumeroConta())
+                        .param("destino", String.valueOf(mesmoShard.getNumeroConta()))
+                        .param("valor", "3"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("7.00"));
+        mvc.perform(post("/pix/" + origem.getNumeroConta())
+                        .param("destino", String.valueOf(outroShard.getNumeroConta()))
+                        .param("valor", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("5.00"));
+        mvc.perform(post("/pix/" + origem.getNumeroConta())
+                        .param("destino", String.valueOf(outroShard.getNumeroConta()))
+                        .param("valor", "6"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(new BigDecimal("5.00"), obtemContaDoBanco(origem).getSaldo());
+        assertEquals(new BigDecimal("3.00"), obtemContaDoBanco(mesmoShard).getSaldo());
+        assertEquals(new BigDecimal("2.00"), obtemContaDoBanco(outroShard).getSaldo());
+        assertEquals(new BigDecimal("-5.00"), somaDosMovimentos(origem));
+        assertEquals(new BigDecimal("3.00"), somaDosMovimentos(mesmoShard));
+        assertEquals(new BigDecimal("2.00"), somaDosMovimentos(outroShard));
+    }
+
+    @Test
+    void testePixRecusadoPeloDestinoDevolveOValor() throws Exception {
+        Conta origem = criarConta(BigDecimal.TEN);
+        int destinoInexistente = 999_000 + (origem.getNumeroConta() + 1) % SHARDS;
+        assertNotEquals(origem.getNumeroConta() % SHARDS, destinoInexistente % SHARDS);
+
+        mvc.perform(post("/pix/" + origem.getNumeroConta())
+                        .param("destino", String.valueOf(destinoInexistente))
+                        .param("valor", "4"))
+                .andExpect(status().isNotFound());
+
+        assertEquals(BigDecimal.TEN.setScale(2), obtemContaDoBanco(origem).getSaldo());
+        assertEquals(BigDecimal.ZERO.setScale(2), somaDosMovimentos(origem),
+                "O débito e a devolução ficam no extrato e se anulam");
+    }
+
+    @Test
+    void testePixConcorrenteEntreShardsNosDoisSentidos() throws Exception {
+        Conta contaA = criarConta(BigDecimal.valueOf(100));
+        Conta contaB = criarContaNoShard((contaA.getNumeroConta() + 1) % SHARDS, BigDecimal.valueOf(100));
+        int transferencias = 100;
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> respostas = new ArrayList<>();
+            for (int i = 0; i < transferencias; i++) {
+                Conta de = i % 2 == 0 ? contaA : contaB;
+                Conta para = i % 2 == 0 ? contaB : contaA;
+                respostas.add(executor.submit(() -> {
+                    largada.await();
+                    return mvc.perform(post("/pix/" + de.getNumeroConta())
+                                    .param("destino", String.valueOf(para.getNumeroConta()))
+                                    .param("valor", "1"))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            largada.countDown();
+            for (Future<Integer> resposta : respostas) {
+                assertEquals(200, resposta.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(new BigDecimal("100.00"), obtemContaDoBanco(contaA).getSaldo());
+        assertEquals(new BigDecimal("100.00"), obtemContaDoBanco(contaB).getSaldo());
+    }
+
+    @Test
+    void testeContasEmMemoriaLimitadasERelidasDoBanco() throws Exception {
+        Conta primeira = criarConta(BigDecimal.TEN);
+        int shard = primeira.getNumeroConta() % SHARDS;
+        List<Conta> contas = new ArrayList<>(List.of(primeira));
+        for (int i = 0; i < 5; i++) {
+            contas.add(criarContaNoShard(shard, BigDecimal.TEN));
+        }
+        for (Conta conta : contas) {
+            mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "1"))
+                    .andExpect(status().isOk());
+        }
+
+        assertTrue(registry.get("banco.shards.contas").tag("shard", String.valueOf(shard)).gauge().value() <= 4);
+        mvc.perform(post("/saque/" + primeira.getNumeroConta()).param("valor", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("9.00"));
+        assertEquals(new BigDecimal("9.00"), obtemContaDoBanco(primeira).getSaldo());
+    }
+
+    private Conta criarContaNoShard(int shard, BigDecimal saldo) {
+        Conta conta = criarConta(saldo);
+        while (conta.getNumeroConta() % SHARDS != shard) {
+            conta = criarConta(saldo);
+        }
+        return conta;
+    }
+}
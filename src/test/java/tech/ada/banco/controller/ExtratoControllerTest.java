@@ -0,0 +1,115 @@
+package tech.ada.banco.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MvcResult;
+import tech.ada.banco.model.Conta;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ExtratoControllerTest extends BaseContaTest {
+
+    private Conta conta;
+    private Conta outra;
+
+    private String extrato(Conta conta) {
+        return "/contas/" + conta.getNumeroConta() + "/extrato";
+    }
+
+    private void movimentar() throws Exception {
+        conta = criarConta(BigDecimal.ZERO);
+        outra = criarConta(BigDecimal.ZERO);
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "100"))
+                .andExpect(status().isOk());
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "30"))
+                .andExpect(status().isOk());
+        mvc.perform(post("/pix/" + conta.getNumeroConta())
+                        .param("destino", String.valueOf(outra.getNumeroConta()))
+                        .param("valor", "20.5"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testeExtratoPaginadoPorChave() throws Exception {
+        movimentar();
+
+        String proxima = mvc.perform(get(extrato(conta)).param("limite", "2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].tipo").value("DEPOSITO"))
+                .andExpect(jsonPath("$[0].valor").value(100.0))
+                .andExpect(jsonPath("$[1].tipo").value("SAQUE"))
+                .andExpect(jsonPath("$[1].valor").value(-30.0))
+                .andExpect(header().exists(HttpHeaders.LINK))
+                .andReturn().getResponse().getHeader(HttpHeaders.LINK);
+        String apos = proxima.replaceAll(".*apos=(\\d+).*", "$1");
+
+        mvc.perform(get(extrato(conta)).param("apos", apos).param("limite", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].tipo").value("PIX"))
+                .andExpect(jsonPath("$[0].valor").value(-20.5))
+                .andExpect(jsonPath("$[0].contraparte").value(outra.getNumeroConta()))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+
+        mvc.perform(get(extrato(outra)))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].valor").value(20.5))
+                .andExpect(jsonPath("$[0].contraparte").value(conta.getNumeroConta()));
+    }
+
+    @Test
+    void testeExtratoPorPeriodo() throws Exception {
+        Instant antes = Instant.now().minusSeconds(1);
+        movimentar();
+        Instant depois = Instant.now().plusSeconds(1);
+
+        mvc.perform(get(extrato(conta)).param("de", antes.toString()).param("ate", depois.toString()))
+                .andExpect(jsonPath("$.length()").value(3));
+        mvc.perform(get(extrato(conta)).param("de", depois.toString()))
+                .andExpect(jsonPath("$.length()").value(0));
+        mvc.perform(get(extrato(conta)).param("ate", antes.toString()))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void testeExportacaoCsv() throws Exception {
+        movimentar();
+
+        MvcResult resultado = mvc.perform(get(extrato(conta)).accept("text/csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String csv = mvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"extrato-" + conta.getNumeroConta() + ".csv\""))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] linhas = csv.split("\n");
+        assertEquals(4, linhas.length);
+        assertEquals("id,dataHora,tipo,valor,contraparte", linhas[0]);
+        assertTrue(linhas[1].endsWith(",DEPOSITO,100.00,"));
+        assertTrue(linhas[2].endsWith(",SAQUE,-30.00,"));
+        assertTrue(linhas[3].endsWith(",PIX,-20.50," + outra.getNumeroConta()));
+    }
+
+    @Test
+    void testeExtratoDeContaInexistente() throws Exception {
+        mvc.perform(get("/contas/1/extrato"))
+                .andExpect(status().isNotFound());
+    }
+}
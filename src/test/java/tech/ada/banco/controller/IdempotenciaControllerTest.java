@@ -0,0 +1,165 @@
+package tech.ada.banco.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import tech.ada.banco.exceptions.ServicoIndisponivelException;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.repository.RespostaIdempotenteRepository;
+import tech.ada.banco.services.Idempotencia;
+import tech.ada.banco.services.OuvinteDeOperacoes;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class IdempotenciaControllerTest extends BaseContaTest {
+
+    /** Falha em toda operação, depois do commit, como um journal ou trilha de auditoria com o disco cheio. */
+    @TestConfiguration
+    static class OuvinteComFalha {
+
+        @Bean
+        OuvinteDeOperacoes ouvinteComFalha() {
+            return (tipo, contaOrigem, contaDestino, centavos) -> {
+                throw new IllegalStateException("Falha do ouvinte");
+            };
+        }
+    }
+
+    @Autowired
+    private RespostaIdempotenteRepository respostas;
+
+    @Autowired
+    private Idempotencia idempotencia;
+
+    private final String chave = UUID.randomUUID().toString();
+
+    @Test
+    void testeDepositoRepetidoDevolveOSaldoGuardado() throws Exception {
+        Conta conta = criarConta(BigDecimal.ZERO);
+
+        for (int i = 0; i < 3; i++) {
+            mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "10")
+                            .header(Idempotencia.CABECALHO, chave))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("10.00"));
+        }
+
+        assertEquals(BigDecimal.TEN.setScale(2), obtemContaDoBanco(conta).getSaldo());
+    }
+
+    @Test
+    void testePixRepetidoNaoConsultaAsContas() throws Exception {
+        Conta origem = criarConta(BigDecimal.TEN);
+        Conta destino = criarConta(BigDecimal.ZERO);
+        mvc.perform(post("/pix/" + origem.getNumeroConta()).param("destino", "" + destino.getNumeroConta())
+                        .param("valor", "4").header(Idempotencia.CABECALHO, chave))
+                .andExpect(status().isOk())
+                .andExpect(content().string("6.00"));
+
+        repository.deleteById(origem.getNumeroConta());
+
+        mvc.perform(post("/pix/" + origem.getNumeroConta()).param("destino", "" + destino.getNumeroConta())
+                        .param("valor", "4.00").header(Idempotencia.CABECALHO, chave))
+                .andExpect(status().isOk())
+                .andExpect(content().string("6.00"));
+        assertEquals(BigDecimal.valueOf(4).setScale(2), obtemContaDoBanco(destino).getSaldo());
+    }
+
+    @Test
+    void testeChaveUsadaComOutrosParametrosRecusada() throws Exception {
+        Conta conta = criarConta(BigDecimal.TEN);
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "1")
+                        .header(Idempotencia.CABECALHO, chave))
+                .andExpect(status().isOk());
+
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "2")
+                        .header(Idempotencia.CABECALHO, chave))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertEquals(BigDecimal.valueOf(9).setScale(2), obtemContaDoBanco(conta).getSaldo());
+    }
+
+    @Test
+    void testeOperacaoQueFalhouLiberaAChave() throws Exception {
+        Conta conta = criarConta(BigDecimal.ONE);
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "5")
+                        .header(Idempotencia.CABECALHO, chave))
+                .andExpect(status().isBadRequest());
+        assertFalse(respostas.existsById(chave));
+
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "10"))
+                .andExpect(status().isOk());
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "5")
+                        .header(Idempotencia.CABECALHO, chave))
+                .andExpect(status().isOk())
+                .andExpect(content().string("6.00"));
+    }
+
+    @Test
+    void testeChaveReservadaPorRequisicaoEmAndamento() throws Exception {
+        Conta conta = criarConta(BigDecimal.ONE);
+        respostas.reservar(chave, Idempotencia.requisicao("deposito", conta.getNumeroConta(), BigDecimal.ONE),
+                Instant.now());
+
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "1")
+                        .header(Idempotencia.CABECALHO, chave))
+                .andExpect(status().isConflict());
+
+        assertEquals(BigDecimal.ONE.setScale(2), obtemContaDoBanco(conta).getSaldo());
+    }
+
+    @Test
+    void testeRespostaLidaDaTabelaSemOCache() throws Exception {
+        Conta conta = criarConta(BigDecimal.ZERO);
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "3")
+                        .header(Idempotencia.CABECALHO, chave))
+                .andExpect(status().isOk());
+
+        Idempotencia semCache = new Idempotencia(respostas, 60_000, 10, 0);
+        BigDecimal saldo = semCache.executar(chave,
+                Idempotencia.requisicao("deposito", conta.getNumeroConta(), BigDecimal.valueOf(3)),
+                () -> fail("A operação não deveria ser executada de novo"));
+
+        assertEquals(BigDecimal.valueOf(3).setScale(2), saldo);
+    }
+
+    @Test
+    void testeFalhaDoOuvinteDepoisDoCommitNaoRepeteODeposito() throws Exception {
+        Conta conta = criarConta(BigDecimal.ZERO);
+
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "7")
+                            .header(Idempotencia.CABECALHO, chave))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("7.00"));
+        }
+
+        assertEquals(BigDecimal.valueOf(7).setScale(2), obtemContaDoBanco(conta).getSaldo());
+        assertTrue(respostas.findById(chave).orElseThrow().isConcluida());
+    }
+
+    @Test
+    void testeFalhaDepoisDeGravarMantemAChaveReservada() throws Exception {
+        Conta conta = criarConta(BigDecimal.ZERO);
+        String requisicao = Idempotencia.requisicao("deposito", conta.getNumeroConta(), BigDecimal.ONE);
+
+        assertThrows(ServicoIndisponivelException.class, () -> idempotencia.executar(chave, requisicao, () -> {
+            repository.creditarSaldo(conta.getNumeroConta(), 100);
+            throw new IllegalStateException("Falha depois do commit");
+        }));
+
+        assertTrue(respostas.existsById(chave));
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "1")
+                        .header(Idempotencia.CABECALHO, chave))
+                .andExpect(status().isConflict());
+        assertEquals(BigDecimal.ONE.setScale(2), obtemContaDoBanco(conta).getSaldo());
+    }
+}
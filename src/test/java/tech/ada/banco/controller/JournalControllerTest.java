@@ -0,0 +1,51 @@
+package tech.ada.banco.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import tech.ada.banco.journal.Journal;
+import tech.ada.banco.journal.RegistroDoJournal;
+import tech.ada.banco.journal.TipoRegistro;
+import tech.ada.banco.model.Conta;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {"banco.journal.habilitado=true", "banco.journal.diretorio=target/journal-teste"})
+class JournalControllerTest extends BaseContaTest {
+
+    @Autowired
+    private Journal journal;
+
+    @Test
+    void testeOperacoesConcluidasVaoParaOJournal() throws Exception {
+        Conta contaA = criarConta(BigDecimal.TEN);
+        Conta contaB = criarConta(BigDecimal.ZERO);
+        long inicio = journal.getUltimaSequencia() + 1;
+
+        mvc.perform(post("/deposito/" + contaA.getNumeroConta()).param("valor", "5"))
+                .andExpect(status().isOk());
+        mvc.perform(post("/saque/" + contaB.getNumeroConta()).param("valor", "1"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/pix/" + contaA.getNumeroConta())
+                        .param("destino", String.valueOf(contaB.getNumeroConta()))
+                        .param("valor", "7.5"))
+                .andExpect(status().isOk());
+
+        List<RegistroDoJournal> registros = new ArrayList<>();
+        journal.ler(inicio, registros::add);
+
+        assertEquals(2, registros.size(), "O saque recusado não deve ser registrado");
+        assertEquals(TipoRegistro.DEPOSITO, registros.get(0).tipo());
+        assertEquals(500, registros.get(0).centavos());
+        assertEquals(TipoRegistro.PIX, registros.get(1).tipo());
+        assertEquals(contaA.getNumeroConta(), registros.get(1).contaOrigem());
+        assertEquals(contaB.getNumeroConta(), registros.get(1).contaDestino());
+        assertEquals(750, registros.get(1).centavos());
+    }
+}
@@ -0,0 +1,47 @@
+package tech.ada.banco.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import tech.ada.banco.ledger.LedgerEmMemoria;
+import tech.ada.banco.model.Conta;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {"banco.saldo.motor=ledger", "banco.ledger.janela-de-durabilidade-ms=3600000"})
+class LedgerControllerTest extends BaseContaTest {
+
+    @Autowired
+    private LedgerEmMemoria ledger;
+
+    @Test
+    void testeOperacoesEmMemoriaGravadasNaJanela() throws Exception {
+        Conta contaA = criarConta(BigDecimal.TEN);
+        Conta contaB = criarConta(BigDecimal.ZERO);
+
+        mvc.perform(post("/deposito/" + contaA.getNumeroConta()).param("valor", "5"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("15.00"));
+        mvc.perform(post("/pix/" + contaA.getNumeroConta())
+                        .param("destino", String.valueOf(contaB.getNumeroConta()))
+                        .param("valor", "7.5"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("7.50"));
+        mvc.perform(post("/saque/" + contaB.getNumeroConta()).param("valor", "8"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        assertEquals(BigDecimal.TEN.setScale(2), obtemContaDoBanco(contaA).getSaldo());
+
+        ledger.gravarPendentes();
+
+        assertEquals(BigDecimal.valueOf(7.5).setScale(2), obtemContaDoBanco(contaA).getSaldo());
+        assertEquals(BigDecimal.valueOf(7.5).setScale(2), obtemContaDoBanco(contaB).getSaldo());
+    }
+}
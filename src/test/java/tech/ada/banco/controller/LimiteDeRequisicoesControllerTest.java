@@ -0,0 +1,145 @@
+package tech.ada.banco.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.repository.ContaRepository;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {"banco.limite.habilitado=true",
+        "banco.limite.conta.por-segundo=0.01", "banco.limite.conta.rajada=2",
+        "banco.limite.cliente.por-segundo=0.01", "banco.limite.cliente.rajada=5"})
+class LimiteDeRequisicoesControllerTest extends BaseContaTest {
+
+    @SpyBean
+    private ContaRepository contas;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void testeLimitePorContaRecusaAntesDoBanco() throws Exception {
+        Conta conta = criarConta(BigDecimal.TEN);
+        Conta outra = criarConta(BigDecimal.TEN);
+        double recusadasAntes = recusadas("conta");
+
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "1")
+                        .with(de("10.0.0.1")))
+                .andExpect(status().isOk());
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "1")
+                        .with(de("10.0.0.2")))
+                .andExpect(status().isOk());
+        Mockito.clearInvocations(contas);
+        mvc.perform(post("/pix/" + conta.getNumeroConta())
+                        .param("destino", String.valueOf(outra.getNumeroConta()))
+                        .param("valor", "1")
+                        .with(de("10.0.0.3")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        Mockito.verifyNoInteractions(contas);
+
+        mvc.perform(post("/deposito/" + outra.getNumeroConta()).param("valor", "1")
+                        .with(de("10.0.0.3")))
+                .andExpect(status().isOk());
+        assertEquals(BigDecimal.TEN.setScale(2), obtemContaDoBanco(conta).getSaldo());
+        assertEquals(1, recusadas("conta") - recusadasAntes);
+    }
+
+    @Test
+    void testeLimitePorCliente() throws Exception {
+        double recusadasAntes = recusadas("cliente");
+
+        for (int i = 0; i < 5; i++) {
+            Conta conta = criarConta(BigDecimal.ONE);
+            mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "1")
+                            .with(de("10.0.1.1")))
+                    .andExpect(status().isOk());
+        }
+        Conta conta = criarConta(BigDecimal.ONE);
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "1")
+                        .with(de("10.0.1.1")))
+                .andExpect(status().isTooManyRequests());
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "1")
+                        .with(de("10.0.1.2")))
+                .andExpect(status().isOk());
+
+        assertEquals(BigDecimal.valueOf(2).setScale(2), obtemContaDoBanco(conta).getSaldo());
+        assertEquals(1, recusadas("cliente") - recusadasAntes);
+    }
+
+    @Test
+    void testeRecusaPelaContaNaoGastaAFichaDoCliente() throws Exception {
+        Conta conta = criarConta(BigDecimal.TEN);
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "1")
+                            .with(de("10.0.2.1")))
+                    .andExpect(status().isOk());
+        }
+        for (int i = 0; i < 5; i++) {
+            mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "1")
+                            .with(de("10.0.2.1")))
+                    .andExpect(status().isTooManyRequests());
+        }
+
+        // das cinco fichas do cliente, só as duas das requisições aceitas foram gastas
+        for (int i = 0; i < 3; i++) {
+            Conta outra = criarConta(BigDecimal.ONE);
+            mvc.perform(post("/deposito/" + outra.getNumeroConta()).param("valor", "1")
+                            .with(de("10.0.2.1")))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void testeCabecalhoDoClienteNaoEscapaDoLimite() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Conta conta = criarConta(BigDecimal.ONE);
+            mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "1")
+                            .header("X-Client-Id", "cliente-" + i).with(de("10.0.3.1")))
+                    .andExpect(status().isOk());
+        }
+        Conta conta = criarConta(BigDecimal.ONE);
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "1")
+                        .header("X-Client-Id", "cliente-novo").with(de("10.0.3.1")))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void testeUsuarioAutenticadoTemOProprioLimite() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Conta conta = criarConta(BigDecimal.ONE);
+            mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "1")
+                            .principal(() -> "usuario-a").with(de("10.0.4.1")))
+                    .andExpect(status().isOk());
+        }
+        Conta conta = criarConta(BigDecimal.ONE);
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "1")
+                        .principal(() -> "usuario-a").with(de("10.0.4.2")))
+                .andExpect(status().isTooManyRequests());
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "1")
+                        .principal(() -> "usuario-b").with(de("10.0.4.1")))
+                .andExpect(status().isOk());
+    }
+
+    private static RequestPostProcessor de(String endereco) {
+        return requisicao -> {
+            requisicao.setRemoteAddr(endereco);
+            return requisicao;
+        };
+    }
+
+    private double recusadas(String limite) {
+        return registry.get("banco.limite.recusadas").tag("limite", limite).counter().count();
+    }
+}
@@ -0,0 +1,66 @@
+package tech.ada.banco.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import tech.ada.banco.model.Conta;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureObservability
+class MetricasControllerTest extends BaseContaTest {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private Timer timer(String nome, String operacao, String resultado) {
+        return registry.get(nome).tag("operacao", operacao).tag("resultado", resultado).timer();
+    }
+
+    @Test
+    void testeOperacoesContadasPorResultadoComOTempoNoBanco() throws Exception {
+        Conta conta = criarConta(BigDecimal.TEN);
+        long sucessos = timer("banco.operacao", "saque", "sucesso").count();
+        long recusados = timer("banco.operacao", "saque", "saldo_insuficiente").count();
+
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "1"))
+                .andExpect(status().isOk());
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "100"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(sucessos + 1, timer("banco.operacao", "saque", "sucesso").count());
+        assertEquals(recusados + 1, timer("banco.operacao", "saque", "saldo_insuficiente").count());
+        Timer noBanco = timer("banco.operacao.banco", "saque", "sucesso");
+        assertTrue(noBanco.totalTime(TimeUnit.NANOSECONDS) > 0);
+        assertTrue(noBanco.totalTime(TimeUnit.NANOSECONDS)
+                <= timer("banco.operacao", "saque", "sucesso").totalTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    void testeMetricasExpostasNoFormatoDoPrometheus() throws Exception {
+        Conta conta = criarConta(BigDecimal.ONE);
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "1"))
+                .andExpect(status().isOk());
+        mvc.perform(get("/contas/0"))
+                .andExpect(status().isNotFound());
+
+        mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "banco_operacao_seconds_count{operacao=\"deposito\",resultado=\"sucesso\",}")))
+                .andExpect(content().string(containsString(
+                        "banco_operacao_seconds_count{operacao=\"conta.consulta\",resultado=\"conta_inexistente\",}")))
+                .andExpect(content().string(containsString("banco_operacao_banco_seconds_bucket")));
+    }
+}
@@ -0,0 +1,165 @@
+package tech.ada.banco.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import tech.ada.banco.model.Pessoa;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PessoaControllerTest extends BaseContaTest {
+
+    private final String baseUri = "/pessoas";
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private Pessoa criarPessoa(String nome) {
+        return repositoryP.save(new Pessoa(nome, novoCpf(), LocalDate.of(1980, 1, 1)));
+    }
+
+    private double consultasAoCache(String resultado) {
+        return registry.get("cache.gets").tag("cache", "pessoas-por-cpf").tag("result", resultado).counter().count();
+    }
+
+    private String semPontuacao(String cpf) {
+        return cpf.replaceAll("\\D", "");
+    }
+
+    @Test
+    void testeBuscaPorCpfComESemPontuacaoUsaOCache() throws Exception {
+        Pessoa pessoa = criarPessoa("Dani");
+        double acertos = consultasAoCache("hit");
+        double faltas = consultasAoCache("miss");
+
+        mvc.perform(get(baseUri).param("cpf", semPontuacao(pessoa.getCPF())))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(pessoa.getId()))
+                .andExpect(jsonPath("$.nome").value("Dani"));
+        mvc.perform(get(baseUri).param("cpf", pessoa.getCPF()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(pessoa.getId()));
+
+        assertEquals(faltas + 1, consultasAoCache("miss"));
+        assertEquals(acertos + 1, consultasAoCache("hit"));
+    }
+
+    @Test
+    void testeCpfNaoCadastrado() throws Exception {
+        mvc.perform(get(baseUri).param("cpf", novoCpf()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testeCpfDuplicadoRecebeConflito() throws Exception {
+        Pessoa pessoa = criarPessoa("Eva");
+
+        mvc.perform(post(baseUri)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"nome": "Outra Eva", "cpf": "%s", "dataNascimento": "1980-01-01"}
+                                """.formatted(semPontuacao(pessoa.getCPF()))))
+                .andDo(print())
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testeOutraViolacaoDeIntegridadeNaoViraCpfDuplicado() {
+        Exception e = assertThrows(Exception.class, () -> mvc.perform(post(baseUri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"nome": "%s", "cpf": "%s", "dataNascimento": "1980-01-01"}
+                        """.formatted("N".repeat(300), novoCpf()))));
+
+        assertInstanceOf(DataIntegrityViolationException.class, e.getCause());
+    }
+
+    @Test
+    void testeAlteracaoInvalidaOCache() throws Exception {
+        Pessoa pessoa = criarPessoa("Fabi");
+        String cpfNovo = novoCpf();
+        mvc.perform(get(baseUri).param("cpf", pessoa.getCPF()))
+                .andExpect(jsonPath("$.nome").value("Fabi"));
+
+        mvc.perform(put(baseUri)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"id": %d, "nome": "Fabiana", "cpf": "%s", "dataNascimento": "1980-01-01"}
+                                """.formatted(pessoa.getId(), cpfNovo)))
+                .andExpect(status().isOk());
+
+        mvc.perform(get(baseUri).param("cpf", pessoa.getCPF()))
+                .andExpect(status().isNotFound());
+        mvc.perform(get(baseUri).param("cpf", cpfNovo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nome").value("Fabiana"));
+    }
+
+    @Test
+    void testePaginacaoPorChave() throws Exception {
+        Pessoa primeira = criarPessoa("Ana");
+        Pessoa segunda = criarPessoa("Bia");
+
+        mvc.perform(get(baseUri).param("apos", String.valueOf(primeira.getId() - 1)).param("limite", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].nome").value("Ana"))
+                .andExpect(header().string(HttpHeaders.LINK,
+                        "<http://localhost/pessoas?apos=" + primeira.getId() + "&limite=1>; rel=\"next\""));
+
+        mvc.perform(get(baseUri).param("apos", String.valueOf(primeira.getId())).param("limite", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(segunda.getId()));
+    }
+
+    @Test
+    void testeStreamNdjson() throws Exception {
+        Pessoa pessoa = criarPessoa("Carla");
+
+        MvcResult resultado = mvc.perform(get(baseUri).accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String response = mvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertTrue(response.contains("\"id\":" + pessoa.getId() + ","));
+        assertTrue(response.endsWith("}\n"));
+    }
+
+    @Test
+    void testeSemPaginacaoDevolveAListaInteira() throws Exception {
+        Pessoa pessoa = repositoryP.save(new Pessoa("Lista", novoCpf(), LocalDate.of(1980, 1, 1)));
+
+        MvcResult resultado = mvc.perform(get(baseUri))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LINK))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[?(@.id == %d)].nome", pessoa.getId()).value("Lista"));
+    }
+}
@@ -0,0 +1,138 @@
+package tech.ada.banco.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "banco.pix.lote.tamanho-do-bloco=2")
+class PixLoteControllerTest extends BaseContaTest {
+
+    private final String baseUri = "/pix/lote";
+
+    @Test
+    void testeLoteComResultadoPorTransferencia() throws Exception {
+        Conta contaA = criarConta(BigDecimal.TEN);
+        Conta contaB = criarConta(BigDecimal.ONE);
+        int a = contaA.getNumeroConta();
+        int b = contaB.getNumeroConta();
+
+        String response =
+                mvc.perform(post(baseUri)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("""
+                                        [
+                                          {"origem": %d, "destino": %d, "valor": 3},
+                                          {"origem": %d, "destino": %d, "valor": 50},
+                                          {"origem": %d, "destino": 9996, "valor": 1},
+                                          {"origem": %d, "destino": %d, "valor": -1},
+                                          {"origem": %d, "destino": %d, "valor": 4}
+                                        ]""".formatted(a, b, a, b, a, a, b, b, a)))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals("[{\"indice\":0,\"sucesso\":true,\"saldoOrigem\":7.00},"
+                + "{\"indice\":1,\"sucesso\":false,\"erro\":\"Limite acima do saldo disponível!\"},"
+                + "{\"indice\":2,\"sucesso\":false,\"erro\":\"Recurso não encontrado.\"},"
+                + "{\"indice\":3,\"sucesso\":false,\"erro\":\"Valor informado está inválido.\"},"
+                + "{\"indice\":4,\"sucesso\":true,\"saldoOrigem\":0.00}]", response);
+        assertEquals(BigDecimal.valueOf(11).setScale(2), obtemContaDoBanco(contaA).getSaldo());
+        assertEquals(BigDecimal.ZERO.setScale(2), obtemContaDoBanco(contaB).getSaldo());
+    }
+
+    @Test
+    void testeLoteNdjson() throws Exception {
+        Conta contaA = criarConta(BigDecimal.TEN);
+        Conta contaB = criarConta(BigDecimal.ZERO);
+        int a = contaA.getNumeroConta();
+        int b = contaB.getNumeroConta();
+
+        String response =
+                mvc.perform(post(baseUri)
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content("""
+                                        {"origem": %d, "destino": %d, "valor": 1}
+                                        {"origem": %d, "destino": %d, "valor": 2}
+                                        {"origem": %d, "destino": %d, "valor": 20}
+                                        """.formatted(a, b, a, b, a, b)))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals("""
+                {"indice":0,"sucesso":true,"saldoOrigem":9.00}
+                {"indice":1,"sucesso":true,"saldoOrigem":7.00}
+                {"indice":2,"sucesso":false,"erro":"Limite acima do saldo disponível!"}
+                """, response);
+        assertEquals(BigDecimal.valueOf(7).setScale(2), obtemContaDoBanco(contaA).getSaldo());
+        assertEquals(BigDecimal.valueOf(3).setScale(2), obtemContaDoBanco(contaB).getSaldo());
+    }
+
+    @Test
+    void testeDepositoRecusadoDevolveOSaqueDaOrigem() throws Exception {
+        Conta contaA = criarConta(BigDecimal.TEN);
+        Conta cheia = repository.save(new Conta(ModalidadeConta.CC, null));
+        cheia.deposito(Long.MAX_VALUE);
+        cheia = repository.save(cheia);
+        int a = contaA.getNumeroConta();
+        int c = cheia.getNumeroConta();
+
+        String response =
+                mvc.perform(post(baseUri)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("""
+                                        [
+                                          {"origem": %d, "destino": %d, "valor": 3},
+                                          {"origem": %d, "destino": %d, "valor": 1}
+                                        ]""".formatted(a, c, c, a)))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals("[{\"indice\":0,\"sucesso\":false,\"erro\":\"Valor informado está inválido.\"},"
+                + "{\"indice\":1,\"sucesso\":true,\"saldoOrigem\":92233720368547757.07}]", response);
+        assertEquals(BigDecimal.valueOf(11).setScale(2), obtemContaDoBanco(contaA).getSaldo());
+        assertEquals(Long.MAX_VALUE - 100, obtemContaDoBanco(cheia).getSaldoEmCentavos());
+    }
+
+    @Test
+    void testeLinhaIlegivelERecusadaEAEntradaQuebradaParaOLote() throws Exception {
+        Conta contaA = criarConta(BigDecimal.TEN);
+        Conta contaB = criarConta(BigDecimal.ZERO);
+        int a = contaA.getNumeroConta();
+        int b = contaB.getNumeroConta();
+
+        String response =
+                mvc.perform(post(baseUri)
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content("""
+                                        {"origem": %d, "destino": %d, "valor": 1}
+                                        {"origem": "a", "destino": %d, "valor": 1}
+                                        {"origem": %d, "destino": %d, "valor": 2}
+                                        {"origem": %d, "destino"
+                                        {"origem": %d, "destino": %d, "valor": 4}
+                                        """.formatted(a, b, b, a, b, a, a, b)))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals("""
+                {"indice":0,"sucesso":true,"saldoOrigem":9.00}
+                {"indice":1,"sucesso":false,"erro":"Transferência ilegível."}
+                {"indice":2,"sucesso":true,"saldoOrigem":7.00}
+                {"indice":3,"sucesso":false,"erro":"Entrada ilegível; a leitura parou nesta linha.","interrompidoNaLinha":4}
+                """, response);
+        assertEquals(BigDecimal.valueOf(7).setScale(2), obtemContaDoBanco(contaA).getSaldo());
+        assertEquals(BigDecimal.valueOf(3).setScale(2), obtemContaDoBanco(contaB).getSaldo());
+    }
+}
@@ -0,0 +1,86 @@
+package tech.ada.banco.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.model.Pessoa;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Só os comandos do saldo: o extrato acrescentaria um INSERT por movimento (e, a cada 500, a sequência).
+@TestPropertySource(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "banco.idempotencia.intervalo-de-limpeza-ms=0", "banco.extrato.habilitado=false"})
+class QuantidadeDeComandosTest extends BaseContaTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estatisticas;
+    private Conta conta;
+    private Conta outra;
+
+    @BeforeEach
+    void criarContas() {
+        Conta comTitular = new Conta(ModalidadeConta.CC, new Pessoa("Dora", novoCpf(), LocalDate.of(1970, 1, 1)));
+        comTitular.deposito(BigDecimal.TEN);
+        conta = repository.save(comTitular);
+        outra = criarConta(BigDecimal.ONE);
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+    }
+
+    @Test
+    void testeConsultaDeUmaContaComOTitularNumSoComando() throws Exception {
+        mvc.perform(get("/contas/" + conta.getNumeroConta()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saldo").value(10.0))
+                .andExpect(jsonPath("$.titular.nome").value("Dora"));
+
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+        assertEquals(1, estatisticas.getEntityLoadCount(), "Só o titular é carregado como entidade");
+    }
+
+    @Test
+    void testePaginaDeContasNumSoComando() throws Exception {
+        mvc.perform(get("/contas").param("apos", String.valueOf(conta.getNumeroConta() - 1)).param("limite", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].titular.nome").value("Dora"));
+
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void testeDepositoESaqueSemCarregarEntidades() throws Exception {
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "5"))
+                .andExpect(status().isOk());
+        assertEquals(2, estatisticas.getPrepareStatementCount(), "Uma leitura do saldo e um update");
+
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "3"))
+                .andExpect(status().isOk());
+        assertEquals(4, estatisticas.getPrepareStatementCount());
+        assertEquals(0, estatisticas.getEntityLoadCount());
+    }
+
+    @Test
+    void testePixSemCarregarOTitular() throws Exception {
+        mvc.perform(post("/pix/" + conta.getNumeroConta()).param("destino", String.valueOf(outra.getNumeroConta()))
+                        .param("valor", "2"))
+                .andExpect(status().isOk());
+
+        assertEquals(3, estatisticas.getPrepareStatementCount(), "Duas contas bloqueadas e os updates num batch");
+        assertEquals(2, estatisticas.getEntityLoadCount());
+    }
+}
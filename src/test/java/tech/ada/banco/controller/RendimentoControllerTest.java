@@ -0,0 +1,136 @@
+package tech.ada.banco.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.repository.CheckpointDoRendimentoRepository;
+import tech.ada.banco.repository.SubSaldoRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {"banco.rendimento.taxa-ao-dia=0.01", "banco.rendimento.tamanho-do-bloco=2"})
+class RendimentoControllerTest extends BaseContaTest {
+
+    @Autowired
+    private CheckpointDoRendimentoRepository checkpoints;
+    @Autowired
+    private SubSaldoRepository subSaldos;
+
+    @BeforeEach
+    void limparCheckpoints() {
+        checkpoints.deleteAll();
+    }
+
+    @Test
+    void testeCreditaSoAsContasPoupanca() throws Exception {
+        Conta poupanca = criarPoupanca(new BigDecimal("100.00"));
+        Conta poupancaCentavos = criarPoupanca(new BigDecimal("0.99"));
+        Conta poupancaZerada = criarPoupanca(BigDecimal.ZERO);
+        Conta corrente = criarConta(new BigDecimal("100.00"));
+
+        mvc.perform(post("/rendimento").param("data", "2001-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contas").value(greaterThanOrEqualTo(3)))
+                .andExpect(jsonPath("$.retomadoApos").doesNotExist());
+
+        assertEquals(new BigDecimal("101.00"), obtemContaDoBanco(poupanca).getSaldo());
+        assertEquals(new BigDecimal("0.99"), obtemContaDoBanco(poupancaCentavos).getSaldo());
+        assertEquals(new BigDecimal("0.00"), obtemContaDoBanco(poupancaZerada).getSaldo());
+        assertEquals(new BigDecimal("100.00"), obtemContaDoBanco(corrente).getSaldo());
+        assertEquals(poupanca.getVersao() + 1, obtemContaDoBanco(poupanca).getVersao());
+        assertTrue(checkpoints.findById(LocalDate.of(2001, 1, 1)).orElseThrow().isConcluido());
+    }
+
+    @Test
+    void testeRetomaDepoisDoCheckpoint() throws Exception {
+        Conta jaCreditada = criarPoupanca(new BigDecimal("100.00"));
+        Conta pendente = criarPoupanca(new BigDecimal("100.00"));
+        LocalDate data = LocalDate.of(2002, 1, 1);
+        checkpoints.iniciar(data);
+        checkpoints.avancar(data, 0, jaCreditada.getNumeroConta(), 1, new BigDecimal("1.00"));
+
+        mvc.perform(post("/rendimento").param("data", data.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.retomadoApos").value(jaCreditada.getNumeroConta()));
+
+        assertEquals(new BigDecimal("100.00"), obtemContaDoBanco(jaCreditada).getSaldo());
+        assertEquals(new BigDecimal("101.00"), obtemContaDoBanco(pendente).getSaldo());
+    }
+
+    @Test
+    void testeDataConcluidaNaoCreditaDeNovo() throws Exception {
+        Conta poupanca = criarPoupanca(new BigDecimal("100.00"));
+
+        mvc.perform(post("/rendimento").param("data", "2003-01-01"))
+                .andExpect(status().isOk());
+        mvc.perform(post("/rendimento").param("data", "2003-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contas").value(0));
+
+        assertEquals(new BigDecimal("101.00"), obtemContaDoBanco(poupanca).getSaldo());
+    }
+
+    @Test
+    void testeRecusaDataFutura() throws Exception {
+        Conta poupanca = criarPoupanca(new BigDecimal("100.00"));
+
+        mvc.perform(post("/rendimento").param("data", LocalDate.now().plusDays(1).toString()))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(new BigDecimal("100.00"), obtemContaDoBanco(poupanca).getSaldo());
+    }
+
+    @Test
+    void testeRecusaDataAnteriorAoUltimoDiaConcluido() throws Exception {
+        mvc.perform(post("/rendimento").param("data", "2004-01-02"))
+                .andExpect(status().isOk());
+        Conta poupanca = criarPoupanca(new BigDecimal("100.00"));
+
+        mvc.perform(post("/rendimento").param("data", "2004-01-01"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(new BigDecimal("100.00"), obtemContaDoBanco(poupanca).getSaldo());
+        assertTrue(checkpoints.findById(LocalDate.of(2004, 1, 1)).isEmpty());
+    }
+
+    @Test
+    void testeCheckpointSoAvancaAPartirDaUltimaContaLida() {
+        LocalDate data = LocalDate.of(2005, 1, 1);
+        checkpoints.iniciar(data);
+
+        assertEquals(1, checkpoints.avancar(data, 0, 10, 1, new BigDecimal("1.00")));
+        assertEquals(0, checkpoints.avancar(data, 0, 20, 1, new BigDecimal("1.00")));
+
+        assertEquals(10, checkpoints.findById(data).orElseThrow().getUltimaConta());
+    }
+
+    @Test
+    void testeContaQuenteRendeSobreAsParcelasNaoConsolidadas() throws Exception {
+        Conta poupanca = criarPoupanca(new BigDecimal("50.00"));
+        jdbc.update("insert into SUBSALDO (NUMERO_CONTA, SLOT, SALDO) values (?, 0, 50.00)",
+                poupanca.getNumeroConta());
+
+        mvc.perform(post("/rendimento").param("data", "2006-01-01"))
+                .andExpect(status().isOk());
+
+        assertEquals(new BigDecimal("51.00"), obtemContaDoBanco(poupanca).getSaldo());
+        assertEquals(new BigDecimal("101.00"), subSaldos.buscarSaldoTotal(poupanca.getNumeroConta()));
+    }
+
+    private Conta criarPoupanca(BigDecimal saldo) {
+        Conta conta = repository.save(new Conta(ModalidadeConta.CP, null));
+        conta.deposito(saldo);
+        return repository.save(conta);
+    }
+}
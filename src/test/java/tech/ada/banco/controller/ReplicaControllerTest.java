@@ -0,0 +1,78 @@
+package tech.ada.banco.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.services.Deposito;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "banco.replica.habilitada=true")
+class ReplicaControllerTest extends BaseContaTest {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private Deposito deposito;
+
+    @Test
+    void testeConsultaVaiParaAReplicaEEscritaParaOPrimario() throws Exception {
+        Conta conta = criarConta(BigDecimal.TEN);
+
+        double primario = conexoes("primario");
+        double replica = conexoes("replica");
+        mvc.perform(get("/contas/" + conta.getNumeroConta()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saldo").value(10.0));
+        assertEquals(primario, conexoes("primario"));
+        assertTrue(conexoes("replica") > replica);
+
+        replica = conexoes("replica");
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "1"))
+                .andExpect(status().isOk());
+        assertEquals(replica, conexoes("replica"));
+        assertEquals(BigDecimal.valueOf(11).setScale(2), obtemContaDoBanco(conta).getSaldo());
+    }
+
+    @Test
+    void testeLeituraDepoisDaEscritaNaMesmaRequisicaoVaiParaOPrimario() {
+        Conta conta = criarConta(BigDecimal.TEN);
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            deposito.executar(conta.getNumeroConta(), BigDecimal.ONE);
+            double replica = conexoes("replica");
+            assertEquals(BigDecimal.valueOf(11).setScale(2),
+                    repository.buscarDados(conta.getNumeroConta()).orElseThrow().saldo());
+            assertEquals(replica, conexoes("replica"));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            double replica = conexoes("replica");
+            repository.buscarDados(conta.getNumeroConta()).orElseThrow();
+            assertTrue(conexoes("replica") > replica);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private double conexoes(String destino) {
+        return registry.get("banco.datasource.conexoes").tag("destino", destino).counter().count();
+    }
+}
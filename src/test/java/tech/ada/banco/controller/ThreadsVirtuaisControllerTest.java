@@ -0,0 +1,52 @@
+package tech.ada.banco.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import tech.ada.banco.config.LimiteDeConexoes;
+import tech.ada.banco.model.Conta;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {"banco.threads.virtuais=true", "banco.threads.limite-de-conexoes=1",
+        "banco.threads.espera-maxima-ms=50"})
+class ThreadsVirtuaisControllerTest extends BaseContaTest {
+
+    @Autowired
+    private LimiteDeConexoes limite;
+
+    @Test
+    void testeOperacaoDevolveAPermissaoAoTerminar() throws Exception {
+        Conta conta = criarConta(BigDecimal.ONE);
+
+        mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("3.00"));
+        mvc.perform(post("/saque/" + conta.getNumeroConta()).param("valor", "10"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(1, limite.getDisponiveis());
+    }
+
+    @Test
+    void testeOperacaoRecusadaQuandoOLimiteEstaEsgotado() throws Exception {
+        Conta conta = criarConta(BigDecimal.ONE);
+        limite.preHandle(null, null, null);
+        try {
+            mvc.perform(post("/deposito/" + conta.getNumeroConta()).param("valor", "2"))
+                    .andExpect(status().isServiceUnavailable());
+            mvc.perform(get("/contas/" + conta.getNumeroConta()))
+                    .andExpect(status().isOk());
+        } finally {
+            limite.afterCompletion(null, null, null, null);
+        }
+
+        assertEquals(BigDecimal.ONE.setScale(2), obtemContaDoBanco(conta).getSaldo());
+    }
+}
@@ -0,0 +1,148 @@
+package tech.ada.banco.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+
+    @TempDir
+    Path diretorio;
+
+    private List<RegistroDoJournal> lerTudo(Journal journal, long aPartirDe) {
+        List<RegistroDoJournal> registros = new ArrayList<>();
+        journal.ler(aPartirDe, registros::add);
+        return registros;
+    }
+
+    private long arquivos(String prefixo) throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(caminho -> caminho.getFileName().toString().startsWith(prefixo)).count();
+        }
+    }
+
+    @Test
+    void testeRegistrosLidosNaOrdemGravada() throws IOException {
+        try (Journal journal = new Journal(diretorio, 100, false)) {
+            assertEquals(1, journal.registrar(TipoRegistro.DEPOSITO, 10, 10, 500));
+            assertEquals(2, journal.registrar(TipoRegistro.PIX, 10, 11, 200));
+
+            List<RegistroDoJournal> registros = lerTudo(journal, 1);
+
+            assertEquals(2, registros.size());
+            RegistroDoJournal pix = registros.get(1);
+            assertEquals(2, pix.sequencia());
+            assertEquals(TipoRegistro.PIX, pix.tipo());
+            assertEquals(10, pix.contaOrigem());
+            assertEquals(11, pix.contaDestino());
+            assertEquals(200, pix.centavos());
+            assertTrue(pix.instante() > 0);
+        }
+    }
+
+    @Test
+    void testeReaberturaContinuaASequencia() throws IOException {
+        try (Journal journal = new Journal(diretorio, 100, false)) {
+            journal.registrar(TipoRegistro.DEPOSITO, 10, 10, 500);
+            journal.registrar(TipoRegistro.SAQUE, 10, 10, 100);
+        }
+        try (Journal journal = new Journal(diretorio, 100, false)) {
+            assertEquals(2, journal.getUltimaSequencia());
+            assertEquals(3, journal.registrar(TipoRegistro.SAQUE, 10, 10, 50));
+            assertEquals(3, lerTudo(journal, 1).size());
+        }
+    }
+
+    @Test
+    void testeSegmentosRoladosQuandoCheios() throws IOException {
+        try (Journal journal = new Journal(diretorio, 3, false)) {
+            for (int i = 1; i <= 7; i++) {
+                journal.registrar(TipoRegistro.DEPOSITO, i, i, i);
+            }
+
+            assertEquals(3, arquivos("journal-"));
+            assertEquals(List.of(5L, 6L, 7L),
+                    lerTudo(journal, 5).stream().map(RegistroDoJournal::sequencia).toList());
+        }
+        try (Journal journal = new Journal(diretorio, 3, false)) {
+            assertEquals(8, journal.registrar(TipoRegistro.DEPOSITO, 8, 8, 8));
+            assertEquals(8, lerTudo(journal, 1).size());
+        }
+    }
+
+    @Test
+    void testeRegistroCorrompidoEncerraOJournal() throws IOException {
+        try (Journal journal = new Journal(diretorio, 100, false)) {
+            journal.registrar(TipoRegistro.DEPOSITO, 10, 10, 500);
+            journal.registrar(TipoRegistro.DEPOSITO, 10, 10, 700);
+        }
+        Path segmento;
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            segmento = arquivos.findFirst().orElseThrow();
+        }
+        try (RandomAccessFile arquivo = new RandomAccessFile(segmento.toFile(), "rw")) {
+            arquivo.seek(Journal.TAMANHO_DO_REGISTRO + 16);
+            arquivo.writeLong(999);
+        }
+
+        try (Journal journal = new Journal(diretorio, 100, false)) {
+            assertEquals(1, journal.getUltimaSequencia(), "O registro com CRC inválido deve ser descartado");
+            assertEquals(2, journal.registrar(TipoRegistro.DEPOSITO, 10, 10, 300));
+            assertEquals(300, lerTudo(journal, 2).get(0).centavos());
+        }
+    }
+
+    @Test
+    void testeRecuperacaoAplicaOJournalSobreOSnapshot() throws IOException {
+        try (Journal journal = new Journal(diretorio, 100, false)) {
+            journal.registrar(TipoRegistro.CARGA, 10, 10, 1000);
+            journal.registrar(TipoRegistro.CARGA, 11, 11, 0);
+            journal.registrar(TipoRegistro.PIX, 10, 11, 300);
+            journal.gravarSnapshot(journal.getUltimaSequencia(), Map.of(10, 700L, 11, 300L));
+
+            journal.registrar(TipoRegistro.DEPOSITO, 10, 10, 50);
+            journal.registrar(TipoRegistro.SAQUE, 11, 11, 100);
+            journal.registrar(TipoRegistro.DEPOSITO, 12, 12, 999);
+            journal.registrar(TipoRegistro.CARGA, 13, 13, 20);
+            journal.registrar(TipoRegistro.PIX, 10, 13, 250);
+        }
+
+        try (Journal journal = new Journal(diretorio, 100, false)) {
+            assertEquals(3, journal.ultimoSnapshot().sequencia());
+            assertEquals(Map.of(10, 500L, 11, 200L, 13, 270L), journal.recuperarSaldos(),
+                    "Contas sem carga nem snapshot, como a 12, não têm saldo de partida e ficam de fora");
+        }
+    }
+
+    @Test
+    void testeSnapshotCorrompidoCaiParaOAnterior() throws IOException {
+        try (Journal journal = new Journal(diretorio, 100, false)) {
+            journal.registrar(TipoRegistro.CARGA, 10, 10, 100);
+            journal.gravarSnapshot(1, Map.of(10, 100L));
+            journal.registrar(TipoRegistro.DEPOSITO, 10, 10, 5);
+            journal.gravarSnapshot(2, Map.of(10, 105L));
+            journal.registrar(TipoRegistro.DEPOSITO, 10, 10, 5);
+            journal.gravarSnapshot(3, Map.of(10, 110L));
+            assertEquals(2, arquivos("snapshot-"), "Só os dois snapshots mais recentes são mantidos");
+        }
+        Path ultimo = diretorio.resolve(String.format("snapshot-%020d.dat", 3));
+        byte[] conteudo = Files.readAllBytes(ultimo);
+        conteudo[conteudo.length - 1] ^= 1;
+        Files.write(ultimo, conteudo);
+
+        try (Journal journal = new Journal(diretorio, 100, false)) {
+            assertEquals(2, journal.ultimoSnapshot().sequencia());
+            assertEquals(Map.of(10, 110L), journal.recuperarSaldos());
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package tech.ada.banco.ledger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.exceptions.SaldoInsuficienteException;
+import tech.ada.banco.exceptions.ValorInvalidoException;
+import tech.ada.banco.journal.Journal;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.services.ContasQuentes;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LedgerEmMemoriaTest {
+
+    private final ContaRepository repository = Mockito.mock(ContaRepository.class);
+    private final LedgerEmMemoria ledger =
+            new LedgerEmMemoria(repository, TransactionOperations.withoutTransaction(), 4, 3_600_000, 500);
+
+    @AfterEach
+    void encerrar() throws InterruptedException {
+        ledger.encerrar();
+    }
+
+    @Test
+    void testeContaCarregadaUmaUnicaVez() {
+        when(repository.buscarSaldoEmCentavos(10)).thenReturn(1000L);
+
+        assertEquals(1500, ledger.creditar(10, 500));
+        assertEquals(1300, ledger.debitar(10, 200));
+
+        verify(repository, times(1)).buscarSaldoEmCentavos(10);
+        verify(repository, times(0)).save(any());
+    }
+
+    @Test
+    void testeValidacoesIguaisAsDaConta() {
+        when(repository.buscarSaldoEmCentavos(10)).thenReturn(100L);
+        when(repository.buscarSaldoEmCentavos(11)).thenReturn(null);
+
+        assertThrows(ResourceNotFoundException.class, () -> ledger.creditar(11, 1));
+        assertThrows(ValorInvalidoException.class, () -> ledger.creditar(10, -1));
+        assertThrows(SaldoInsuficienteException.class, () -> ledger.debitar(10, 101));
+        assertThrows(ValorInvalidoException.class, () -> ledger.creditar(10, Long.MAX_VALUE));
+        assertEquals(100, ledger.debitar(10, 0));
+    }
+
+    @Test
+    void testeTransferenciaSemSaldoNaoAlteraNenhumaConta() {
+        when(repository.buscarSaldoEmCentavos(3)).thenReturn(100L);
+        when(repository.buscarSaldoEmCentavos(5)).thenReturn(0L);
+
+        assertThrows(SaldoInsuficienteException.class, () -> ledger.transferir(3, 5, 101));
+        assertEquals(0, ledger.transferir(3, 5, 100));
+        assertEquals(100, ledger.creditar(5, 0));
+        assertEquals(100, ledger.transferir(5, 5, 40));
+    }
+
+    @Test
+    void testeGravacaoEmLoteDosSaldosAlterados() {
+        Conta conta = new Conta(ModalidadeConta.CC, null);
+        conta.setNumeroConta(10);
+        when(repository.buscarSaldoEmCentavos(10)).thenReturn(0L);
+        when(repository.findAllById(any())).thenReturn(List.of(conta));
+
+        ledger.creditar(10, 250);
+        assertEquals(1, ledger.getPendentes());
+        ledger.gravarPendentes();
+
+        assertEquals(0, ledger.getPendentes());
+        assertEquals(250, conta.getSaldoEmCentavos());
+    }
+
+    @Test
+    void testeGravacaoQueFalhaFicaPendente() {
+        when(repository.buscarSaldoEmCentavos(10)).thenReturn(0L);
+        when(repository.findAllById(any())).thenThrow(new IllegalStateException("banco fora"));
+
+        ledger.creditar(10, 250);
+        ledger.gravarPendentes();
+
+        assertEquals(1, ledger.getPendentes());
+    }
+
+    @Test
+    void testeTransferenciasConcorrentesConservamOTotal() throws Exception {
+        int contas = 16;
+        for (int i = 0; i < contas; i++) {
+            when(repository.buscarSaldoEmCentavos(i)).thenReturn(10_000L);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futuros = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int semente = t;
+            futuros.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    int origem = (semente + i) % contas;
+                    int destino = (semente * 7 + i * 3) % contas;
+                    try {
+                        ledger.transferir(origem, destino, 1 + i % 50);
+                    } catch (SaldoInsuficienteException e) {
+                        // esperado quando a origem zera
+                    }
+                }
+            }));
+        }
+        for (Future<?> futuro : futuros) {
+            futuro.get();
+        }
+        executor.shutdown();
+
+        long total = 0;
+        for (int i = 0; i < contas; i++) {
+            long saldo = ledger.creditar(i, 0);
+            assertTrue(saldo >= 0);
+            total += saldo;
+        }
+        assertEquals(contas * 10_000L, total);
+    }
+
+    @Test
+    void testeRecuperacaoDoJournalSemConsultarOBanco(@TempDir Path diretorio) throws Exception {
+        when(repository.buscarSaldoEmCentavos(10)).thenReturn(1000L);
+        when(repository.buscarSaldoEmCentavos(11)).thenReturn(0L);
+        Journal journal = new Journal(diretorio, 100, false);
+        LedgerEmMemoria comJournal = new LedgerEmMemoria(repository, TransactionOperations.withoutTransaction(),
+                4, 3_600_000, 500, Optional.of(journal), 0, ContasQuentes.nenhuma());
+
+        comJournal.transferir(10, 11, 300);
+        comJournal.creditar(10, 50);
+        comJournal.tirarSnapshot();
+        comJournal.debitar(11, 100);
+        comJournal.transferir(10, 10, 5);
+        assertThrows(SaldoInsuficienteException.class, () -> comJournal.debitar(11, 201));
+        // parada abrupta: nada foi gravado na tabela CONTA
+        journal.close();
+
+        ContaRepository vazio = Mockito.mock(ContaRepository.class);
+        try (Journal reaberto = new Journal(diretorio, 100, false)) {
+            LedgerEmMemoria recuperado = new LedgerEmMemoria(vazio, TransactionOperations.withoutTransaction(),
+                    4, 3_600_000, 500, Optional.of(reaberto), 0, ContasQuentes.nenhuma());
+
+            assertEquals(2, recuperado.getPendentes(), "Os saldos recuperados devem ser regravados no banco");
+            assertEquals(750, recuperado.creditar(10, 0));
+            assertEquals(200, recuperado.creditar(11, 0));
+            verify(vazio, never()).buscarSaldoEmCentavos(anyInt());
+            recuperado.encerrar();
+        }
+    }
+
+    @Test
+    void testeContaQuenteCreditaEmParcelasSemPerderDinheiro() throws Exception {
+        when(repository.buscarSaldoEmCentavos(10)).thenReturn(0L);
+        ContasQuentes contasQuentes = new ContasQuentes(null, null, null, null, Set.of(10), 4, 0, "ledger");
+        LedgerEmMemoria comContaQuente = new LedgerEmMemoria(repository, TransactionOperations.withoutTransaction(),
+                4, 3_600_000, 500, Optional.empty(), 0, contasQuentes);
+        comContaQuente.creditar(10, 0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futuros = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futuros.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    comContaQuente.creditar(10, 3);
+                    if (i % 10 == 0) {
+                        comContaQuente.debitar(10, 1);
+                    }
+                }
+            }));
+        }
+        for (Future<?> futuro : futuros) {
+            futuro.get();
+        }
+        executor.shutdown();
+
+        assertEquals(8 * (10_000 * 3L - 1_000), comContaQuente.debitar(10, 0));
+        assertThrows(SaldoInsuficienteException.class, () -> comContaQuente.debitar(10, 8 * 29_000 + 1));
+        comContaQuente.encerrar();
+    }
+
+    @Test
+    void testeContaQuenteRecusaCreditoQueEstouraOSaldo() throws Exception {
+        when(repository.buscarSaldoEmCentavos(10)).thenReturn(Long.MAX_VALUE - 10);
+        ContasQuentes contasQuentes = new ContasQuentes(null, null, null, null, Set.of(10), 4, 0, "ledger");
+        LedgerEmMemoria comContaQuente = new LedgerEmMemoria(repository, TransactionOperations.withoutTransaction(),
+                4, 3_600_000, 500, Optional.empty(), 0, contasQuentes);
+
+        assertEquals(Long.MAX_VALUE - 5, comContaQuente.creditar(10, 5));
+        assertThrows(ValorInvalidoException.class, () -> comContaQuente.creditar(10, 6));
+
+        // a parcela recusada foi desfeita: consolidação, gravação e débitos continuam
+        comContaQuente.gravarPendentes();
+        assertEquals(Long.MAX_VALUE - 105, comContaQuente.debitar(10, 100));
+        comContaQuente.encerrar();
+    }
+}
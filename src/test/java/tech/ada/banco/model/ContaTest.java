@@ -2,6 +2,8 @@ package tech.ada.banco.model;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import tech.ada.banco.exceptions.SaldoInsuficienteException;
+import tech.ada.banco.exceptions.ValorInvalidoException;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -44,4 +46,31 @@ class ContaTest {
         assertEquals(BigDecimal.valueOf(7.9).setScale(2), conta.getSaldo());
     }
 
+    @Test
+    void testeContaEmCentavos() {
+        conta = new Conta(ModalidadeConta.CC, pessoa);
+        conta.deposito(1042);
+        conta.saque(42);
+
+        assertEquals(1000, conta.getSaldoEmCentavos());
+        assertEquals(BigDecimal.TEN.setScale(2), conta.getSaldo());
+    }
+
+    @Test
+    void testeContaDepositoComOverflow() {
+        conta = new Conta(ModalidadeConta.CC, pessoa);
+        conta.deposito(Long.MAX_VALUE);
+
+        assertThrows(ValorInvalidoException.class, () -> conta.deposito(1));
+        assertEquals(Long.MAX_VALUE, conta.getSaldoEmCentavos());
+    }
+
+    @Test
+    void testeContaSaqueAcimaDoSaldoEmCentavos() {
+        conta = new Conta(ModalidadeConta.CC, pessoa);
+        conta.deposito(100);
+
+        assertThrows(SaldoInsuficienteException.class, () -> conta.saque(101));
+        assertEquals(100, conta.getSaldoEmCentavos());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package tech.ada.banco.model;
+
+import org.junit.jupiter.api.Test;
+import tech.ada.banco.exceptions.ValorInvalidoException;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DinheiroTest {
+
+    @Test
+    void testeConversaoParaCentavosArredonda() {
+        assertEquals(143, Dinheiro.centavos(BigDecimal.valueOf(1.42857)));
+        assertEquals(142, Dinheiro.centavos(BigDecimal.valueOf(1.42321)));
+        assertEquals(1000, Dinheiro.centavos(BigDecimal.TEN));
+        assertEquals(-7, Dinheiro.centavos(BigDecimal.valueOf(-0.07)));
+    }
+
+    @Test
+    void testeConversaoParaReaisTemDuasCasas() {
+        assertEquals(new BigDecimal("11.58"), Dinheiro.reais(1158));
+        assertEquals(new BigDecimal("0.00"), Dinheiro.reais(0));
+    }
+
+    @Test
+    void testeValorForaDoLimiteEhInvalido() {
+        assertThrows(ValorInvalidoException.class, () -> Dinheiro.centavos(new BigDecimal("1e30")));
+        assertThrows(ValorInvalidoException.class, () -> Dinheiro.somar(Long.MAX_VALUE, 1));
+        assertThrows(ValorInvalidoException.class, () -> Dinheiro.subtrair(Long.MIN_VALUE, 1));
+    }
+}
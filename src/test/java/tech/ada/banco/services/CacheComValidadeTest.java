@@ -0,0 +1,72 @@
+package tech.ada.banco.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheComValidadeTest {
+
+    @Test
+    void testeDescartaAsMaisAntigasAoEncher() {
+        CacheComValidade<String> cache = new CacheComValidade<>(2, 60_000);
+
+        cache.guardar("a", "1");
+        cache.guardar("b", "2");
+        cache.guardar("a", "3");
+        cache.guardar("c", "4");
+
+        // guardar "a" de novo renova a validade e o põe no fim da fila
+        assertNull(cache.buscar("b"));
+        assertEquals("3", cache.buscar("a"));
+        assertEquals("4", cache.buscar("c"));
+        assertEquals(2, cache.tamanho());
+    }
+
+    @Test
+    void testeFilaNaoCresceComChavesInvalidadas() {
+        CacheComValidade<String> cache = new CacheComValidade<>(10, 60_000);
+        for (int i = 0; i < 1000; i++) {
+            cache.guardar("quente", "v" + i);
+            cache.remover("quente");
+        }
+        cache.guardar("quente", "final");
+
+        assertEquals("final", cache.buscar("quente"));
+        assertTrue(cache.tamanhoDaFila() <= 20);
+    }
+
+    @Test
+    void testeLimpezaMantemAOrdemDeExpiracao() throws InterruptedException {
+        CacheComValidade<String> cache = new CacheComValidade<>(10, 400);
+        cache.guardar("a", "1");
+        Thread.sleep(150);
+        cache.guardar("b", "2");
+        Thread.sleep(200);
+        cache.guardar("c", "3");
+        Thread.sleep(100);
+        // só "a" expirou; "b" continua na frente da fila
+        cache.removerExpiradas();
+        Thread.sleep(200);
+
+        cache.removerExpiradas();
+
+        assertEquals(1, cache.tamanho());
+        assertEquals("3", cache.buscar("c"));
+    }
+
+    @Test
+    void testeEntradasExpiram() throws InterruptedException {
+        CacheComValidade<String> cache = new CacheComValidade<>(10, 20);
+        cache.guardar("a", "1");
+        cache.guardar("b", "2");
+        assertEquals("1", cache.buscar("a"));
+
+        Thread.sleep(40);
+        cache.guardar("c", "3");
+        cache.removerExpiradas();
+
+        assertNull(cache.buscar("a"));
+        assertEquals(1, cache.tamanho());
+        assertEquals("3", cache.buscar("c"));
+    }
+}
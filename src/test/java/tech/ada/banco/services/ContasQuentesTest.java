@@ -0,0 +1,101 @@
+package tech.ada.banco.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionOperations;
+import tech.ada.banco.exceptions.SaldoInsuficienteException;
+import tech.ada.banco.metricas.MetricasDeOperacoes;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.Dinheiro;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.repository.ContaRepository;
+import tech.ada.banco.repository.SubSaldoRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "banco.retentativa.maximo-de-tentativas=50")
+class ContasQuentesTest {
+
+    @Autowired
+    private ContaRepository repository;
+    @Autowired
+    private SubSaldoRepository subSaldos;
+    @Autowired
+    private TransactionOperations transacao;
+    @Autowired
+    private Retentativa retentativa;
+
+    private int contaQuente;
+    private ContasQuentes contasQuentes;
+    private Deposito deposito;
+    private Saque saque;
+
+    @BeforeEach
+    void criarContaQuente() {
+        Conta conta = new Conta(ModalidadeConta.CC, null);
+        conta.deposito(BigDecimal.TEN);
+        contaQuente = repository.save(conta).getNumeroConta();
+        contasQuentes = new ContasQuentes(repository, subSaldos, transacao, retentativa, Set.of(contaQuente), 4, 0,
+                "jpa");
+        deposito = new Deposito(repository, retentativa, Optional.empty(), RegistroDeOperacoes.vazio(),
+                contasQuentes, MetricasDeOperacoes.desligadas(), false);
+        saque = new Saque(repository, retentativa, Optional.empty(), RegistroDeOperacoes.vazio(),
+                contasQuentes, MetricasDeOperacoes.desligadas(), false);
+    }
+
+    @AfterEach
+    void encerrar() {
+        contasQuentes.encerrar();
+    }
+
+    private long saldoNaTabelaConta() {
+        return repository.buscarSaldoEmCentavos(contaQuente);
+    }
+
+    @Test
+    void testeCreditoVaiParaAsParcelasESaqueVeOTotal() {
+        assertEquals(BigDecimal.valueOf(15).setScale(2), deposito.executar(contaQuente, BigDecimal.valueOf(5)));
+        assertEquals(1000, saldoNaTabelaConta(), "O crédito deve ficar nas parcelas até a consolidação");
+        assertEquals(4, subSaldos.buscarSlots(contaQuente).size());
+
+        assertEquals(BigDecimal.ONE.setScale(2), saque.executar(contaQuente, BigDecimal.valueOf(14)));
+        assertEquals(100, saldoNaTabelaConta());
+        assertThrows(SaldoInsuficienteException.class, () -> saque.executar(contaQuente, BigDecimal.valueOf(2)));
+    }
+
+    @Test
+    void testeDepositosESaquesConcorrentesNaoPerdemDinheiro() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futuros = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            futuros.add(executor.submit(() -> deposito.executar(contaQuente, BigDecimal.ONE)));
+            if (i % 20 == 0) {
+                futuros.add(executor.submit(() -> saque.executar(contaQuente, BigDecimal.valueOf(2))));
+            }
+            if (i % 50 == 0) {
+                futuros.add(executor.submit(contasQuentes::consolidarTodas));
+            }
+        }
+        for (Future<?> futuro : futuros) {
+            futuro.get();
+        }
+        executor.shutdown();
+
+        long esperado = Dinheiro.centavos(BigDecimal.valueOf(10 + 400 - 2 * 20));
+        assertEquals(esperado, Dinheiro.centavos(subSaldos.buscarSaldoTotal(contaQuente)));
+        contasQuentes.consolidar(contaQuente);
+        assertEquals(esperado, saldoNaTabelaConta());
+    }
+}
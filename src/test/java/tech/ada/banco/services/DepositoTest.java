@@ -2,13 +2,17 @@ package tech.ada.banco.services;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionOperations;
 import tech.ada.banco.exceptions.ResourceNotFoundException;
 import tech.ada.banco.exceptions.ValorInvalidoException;
+import tech.ada.banco.metricas.MetricasDeOperacoes;
 import tech.ada.banco.model.Conta;
 import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.model.TipoOperacao;
 import tech.ada.banco.repository.ContaRepository;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -17,11 +21,13 @@ import static org.mockito.Mockito.*;
 class DepositoTest {
     private final ContaRepository repository = Mockito.mock(ContaRepository.class);
     private final Deposito deposito = new Deposito(repository);
+    private final Deposito depositoAtomico = new Deposito(repository, new Retentativa(), Optional.empty(),
+            RegistroDeOperacoes.vazio(), ContasQuentes.nenhuma(), MetricasDeOperacoes.desligadas(), true);
 
     private Conta criaConta(double valor, int numeroDaConta) {
         Conta conta = new Conta(ModalidadeConta.CC, null);
         conta.deposito(BigDecimal.valueOf(valor));
-        when(repository.findContaByNumeroConta(numeroDaConta)).thenReturn(Optional.of(conta));
+        when(repository.buscarSaldoDaConta(numeroDaConta)).thenReturn(Optional.of(conta));
         assertEquals(BigDecimal.valueOf(valor).setScale(2), conta.getSaldo(),
                 "O valor inicial da conta é " + valor);
         return conta;
@@ -33,7 +39,7 @@ class DepositoTest {
 
         BigDecimal retorno = deposito.executar(10, BigDecimal.TEN);
 
-        verify(repository, times(1)).save(conta);
+        verify(repository, times(1)).gravarSaldo(conta);
         assertEquals(BigDecimal.valueOf(11).setScale(2), retorno,
                 "O valor de retorno da função deve ser 11, a conta inicia com 1 e recebe 10");
         assertEquals(BigDecimal.valueOf(11).setScale(2), conta.getSaldo());
@@ -50,8 +56,8 @@ class DepositoTest {
 
         }
 
-        verify(repository, times(0)).save(any());
-        verify(repository, times(1)).findContaByNumeroConta(anyInt());
+        verify(repository, times(0)).gravarSaldo(any());
+        verify(repository, times(1)).buscarSaldoDaConta(anyInt());
         assertEquals(BigDecimal.valueOf(1).setScale(2), conta.getSaldo(), "O saldo da conta não pode ter sido alterado.");
     }
 
@@ -71,7 +77,7 @@ class DepositoTest {
         Conta conta = criaConta(1, 10);
         assertThrows(ResourceNotFoundException.class,
                 () -> deposito.executar(15, BigDecimal.valueOf(-10)));
-        verify(repository, times(0)).save(any());
+        verify(repository, times(0)).gravarSaldo(any());
         assertEquals(BigDecimal.valueOf(1).setScale(2), conta.getSaldo(), "O saldo da conta não se alterou");
     }
 
@@ -80,7 +86,7 @@ class DepositoTest {
         Conta conta = criaConta(10, 10);
 
         BigDecimal retorno = deposito.executar(10, BigDecimal.valueOf(1.42857));
-        verify(repository, times(1)).save(conta);
+        verify(repository, times(1)).gravarSaldo(conta);
         assertEquals(BigDecimal.valueOf(11.43).setScale(2), retorno,
                 "O valor de retorno da função deve ser 11.43, a conta inicia com 10 e recebe 1.43");
         assertEquals(BigDecimal.valueOf(11.43).setScale(2), conta.getSaldo());
@@ -91,10 +97,73 @@ class DepositoTest {
         Conta conta = criaConta(10, 10);
 
         BigDecimal retorno = deposito.executar(10, BigDecimal.valueOf(1.42321));
-        verify(repository, times(1)).save(conta);
+        verify(repository, times(1)).gravarSaldo(conta);
         assertEquals(BigDecimal.valueOf(11.42).setScale(2), retorno,
                 "O valor de retorno da função deve ser 11.42, a conta inicia com 10 e recebe 1.42");
         assertEquals(BigDecimal.valueOf(11.42).setScale(2), conta.getSaldo());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testeDepositoAtomicoNaoCarregaAConta() {
+        when(repository.creditarSaldo(10, 143L)).thenReturn(1143L);
+
+        BigDecimal retorno = depositoAtomico.executar(10, BigDecimal.valueOf(1.42857));
+
+        assertEquals(BigDecimal.valueOf(11.43), retorno);
+        verify(repository, times(0)).buscarSaldoDaConta(anyInt());
+        verify(repository, times(0)).gravarSaldo(any());
+    }
+
+    @Test
+    void testeDepositoAtomicoDeValorNegativo() {
+        assertThrows(ValorInvalidoException.class,
+                () -> depositoAtomico.executar(10, BigDecimal.valueOf(-10)));
+        verify(repository, times(0)).creditarSaldo(anyInt(), anyLong());
+    }
+
+
+    @Test
+    void testeDepositoRegistradoParaOsOuvintes() {
+        criaConta(1, 10);
+        OuvinteDeOperacoes ouvinte = mock(OuvinteDeOperacoes.class);
+        Deposito comOuvinte = new Deposito(repository, new Retentativa(), Optional.empty(),
+                new RegistroDeOperacoes(List.of(ouvinte)), ContasQuentes.nenhuma(), MetricasDeOperacoes.desligadas(),
+                false);
+
+        comOuvinte.executar(10, BigDecimal.valueOf(2.5));
+        assertThrows(ValorInvalidoException.class, () -> comOuvinte.executar(10, BigDecimal.valueOf(-1)));
+
+        verify(ouvinte, times(1)).operacaoRealizada(TipoOperacao.DEPOSITO, 10, 10, 250);
+        verifyNoMoreInteractions(ouvinte);
+    }
+
+    @Test
+    void testeFalhaDoOuvinteNaoDesfazODeposito() {
+        Conta conta = criaConta(1, 10);
+        OuvinteDeOperacoes ouvinte = mock(OuvinteDeOperacoes.class);
+        doThrow(new IllegalStateException("disco cheio")).when(ouvinte)
+                .operacaoRealizada(any(), anyInt(), anyInt(), anyLong());
+        Deposito comOuvinte = new Deposito(repository, new Retentativa(), Optional.empty(),
+                new RegistroDeOperacoes(List.of(ouvinte)), ContasQuentes.nenhuma(), MetricasDeOperacoes.desligadas(),
+                false);
+
+        assertEquals(BigDecimal.valueOf(3.5).setScale(2), comOuvinte.executar(10, BigDecimal.valueOf(2.5)));
+        verify(repository, times(1)).gravarSaldo(conta);
+    }
+
+    @Test
+    void testeMovimentoGravadoComOSaldo() {
+        Conta conta = criaConta(1, 10);
+        ExtratoDasOperacoes extrato = mock(ExtratoDasOperacoes.class);
+        doThrow(new IllegalStateException("falha no insert")).when(extrato)
+                .lancar(TipoOperacao.DEPOSITO, 10, 10, 250);
+        Deposito comExtrato = new Deposito(repository, new Retentativa(), Optional.empty(),
+                new RegistroDeOperacoes(List.of(), extrato, TransactionOperations.withoutTransaction()),
+                ContasQuentes.nenhuma(), MetricasDeOperacoes.desligadas(), false);
+
+        assertThrows(IllegalStateException.class, () -> comExtrato.executar(10, BigDecimal.valueOf(2.5)),
+                "A falha do movimento precisa chegar à transação do saldo para desfazê-la");
+        verify(repository, times(1)).gravarSaldo(conta);
+        verify(extrato, times(1)).lancar(TipoOperacao.DEPOSITO, 10, 10, 250);
+    }
+}
@@ -0,0 +1,52 @@
+package tech.ada.banco.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import tech.ada.banco.model.Pessoa;
+import tech.ada.banco.repository.PessoaRepository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PessoasPorCpfTest {
+
+    private static final String CPF = "123.456.789-09";
+
+    private final PessoaRepository repository = Mockito.mock(PessoaRepository.class);
+    private final PessoasPorCpf pessoas = new PessoasPorCpf(repository, new SimpleMeterRegistry(), 10, 60_000);
+
+    @Test
+    void testeSegundaBuscaVemDoCache() {
+        Pessoa ana = new Pessoa("Ana", CPF, LocalDate.of(1980, 1, 1));
+        when(repository.buscarPorCpfNormalizado("12345678909")).thenReturn(Optional.of(ana));
+
+        assertEquals(ana, pessoas.buscar(CPF).orElseThrow());
+        assertEquals(ana, pessoas.buscar("12345678909").orElseThrow());
+
+        verify(repository, times(1)).buscarPorCpfNormalizado("12345678909");
+    }
+
+    @Test
+    void testeLeituraQueCruzaComInvalidacaoNaoFicaNoCache() {
+        Pessoa antiga = new Pessoa("Ana", CPF, LocalDate.of(1980, 1, 1));
+        Pessoa atualizada = new Pessoa("Ana Maria", CPF, LocalDate.of(1980, 1, 1));
+        when(repository.buscarPorCpfNormalizado("12345678909"))
+                .thenAnswer(leitura -> {
+                    // a alteração é gravada e invalidada enquanto a linha antiga está sendo lida
+                    pessoas.invalidar(CPF);
+                    return Optional.of(antiga);
+                })
+                .thenReturn(Optional.of(atualizada));
+
+        assertEquals(antiga, pessoas.buscar(CPF).orElseThrow());
+
+        assertEquals(atualizada, pessoas.buscar(CPF).orElseThrow());
+        verify(repository, times(2)).buscarPorCpfNormalizado("12345678909");
+    }
+}
@@ -0,0 +1,60 @@
+package tech.ada.banco.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import tech.ada.banco.model.Conta;
+import tech.ada.banco.model.ModalidadeConta;
+import tech.ada.banco.repository.ContaRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "banco.retentativa.maximo-de-tentativas=50")
+class PixConcorrenciaTest {
+
+    @Autowired
+    private ContaRepository repository;
+    @Autowired
+    private Pix pix;
+    @Autowired
+    private Deposito deposito;
+
+    private int criarConta(BigDecimal saldo) {
+        Conta conta = new Conta(ModalidadeConta.CC, null);
+        conta.deposito(saldo);
+        return repository.save(conta).getNumeroConta();
+    }
+
+    @Test
+    void testeTransferenciasConcorrentesEmSentidosOpostosNaoPerdemDinheiro() throws Exception {
+        int contaA = criarConta(BigDecimal.valueOf(1000));
+        int contaB = criarConta(BigDecimal.valueOf(1000));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futuros = new ArrayList<>();
+
+        for (int i = 0; i < 200; i++) {
+            int origem = i % 2 == 0 ? contaA : contaB;
+            int destino = i % 2 == 0 ? contaB : contaA;
+            futuros.add(executor.submit(() -> pix.executar(origem, destino, BigDecimal.ONE)));
+            if (i % 10 == 0) {
+                futuros.add(executor.submit(() -> deposito.executar(contaA, BigDecimal.ONE)));
+            }
+        }
+        for (Future<?> futuro : futuros) {
+            futuro.get();
+        }
+        executor.shutdown();
+
+        BigDecimal saldoA = repository.findContaByNumeroConta(contaA).orElseThrow().getSaldo();
+        BigDecimal saldoB = repository.findContaByNumeroConta(contaB).orElseThrow().getSaldo();
+        assertEquals(BigDecimal.valueOf(2020).setScale(2), saldoA.add(saldoB));
+        assertEquals(BigDecimal.valueOf(1020).setScale(2), saldoA);
+    }
+}
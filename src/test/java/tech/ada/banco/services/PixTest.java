@@ -1,8 +1,12 @@
 package tech.ada.banco.services;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionOperations;
 import tech.ada.banco.exceptions.ResourceNotFoundException;
+import tech.ada.banco.exceptions.ValorInvalidoException;
+import tech.ada.banco.metricas.MetricasDeOperacoes;
 import tech.ada.banco.model.Conta;
 import tech.ada.banco.model.ModalidadeConta;
 import tech.ada.banco.repository.ContaRepository;
@@ -16,11 +20,14 @@ import static org.mockito.Mockito.*;
 class PixTest {
     private final ContaRepository repository = Mockito.mock(ContaRepository.class);
     private final Pix pix = new Pix(repository);
+    private final Pix pixAtomico = new Pix(repository, TransactionOperations.withoutTransaction(), new Retentativa(),
+            Optional.empty(), RegistroDeOperacoes.vazio(), ContasQuentes.nenhuma(), MetricasDeOperacoes.desligadas(),
+            true);
 
     private Conta criaConta(double valor, int numeroDaConta) {
         Conta conta = new Conta(ModalidadeConta.CC, null);
         conta.deposito(BigDecimal.valueOf(valor));
-        when(repository.findContaByNumeroConta(numeroDaConta)).thenReturn(Optional.of(conta));
+        when(repository.findContaParaAtualizacao(numeroDaConta)).thenReturn(Optional.of(conta));
         assertEquals(BigDecimal.valueOf(valor).setScale(2), conta.getSaldo(),
                 "O saldo inicial da conta origem deve ser de " + valor);
         return conta;
@@ -157,4 +164,45 @@ class PixTest {
                 "O saldo da conta não pode ter sido alterado.");
     }
 
+    @Test
+    void testTransferenciaPixAtomicaNaoCarregaAsContas() {
+        when(repository.transferirSaldo(3, 5, 142L)).thenReturn(1158L);
+
+        BigDecimal retornoDaTransferencia = pixAtomico.executar(3, 5, BigDecimal.valueOf(1.42));
+
+        assertEquals(BigDecimal.valueOf(11.58), retornoDaTransferencia);
+        verify(repository, times(0)).findContaByNumeroConta(anyInt());
+        verify(repository, times(0)).save(any());
+    }
+
+    @Test
+    void testTransferenciaPixAtomicaValorNegativo() {
+        assertThrows(ValorInvalidoException.class, () -> pixAtomico.executar(3, 5, BigDecimal.valueOf(-1)));
+        verify(repository, times(0)).transferirSaldo(anyInt(), anyInt(), anyLong());
+    }
+
+    @Test
+    void testTransferenciaPixBloqueiaContasEmOrdemCrescente() {
+        Conta contaOrigem = criaConta(10, 5);
+        Conta contaDestino = criaConta(0, 3);
+
+        pix.executar(5, 3, BigDecimal.valueOf(4));
+
+        InOrder ordem = inOrder(repository);
+        ordem.verify(repository).findContaParaAtualizacao(3);
+        ordem.verify(repository).findContaParaAtualizacao(5);
+        assertEquals(BigDecimal.valueOf(6).setScale(2), contaOrigem.getSaldo());
+        assertEquals(BigDecimal.valueOf(4).setScale(2), contaDestino.getSaldo());
+    }
+
+    @Test
+    void testTransferenciaPixParaAPropriaContaNaoAlteraSaldo() {
+        Conta conta = criaConta(10, 3);
+
+        BigDecimal retornoDaTransferencia = pix.executar(3, 3, BigDecimal.valueOf(4));
+
+        verify(repository, times(1)).findContaParaAtualizacao(3);
+        assertEquals(BigDecimal.TEN.setScale(2), retornoDaTransferencia);
+        assertEquals(BigDecimal.TEN.setScale(2), conta.getSaldo());
+    }
 }
\ No newline at end of file
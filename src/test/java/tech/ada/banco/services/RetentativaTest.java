@@ -0,0 +1,91 @@
+package tech.ada.banco.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import tech.ada.banco.exceptions.ConflitoDeConcorrenciaException;
+import tech.ada.banco.exceptions.SaldoInsuficienteException;
+import tech.ada.banco.model.Conta;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetentativaTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Retentativa retentativa = new Retentativa(3, 1, 2, registry);
+
+    @Test
+    void testeRetentaAposConflitoOtimista() {
+        AtomicInteger chamadas = new AtomicInteger();
+
+        String resultado = retentativa.executar(() -> {
+            if (chamadas.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Conta.class, 10);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", resultado);
+        assertEquals(3, chamadas.get());
+        assertEquals(2, retentativa.getRetentativas());
+        assertEquals(0, retentativa.getAbortos());
+    }
+
+    @Test
+    void testeAbortaAposMaximoDeTentativas() {
+        AtomicInteger chamadas = new AtomicInteger();
+
+        ConflitoDeConcorrenciaException e = assertThrows(ConflitoDeConcorrenciaException.class,
+                () -> retentativa.executar(() -> {
+                    chamadas.incrementAndGet();
+                    throw new CannotAcquireLockException("lock");
+                }));
+
+        assertInstanceOf(CannotAcquireLockException.class, e.getCause());
+        assertEquals(503, e.getStatusCode().value());
+        assertEquals("1", e.getHeaders().getFirst("Retry-After"));
+        assertEquals(3, chamadas.get());
+        assertEquals(2, retentativa.getRetentativas());
+        assertEquals(1, retentativa.getAbortos());
+        assertEquals(2.0, registry.get("banco.retentativa").tag("resultado", "retentativa").functionCounter().count());
+        assertEquals(1.0, registry.get("banco.retentativa").tag("resultado", "aborto").functionCounter().count());
+    }
+
+    @Test
+    void testeInterrupcaoNaEsperaDevolveConflitoEMantemAInterrupcao() {
+        AtomicInteger chamadas = new AtomicInteger();
+        Thread.currentThread().interrupt();
+        try {
+            ConflitoDeConcorrenciaException e = assertThrows(ConflitoDeConcorrenciaException.class,
+                    () -> retentativa.executar(() -> {
+                        chamadas.incrementAndGet();
+                        throw new CannotAcquireLockException("lock");
+                    }));
+
+            assertInstanceOf(CannotAcquireLockException.class, e.getCause());
+            assertEquals(503, e.getStatusCode().value());
+            assertTrue(Thread.currentThread().isInterrupted());
+            assertEquals(1, chamadas.get());
+            assertEquals(1, retentativa.getAbortos());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void testeNaoRetentaErroDeNegocio() {
+        AtomicInteger chamadas = new AtomicInteger();
+
+        assertThrows(SaldoInsuficienteException.class, () -> retentativa.executar(() -> {
+            chamadas.incrementAndGet();
+            throw new SaldoInsuficienteException();
+        }));
+
+        assertEquals(1, chamadas.get());
+        assertEquals(0, retentativa.getRetentativas());
+        assertEquals(0, retentativa.getAbortos());
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import tech.ada.banco.exceptions.ResourceNotFoundException;
 import tech.ada.banco.exceptions.SaldoInsuficienteException;
+import tech.ada.banco.metricas.MetricasDeOperacoes;
 import tech.ada.banco.model.Conta;
 import tech.ada.banco.model.ModalidadeConta;
 import tech.ada.banco.repository.ContaRepository;
@@ -15,6 +16,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -23,11 +25,13 @@ class SaqueTest {
 
     private final ContaRepository repository = Mockito.mock(ContaRepository.class);
     private final Saque saque = new Saque(repository);
+    private final Saque saqueAtomico = new Saque(repository, new Retentativa(), Optional.empty(),
+            RegistroDeOperacoes.vazio(), ContasQuentes.nenhuma(), MetricasDeOperacoes.desligadas(), true);
 
 private Conta criarConta(double valor, int numeroDaConta){
     Conta conta = new Conta(ModalidadeConta.CC, null);
     conta.deposito(BigDecimal.valueOf(valor));
-    when(repository.findContaByNumeroConta(numeroDaConta)).thenReturn(Optional.of(conta));
+    when(repository.buscarSaldoDaConta(numeroDaConta)).thenReturn(Optional.of(conta));
     assertEquals(BigDecimal.valueOf(valor).setScale(2), conta.getSaldo(),
             "O saldo inicial da conta deve ser alterado para " + valor);
     return conta;
@@ -38,7 +42,7 @@ private Conta criarConta(double valor, int numeroDaConta){
 
         BigDecimal resp = saque.executar(10, BigDecimal.ONE.setScale(2));
 
-        verify(repository, times(1)).save(conta);
+        verify(repository, times(1)).gravarSaldo(conta);
         assertEquals(BigDecimal.valueOf(9).setScale(2), resp,
                 "O valor de retorno da função tem que ser 9.00" +
                         "Saldo anterior vale 10.00 e o valor de saque é 1.00");
@@ -50,7 +54,7 @@ private Conta criarConta(double valor, int numeroDaConta){
 
         BigDecimal resp = saque.executar(10, BigDecimal.TEN.setScale(2));
 
-        verify(repository, times(1)).save(conta);
+        verify(repository, times(1)).gravarSaldo(conta);
         assertEquals(BigDecimal.valueOf(0).setScale(2), resp,
                 "O valor de retorno da função tem que ser 0.00" +
                         "Saldo anterior vale 10.00 e o valor de saque é 10.00");
@@ -68,7 +72,7 @@ private Conta criarConta(double valor, int numeroDaConta){
 
         }
 
-        verify(repository, times(0)).save(any());
+        verify(repository, times(0)).gravarSaldo(any());
         assertEquals(BigDecimal.valueOf(10).setScale(2), conta.getSaldo(),
                 "O saldo da conta não pode ter sido alterado.");
     }
@@ -84,7 +88,7 @@ private Conta criarConta(double valor, int numeroDaConta){
 
         }
 
-        verify(repository, times(0)).save(any());
+        verify(repository, times(0)).gravarSaldo(any());
         assertEquals(BigDecimal.valueOf(10).setScale(2), conta.getSaldo(),
                 "O saldo da conta não pode ter sido alterado.");
     }
@@ -94,7 +98,7 @@ private Conta criarConta(double valor, int numeroDaConta){
         Conta conta = criarConta(5,10);
 
         assertThrows(SaldoInsuficienteException.class, () -> saque.executar(10, BigDecimal.valueOf(6)));
-        verify(repository, times(0)).save(any());
+        verify(repository, times(0)).gravarSaldo(any());
         assertEquals(BigDecimal.valueOf(5).setScale(2), conta.getSaldo(), "O saldo da conta não se alterou");
 
     }
@@ -104,7 +108,7 @@ private Conta criarConta(double valor, int numeroDaConta){
 
         BigDecimal resp = saque.executar(10, BigDecimal.valueOf(1.42857));
 
-        verify(repository, times(1)).save(conta);
+        verify(repository, times(1)).gravarSaldo(conta);
         assertEquals(BigDecimal.valueOf(3.57).setScale(2), resp,
                 "O valor de retorno da função tem que ser 8.57" +
                         "Saldo anterior vale 10.00 e o valor de saque é 1.43");
@@ -117,11 +121,31 @@ private Conta criarConta(double valor, int numeroDaConta){
 
         BigDecimal resp = saque.executar(10, BigDecimal.valueOf(1.42358));
 
-        verify(repository, times(1)).save(conta);
+        verify(repository, times(1)).gravarSaldo(conta);
         assertEquals(BigDecimal.valueOf(3.58).setScale(2), resp,
                 "O valor de retorno da função tem que ser 8.57" +
                         "Saldo anterior vale 10.00 e o valor de saque é 1.42");
         assertEquals(BigDecimal.valueOf(3.58).setScale(2), conta.getSaldo());
 
     }
+
+    @Test
+    void testSaqueAtomicoNaoCarregaAConta() {
+        when(repository.debitarSaldo(10, 100L)).thenReturn(900L);
+
+        BigDecimal resp = saqueAtomico.executar(10, BigDecimal.ONE);
+
+        assertEquals(BigDecimal.valueOf(9).setScale(2), resp);
+        verify(repository, times(0)).buscarSaldoDaConta(anyInt());
+        verify(repository, times(0)).gravarSaldo(any());
+    }
+
+    @Test
+    void testSaqueAtomicoSemSaldo() {
+        when(repository.debitarSaldo(10, 1000L)).thenThrow(new SaldoInsuficienteException());
+
+        assertThrows(SaldoInsuficienteException.class, () -> saqueAtomico.executar(10, BigDecimal.TEN));
+        verify(repository, times(0)).gravarSaldo(any());
+    }
+
 }
\ No newline at end of file